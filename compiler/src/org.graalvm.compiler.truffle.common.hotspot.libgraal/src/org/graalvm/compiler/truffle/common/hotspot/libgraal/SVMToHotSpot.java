@@ -108,6 +108,7 @@ public @interface SVMToHotSpot {
         GetThrowableMessage(String.class, Throwable.class),
         GetTruffleCallBoundaryMethods(long[].class, HotSpotTruffleCompilerRuntime.class),
         GetURI(String.class, TruffleSourceLanguagePosition.class),
+        HasNextTier(boolean.class, TruffleCompilationTask.class),
         IsCancelled(boolean.class, TruffleCompilationTask.class),
         IsInliningForced(boolean.class, TruffleCallNode.class),
         IsLastTier(boolean.class, TruffleCompilationTask.class),
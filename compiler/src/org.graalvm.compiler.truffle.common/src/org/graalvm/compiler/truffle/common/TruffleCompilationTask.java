@@ -44,4 +44,12 @@ public interface TruffleCompilationTask {
     default boolean isFirstTier() {
         return !isLastTier();
     }
+
+    /**
+     * Returns {@code true} if the code produced by this compilation is later replaced by a higher
+     * tier and should therefore keep collecting profiles.
+     */
+    default boolean hasNextTier() {
+        return isFirstTier();
+    }
 }
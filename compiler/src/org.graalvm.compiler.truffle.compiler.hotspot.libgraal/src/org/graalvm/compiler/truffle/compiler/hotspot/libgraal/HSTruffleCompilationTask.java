@@ -25,8 +25,10 @@
 package org.graalvm.compiler.truffle.compiler.hotspot.libgraal;
 
 import org.graalvm.libgraal.jni.HSObject;
+import static org.graalvm.compiler.truffle.common.hotspot.libgraal.SVMToHotSpot.Id.HasNextTier;
 import static org.graalvm.compiler.truffle.common.hotspot.libgraal.SVMToHotSpot.Id.IsCancelled;
 import static org.graalvm.compiler.truffle.common.hotspot.libgraal.SVMToHotSpot.Id.IsLastTier;
+import static org.graalvm.compiler.truffle.compiler.hotspot.libgraal.HSTruffleCompilationTaskGen.callHasNextTier;
 import static org.graalvm.compiler.truffle.compiler.hotspot.libgraal.HSTruffleCompilationTaskGen.callIsCancelled;
 import static org.graalvm.compiler.truffle.compiler.hotspot.libgraal.HSTruffleCompilationTaskGen.callIsLastTier;
 import static org.graalvm.libgraal.jni.HotSpotToSVMScope.env;
@@ -57,4 +59,10 @@ final class HSTruffleCompilationTask extends HSObject implements TruffleCompilat
     public boolean isLastTier() {
         return callIsLastTier(env(), getHandle());
     }
+
+    @SVMToHotSpot(HasNextTier)
+    @Override
+    public boolean hasNextTier() {
+        return callHasNextTier(env(), getHandle());
+    }
 }
@@ -810,5 +810,10 @@ public abstract class TruffleCompilerImpl implements TruffleCompilerBase {
         public boolean isLastTier() {
             return delegate.isLastTier();
         }
+
+        @Override
+        public boolean hasNextTier() {
+            return delegate.hasNextTier();
+        }
     }
 }
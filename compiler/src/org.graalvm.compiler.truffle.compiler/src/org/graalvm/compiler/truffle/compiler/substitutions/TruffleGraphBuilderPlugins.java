@@ -231,6 +231,18 @@ public class TruffleGraphBuilderPlugins {
                 return true;
             }
         });
+        r.register0("hasNextTier", new InvocationPlugin() {
+            @Override
+            public boolean apply(GraphBuilderContext b, ResolvedJavaMethod targetMethod, Receiver receiver) {
+                boolean hasNextTier = false;
+                if (b.getGraph().getCancellable() instanceof TruffleCompilationTask) {
+                    hasNextTier = ((TruffleCompilationTask) b.getGraph().getCancellable()).hasNextTier();
+                }
+                // Without a compilation task there is no tier to profile for.
+                b.addPush(JavaKind.Boolean, ConstantNode.forBoolean(hasNextTier));
+                return true;
+            }
+        });
         r.register0("inCompilationRoot", new InvocationPlugin() {
             @Override
             public boolean apply(GraphBuilderContext b, ResolvedJavaMethod targetMethod, Receiver receiver) {
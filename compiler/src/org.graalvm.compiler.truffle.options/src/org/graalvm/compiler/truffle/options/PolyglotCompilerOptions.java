@@ -209,6 +209,10 @@ public final class PolyglotCompilerOptions {
     @Option(help = "Manually set the number of compiler threads", category = OptionCategory.EXPERT)
     public static final OptionKey<Integer> CompilerThreads = new OptionKey<>(0);
 
+    @Option(help = "Order queued compilations of the same tier by how fast their call targets currently gain calls and loop iterations, instead of first-in-first-out. " +
+                    "Each dequeue scans the whole queue.", category = OptionCategory.EXPERT)
+    public static final OptionKey<Boolean> TraversingCompilationQueue = new OptionKey<>(false);
+
     @Option(help = "Minimum number of invocations or loop iterations needed to compile a guest language root.",
                     category = OptionCategory.EXPERT)
     public static final OptionKey<Integer> CompilationThreshold = new OptionKey<>(1000);
@@ -219,6 +223,10 @@ public final class PolyglotCompilerOptions {
     @Option(help = "Delay compilation after an invalidation to allow for reprofiling. Deprecated: no longer has any effect.", category = OptionCategory.EXPERT, deprecated =  true)
     public static final OptionKey<Integer> InvalidationReprofileCount = new OptionKey<>(3);
 
+    @Option(help = "Number of times the compiled code of a call target may be invalidated for the same reason at the same location before the call target is only compiled with the first tier. " +
+                    "At twice the number, or without multi-tier compilation, the call target is no longer compiled. Disabled by default (0).", category = OptionCategory.EXPERT)
+    public static final OptionKey<Integer> DeoptimizationLoopThreshold = new OptionKey<>(0);
+
     @Option(help = "Delay compilation after a node replacement. Deprecated: no longer has any effect.", category = OptionCategory.EXPERT, deprecated =  true)
     public static final OptionKey<Integer> ReplaceReprofileCount = new OptionKey<>(3);
 
@@ -231,6 +239,15 @@ public final class PolyglotCompilerOptions {
     @Option(help = "Enable/disable builtin profiles in com.oracle.truffle.api.profiles.", category = OptionCategory.INTERNAL)
     public static final OptionKey<Boolean> Profiling = new OptionKey<>(true);
 
+    @Option(help = "Path of a file that records which call targets were compiled, with their speculated argument and return types. Targets recorded by an earlier run are compiled early, with the recorded profile.", category = OptionCategory.EXPERT)
+    public static final OptionKey<String> ProfileCache = new OptionKey<>("");
+
+    @Option(help = "Number of invocations after which a call target recorded in the profile cache is compiled.", category = OptionCategory.EXPERT)
+    public static final OptionKey<Integer> ProfileCacheReplayThreshold = new OptionKey<>(10);
+
+    @Option(help = "Count calls, compilations, deoptimizations and invalidations per call target and publish them through the platform MBean server. Calls into last-tier code are not counted.", category = OptionCategory.EXPERT)
+    public static final OptionKey<Boolean> CallTargetMetrics = new OptionKey<>(true);
+
     // MultiTier
 
     @Option(help = "Whether to use multiple Truffle compilation tiers by default.", category = OptionCategory.EXPERT)
@@ -243,6 +260,9 @@ public final class PolyglotCompilerOptions {
     @Option(help = "Minimum number of calls before a call target is compiled in the first tier.", category = OptionCategory.EXPERT)
     public static final OptionKey<Integer> FirstTierMinInvokeThreshold = new OptionKey<>(1);
 
+    @Option(help = "Keep collecting call and loop profiles in first tier compiled code until the last tier compilation is installed.", category = OptionCategory.EXPERT)
+    public static final OptionKey<Boolean> FirstTierProfiling = new OptionKey<>(true);
+
     // Failed compilation behavior
 
     @Option(help = "Prints the exception stack trace for compilation exceptions", category = OptionCategory.INTERNAL, deprecated = true, deprecationMessage = "Use 'engine.CompilationFailureAction=Print'")
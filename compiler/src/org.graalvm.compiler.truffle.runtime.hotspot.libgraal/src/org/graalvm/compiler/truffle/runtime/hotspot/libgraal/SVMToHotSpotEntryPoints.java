@@ -68,6 +68,7 @@ import static org.graalvm.compiler.truffle.common.hotspot.libgraal.SVMToHotSpot.
 import static org.graalvm.compiler.truffle.common.hotspot.libgraal.SVMToHotSpot.Id.GetThrowableMessage;
 import static org.graalvm.compiler.truffle.common.hotspot.libgraal.SVMToHotSpot.Id.GetTruffleCallBoundaryMethods;
 import static org.graalvm.compiler.truffle.common.hotspot.libgraal.SVMToHotSpot.Id.GetURI;
+import static org.graalvm.compiler.truffle.common.hotspot.libgraal.SVMToHotSpot.Id.HasNextTier;
 import static org.graalvm.compiler.truffle.common.hotspot.libgraal.SVMToHotSpot.Id.IsCancelled;
 import static org.graalvm.compiler.truffle.common.hotspot.libgraal.SVMToHotSpot.Id.IsInliningForced;
 import static org.graalvm.compiler.truffle.common.hotspot.libgraal.SVMToHotSpot.Id.IsLastTier;
@@ -365,6 +366,11 @@ final class SVMToHotSpotEntryPoints {
         return task.isLastTier();
     }
 
+    @SVMToHotSpot(HasNextTier)
+    static boolean hasNextTier(TruffleCompilationTask task) {
+        return task.hasNextTier();
+    }
+
     @SVMToHotSpot(CompilableToString)
     static String compilableToString(CompilableTruffleAST compilable) {
         return compilable.toString();
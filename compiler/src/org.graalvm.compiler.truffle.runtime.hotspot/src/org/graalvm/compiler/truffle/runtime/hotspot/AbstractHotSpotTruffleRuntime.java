@@ -153,6 +153,12 @@ public abstract class AbstractHotSpotTruffleRuntime extends GraalTruffleRuntime
         setDontInlineCallBoundaryMethod(boundaryMethods);
     }
 
+    @Override
+    protected void installDefaultListeners() {
+        super.installDefaultListeners();
+        CallTargetMetricsManagement.register();
+    }
+
     @Override
     public final Iterable<ResolvedJavaMethod> getTruffleCallBoundaryMethods() {
         return truffleCallBoundaryMethods;
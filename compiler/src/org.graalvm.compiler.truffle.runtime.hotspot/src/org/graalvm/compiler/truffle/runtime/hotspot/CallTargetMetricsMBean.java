@@ -0,0 +1,81 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.truffle.runtime.hotspot;
+
+import javax.management.openmbean.CompositeData;
+
+import org.graalvm.compiler.truffle.runtime.CallTargetMetrics;
+
+/**
+ * Management interface to the {@link CallTargetMetrics} of the Truffle runtime. The bean is
+ * registered with the platform MBean server under the name
+ * {@value CallTargetMetricsManagement#OBJECT_NAME}.
+ *
+ * The call target operations return one {@link CompositeData} per tracked call target with the
+ * items {@code name}, {@code engineId}, {@code interpretedCalls}, {@code firstTierCalls},
+ * {@code interpretedCallRatio}, {@code compilations}, {@code compilationFailures},
+ * {@code deoptimizations}, {@code invalidations}, {@code codeSize}, {@code queueWaitMillis},
+ * {@code compiled} and {@code compilationCapped}.
+ *
+ * The counts are kept per engine. The totals of this bean and the call target operations cover all
+ * engines with enabled call target metrics that are not closed yet.
+ */
+public interface CallTargetMetricsMBean {
+
+    long getCompilationCount();
+
+    long getCompilationFailureCount();
+
+    long getDeoptimizationCount();
+
+    long getInvalidationCount();
+
+    int getTrackedCallTargetCount();
+
+    /**
+     * Returns the totals of every open engine, with the items {@code engineId},
+     * {@code compilations}, {@code compilationFailures}, {@code deoptimizations},
+     * {@code invalidations} and {@code trackedCallTargets}.
+     */
+    CompositeData[] getEngines();
+
+    /**
+     * Returns up to {@code limit} call targets ordered by their number of counted calls, i.e. calls
+     * in the interpreter and in first-tier code.
+     */
+    CompositeData[] getHottestCallTargets(int limit);
+
+    /**
+     * Returns up to {@code limit} call targets ordered by their number of deoptimizations and
+     * invalidations. Call targets that keep being deoptimized and recompiled show up first.
+     */
+    CompositeData[] getMostDeoptimizedCallTargets(int limit);
+
+    /**
+     * Returns up to {@code limit} call targets ordered by their number of interpreted calls.
+     * Call targets that are hot but do not get or stay compiled show up first.
+     */
+    CompositeData[] getMostInterpretedCallTargets(int limit);
+}
@@ -0,0 +1,235 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.truffle.runtime.hotspot;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.MBeanRegistrationException;
+import javax.management.MBeanServerFactory;
+import javax.management.MalformedObjectNameException;
+import javax.management.NotCompliantMBeanException;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
+import javax.management.openmbean.CompositeData;
+import javax.management.openmbean.CompositeDataSupport;
+import javax.management.openmbean.CompositeType;
+import javax.management.openmbean.OpenDataException;
+import javax.management.openmbean.OpenType;
+import javax.management.openmbean.SimpleType;
+
+import org.graalvm.compiler.truffle.runtime.CallTargetMetrics;
+import org.graalvm.compiler.truffle.runtime.CallTargetMetrics.EngineMetrics;
+
+/**
+ * Exports the {@link CallTargetMetrics} through the platform MBean server.
+ *
+ * Like the compiler's own management bean, registration is deferred until some other component
+ * has started the platform MBean server, which is detected by polling
+ * {@link MBeanServerFactory#findMBeanServer(String)}. The Truffle runtime therefore never
+ * initializes JMX on its own.
+ */
+final class CallTargetMetricsManagement implements CallTargetMetricsMBean {
+
+    static final String OBJECT_NAME = "org.graalvm.compiler.truffle:type=CallTargetMetrics";
+
+    private static final String[] ITEM_NAMES = {"name", "engineId", "interpretedCalls", "firstTierCalls", "interpretedCallRatio", "compilations", "compilationFailures", "deoptimizations",
+                    "invalidations", "codeSize", "queueWaitMillis", "compiled", "compilationCapped"};
+    private static final OpenType<?>[] ITEM_TYPES = {SimpleType.STRING, SimpleType.LONG, SimpleType.LONG, SimpleType.LONG, SimpleType.DOUBLE, SimpleType.INTEGER, SimpleType.INTEGER,
+                    SimpleType.INTEGER, SimpleType.INTEGER, SimpleType.INTEGER, SimpleType.LONG, SimpleType.BOOLEAN, SimpleType.BOOLEAN};
+
+    private static final String[] ENGINE_ITEM_NAMES = {"engineId", "compilations", "compilationFailures", "deoptimizations", "invalidations", "trackedCallTargets"};
+    private static final OpenType<?>[] ENGINE_ITEM_TYPES = {SimpleType.LONG, SimpleType.LONG, SimpleType.LONG, SimpleType.LONG, SimpleType.LONG, SimpleType.INTEGER};
+
+    private static final CompositeType CALL_TARGET_TYPE = createCompositeType("CallTargetMetrics", "Runtime counters of a Truffle call target", ITEM_NAMES, ITEM_TYPES);
+    private static final CompositeType ENGINE_TYPE = createCompositeType("EngineMetrics", "Call target metrics totals of a Truffle engine", ENGINE_ITEM_NAMES, ENGINE_ITEM_TYPES);
+
+    private static CompositeType createCompositeType(String typeName, String description, String[] itemNames, OpenType<?>[] itemTypes) {
+        try {
+            return new CompositeType(typeName, description, itemNames, itemNames, itemTypes);
+        } catch (OpenDataException e) {
+            throw new InternalError(e);
+        }
+    }
+
+    private static final Object registrationLock = new Object();
+    private static Thread registrationThread;
+
+    private CallTargetMetricsManagement() {
+    }
+
+    /**
+     * Registers the bean as soon as a platform MBean server is available. Subsequent calls have no
+     * effect.
+     */
+    static void register() {
+        synchronized (registrationLock) {
+            if (registrationThread == null) {
+                registrationThread = new RegistrationThread();
+                registrationThread.start();
+            }
+        }
+    }
+
+    @Override
+    public long getCompilationCount() {
+        long count = 0;
+        for (EngineMetrics engine : CallTargetMetrics.getOpenEngineMetrics()) {
+            count += engine.getCompilationCount();
+        }
+        return count;
+    }
+
+    @Override
+    public long getCompilationFailureCount() {
+        long count = 0;
+        for (EngineMetrics engine : CallTargetMetrics.getOpenEngineMetrics()) {
+            count += engine.getCompilationFailureCount();
+        }
+        return count;
+    }
+
+    @Override
+    public long getDeoptimizationCount() {
+        long count = 0;
+        for (EngineMetrics engine : CallTargetMetrics.getOpenEngineMetrics()) {
+            count += engine.getDeoptimizationCount();
+        }
+        return count;
+    }
+
+    @Override
+    public long getInvalidationCount() {
+        long count = 0;
+        for (EngineMetrics engine : CallTargetMetrics.getOpenEngineMetrics()) {
+            count += engine.getInvalidationCount();
+        }
+        return count;
+    }
+
+    @Override
+    public int getTrackedCallTargetCount() {
+        return getTrackedCallTargets().size();
+    }
+
+    @Override
+    public CompositeData[] getEngines() {
+        List<EngineMetrics> engines = CallTargetMetrics.getOpenEngineMetrics();
+        CompositeData[] result = new CompositeData[engines.size()];
+        for (int i = 0; i < result.length; i++) {
+            EngineMetrics engine = engines.get(i);
+            Object[] values = {engine.getEngineId(), engine.getCompilationCount(), engine.getCompilationFailureCount(), engine.getDeoptimizationCount(), engine.getInvalidationCount(),
+                            engine.getTrackedCallTargets().size()};
+            try {
+                result[i] = new CompositeDataSupport(ENGINE_TYPE, ENGINE_ITEM_NAMES, values);
+            } catch (OpenDataException e) {
+                throw new InternalError(e);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public CompositeData[] getHottestCallTargets(int limit) {
+        return top(Comparator.comparingLong((CallTargetMetrics m) -> m.getInterpretedCallCount() + m.getFirstTierCallCount()), limit);
+    }
+
+    @Override
+    public CompositeData[] getMostDeoptimizedCallTargets(int limit) {
+        return top(Comparator.comparingInt((CallTargetMetrics m) -> m.getDeoptimizationCount() + m.getInvalidationCount()), limit);
+    }
+
+    @Override
+    public CompositeData[] getMostInterpretedCallTargets(int limit) {
+        return top(Comparator.comparingLong(CallTargetMetrics::getInterpretedCallCount), limit);
+    }
+
+    private static List<CallTargetMetrics> getTrackedCallTargets() {
+        List<CallTargetMetrics> targets = new ArrayList<>();
+        for (EngineMetrics engine : CallTargetMetrics.getOpenEngineMetrics()) {
+            targets.addAll(engine.getTrackedCallTargets());
+        }
+        return targets;
+    }
+
+    private static CompositeData[] top(Comparator<CallTargetMetrics> order, int limit) {
+        List<CallTargetMetrics> targets = getTrackedCallTargets();
+        targets.sort(order.reversed());
+        CompositeData[] result = new CompositeData[Math.max(0, Math.min(limit, targets.size()))];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = toCompositeData(targets.get(i));
+        }
+        return result;
+    }
+
+    private static CompositeData toCompositeData(CallTargetMetrics m) {
+        Object[] values = {m.getName(), m.getEngineId(), m.getInterpretedCallCount(), m.getFirstTierCallCount(), m.getInterpretedCallRatio(), m.getCompilationCount(), m.getCompilationFailureCount(),
+                        m.getDeoptimizationCount(), m.getInvalidationCount(), m.getCodeSize(), TimeUnit.NANOSECONDS.toMillis(m.getQueueWaitNanos()), m.isCompiled(),
+                        m.isCompilationCapped()};
+        try {
+            return new CompositeDataSupport(CALL_TARGET_TYPE, ITEM_NAMES, values);
+        } catch (OpenDataException e) {
+            throw new InternalError(e);
+        }
+    }
+
+    private static final class RegistrationThread extends Thread {
+
+        /**
+         * Poll for active MBean server every 2 seconds.
+         */
+        private static final int POLL_INTERVAL_MS = 2000;
+
+        RegistrationThread() {
+            super("Truffle CallTargetMetrics Bean Registration");
+            setPriority(Thread.MIN_PRIORITY);
+            setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (MBeanServerFactory.findMBeanServer(null).isEmpty()) {
+                    Thread.sleep(POLL_INTERVAL_MS);
+                }
+                ObjectName name = new ObjectName(OBJECT_NAME);
+                ManagementFactory.getPlatformMBeanServer().registerMBean(new StandardMBean(new CallTargetMetricsManagement(), CallTargetMetricsMBean.class), name);
+            } catch (InterruptedException e) {
+                // Shutting down, nothing left to register.
+            } catch (InstanceAlreadyExistsException e) {
+                // Another Truffle runtime in this VM already exported its metrics.
+            } catch (MalformedObjectNameException | MBeanRegistrationException | NotCompliantMBeanException e) {
+                throw new InternalError(e);
+            } catch (SecurityException | UnsatisfiedLinkError | NoClassDefFoundError | UnsupportedOperationException e) {
+                // Without permission to find or create the MBeanServer, we cannot export the
+                // metrics. Various other errors can occur in the ManagementFactory (JDK-8076557).
+            }
+        }
+    }
+}
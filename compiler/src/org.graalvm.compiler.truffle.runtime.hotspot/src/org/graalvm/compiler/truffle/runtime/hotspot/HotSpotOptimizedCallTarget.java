@@ -92,6 +92,7 @@ public class HotSpotOptimizedCallTarget extends OptimizedCallTarget implements O
             }
         }
         installedCode = code;
+        onCodeInstalled();
     }
 
     @Override
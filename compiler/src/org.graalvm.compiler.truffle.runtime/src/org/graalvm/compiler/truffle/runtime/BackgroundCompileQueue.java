@@ -25,9 +25,14 @@
 package org.graalvm.compiler.truffle.runtime;
 
 import java.lang.ref.WeakReference;
+import java.util.AbstractQueue;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingDeque;
 import java.util.concurrent.PriorityBlockingQueue;
 import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.RunnableFuture;
@@ -45,7 +50,13 @@ import org.graalvm.compiler.truffle.options.PolyglotCompilerOptions;
  * The current queuing policy is to first schedule all the first tier compilation requests, and only
  * handle second tier compilation requests when there are no first tier compilations left. Between
  * the compilation requests of the same optimization tier, the queuing policy is FIFO
- * (first-in-first-out).
+ * (first-in-first-out), unless the {@link PolyglotCompilerOptions#TraversingCompilationQueue
+ * traversing queue} is enabled. The traversing queue prefers, within a tier, the requests whose
+ * call targets currently gain calls and loop iterations the fastest. The rates are re-measured
+ * whenever a compiler thread picks the next request, so that targets which went cold while queued
+ * fall behind the hot ones, and requests of targets that were garbage collected are dropped. Since
+ * every dequeue scans the whole queue while holding a lock, the traversing queue is disabled by
+ * default.
  *
  * Note that all the compilation requests are second tier when the multi-tier option is turned off.
  */
@@ -84,8 +95,14 @@ public class BackgroundCompileQueue {
 
             ThreadFactory factory = newThreadFactory("TruffleCompilerThread", callTarget);
 
+            BlockingQueue<Runnable> queue;
+            if (callTarget.getOptionValue(PolyglotCompilerOptions.TraversingCompilationQueue)) {
+                queue = new TraversingBlockingQueue();
+            } else {
+                queue = new PriorityBlockingQueue<>();
+            }
             return compilationExecutorService = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
-                            new PriorityBlockingQueue<>(), factory) {
+                            queue, factory) {
                 @Override
                 protected <T> RunnableFuture<T> newTaskFor(Callable<T> callable) {
                     return new RequestFutureTask<>((RequestImpl<T>) callable);
@@ -100,7 +117,8 @@ public class BackgroundCompileQueue {
     }
 
     public CancellableCompileTask submitTask(Priority priority, OptimizedCallTarget target, Request request) {
-        CancellableCompileTask cancellable = new CancellableCompileTask(priority == Priority.LAST_TIER);
+        boolean lastTier = priority == Priority.LAST_TIER;
+        CancellableCompileTask cancellable = new CancellableCompileTask(lastTier, !lastTier && target.engine.firstTierProfiling);
         RequestImpl<Void> requestImpl = new RequestImpl<>(nextId(), priority, target, cancellable, request);
         cancellable.setFuture(getExecutorService(target).submit(requestImpl));
         return cancellable;
@@ -159,18 +177,64 @@ public class BackgroundCompileQueue {
 
     private static final class RequestImpl<V> implements Callable<V>, Comparable<RequestImpl<?>> {
 
+        /**
+         * The minimal time between two measurements of the call and loop count rate of a queued
+         * call target, to keep the measurements from being dominated by noise.
+         */
+        private static final long RATE_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
         private final long id;
         private final Priority priority;
         private final TruffleCompilationTask task;
         private final WeakReference<OptimizedCallTarget> targetRef;
         private final Request request;
 
+        // Only accessed by the traversing queue, while it holds its lock.
+        private int lastCount;
+        private long lastTime;
+        private double rate;
+
         RequestImpl(long id, Priority priority, OptimizedCallTarget callTarget, TruffleCompilationTask task, Request request) {
             this.id = id;
             this.priority = priority;
             this.targetRef = new WeakReference<>(callTarget);
             this.task = task;
             this.request = request;
+            this.lastCount = callTarget.getCallAndLoopCount();
+            this.lastTime = System.nanoTime();
+            long initializedTime = callTarget.getInitializedTimestamp();
+            if (initializedTime != 0 && lastTime > initializedTime) {
+                // Until the first measurement, use the average rate since initialization.
+                this.rate = lastCount / (double) (lastTime - initializedTime);
+            }
+        }
+
+        /**
+         * Re-measures the rate at which the call and loop count of the target grows. Returns
+         * {@code false} if the target was garbage collected.
+         */
+        boolean updateRate(long now) {
+            OptimizedCallTarget target = targetRef.get();
+            if (target == null) {
+                return false;
+            }
+            if (now - lastTime >= RATE_INTERVAL_NANOS) {
+                int count = target.getCallAndLoopCount();
+                rate = (count - lastCount) / (double) (now - lastTime);
+                lastCount = count;
+                lastTime = now;
+            }
+            return true;
+        }
+
+        boolean isHigherPriorityThan(RequestImpl<?> that) {
+            if (priority != that.priority) {
+                return priority.value < that.priority.value;
+            }
+            if (rate != that.rate) {
+                return rate > that.rate;
+            }
+            return id < that.id;
         }
 
         @Override
@@ -214,6 +278,126 @@ public class BackgroundCompileQueue {
         }
     }
 
+    /**
+     * A queue that picks, whenever a compiler thread asks for the next request, the request with
+     * the highest priority at that moment. Unlike a {@link PriorityBlockingQueue}, the order can
+     * change while the requests are queued.
+     */
+    private static final class TraversingBlockingQueue extends AbstractQueue<Runnable> implements BlockingQueue<Runnable> {
+
+        private final LinkedBlockingDeque<Runnable> entries = new LinkedBlockingDeque<>();
+
+        /**
+         * Swaps {@code first}, which was already removed from the queue, with the highest priority
+         * entry of the queue, and returns the highest priority entry.
+         */
+        private synchronized Runnable swapWithMax(Runnable first) {
+            if (first == null) {
+                return null;
+            }
+            long now = System.nanoTime();
+            Runnable max = first;
+            if (!request(first).updateRate(now)) {
+                ((RequestFutureTask<?>) first).cancel(false);
+                max = null;
+            }
+            Iterator<Runnable> iterator = entries.iterator();
+            while (iterator.hasNext()) {
+                Runnable entry = iterator.next();
+                if (!request(entry).updateRate(now)) {
+                    iterator.remove();
+                    ((RequestFutureTask<?>) entry).cancel(false);
+                } else if (max == null || request(entry).isHigherPriorityThan(request(max))) {
+                    max = entry;
+                }
+            }
+            if (max == null || max == first) {
+                return max;
+            }
+            if (!entries.remove(max)) {
+                // Another compiler thread took it in the meantime.
+                return first;
+            }
+            if (request(first).updateRate(now)) {
+                entries.addFirst(first);
+            }
+            return max;
+        }
+
+        private static RequestImpl<?> request(Runnable entry) {
+            return ((RequestFutureTask<?>) entry).request;
+        }
+
+        @Override
+        public Runnable take() throws InterruptedException {
+            Runnable max;
+            do {
+                max = swapWithMax(entries.take());
+            } while (max == null);
+            return max;
+        }
+
+        @Override
+        public Runnable poll(long timeout, TimeUnit unit) throws InterruptedException {
+            return swapWithMax(entries.poll(timeout, unit));
+        }
+
+        @Override
+        public Runnable poll() {
+            return swapWithMax(entries.poll());
+        }
+
+        @Override
+        public Runnable peek() {
+            return entries.peek();
+        }
+
+        @Override
+        public boolean offer(Runnable entry) {
+            return entries.offer(entry);
+        }
+
+        @Override
+        public boolean offer(Runnable entry, long timeout, TimeUnit unit) throws InterruptedException {
+            return entries.offer(entry, timeout, unit);
+        }
+
+        @Override
+        public void put(Runnable entry) throws InterruptedException {
+            entries.put(entry);
+        }
+
+        @Override
+        public boolean remove(Object entry) {
+            return entries.remove(entry);
+        }
+
+        @Override
+        public int remainingCapacity() {
+            return entries.remainingCapacity();
+        }
+
+        @Override
+        public int drainTo(Collection<? super Runnable> c) {
+            return entries.drainTo(c);
+        }
+
+        @Override
+        public int drainTo(Collection<? super Runnable> c, int maxElements) {
+            return entries.drainTo(c, maxElements);
+        }
+
+        @Override
+        public Iterator<Runnable> iterator() {
+            return entries.iterator();
+        }
+
+        @Override
+        public int size() {
+            return entries.size();
+        }
+    }
+
     private static final class TruffleCompilerThreadFactory implements ThreadFactory {
         private final String namePrefix;
 
@@ -0,0 +1,372 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.truffle.runtime;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.graalvm.compiler.truffle.common.TruffleCompilerListener.CompilationResultInfo;
+import org.graalvm.compiler.truffle.common.TruffleCompilerListener.GraphInfo;
+
+import com.oracle.truffle.api.frame.Frame;
+
+/**
+ * Runtime counters of a single {@link OptimizedCallTarget}, collected when the
+ * {@link org.graalvm.compiler.truffle.options.PolyglotCompilerOptions#CallTargetMetrics} option is
+ * enabled for its engine.
+ *
+ * Calls are counted in {@link OptimizedCallTarget#callRoot(Object[])} without synchronization, like
+ * the other call target profiles, so concurrent calls may lose increments. Only calls that run in
+ * the interpreter or in first-tier code are counted, which already update the call threshold of the
+ * call target. Calls into last-tier code and calls that were inlined into a compiled caller are not
+ * counted, so that hot compiled code does not write to the call target on every call. The
+ * remaining counters are updated atomically from compilation events.
+ *
+ * A call target is only {@link EngineMetrics#getTrackedCallTargets() tracked} by its engine once
+ * it was queued for compilation, so that the many call targets that never get hot cost nothing but
+ * their counters.
+ */
+public final class CallTargetMetrics {
+
+    private static final AtomicIntegerFieldUpdater<CallTargetMetrics> TRACKED_UPDATER = AtomicIntegerFieldUpdater.newUpdater(CallTargetMetrics.class, "tracked");
+    private static final AtomicIntegerFieldUpdater<CallTargetMetrics> COMPILATIONS_UPDATER = AtomicIntegerFieldUpdater.newUpdater(CallTargetMetrics.class, "compilations");
+    private static final AtomicIntegerFieldUpdater<CallTargetMetrics> FAILURES_UPDATER = AtomicIntegerFieldUpdater.newUpdater(CallTargetMetrics.class, "compilationFailures");
+    private static final AtomicIntegerFieldUpdater<CallTargetMetrics> DEOPTIMIZATIONS_UPDATER = AtomicIntegerFieldUpdater.newUpdater(CallTargetMetrics.class, "deoptimizations");
+    private static final AtomicIntegerFieldUpdater<CallTargetMetrics> INVALIDATIONS_UPDATER = AtomicIntegerFieldUpdater.newUpdater(CallTargetMetrics.class, "invalidations");
+    private static final AtomicLongFieldUpdater<CallTargetMetrics> QUEUE_WAIT_UPDATER = AtomicLongFieldUpdater.newUpdater(CallTargetMetrics.class, "queueWaitNanos");
+
+    /*
+     * Metrics of engines that are not closed yet.
+     */
+    private static final Set<EngineMetrics> openEngines = ConcurrentHashMap.newKeySet();
+
+    private final EngineMetrics engine;
+
+    long interpretedCalls;
+    long firstTierCalls;
+
+    private volatile int tracked;
+    private volatile int compilations;
+    private volatile int compilationFailures;
+    private volatile int deoptimizations;
+    private volatile int invalidations;
+    private volatile int codeSize;
+    private volatile long queuedTimestamp;
+    private volatile long queueWaitNanos;
+
+    private volatile TargetReference target;
+    private volatile String name;
+
+    CallTargetMetrics(EngineMetrics engine) {
+        this.engine = engine;
+    }
+
+    static void install(GraalTruffleRuntime runtime) {
+        runtime.addListener(new Listener(runtime));
+    }
+
+    static EngineMetrics createEngineMetrics(long engineId) {
+        EngineMetrics metrics = new EngineMetrics(engineId);
+        openEngines.add(metrics);
+        return metrics;
+    }
+
+    /**
+     * Returns the metrics of all engines with enabled call target metrics that are not closed yet.
+     */
+    public static List<EngineMetrics> getOpenEngineMetrics() {
+        return new ArrayList<>(openEngines);
+    }
+
+    public EngineMetrics getEngineMetrics() {
+        return engine;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getEngineId() {
+        return engine.engineId;
+    }
+
+    public long getInterpretedCallCount() {
+        return interpretedCalls;
+    }
+
+    /**
+     * Returns the number of calls that ran in first-tier compiled code. This is only non-zero if
+     * {@link org.graalvm.compiler.truffle.options.PolyglotCompilerOptions#MultiTier multi-tier
+     * compilation} is enabled.
+     */
+    public long getFirstTierCallCount() {
+        return firstTierCalls;
+    }
+
+    /**
+     * Returns the share of counted calls that ran in the interpreter, between {@code 0} and
+     * {@code 1}. Calls into last-tier code are not counted.
+     */
+    public double getInterpretedCallRatio() {
+        long interpreted = interpretedCalls;
+        long total = interpreted + firstTierCalls;
+        return total == 0 ? 0 : (double) interpreted / total;
+    }
+
+    public int getCompilationCount() {
+        return compilations;
+    }
+
+    public int getCompilationFailureCount() {
+        return compilationFailures;
+    }
+
+    public int getDeoptimizationCount() {
+        return deoptimizations;
+    }
+
+    public int getInvalidationCount() {
+        return invalidations;
+    }
+
+    /**
+     * Returns the machine code size of the last successful compilation.
+     */
+    public int getCodeSize() {
+        return codeSize;
+    }
+
+    /**
+     * Returns the time the call target spent in the compilation queue, summed over all its
+     * compilations.
+     */
+    public long getQueueWaitNanos() {
+        return queueWaitNanos;
+    }
+
+    /**
+     * Returns {@code true} if the call target is alive and currently has installed compiled code.
+     */
+    public boolean isCompiled() {
+        OptimizedCallTarget callTarget = getCallTarget();
+        return callTarget != null && callTarget.isValid();
+    }
+
+    /**
+     * Returns {@code true} if the call target is alive and its compilation was
+     * {@linkplain OptimizedCallTarget#isCompilationCapped() capped} after repeated invalidations.
+     */
+    public boolean isCompilationCapped() {
+        OptimizedCallTarget callTarget = getCallTarget();
+        return callTarget != null && callTarget.isCompilationCapped();
+    }
+
+    private OptimizedCallTarget getCallTarget() {
+        TargetReference ref = target;
+        return ref == null ? null : ref.get();
+    }
+
+    private void track(OptimizedCallTarget callTarget) {
+        if (tracked == 0 && TRACKED_UPDATER.compareAndSet(this, 0, 1)) {
+            name = callTarget.getName();
+            target = new TargetReference(callTarget, this, engine.collectedTargets);
+            engine.track(this);
+        }
+    }
+
+    private void endQueueWait() {
+        long queued = queuedTimestamp;
+        if (queued != 0) {
+            queuedTimestamp = 0;
+            QUEUE_WAIT_UPDATER.addAndGet(this, System.nanoTime() - queued);
+        }
+    }
+
+    private static final class Listener extends AbstractGraalTruffleRuntimeListener {
+
+        private Listener(GraalTruffleRuntime runtime) {
+            super(runtime);
+        }
+
+        @Override
+        public void onCompilationQueued(OptimizedCallTarget target) {
+            CallTargetMetrics metrics = target.metrics;
+            if (metrics != null) {
+                metrics.track(target);
+                metrics.queuedTimestamp = System.nanoTime();
+            }
+        }
+
+        @Override
+        public void onCompilationDequeued(OptimizedCallTarget target, Object source, CharSequence reason) {
+            CallTargetMetrics metrics = target.metrics;
+            if (metrics != null) {
+                metrics.endQueueWait();
+            }
+        }
+
+        @Override
+        public void onCompilationStarted(OptimizedCallTarget target) {
+            CallTargetMetrics metrics = target.metrics;
+            if (metrics != null) {
+                metrics.endQueueWait();
+            }
+        }
+
+        @Override
+        public void onCompilationSuccess(OptimizedCallTarget target, TruffleInlining inliningDecision, GraphInfo graph, CompilationResultInfo result) {
+            CallTargetMetrics metrics = target.metrics;
+            if (metrics != null) {
+                metrics.codeSize = result.getTargetCodeSize();
+                COMPILATIONS_UPDATER.incrementAndGet(metrics);
+                metrics.engine.compilations.increment();
+            }
+        }
+
+        @Override
+        public void onCompilationFailed(OptimizedCallTarget target, String reason, boolean bailout, boolean permanentBailout) {
+            CallTargetMetrics metrics = target.metrics;
+            if (metrics != null) {
+                FAILURES_UPDATER.incrementAndGet(metrics);
+                metrics.engine.compilationFailures.increment();
+            }
+        }
+
+        @Override
+        public void onCompilationInvalidated(OptimizedCallTarget target, Object source, CharSequence reason) {
+            CallTargetMetrics metrics = target.metrics;
+            if (metrics != null) {
+                INVALIDATIONS_UPDATER.incrementAndGet(metrics);
+                metrics.engine.invalidations.increment();
+            }
+        }
+
+        @Override
+        public void onCompilationDeoptimized(OptimizedCallTarget target, Frame frame) {
+            CallTargetMetrics metrics = target.metrics;
+            if (metrics != null) {
+                DEOPTIMIZATIONS_UPDATER.incrementAndGet(metrics);
+                metrics.engine.deoptimizations.increment();
+            }
+        }
+
+        @Override
+        public void onEngineClosed(EngineData runtimeData) {
+            EngineMetrics metrics = runtimeData.callTargetMetrics;
+            if (metrics != null) {
+                metrics.close();
+            }
+        }
+    }
+
+    private static final class TargetReference extends WeakReference<OptimizedCallTarget> {
+
+        final CallTargetMetrics metrics;
+
+        TargetReference(OptimizedCallTarget target, CallTargetMetrics metrics, ReferenceQueue<OptimizedCallTarget> queue) {
+            super(target, queue);
+            this.metrics = metrics;
+        }
+    }
+
+    /**
+     * Call target metrics of a single engine. Tracked call targets are held weakly and are removed
+     * once they are collected.
+     */
+    public static final class EngineMetrics {
+
+        private final long engineId;
+        private final Set<CallTargetMetrics> trackedMetrics = ConcurrentHashMap.newKeySet();
+        private final ReferenceQueue<OptimizedCallTarget> collectedTargets = new ReferenceQueue<>();
+
+        private final LongAdder compilations = new LongAdder();
+        private final LongAdder compilationFailures = new LongAdder();
+        private final LongAdder deoptimizations = new LongAdder();
+        private final LongAdder invalidations = new LongAdder();
+
+        private EngineMetrics(long engineId) {
+            this.engineId = engineId;
+        }
+
+        public long getEngineId() {
+            return engineId;
+        }
+
+        /**
+         * Returns the metrics of the call targets of this engine that were queued for compilation
+         * at least once and are still alive.
+         */
+        public List<CallTargetMetrics> getTrackedCallTargets() {
+            removeCollectedTargets();
+            List<CallTargetMetrics> result = new ArrayList<>(trackedMetrics.size());
+            for (CallTargetMetrics metrics : trackedMetrics) {
+                if (metrics.getCallTarget() != null) {
+                    result.add(metrics);
+                }
+            }
+            return result;
+        }
+
+        public long getCompilationCount() {
+            return compilations.sum();
+        }
+
+        public long getCompilationFailureCount() {
+            return compilationFailures.sum();
+        }
+
+        public long getDeoptimizationCount() {
+            return deoptimizations.sum();
+        }
+
+        public long getInvalidationCount() {
+            return invalidations.sum();
+        }
+
+        private void track(CallTargetMetrics metrics) {
+            removeCollectedTargets();
+            trackedMetrics.add(metrics);
+        }
+
+        private void removeCollectedTargets() {
+            TargetReference ref;
+            while ((ref = (TargetReference) collectedTargets.poll()) != null) {
+                trackedMetrics.remove(ref.metrics);
+            }
+        }
+
+        void close() {
+            openEngines.remove(this);
+            trackedMetrics.clear();
+        }
+    }
+}
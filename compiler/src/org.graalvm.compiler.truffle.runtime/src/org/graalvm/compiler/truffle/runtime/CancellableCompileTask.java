@@ -35,9 +35,15 @@ public final class CancellableCompileTask implements TruffleCompilationTask {
     private volatile Future<?> future;
     private volatile boolean cancelled;
     private final boolean lastTierCompilation;
+    private final boolean hasNextTier;
 
     public CancellableCompileTask(boolean lastTierCompilation) {
+        this(lastTierCompilation, !lastTierCompilation);
+    }
+
+    public CancellableCompileTask(boolean lastTierCompilation, boolean hasNextTier) {
         this.lastTierCompilation = lastTierCompilation;
+        this.hasNextTier = hasNextTier;
     }
 
     // This cannot be done in the constructor because the CancellableCompileTask needs to be
@@ -78,4 +84,9 @@ public final class CancellableCompileTask implements TruffleCompilationTask {
     public boolean isLastTier() {
         return lastTierCompilation;
     }
+
+    @Override
+    public boolean hasNextTier() {
+        return hasNextTier;
+    }
 }
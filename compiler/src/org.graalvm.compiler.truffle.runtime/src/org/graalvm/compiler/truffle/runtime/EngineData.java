@@ -38,6 +38,7 @@ import static org.graalvm.compiler.truffle.options.PolyglotCompilerOptions.Compi
 import static org.graalvm.compiler.truffle.options.PolyglotCompilerOptions.CompileOnly;
 import static org.graalvm.compiler.truffle.options.PolyglotCompilerOptions.FirstTierCompilationThreshold;
 import static org.graalvm.compiler.truffle.options.PolyglotCompilerOptions.FirstTierMinInvokeThreshold;
+import static org.graalvm.compiler.truffle.options.PolyglotCompilerOptions.FirstTierProfiling;
 import static org.graalvm.compiler.truffle.options.PolyglotCompilerOptions.Inlining;
 import static org.graalvm.compiler.truffle.options.PolyglotCompilerOptions.MinInvokeThreshold;
 import static org.graalvm.compiler.truffle.options.PolyglotCompilerOptions.Mode;
@@ -92,6 +93,7 @@ public final class EngineData {
     @CompilationFinal OptionValues engineOptions;
     final TruffleSplittingStrategy.SplitStatisticsReporter reporter;
     @CompilationFinal public StatisticsListener statisticsListener;
+    ProfileCache profileCache;
 
     /*
      * Important while visible, options must not be modified except in loadOptions.
@@ -114,6 +116,7 @@ public final class EngineData {
     @CompilationFinal public boolean compilation;
     @CompilationFinal public boolean compileImmediately;
     @CompilationFinal public boolean multiTier;
+    @CompilationFinal public boolean firstTierProfiling;
     @CompilationFinal public boolean returnTypeSpeculation;
     @CompilationFinal public boolean argumentTypeSpeculation;
     @CompilationFinal public boolean traceCompilation;
@@ -125,6 +128,8 @@ public final class EngineData {
     @CompilationFinal public boolean callTargetStatisticDetails;
     @CompilationFinal public boolean profilingEnabled;
     @CompilationFinal public boolean traceTransferToInterpreter;
+    @CompilationFinal public CallTargetMetrics.EngineMetrics callTargetMetrics;
+    @CompilationFinal public int deoptimizationLoopThreshold;
 
     // computed fields.
     @CompilationFinal public int firstTierCallThreshold;
@@ -163,6 +168,7 @@ public final class EngineData {
         this.compileOnly = getPolyglotOptionValue(options, CompileOnly);
         this.compileImmediately = getPolyglotOptionValue(options, CompileImmediately);
         this.multiTier = getPolyglotOptionValue(options, MultiTier);
+        this.firstTierProfiling = getPolyglotOptionValue(options, FirstTierProfiling);
 
         this.returnTypeSpeculation = getPolyglotOptionValue(options, ReturnTypeSpeculation);
         this.argumentTypeSpeculation = getPolyglotOptionValue(options, ArgumentTypeSpeculation);
@@ -176,11 +182,28 @@ public final class EngineData {
         this.callTargetStatistics = getPolyglotOptionValue(options, CompilationStatistics) || this.callTargetStatisticDetails;
         this.statisticsListener = this.callTargetStatistics ? StatisticsListener.createEngineListener(GraalTruffleRuntime.getRuntime()) : null;
         this.profilingEnabled = getPolyglotOptionValue(options, Profiling);
+        String profileCachePath = getPolyglotOptionValue(options, PolyglotCompilerOptions.ProfileCache);
+        this.profileCache = profileCachePath.isEmpty() ? null : ProfileCache.load(profileCachePath, getPolyglotOptionValue(options, PolyglotCompilerOptions.ProfileCacheReplayThreshold));
         this.traceTransferToInterpreter = getPolyglotOptionValue(options, TraceTransferToInterpreter);
+        this.callTargetMetrics = loadCallTargetMetrics(getPolyglotOptionValue(options, PolyglotCompilerOptions.CallTargetMetrics));
+        this.deoptimizationLoopThreshold = getPolyglotOptionValue(options, PolyglotCompilerOptions.DeoptimizationLoopThreshold);
         this.compilationFailureAction = computeCompilationFailureAction(options);
         validateOptions();
     }
 
+    private CallTargetMetrics.EngineMetrics loadCallTargetMetrics(boolean enabled) {
+        CallTargetMetrics.EngineMetrics metrics = this.callTargetMetrics;
+        if (enabled) {
+            // keep the counters if the options are reloaded
+            return metrics != null ? metrics : CallTargetMetrics.createEngineMetrics(id);
+        } else {
+            if (metrics != null) {
+                metrics.close();
+            }
+            return null;
+        }
+    }
+
     private static ExceptionAction computeCompilationFailureAction(OptionValues options) {
         ExceptionAction action = getPolyglotOptionValue(options, CompilationFailureAction);
         if (action.ordinal() < ExceptionAction.Print.ordinal() && getPolyglotOptionValue(options, CompilationExceptionsArePrinted)) {
@@ -408,6 +408,8 @@ public abstract class GraalTruffleRuntime implements TruffleRuntime, TruffleComp
         StatisticsListener.install(this);
         TraceASTCompilationListener.install(this);
         JFRListener.install(this);
+        ProfileCache.install(this);
+        CallTargetMetrics.install(this);
         installShutdownHooks();
     }
 
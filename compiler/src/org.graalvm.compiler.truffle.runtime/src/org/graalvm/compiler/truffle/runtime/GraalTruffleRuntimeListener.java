@@ -160,6 +160,19 @@ public interface GraalTruffleRuntimeListener {
     default void onCompilationDeoptimized(OptimizedCallTarget target, Frame frame) {
     }
 
+    /**
+     * Notifies this object when the compiled code of {@code target} was invalidated so often for
+     * the same reason that its compilation was restricted.
+     *
+     * @param target the call target whose compilation was restricted
+     * @param firstTierOnly {@code true} if {@code target} is only compiled with the first tier from
+     *            now on, {@code false} if it is no longer compiled at all
+     * @param reason the invalidation reason that kept repeating
+     * @param count the number of invalidations with {@code reason}
+     */
+    default void onCompilationCapped(OptimizedCallTarget target, boolean firstTierOnly, CharSequence reason, int count) {
+    }
+
     /**
      * Notifies this object the {@link GraalTruffleRuntime} is being shut down.
      */
@@ -117,6 +117,13 @@ final class GraalTruffleRuntimeListenerDispatcher extends CopyOnWriteArrayList<G
         }
     }
 
+    @Override
+    public void onCompilationCapped(OptimizedCallTarget target, boolean firstTierOnly, CharSequence reason, int count) {
+        for (GraalTruffleRuntimeListener l : this) {
+            l.onCompilationCapped(target, firstTierOnly, reason, count);
+        }
+    }
+
     @Override
     public void onShutdown() {
         for (GraalTruffleRuntimeListener l : this) {
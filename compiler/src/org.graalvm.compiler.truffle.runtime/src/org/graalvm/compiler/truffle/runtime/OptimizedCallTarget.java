@@ -33,7 +33,10 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
 import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 import java.util.function.Supplier;
 import java.util.function.UnaryOperator;
@@ -65,6 +68,7 @@ import com.oracle.truffle.api.nodes.Node;
 import com.oracle.truffle.api.nodes.NodeUtil;
 import com.oracle.truffle.api.nodes.NodeVisitor;
 import com.oracle.truffle.api.nodes.RootNode;
+import com.oracle.truffle.api.source.SourceSection;
 
 import jdk.vm.ci.code.InstalledCode;
 import jdk.vm.ci.meta.JavaConstant;
@@ -86,6 +90,20 @@ public abstract class OptimizedCallTarget implements CompilableTruffleAST, RootC
                     SpeculationLog.class, "speculationLog");
     private static final AtomicReferenceFieldUpdater<OptimizedCallTarget, Assumption> NODE_REWRITING_ASSUMPTION_UPDATER = AtomicReferenceFieldUpdater.newUpdater(OptimizedCallTarget.class,
                     Assumption.class, "nodeRewritingAssumption");
+    @SuppressWarnings("rawtypes") private static final AtomicReferenceFieldUpdater<OptimizedCallTarget, ConcurrentHashMap> INVALIDATION_REASONS_UPDATER = AtomicReferenceFieldUpdater.newUpdater(
+                    OptimizedCallTarget.class, ConcurrentHashMap.class, "invalidationReasons");
+    private static final AtomicIntegerFieldUpdater<OptimizedCallTarget> COMPILATION_CAP_UPDATER = AtomicIntegerFieldUpdater.newUpdater(OptimizedCallTarget.class, "compilationCap");
+    private static final AtomicIntegerFieldUpdater<OptimizedCallTarget> INSTALLED_CODE_VERSION_UPDATER = AtomicIntegerFieldUpdater.newUpdater(OptimizedCallTarget.class, "installedCodeVersion");
+    private static final AtomicIntegerFieldUpdater<OptimizedCallTarget> COUNTED_CODE_VERSION_UPDATER = AtomicIntegerFieldUpdater.newUpdater(OptimizedCallTarget.class,
+                    "countedInvalidationCodeVersion");
+    private static final int CAP_NONE = 0;
+    private static final int CAP_FIRST_TIER = 1;
+    private static final int CAP_INTERPRETER = 2;
+    /**
+     * Code that stayed valid for at least this long before it was invalidated is not part of a
+     * deoptimization loop, so its invalidation resets the counts.
+     */
+    private static final long STABLE_CODE_NANOS = TimeUnit.SECONDS.toNanos(1);
     private static final WeakReference<OptimizedDirectCallNode> NO_CALL = new WeakReference<>(null);
     private static final WeakReference<OptimizedDirectCallNode> MULTIPLE_CALLS = null;
     private static final String SPLIT_LOG_FORMAT = "[truffle] [poly-event] %-70s %s";
@@ -135,6 +153,35 @@ public abstract class OptimizedCallTarget implements CompilableTruffleAST, RootC
      * generation.
      */
     private volatile boolean compilationFailed;
+
+    /**
+     * Number of invalidations of the compiled code of this call target, per reason and location.
+     * Allocated on the first invalidation.
+     */
+    private volatile ConcurrentHashMap<String, Integer> invalidationReasons;
+
+    /**
+     * Restriction of the compilation tiers after {@linkplain #onInvalidated repeated invalidations}.
+     * One of {@link #CAP_NONE}, {@link #CAP_FIRST_TIER} or {@link #CAP_INTERPRETER}.
+     */
+    private volatile int compilationCap;
+
+    /**
+     * Incremented whenever machine code is {@linkplain #onCodeInstalled() installed} for this call
+     * target.
+     */
+    private volatile int installedCodeVersion;
+
+    /**
+     * The {@link System#nanoTime()} at which the current version of the machine code was installed.
+     */
+    private volatile long installedCodeTimestamp;
+
+    /**
+     * The {@link #installedCodeVersion} whose invalidation was counted last. Every version of the
+     * machine code is counted at most once, no matter how many frames were executing it.
+     */
+    private volatile int countedInvalidationCodeVersion;
     /**
      * Whether the call profile was preinitialized with a fixed set of type classes. In such a case
      * the arguments will be cast using unsafe and the arguments array for calls is not checked
@@ -172,6 +219,9 @@ public abstract class OptimizedCallTarget implements CompilableTruffleAST, RootC
      */
     public final EngineData engine;
 
+    /** Runtime counters of this call target, or {@code null} if metrics are disabled. */
+    final CallTargetMetrics metrics;
+
     /** Only set for a source CallTarget with a clonable RootNode. */
     private volatile RootNode uninitializedRootNode;
 
@@ -213,6 +263,7 @@ public abstract class OptimizedCallTarget implements CompilableTruffleAST, RootC
         this.speculationLog = sourceCallTarget != null ? sourceCallTarget.getSpeculationLog() : null;
         this.rootNode = rootNode;
         this.engine = GraalTVMCI.getEngineData(rootNode);
+        this.metrics = engine.callTargetMetrics != null ? new CallTargetMetrics(engine.callTargetMetrics) : null;
         this.resetCompilationProfile();
         // Do not adopt children of OSRRootNodes; we want to preserve the parent of the LoopNode.
         final GraalTVMCI tvmci = runtime().getTvmci();
@@ -443,6 +494,11 @@ public abstract class OptimizedCallTarget implements CompilableTruffleAST, RootC
         Object[] args = originalArguments;
         if (GraalCompilerDirectives.inFirstTier()) {
             firstTierCall();
+            if (metrics != null) {
+                metrics.firstTierCalls++;
+            }
+        } else if (metrics != null && CompilerDirectives.inInterpreter()) {
+            metrics.interpretedCalls++;
         }
         if (CompilerDirectives.inCompiledCode()) {
             args = injectArgumentProfile(originalArguments);
@@ -458,7 +514,7 @@ public abstract class OptimizedCallTarget implements CompilableTruffleAST, RootC
     public final boolean firstTierCall() {
         // this is partially evaluated so the second part should fold to a constant.
         int firstTierCallThreshold = (--callThreshold) - engine.firstTierCallThreshold + engine.lastTierCallThreshold;
-        if (firstTierCallThreshold <= 0 && !isCompiling() && !compilationFailed) {
+        if (firstTierCallThreshold <= 0 && !isCompiling() && !compilationFailed && isCompilationAllowed(true)) {
             return lastTierCompile(this);
         }
         return false;
@@ -514,6 +570,9 @@ public abstract class OptimizedCallTarget implements CompilableTruffleAST, RootC
                 this.uninitializedRootNode = NodeUtil.cloneNode(rootNode);
             }
             tvmci.onFirstExecution(this);
+            if (engine.profileCache != null) {
+                engine.profileCache.replay(this);
+            }
             if (engine.callTargetStatistics) {
                 this.initializedTimestamp = System.nanoTime();
             } else {
@@ -540,6 +599,9 @@ public abstract class OptimizedCallTarget implements CompilableTruffleAST, RootC
         if (!needsCompile(lastTierCompilation)) {
             return true;
         }
+        if (!isCompilationAllowed(lastTierCompilation)) {
+            return false;
+        }
         if (!isCompiling()) {
             if (!runtime().acceptForCompilation(getRootNode())) {
                 // do not try to compile again
@@ -577,6 +639,15 @@ public abstract class OptimizedCallTarget implements CompilableTruffleAST, RootC
         return !mayBeAsynchronous && isValid();
     }
 
+    /**
+     * Returns {@code false} if the compilation of this call target was
+     * {@linkplain #isCompilationCapped() capped} for the given tier.
+     */
+    final boolean isCompilationAllowed(boolean lastTierCompilation) {
+        int cap = compilationCap;
+        return cap == CAP_NONE || (cap == CAP_FIRST_TIER && !lastTierCompilation);
+    }
+
     private boolean needsCompile(boolean isLastTierCompilation) {
         return !isValid() || (engine.multiTier && isLastTierCompilation && !isValidLastTier());
     }
@@ -614,13 +685,107 @@ public abstract class OptimizedCallTarget implements CompilableTruffleAST, RootC
      */
     public final void invalidate(Object source, CharSequence reason) {
         cachedNonTrivialNodeCount = -1;
+        int codeVersion = installedCodeVersion;
         if (isValid()) {
             invalidateCode();
             runtime().getListener().onCompilationInvalidated(this, source, reason);
+            onInvalidated(codeVersion, source, reason);
         }
         runtime().cancelInstalledTask(this, source, reason);
     }
 
+    /**
+     * Must be called by subclasses whenever new machine code was installed for this call target.
+     */
+    protected final void onCodeInstalled() {
+        installedCodeTimestamp = System.nanoTime();
+        INSTALLED_CODE_VERSION_UPDATER.incrementAndGet(this);
+    }
+
+    /**
+     * Detects call targets that keep being invalidated and recompiled for the same reason at the
+     * same location. Each version of the installed code is counted once, with the reason and the
+     * location of its invalidation. When one of them was seen
+     * {@link EngineData#deoptimizationLoopThreshold} times the call target is only compiled with
+     * the first tier, and at twice that number, or right away without multi-tier compilation, it is
+     * no longer compiled at all. Code that stayed valid for {@link #STABLE_CODE_NANOS} resets the
+     * counts, so that invalidations that are far apart do not add up.
+     *
+     * Only invalidations through {@link #invalidate(Object, CharSequence)} are counted. A
+     * deoptimization that invalidates the code itself, e.g. a
+     * {@link CompilerDirectives#transferToInterpreterAndInvalidate()} before a specialization, does
+     * not report where it happened, and the specializations of a warming up AST cause many of them.
+     *
+     * Failed speculations do not need to be handled here, they are recorded in the
+     * {@link #getSpeculationLog() speculation log} and not speculated on again. Assumptions and
+     * node rewrites are owned by the language, so the only remedy is to compile less.
+     */
+    private void onInvalidated(int codeVersion, Object source, CharSequence reason) {
+        int threshold = engine.deoptimizationLoopThreshold;
+        if (threshold <= 0 || compilationCap == CAP_INTERPRETER) {
+            return;
+        }
+        int counted = countedInvalidationCodeVersion;
+        if (counted == codeVersion || !COUNTED_CODE_VERSION_UPDATER.compareAndSet(this, counted, codeVersion)) {
+            // this code version was already counted
+            return;
+        }
+        ConcurrentHashMap<String, Integer> reasons = invalidationReasons;
+        if (reasons == null) {
+            INVALIDATION_REASONS_UPDATER.compareAndSet(this, null, new ConcurrentHashMap<>());
+            reasons = invalidationReasons;
+        }
+        if (System.nanoTime() - installedCodeTimestamp >= STABLE_CODE_NANOS) {
+            reasons.clear();
+        }
+        String key = invalidationReasonKey(source, reason);
+        int count = reasons.merge(key, 1, Integer::sum);
+        if (engine.multiTier && count >= threshold && count < 2 * threshold) {
+            if (COMPILATION_CAP_UPDATER.compareAndSet(this, CAP_NONE, CAP_FIRST_TIER)) {
+                runtime().getListener().onCompilationCapped(this, true, key, count);
+            }
+        } else if (count >= (engine.multiTier ? 2 * threshold : threshold)) {
+            int previous = compilationCap;
+            if (previous != CAP_INTERPRETER && COMPILATION_CAP_UPDATER.compareAndSet(this, previous, CAP_INTERPRETER)) {
+                compilationFailed = true;
+                runtime().getListener().onCompilationCapped(this, false, key, count);
+            }
+        }
+    }
+
+    private static String invalidationReasonKey(Object source, CharSequence reason) {
+        String location = invalidationLocation(source);
+        if (reason == null) {
+            return location != null ? location : "unknown";
+        } else if (location == null) {
+            return reason.toString();
+        } else {
+            return reason + " at " + location;
+        }
+    }
+
+    /**
+     * Describes where an invalidation came from: the source section of a node, or its class if it
+     * has none, or the class of any other source, e.g. an assumption.
+     */
+    private static String invalidationLocation(Object source) {
+        if (source instanceof Node) {
+            SourceSection section = ((Node) source).getEncapsulatingSourceSection();
+            if (section != null && section.isAvailable()) {
+                return section.getSource().getName() + ":" + section.getCharIndex() + "-" + section.getCharEndIndex();
+            }
+        }
+        return source != null ? source.getClass().getName() : null;
+    }
+
+    /**
+     * Returns {@code true} if this call target was invalidated so often that it is only compiled
+     * with the first tier, or not compiled at all.
+     */
+    public final boolean isCompilationCapped() {
+        return compilationCap != CAP_NONE;
+    }
+
     final OptimizedCallTarget cloneUninitialized() {
         assert sourceCallTarget == null;
         ensureInitialized();
@@ -841,6 +1006,15 @@ public abstract class OptimizedCallTarget implements CompilableTruffleAST, RootC
         return -(callAndLoopThreshold - engine.firstTierCallAndLoopThreshold);
     }
 
+    /**
+     * Returns the runtime counters of this call target, or {@code null} if they are
+     * {@link org.graalvm.compiler.truffle.options.PolyglotCompilerOptions#CallTargetMetrics
+     * disabled}.
+     */
+    public final CallTargetMetrics getMetrics() {
+        return metrics;
+    }
+
     public final long getInitializedTimestamp() {
         return initializedTimestamp;
     }
@@ -1078,6 +1252,25 @@ public abstract class OptimizedCallTarget implements CompilableTruffleAST, RootC
         }
     }
 
+    /**
+     * Applies a profile recorded by an earlier run of the engine, before the call target is
+     * executed for the first time. The recorded types are only a starting point: they are checked
+     * and generalized on every call, exactly like a profile gathered by this run.
+     */
+    final void replayProfile(int compilationThreshold, Class<?>[] argumentTypes, Class<?> returnType) {
+        CompilerAsserts.neverPartOfCompilation();
+        this.callThreshold = Math.min(callThreshold, compilationThreshold);
+        this.callAndLoopThreshold = Math.min(callAndLoopThreshold, compilationThreshold);
+        if (argumentTypes != null && profiledArgumentTypesAssumption == null && engine.argumentTypeSpeculation && argumentTypes.length <= MAX_PROFILED_ARGUMENTS) {
+            this.profiledArgumentTypes = argumentTypes;
+            this.profiledArgumentTypesAssumption = createValidAssumption(ARGUMENT_TYPES_ASSUMPTION_NAME);
+        }
+        if (returnType != null && profiledReturnTypeAssumption == null && engine.returnTypeSpeculation) {
+            this.profiledReturnType = returnType;
+            this.profiledReturnTypeAssumption = createValidAssumption(RETURN_TYPE_ASSUMPTION_NAME);
+        }
+    }
+
     private static OptimizedAssumption createInvalidAssumption(String name) {
         OptimizedAssumption result = createValidAssumption(name);
         result.invalidate();
@@ -62,6 +62,9 @@ public final class OptimizedDirectCallNode extends DirectCallNode implements Tru
         OptimizedCallTarget target = getCurrentCallTarget();
         if (CompilerDirectives.inInterpreter()) {
             onInterpreterCall(target);
+        } else if (CompilerDirectives.hasNextTier()) {
+            // keep the call site frequency up to date for the inlining of the last tier
+            callCount++;
         }
         try {
             return target.callDirect(this, arguments);
@@ -25,6 +25,7 @@
 package org.graalvm.compiler.truffle.runtime;
 
 import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.frame.VirtualFrame;
 import com.oracle.truffle.api.nodes.LoopNode;
 import com.oracle.truffle.api.nodes.RepeatingNode;
@@ -56,7 +57,7 @@ public final class OptimizedLoopNode extends LoopNode {
         int loopCount = 0;
         try {
             while ((status = repeatingNode.executeRepeatingWithValue(frame)) == CONTINUE_LOOP_STATUS) {
-                if (CompilerDirectives.inInterpreter()) {
+                if (CompilerDirectives.hasNextTier()) {
                     loopCount++;
                 }
             }
@@ -64,10 +65,17 @@ public final class OptimizedLoopNode extends LoopNode {
         } finally {
             if (CompilerDirectives.inInterpreter()) {
                 reportLoopCount(this, loopCount);
+            } else if (CompilerDirectives.hasNextTier()) {
+                reportFirstTierLoopCount(loopCount);
             }
         }
     }
 
+    @TruffleBoundary
+    private void reportFirstTierLoopCount(int loopCount) {
+        reportLoopCount(this, loopCount);
+    }
+
     static LoopNode create(RepeatingNode repeatingNode) {
         return new OptimizedLoopNode(repeatingNode);
     }
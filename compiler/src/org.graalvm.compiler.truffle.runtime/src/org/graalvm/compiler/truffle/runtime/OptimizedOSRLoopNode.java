@@ -27,6 +27,7 @@ package org.graalvm.compiler.truffle.runtime;
 import org.graalvm.compiler.truffle.options.PolyglotCompilerOptions;
 import java.util.Objects;
 
+import com.oracle.truffle.api.CallTarget;
 import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
 import com.oracle.truffle.api.ReplaceObserver;
@@ -148,7 +149,12 @@ public abstract class OptimizedOSRLoopNode extends LoopNode implements ReplaceOb
             while ((status = repeatableNode.executeRepeatingWithValue(frame)) == CONTINUE_LOOP_STATUS) {
                 // the baseLoopCount might be updated from a child loop during an iteration.
                 if (++iterations + baseLoopCount > osrThreshold) {
-                    compileLoop(frame);
+                    if (isCompilationCapped()) {
+                        // Count up to the threshold again before the next attempt.
+                        baseLoopCount = -iterations;
+                    } else {
+                        compileLoop(frame);
+                    }
                     // The status returned here is CONTINUE_LOOP_STATUS.
                     return status;
                 }
@@ -252,10 +258,23 @@ public abstract class OptimizedOSRLoopNode extends LoopNode implements ReplaceOb
         }
         OptimizedCallTarget osrTarget = GraalTruffleRuntime.getRuntime().createOSRCallTarget(createRootNodeImpl(root, frame.getClass()));
         osrTarget.setSpeculationLog(speculationLog);
-        osrTarget.compile(true);
+        if (!isCompilationCapped()) {
+            osrTarget.compile(true);
+        }
         return osrTarget;
     }
 
+    /**
+     * OSR compilations are last tier compilations of the loops of the enclosing call target. They
+     * are not done once the compilation of the enclosing call target was
+     * {@linkplain OptimizedCallTarget#isCompilationCapped() capped}.
+     */
+    private boolean isCompilationCapped() {
+        RootNode root = getRootNode();
+        CallTarget target = root == null ? null : root.getCallTarget();
+        return target instanceof OptimizedCallTarget && !((OptimizedCallTarget) target).isCompilationAllowed(true);
+    }
+
     @Override
     public final boolean nodeReplaced(Node oldNode, Node newNode, CharSequence reason) {
         invalidateOSRTarget(newNode, reason);
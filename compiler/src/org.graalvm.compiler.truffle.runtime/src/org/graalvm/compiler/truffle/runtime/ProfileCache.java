@@ -0,0 +1,274 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.truffle.runtime;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+import org.graalvm.compiler.truffle.common.TruffleCompilerListener.CompilationResultInfo;
+import org.graalvm.compiler.truffle.common.TruffleCompilerListener.GraphInfo;
+
+import com.oracle.truffle.api.nodes.RootNode;
+import com.oracle.truffle.api.source.SourceSection;
+
+/**
+ * Remembers, across restarts of an engine, which call targets were compiled and which argument and
+ * return types were speculated on for them.
+ *
+ * The cache file is read when the engine is created. A call target of the new run that matches a
+ * recorded one, by root name and source section, gets the recorded type profile and a
+ * {@link org.graalvm.compiler.truffle.options.PolyglotCompilerOptions#ProfileCacheReplayThreshold
+ * low compilation threshold} when it is first executed, so that it is compiled in the background
+ * after a few calls instead of after the regular warm-up. A replayed speculation that does not
+ * hold is generalized and invalidated by the regular profiling code, like any other profile.
+ *
+ * When the engine is closed or the VM shuts down, the cache is rewritten with the recorded entries,
+ * updated with the profiles of the call targets compiled by the current run, followed by the
+ * compilations of the current run that were not recorded yet, in the order they completed. The new
+ * contents are written to a temporary file that then replaces the cache file, so that a concurrent
+ * reader never sees a partially written cache.
+ */
+final class ProfileCache {
+
+    private static final String SEPARATOR = "\t";
+    private static final String TYPE_SEPARATOR = ",";
+    private static final String NO_TYPE = "-";
+
+    private static final Set<ProfileCache> openCaches = Collections.synchronizedSet(Collections.newSetFromMap(new WeakHashMap<>()));
+
+    private final Path path;
+    private final int replayThreshold;
+    private final Map<String, Entry> recorded;
+    private final Map<String, Entry> compiled = new LinkedHashMap<>();
+
+    private ProfileCache(Path path, int replayThreshold, Map<String, Entry> recorded) {
+        this.path = path;
+        this.replayThreshold = replayThreshold;
+        this.recorded = recorded;
+    }
+
+    static ProfileCache load(String fileName, int replayThreshold) {
+        Path path = Paths.get(fileName);
+        Map<String, Entry> recorded = new LinkedHashMap<>();
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] fields = line.split(SEPARATOR, -1);
+                // Lines that do not have the expected fields are dropped.
+                if (fields.length == 3) {
+                    recorded.put(fields[0], new Entry(fields[1], fields[2]));
+                }
+            }
+        } catch (NoSuchFileException e) {
+            // First run, nothing to replay.
+        } catch (IOException e) {
+            GraalTruffleRuntime.getRuntime().log(String.format("WARNING: Could not read the profile cache '%s': %s", path, e.getMessage()));
+        }
+        ProfileCache cache = new ProfileCache(path, replayThreshold, recorded);
+        openCaches.add(cache);
+        return cache;
+    }
+
+    static void install(GraalTruffleRuntime runtime) {
+        runtime.addListener(new Dispatcher(runtime));
+    }
+
+    /**
+     * Applies the recorded profile to a call target that is executed for the first time.
+     */
+    void replay(OptimizedCallTarget target) {
+        String key = keyOf(target.getRootNode());
+        if (key == null) {
+            return;
+        }
+        Entry entry = recorded.get(key);
+        if (entry != null) {
+            ClassLoader loader = target.getRootNode().getClass().getClassLoader();
+            target.replayProfile(replayThreshold, resolveTypes(entry.argumentTypes, loader), resolveType(entry.returnType, loader));
+        }
+    }
+
+    void recordCompilation(OptimizedCallTarget target) {
+        String key = keyOf(target.getRootNode());
+        if (key == null) {
+            return;
+        }
+        Class<?>[] argumentTypes = target.getProfiledArgumentTypes();
+        Class<?> returnType = target.getProfiledReturnType();
+        StringBuilder arguments = new StringBuilder();
+        if (argumentTypes == null) {
+            arguments.append(NO_TYPE);
+        } else {
+            for (int i = 0; i < argumentTypes.length; i++) {
+                if (i > 0) {
+                    arguments.append(TYPE_SEPARATOR);
+                }
+                arguments.append(nameOf(argumentTypes[i]));
+            }
+        }
+        Entry entry = new Entry(arguments.toString(), nameOf(returnType));
+        synchronized (this) {
+            // Keep the position of the first compilation, but the most recent profile.
+            compiled.put(key, entry);
+        }
+    }
+
+    synchronized void write() {
+        Map<String, Entry> entries = new LinkedHashMap<>(recorded);
+        entries.putAll(compiled);
+        Path directory = path.toAbsolutePath().getParent();
+        Path temporary = null;
+        try {
+            temporary = Files.createTempFile(directory, path.getFileName().toString(), ".tmp");
+            try (BufferedWriter writer = Files.newBufferedWriter(temporary, StandardCharsets.UTF_8)) {
+                for (Map.Entry<String, Entry> e : entries.entrySet()) {
+                    Entry entry = e.getValue();
+                    writer.write(e.getKey() + SEPARATOR + entry.argumentTypes + SEPARATOR + entry.returnType);
+                    writer.newLine();
+                }
+            }
+            try {
+                Files.move(temporary, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING);
+            }
+            temporary = null;
+        } catch (IOException e) {
+            GraalTruffleRuntime.getRuntime().log(String.format("WARNING: Could not write the profile cache '%s': %s", path, e.getMessage()));
+        } finally {
+            if (temporary != null) {
+                try {
+                    Files.deleteIfExists(temporary);
+                } catch (IOException e) {
+                    // Leave it behind, it does not affect later runs.
+                }
+            }
+        }
+    }
+
+    /**
+     * Identifies a root node across runs, or returns {@code null} if the root node has no source
+     * section to identify it with.
+     */
+    private static String keyOf(RootNode rootNode) {
+        SourceSection section = rootNode.getSourceSection();
+        if (section == null || !section.isAvailable()) {
+            return null;
+        }
+        String source = section.getSource().getPath() != null ? section.getSource().getPath() : section.getSource().getName();
+        String key = rootNode.getName() + "@" + source + ":" + section.getCharIndex() + ":" + section.getCharLength();
+        return key.replace(SEPARATOR, " ").replace('\n', ' ').replace('\r', ' ');
+    }
+
+    private static String nameOf(Class<?> type) {
+        return type == null ? NO_TYPE : type.getName();
+    }
+
+    private static Class<?> resolveType(String name, ClassLoader loader) {
+        if (name.equals(NO_TYPE)) {
+            return null;
+        }
+        try {
+            return Class.forName(name, false, loader);
+        } catch (ClassNotFoundException | LinkageError e) {
+            return null;
+        }
+    }
+
+    private static Class<?>[] resolveTypes(String names, ClassLoader loader) {
+        if (names.equals(NO_TYPE)) {
+            return null;
+        }
+        String[] parts = names.split(TYPE_SEPARATOR, -1);
+        Class<?>[] types = new Class<?>[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            types[i] = resolveType(parts[i], loader);
+            if (types[i] == null && !parts[i].equals(NO_TYPE)) {
+                // The type is gone, so the recorded profile no longer applies.
+                return null;
+            }
+        }
+        return types;
+    }
+
+    private static final class Entry {
+        final String argumentTypes;
+        final String returnType;
+
+        Entry(String argumentTypes, String returnType) {
+            this.argumentTypes = argumentTypes;
+            this.returnType = returnType;
+        }
+    }
+
+    private static final class Dispatcher extends AbstractGraalTruffleRuntimeListener {
+
+        private Dispatcher(GraalTruffleRuntime runtime) {
+            super(runtime);
+        }
+
+        @Override
+        public void onCompilationSuccess(OptimizedCallTarget target, TruffleInlining inliningDecision, GraphInfo graph, CompilationResultInfo result) {
+            ProfileCache cache = target.engine.profileCache;
+            if (cache != null) {
+                cache.recordCompilation(target);
+            }
+        }
+
+        @Override
+        public void onEngineClosed(EngineData runtimeData) {
+            ProfileCache cache = runtimeData.profileCache;
+            if (cache != null) {
+                openCaches.remove(cache);
+                cache.write();
+            }
+        }
+
+        @Override
+        public void onShutdown() {
+            ProfileCache[] caches;
+            synchronized (openCaches) {
+                caches = openCaches.toArray(new ProfileCache[0]);
+                openCaches.clear();
+            }
+            for (ProfileCache cache : caches) {
+                cache.write();
+            }
+        }
+    }
+}
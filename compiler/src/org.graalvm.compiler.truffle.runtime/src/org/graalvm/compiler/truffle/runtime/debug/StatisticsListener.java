@@ -35,6 +35,7 @@ import java.util.LongSummaryStatistics;
 import java.util.Map;
 import java.util.SortedSet;
 import java.util.TreeSet;
+import java.util.WeakHashMap;
 import java.util.function.Function;
 
 import org.graalvm.compiler.truffle.common.TruffleCompilerListener.CompilationResultInfo;
@@ -68,6 +69,9 @@ public final class StatisticsListener extends AbstractGraalTruffleRuntimeListene
 
     private final LongSummaryStatistics timeToQueue = new LongSummaryStatistics();
     private final LongSummaryStatistics timeToCompilation = new LongSummaryStatistics();
+    private final LongSummaryStatistics timeInQueue = new LongSummaryStatistics();
+    private final IntSummaryStatistics queueDepth = new IntSummaryStatistics();
+    private final Map<OptimizedCallTarget, Long> queuedTimes = new WeakHashMap<>();
 
     private final IntSummaryStatistics nodeCount = new IntSummaryStatistics();
     private final IntSummaryStatistics nodeCountTrivial = new IntSummaryStatistics();
@@ -132,6 +136,8 @@ public final class StatisticsListener extends AbstractGraalTruffleRuntimeListene
         if (firstCompilation == 0) {
             firstCompilation = System.nanoTime();
         }
+        queuedTimes.put(target, System.nanoTime());
+        queueDepth.accept(runtime.getCompilationQueueSize());
         long timeStamp = target.getInitializedTimestamp();
         if (timeStamp != 0) {
             timeToQueue.accept(System.nanoTime() - timeStamp);
@@ -141,6 +147,7 @@ public final class StatisticsListener extends AbstractGraalTruffleRuntimeListene
     @Override
     public synchronized void onCompilationDequeued(OptimizedCallTarget target, Object source, CharSequence reason) {
         dequeues++;
+        queuedTimes.remove(target);
     }
 
     @Override
@@ -157,6 +164,10 @@ public final class StatisticsListener extends AbstractGraalTruffleRuntimeListene
         if (timeStamp != 0) {
             timeToCompilation.accept(times.compilationStarted - timeStamp);
         }
+        Long queuedTime = queuedTimes.remove(target);
+        if (queuedTime != null) {
+            timeInQueue.accept(times.compilationStarted - queuedTime);
+        }
     }
 
     @Override
@@ -257,9 +268,11 @@ public final class StatisticsListener extends AbstractGraalTruffleRuntimeListene
         printStatistic(rt, "Queue Accuracy", 1.0 - dequeues / (double) queues);
         printStatistic(rt, "Compilation Utilization", compilationTime.getSum() / (double) (endTime - firstCompilation));
         printStatistic(rt, "Remaining Compilation Queue", rt.getCompilationQueueSize());
+        printStatistic(rt, "Compilation Queue Depth", queueDepth);
 
         printStatisticTime(rt, "Time to queue", timeToQueue);
         printStatisticTime(rt, "Time to compilation", timeToCompilation);
+        printStatisticTime(rt, "Time in queue", timeInQueue);
 
         printStatisticTime(rt, "Compilation time", compilationTime);
         printStatisticTime(rt, "  Truffle Tier", compilationTimeTruffleTier);
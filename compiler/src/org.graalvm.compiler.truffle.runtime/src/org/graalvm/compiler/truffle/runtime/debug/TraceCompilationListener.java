@@ -183,6 +183,17 @@ public final class TraceCompilationListener extends AbstractGraalTruffleRuntimeL
         }
     }
 
+    @Override
+    public void onCompilationCapped(OptimizedCallTarget target, boolean firstTierOnly, CharSequence reason, int count) {
+        if (target.getOptionValue(TraceCompilation) || target.getOptionValue(TraceCompilationDetails)) {
+            Map<String, Object> properties = defaultProperties(target);
+            properties.put("Reason", reason);
+            properties.put("Count", count);
+            properties.put("Cap", firstTierOnly ? "first tier" : "interpreter");
+            runtime.logEvent(0, "opt capped", target.toString(), properties);
+        }
+    }
+
     /**
      * Determines if a failure is permanent.
      *
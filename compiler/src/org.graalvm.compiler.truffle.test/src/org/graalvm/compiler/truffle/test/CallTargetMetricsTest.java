@@ -0,0 +1,184 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.truffle.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.ref.WeakReference;
+
+import org.graalvm.compiler.truffle.options.PolyglotCompilerOptions;
+import org.graalvm.compiler.truffle.runtime.CallTargetMetrics;
+import org.graalvm.compiler.truffle.runtime.CallTargetMetrics.EngineMetrics;
+import org.graalvm.compiler.truffle.runtime.GraalTruffleRuntime;
+import org.graalvm.compiler.truffle.runtime.OptimizedCallTarget;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.Truffle;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.nodes.RootNode;
+import com.oracle.truffle.api.test.GCUtils;
+
+public class CallTargetMetricsTest extends TestWithSynchronousCompiling {
+
+    private static final GraalTruffleRuntime runtime = (GraalTruffleRuntime) Truffle.getRuntime();
+
+    volatile boolean deoptimize;
+
+    @Before
+    @Override
+    public void before() {
+        setupContext("engine.CallTargetMetrics", "true");
+    }
+
+    @Test
+    public void testCallsAndCompilation() {
+        OptimizedCallTarget target = (OptimizedCallTarget) runtime.createCallTarget(RootNode.createConstantNode(42));
+        CallTargetMetrics metrics = target.getMetrics();
+        assertNotNull(metrics);
+        int compilationThreshold = target.getOptionValue(PolyglotCompilerOptions.CompilationThreshold);
+        for (int i = 0; i < compilationThreshold; i++) {
+            assertNotCompiled(target);
+            target.call();
+        }
+        assertCompiled(target);
+        assertTrue(metrics.getInterpretedCallCount() >= compilationThreshold - 1);
+        assertTrue(metrics.getCompilationCount() >= 1);
+        assertTrue(metrics.getCodeSize() > 0);
+        assertTrue(metrics.getQueueWaitNanos() >= 0);
+        assertTrue(metrics.getEngineMetrics().getTrackedCallTargets().contains(metrics));
+        assertEquals(target.getName(), metrics.getName());
+
+        // calls into last-tier code are not counted
+        long interpretedCalls = metrics.getInterpretedCallCount();
+        for (int i = 0; i < 10; i++) {
+            target.call();
+        }
+        assertEquals(interpretedCalls, metrics.getInterpretedCallCount());
+        assertEquals(0, metrics.getFirstTierCallCount());
+        assertTrue(metrics.isCompiled());
+
+        target.invalidate(null, "test");
+        assertEquals(1, metrics.getInvalidationCount());
+        assertFalse(metrics.isCompiled());
+    }
+
+    @Test
+    public void testFirstTierCalls() {
+        setupContext("engine.CallTargetMetrics", "true", "engine.MultiTier", "true", "engine.FirstTierCompilationThreshold", "10", "engine.Splitting", "false");
+        OptimizedCallTarget target = (OptimizedCallTarget) runtime.createCallTarget(RootNode.createConstantNode(42));
+        CallTargetMetrics metrics = target.getMetrics();
+        for (int i = 0; i < 10; i++) {
+            target.call();
+        }
+        assertCompiled(target);
+        long interpretedCalls = metrics.getInterpretedCallCount();
+        target.call();
+        target.call();
+        assertEquals(interpretedCalls, metrics.getInterpretedCallCount());
+        assertTrue(metrics.getFirstTierCallCount() >= 1);
+        assertTrue(metrics.getInterpretedCallRatio() < 1);
+    }
+
+    @Test
+    public void testDeoptimization() {
+        deoptimize = false;
+        OptimizedCallTarget target = (OptimizedCallTarget) runtime.createCallTarget(new RootNode(null) {
+            @Override
+            public Object execute(VirtualFrame frame) {
+                // deoptimize needs to be volatile otherwise it floats up.
+                if (deoptimize) {
+                    CompilerDirectives.transferToInterpreterAndInvalidate();
+                }
+                return null;
+            }
+        });
+        int compilationThreshold = target.getOptionValue(PolyglotCompilerOptions.CompilationThreshold);
+        for (int i = 0; i < compilationThreshold; i++) {
+            target.call();
+        }
+        assertCompiled(target);
+        assertEquals(0, target.getMetrics().getDeoptimizationCount());
+        EngineMetrics engine = target.getMetrics().getEngineMetrics();
+        long deoptimizations = engine.getDeoptimizationCount();
+
+        deoptimize = true;
+        target.call();
+        assertEquals(1, target.getMetrics().getDeoptimizationCount());
+        assertEquals(deoptimizations + 1, engine.getDeoptimizationCount());
+    }
+
+    @Test
+    public void testCollectedCallTargetsAreNotRetained() throws InterruptedException {
+        OptimizedCallTarget target = compileConstantTarget();
+        EngineMetrics engine = target.getMetrics().getEngineMetrics();
+        assertTrue(CallTargetMetrics.getOpenEngineMetrics().contains(engine));
+        WeakReference<CallTargetMetrics> metricsRef = new WeakReference<>(target.getMetrics());
+        WeakReference<OptimizedCallTarget> targetRef = new WeakReference<>(target);
+        target.invalidate(null, "test");
+        target = null;
+        GCUtils.assertGc("Call target should be collected", targetRef);
+
+        // tracking another call target removes the collected one
+        for (int i = 0; i < 100 && metricsRef.get() != null; i++) {
+            compileConstantTarget();
+            System.gc();
+            Thread.sleep(10);
+        }
+        assertNull("Metrics of a collected call target should not be retained", metricsRef.get());
+    }
+
+    private static OptimizedCallTarget compileConstantTarget() {
+        OptimizedCallTarget target = (OptimizedCallTarget) runtime.createCallTarget(RootNode.createConstantNode(42));
+        int compilationThreshold = target.getOptionValue(PolyglotCompilerOptions.CompilationThreshold);
+        for (int i = 0; i < compilationThreshold; i++) {
+            target.call();
+        }
+        assertCompiled(target);
+        return target;
+    }
+
+    @Test
+    public void testEnabledByDefault() {
+        setupContext();
+        OptimizedCallTarget target = (OptimizedCallTarget) runtime.createCallTarget(RootNode.createConstantNode(42));
+        target.call();
+        assertNotNull(target.getMetrics());
+        assertEquals(1, target.getMetrics().getInterpretedCallCount());
+    }
+
+    @Test
+    public void testDisabled() {
+        setupContext("engine.CallTargetMetrics", "false");
+        OptimizedCallTarget target = (OptimizedCallTarget) runtime.createCallTarget(RootNode.createConstantNode(42));
+        target.call();
+        assertNull(target.getMetrics());
+    }
+}
@@ -29,7 +29,9 @@ import static org.graalvm.compiler.truffle.options.PolyglotCompilerOptions.First
 
 import org.graalvm.compiler.truffle.runtime.GraalCompilerDirectives;
 import org.graalvm.compiler.truffle.runtime.OptimizedCallTarget;
+import org.graalvm.compiler.truffle.runtime.OptimizedDirectCallNode;
 import org.graalvm.compiler.truffle.runtime.TruffleRuntimeOptions;
+import org.graalvm.options.OptionKey;
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -38,6 +40,9 @@ import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.Truffle;
 import com.oracle.truffle.api.frame.VirtualFrame;
 import com.oracle.truffle.api.nodes.DirectCallNode;
+import com.oracle.truffle.api.nodes.LoopNode;
+import com.oracle.truffle.api.nodes.Node;
+import com.oracle.truffle.api.nodes.RepeatingNode;
 import com.oracle.truffle.api.nodes.RootNode;
 import org.graalvm.polyglot.Context;
 
@@ -82,6 +87,48 @@ public class MultiTierCompilationTest extends PartialEvaluationTest {
         }
     }
 
+    private static final int LOOP_ITERATIONS = 100;
+
+    private static class CountingRepeatingNode extends Node implements RepeatingNode {
+        private int iteration;
+
+        @Override
+        public boolean executeRepeating(VirtualFrame frame) {
+            if (iteration < LOOP_ITERATIONS) {
+                iteration++;
+                return true;
+            }
+            iteration = 0;
+            return false;
+        }
+    }
+
+    private static class FirstTierProfilingRootNode extends RootNode {
+        @Child private DirectCallNode callNode;
+        @Child private LoopNode loopNode;
+
+        FirstTierProfilingRootNode(CallTarget target) {
+            super(null);
+            this.callNode = Truffle.getRuntime().createDirectCallNode(target);
+            this.loopNode = Truffle.getRuntime().createLoopNode(new CountingRepeatingNode());
+        }
+
+        @Override
+        public Object execute(VirtualFrame frame) {
+            loopNode.execute(frame);
+            callNode.call(frame.getArguments());
+            if (CompilerDirectives.inInterpreter()) {
+                return "interpreter";
+            }
+            boundary();
+            String tier = GraalCompilerDirectives.inFirstTier() ? "first-tier" : "last-tier";
+            if (CompilerDirectives.hasNextTier()) {
+                return tier + ":profiling";
+            }
+            return tier;
+        }
+    }
+
     @CompilerDirectives.TruffleBoundary
     private static void boundary() {
     }
@@ -106,4 +153,62 @@ public class MultiTierCompilationTest extends PartialEvaluationTest {
         }
         Assert.assertEquals("callee:inlined", multiTierTarget.call());
     }
+
+    @Test
+    public void testFirstTierProfiling() {
+        setupFirstTierProfilingContext(true);
+        OptimizedCallTarget target = (OptimizedCallTarget) Truffle.getRuntime().createCallTarget(new FirstTierProfilingRootNode(Truffle.getRuntime().createCallTarget(RootNode.createConstantNode(42))));
+        OptimizedDirectCallNode callNode = (OptimizedDirectCallNode) ((FirstTierProfilingRootNode) target.getRootNode()).callNode;
+
+        Assert.assertEquals("first-tier:profiling", callUntilCompiled(target, FirstTierCompilationThreshold));
+        int callCount = callNode.getCallCount();
+        int callAndLoopCount = target.getCallAndLoopCount();
+        Assert.assertEquals("first-tier:profiling", target.call());
+        Assert.assertEquals("First tier code should count the calls", callCount + 1, callNode.getCallCount());
+        Assert.assertTrue("First tier code should report the loop iterations", target.getCallAndLoopCount() - callAndLoopCount >= LOOP_ITERATIONS);
+
+        Assert.assertEquals("last-tier", callUntil(target, "last-tier", CompilationThreshold));
+        callCount = callNode.getCallCount();
+        callAndLoopCount = target.getCallAndLoopCount();
+        Assert.assertEquals("last-tier", target.call());
+        Assert.assertEquals("Last tier code should not count the calls", callCount, callNode.getCallCount());
+        Assert.assertEquals("Last tier code should not report the loop iterations", callAndLoopCount, target.getCallAndLoopCount());
+    }
+
+    @Test
+    public void testFirstTierProfilingDisabled() {
+        setupFirstTierProfilingContext(false);
+        OptimizedCallTarget target = (OptimizedCallTarget) Truffle.getRuntime().createCallTarget(new FirstTierProfilingRootNode(Truffle.getRuntime().createCallTarget(RootNode.createConstantNode(42))));
+        OptimizedDirectCallNode callNode = (OptimizedDirectCallNode) ((FirstTierProfilingRootNode) target.getRootNode()).callNode;
+
+        Assert.assertEquals("first-tier", callUntilCompiled(target, FirstTierCompilationThreshold));
+        int callCount = callNode.getCallCount();
+        int callAndLoopCount = target.getCallAndLoopCount();
+        Assert.assertEquals("first-tier", target.call());
+        Assert.assertEquals("First tier code should not count the calls", callCount, callNode.getCallCount());
+        Assert.assertEquals("First tier code should not report the loop iterations", callAndLoopCount, target.getCallAndLoopCount());
+    }
+
+    private void setupFirstTierProfilingContext(boolean firstTierProfiling) {
+        setupContext(Context.newBuilder().allowExperimentalOptions(true).option("engine.CompileImmediately", "false").option("engine.BackgroundCompilation", "false").option("engine.MultiTier",
+                        "true").option("engine.Splitting", "false").option("engine.FirstTierProfiling", String.valueOf(firstTierProfiling)).build());
+    }
+
+    private static Object callUntilCompiled(OptimizedCallTarget target, OptionKey<Integer> threshold) {
+        int maxCalls = TruffleRuntimeOptions.getPolyglotOptionValue(target.getOptionValues(), threshold) + 1;
+        Object result = target.call();
+        for (int i = 0; i < maxCalls && "interpreter".equals(result); i++) {
+            result = target.call();
+        }
+        return result;
+    }
+
+    private static Object callUntil(OptimizedCallTarget target, String expected, OptionKey<Integer> threshold) {
+        int maxCalls = TruffleRuntimeOptions.getPolyglotOptionValue(target.getOptionValues(), threshold) + 1;
+        Object result = target.call();
+        for (int i = 0; i < maxCalls && !expected.equals(result); i++) {
+            result = target.call();
+        }
+        return result;
+    }
 }
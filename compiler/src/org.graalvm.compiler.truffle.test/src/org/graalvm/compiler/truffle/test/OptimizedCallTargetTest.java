@@ -32,6 +32,8 @@ import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
@@ -39,6 +41,7 @@ import java.util.stream.IntStream;
 import org.graalvm.compiler.core.common.util.Util;
 import org.graalvm.compiler.truffle.options.PolyglotCompilerOptions;
 import org.graalvm.compiler.truffle.runtime.GraalTruffleRuntime;
+import org.graalvm.compiler.truffle.runtime.GraalTruffleRuntimeListener;
 import org.graalvm.compiler.truffle.runtime.OptimizedCallTarget;
 import org.graalvm.compiler.truffle.runtime.OptimizedOSRLoopNode;
 import org.graalvm.compiler.truffle.test.nodes.AbstractTestNode;
@@ -51,6 +54,7 @@ import org.junit.Test;
 import com.oracle.truffle.api.Assumption;
 import com.oracle.truffle.api.CallTarget;
 import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
 import com.oracle.truffle.api.Truffle;
 import com.oracle.truffle.api.frame.FrameDescriptor;
 import com.oracle.truffle.api.frame.VirtualFrame;
@@ -521,4 +525,93 @@ public class OptimizedCallTargetTest extends TestWithSynchronousCompiling {
         ct.call(IntStream.range(0, 20).mapToObj(String::valueOf).toArray());
         assertCompiled(ct);
     }
+
+    @Test
+    public void testDeoptimizationLoopCap() {
+        setupContext("engine.DeoptimizationLoopThreshold", "3");
+        List<String> capped = new ArrayList<>();
+        GraalTruffleRuntimeListener listener = new GraalTruffleRuntimeListener() {
+            @Override
+            public void onCompilationCapped(OptimizedCallTarget target, boolean firstTierOnly, CharSequence reason, int count) {
+                capped.add(reason + " " + count + " " + firstTierOnly);
+            }
+        };
+        runtime.addListener(listener);
+        try {
+            OptimizedCallTarget target = (OptimizedCallTarget) runtime.createCallTarget(new RootTestNode(new FrameDescriptor(), "loop", new ConstantTestNode(42)));
+            final int compilationThreshold = target.getOptionValue(PolyglotCompilerOptions.CompilationThreshold);
+            for (int i = 0; i < 3; i++) {
+                assertFalse(target.isCompilationCapped());
+                for (int j = 0; j <= compilationThreshold && !target.isValid(); j++) {
+                    target.call();
+                }
+                assertCompiled(target);
+                target.invalidate(null, "flapping");
+            }
+            assertTrue(target.isCompilationCapped());
+            assertEquals(Arrays.asList("flapping 3 false"), capped);
+            for (int i = 0; i < 2 * compilationThreshold; i++) {
+                target.call();
+                assertNotCompiled(target);
+            }
+        } finally {
+            runtime.removeListener(listener);
+        }
+    }
+
+    /**
+     * Deoptimizes and respecializes whenever it sees a larger argument than before, like a node
+     * that keeps specializing while the AST warms up.
+     */
+    private static final class SpecializingRootNode extends RootNode {
+
+        @CompilationFinal private int specialization;
+
+        SpecializingRootNode() {
+            super(null);
+        }
+
+        @Override
+        public Object execute(VirtualFrame frame) {
+            int value = (int) frame.getArguments()[0];
+            if (value > specialization) {
+                CompilerDirectives.transferToInterpreterAndInvalidate();
+                specialization = value;
+            }
+            return value;
+        }
+    }
+
+    @Test
+    public void testSpecializationChurnStaysCompiled() {
+        setupContext("engine.DeoptimizationLoopThreshold", "3");
+        List<String> capped = new ArrayList<>();
+        GraalTruffleRuntimeListener listener = new GraalTruffleRuntimeListener() {
+            @Override
+            public void onCompilationCapped(OptimizedCallTarget target, boolean firstTierOnly, CharSequence reason, int count) {
+                capped.add(reason + " " + count + " " + firstTierOnly);
+            }
+        };
+        runtime.addListener(listener);
+        try {
+            OptimizedCallTarget target = (OptimizedCallTarget) runtime.createCallTarget(new SpecializingRootNode());
+            final int compilationThreshold = target.getOptionValue(PolyglotCompilerOptions.CompilationThreshold);
+            final int specializations = 25;
+            for (int value = 0; value <= specializations; value++) {
+                for (int i = 0; i <= compilationThreshold && !target.isValid(); i++) {
+                    target.call(value);
+                }
+                assertCompiled(target);
+                if (value < specializations) {
+                    // the next specialization deoptimizes and invalidates the code
+                    target.call(value + 1);
+                    assertNotCompiled(target);
+                }
+            }
+            assertFalse(target.isCompilationCapped());
+            assertTrue(capped.isEmpty());
+        } finally {
+            runtime.removeListener(listener);
+        }
+    }
 }
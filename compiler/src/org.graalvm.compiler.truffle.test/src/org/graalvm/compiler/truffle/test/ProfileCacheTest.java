@@ -0,0 +1,144 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.truffle.test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.graalvm.compiler.truffle.runtime.OptimizedCallTarget;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.oracle.truffle.api.Truffle;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.nodes.RootNode;
+import com.oracle.truffle.api.source.Source;
+import com.oracle.truffle.api.source.SourceSection;
+import com.oracle.truffle.api.test.polyglot.ProxyLanguage;
+
+public class ProfileCacheTest extends TestWithPolyglotOptions {
+
+    private static final Source SOURCE = Source.newBuilder(ProxyLanguage.ID, "first second", "profileCacheTest").build();
+    private static final int REPLAY_THRESHOLD = 10;
+
+    private Path cache;
+
+    @Before
+    public void createCache() throws IOException {
+        cache = Files.createTempFile("profile-cache", ".txt");
+        Files.delete(cache);
+    }
+
+    @After
+    public void deleteCache() throws IOException {
+        Files.deleteIfExists(cache);
+    }
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        // The first run compiles the target and records it.
+        setupCacheContext("engine.CompileImmediately", "true");
+        OptimizedCallTarget first = createTarget("first", 0, 5);
+        first.call();
+        Assert.assertTrue(first.isValid());
+        cleanup();
+        List<String> recorded = Files.readAllLines(cache, StandardCharsets.UTF_8);
+        Assert.assertEquals(1, recorded.size());
+        Assert.assertTrue(recorded.get(0).startsWith("first@"));
+
+        // The second run compiles the recorded target after a few calls only.
+        setupCacheContext();
+        OptimizedCallTarget replayed = createTarget("first", 0, 5);
+        OptimizedCallTarget other = createTarget("second", 6, 6);
+        for (int i = 0; i < REPLAY_THRESHOLD; i++) {
+            replayed.call();
+            other.call();
+        }
+        Assert.assertTrue(replayed.isValid());
+        Assert.assertFalse(other.isValid());
+        cleanup();
+        Assert.assertEquals(recorded, Files.readAllLines(cache, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testMergeWithRecorded() throws IOException {
+        String recorded = "second@profileCacheTest:6:6\t-\t-";
+        Files.write(cache, Arrays.asList("malformed line", recorded), StandardCharsets.UTF_8);
+
+        // The run compiles a target that is not recorded, and not the recorded one.
+        setupCacheContext("engine.CompileImmediately", "true");
+        OptimizedCallTarget first = createTarget("first", 0, 5);
+        first.call();
+        Assert.assertTrue(first.isValid());
+        cleanup();
+
+        List<String> lines = Files.readAllLines(cache, StandardCharsets.UTF_8);
+        Assert.assertEquals(2, lines.size());
+        Assert.assertEquals(recorded, lines.get(0));
+        Assert.assertTrue(lines.get(1).startsWith("first@"));
+        String prefix = cache.getFileName().toString();
+        try (Stream<Path> files = Files.list(cache.toAbsolutePath().getParent())) {
+            Assert.assertFalse("The temporary file should replace the cache", files.anyMatch((p) -> p.getFileName().toString().startsWith(prefix) && p.toString().endsWith(".tmp")));
+        }
+    }
+
+    private void setupCacheContext(String... options) {
+        String[] keyValuePairs = Arrays.copyOf(options, options.length + 6);
+        keyValuePairs[options.length] = "engine.ProfileCache";
+        keyValuePairs[options.length + 1] = cache.toString();
+        keyValuePairs[options.length + 2] = "engine.ProfileCacheReplayThreshold";
+        keyValuePairs[options.length + 3] = String.valueOf(REPLAY_THRESHOLD);
+        keyValuePairs[options.length + 4] = "engine.BackgroundCompilation";
+        keyValuePairs[options.length + 5] = "false";
+        setupContext(keyValuePairs);
+    }
+
+    private static OptimizedCallTarget createTarget(String name, int charIndex, int length) {
+        SourceSection section = SOURCE.createSection(charIndex, length);
+        return (OptimizedCallTarget) Truffle.getRuntime().createCallTarget(new RootNode(null) {
+            @Override
+            public String getName() {
+                return name;
+            }
+
+            @Override
+            public SourceSection getSourceSection() {
+                return section;
+            }
+
+            @Override
+            public Object execute(VirtualFrame frame) {
+                return 42;
+            }
+        });
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package org.graalvm.compiler.truffle.test;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.graalvm.compiler.truffle.common.TruffleCompilationTask;
+import org.graalvm.compiler.truffle.runtime.BackgroundCompileQueue;
+import org.graalvm.compiler.truffle.runtime.BackgroundCompileQueue.Priority;
+import org.graalvm.compiler.truffle.runtime.OptimizedCallTarget;
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.oracle.truffle.api.Truffle;
+import com.oracle.truffle.api.nodes.RootNode;
+
+public class TraversingCompilationQueueTest extends TestWithPolyglotOptions {
+
+    @Test
+    public void testTraversingOrder() throws InterruptedException {
+        setupContext("engine.TraversingCompilationQueue", "true", "engine.CompilerThreads", "1");
+        // The first tier request is taken first, then the hot target overtakes the cold one.
+        Assert.assertEquals(Arrays.asList("first tier", "hot", "cold"), dequeueOrder());
+    }
+
+    @Test
+    public void testDefaultOrder() throws InterruptedException {
+        setupContext("engine.CompilerThreads", "1");
+        // Within a tier, the requests are taken first-in-first-out, regardless of hotness.
+        Assert.assertEquals(Arrays.asList("first tier", "cold", "hot"), dequeueOrder());
+    }
+
+    /**
+     * Queues a cold and a hot last tier request and a first tier request behind a request that
+     * blocks the only compiler thread, makes the hot target gain calls while they are queued, and
+     * returns the order in which the requests are executed.
+     */
+    private static List<String> dequeueOrder() throws InterruptedException {
+        BackgroundCompileQueue queue = new BackgroundCompileQueue();
+        try {
+            OptimizedCallTarget blocking = createTarget();
+            OptimizedCallTarget cold = createTarget();
+            OptimizedCallTarget hot = createTarget();
+            OptimizedCallTarget firstTier = createTarget();
+
+            CountDownLatch started = new CountDownLatch(1);
+            CountDownLatch release = new CountDownLatch(1);
+            queue.submitTask(Priority.LAST_TIER, blocking, new BackgroundCompileQueue.Request() {
+                @Override
+                protected void execute(TruffleCompilationTask task, WeakReference<OptimizedCallTarget> targetRef) {
+                    started.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        throw new AssertionError(e);
+                    }
+                }
+            });
+            Assert.assertTrue(started.await(1, TimeUnit.MINUTES));
+
+            List<String> order = new ArrayList<>();
+            CountDownLatch done = new CountDownLatch(3);
+            queue.submitTask(Priority.LAST_TIER, cold, new RecordingRequest("cold", cold, order, done));
+            queue.submitTask(Priority.LAST_TIER, hot, new RecordingRequest("hot", hot, order, done));
+            queue.submitTask(Priority.FIRST_TIER, firstTier, new RecordingRequest("first tier", firstTier, order, done));
+            for (int i = 0; i < 100; i++) {
+                hot.call();
+            }
+            // Let the rates be re-measured when the requests are dequeued.
+            Thread.sleep(10);
+            release.countDown();
+            Assert.assertTrue(done.await(1, TimeUnit.MINUTES));
+            synchronized (order) {
+                return new ArrayList<>(order);
+            }
+        } finally {
+            queue.shutdownAndAwaitTermination(60000);
+        }
+    }
+
+    private static OptimizedCallTarget createTarget() {
+        return (OptimizedCallTarget) Truffle.getRuntime().createCallTarget(RootNode.createConstantNode(42));
+    }
+
+    private static final class RecordingRequest extends BackgroundCompileQueue.Request {
+        private final String name;
+        // Keeps the target alive, so that the queue does not drop the request.
+        private final OptimizedCallTarget target;
+        private final List<String> order;
+        private final CountDownLatch done;
+
+        RecordingRequest(String name, OptimizedCallTarget target, List<String> order, CountDownLatch done) {
+            this.name = name;
+            this.target = target;
+            this.order = order;
+            this.done = done;
+        }
+
+        @Override
+        protected void execute(TruffleCompilationTask task, WeakReference<OptimizedCallTarget> targetRef) {
+            Assert.assertSame(target, targetRef.get());
+            synchronized (order) {
+                order.add(name);
+            }
+            done.countDown();
+        }
+    }
+}
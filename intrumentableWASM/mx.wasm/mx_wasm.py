@@ -72,6 +72,7 @@ microbenchmarks = [
     "phong",
     "qsort",
     "strings",
+    "virtual-dispatch",
 ]
 
 
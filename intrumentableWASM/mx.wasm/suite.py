@@ -189,7 +189,7 @@ suite = {
         "mx:JMH_1_21",
       ],
       "javaCompliance" : "1.8+",
-      "annotationProcessors" : ["mx:JMH_1_21"],
+      "annotationProcessors" : ["mx:JMH_1_21", "truffle:TRUFFLE_DSL_PROCESSOR"],
       "testProject" : True,
     },
   },
@@ -0,0 +1,152 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+#include <stdlib.h>
+#include <stdint.h>
+#include "harness.h"
+
+/*
+ * Dispatches through tables of function pointers, in the way that C++ virtual calls do, which
+ * makes call_indirect the dominant instruction.
+ */
+
+#define SHAPE_COUNT (100000)
+#define ROUNDS (20)
+
+typedef struct shape shape;
+
+typedef struct {
+  int32_t (*area)(const shape*);
+  int32_t (*perimeter)(const shape*);
+  void (*scale)(shape*, int32_t);
+} shape_vtable;
+
+struct shape {
+  const shape_vtable* vtable;
+  int32_t a;
+  int32_t b;
+};
+
+int32_t square_area(const shape* s) {
+  return s->a * s->a;
+}
+
+int32_t square_perimeter(const shape* s) {
+  return 4 * s->a;
+}
+
+void square_scale(shape* s, int32_t factor) {
+  s->a = s->a * factor % 1000 + 1;
+}
+
+int32_t rectangle_area(const shape* s) {
+  return s->a * s->b;
+}
+
+int32_t rectangle_perimeter(const shape* s) {
+  return 2 * (s->a + s->b);
+}
+
+void rectangle_scale(shape* s, int32_t factor) {
+  s->a = s->a * factor % 1000 + 1;
+  s->b = s->b * factor % 1000 + 1;
+}
+
+int32_t triangle_area(const shape* s) {
+  return s->a * s->b / 2;
+}
+
+int32_t triangle_perimeter(const shape* s) {
+  return s->a + s->b + (s->a > s->b ? s->a : s->b);
+}
+
+void triangle_scale(shape* s, int32_t factor) {
+  s->b = s->b * factor % 1000 + 1;
+}
+
+const shape_vtable square_vtable = {square_area, square_perimeter, square_scale};
+const shape_vtable rectangle_vtable = {rectangle_area, rectangle_perimeter, rectangle_scale};
+const shape_vtable triangle_vtable = {triangle_area, triangle_perimeter, triangle_scale};
+
+shape shapes[SHAPE_COUNT];
+
+int benchmarkWarmupCount() {
+  return 10;
+}
+
+void benchmarkSetupOnce() {
+}
+
+void benchmarkSetupEach() {
+  for (int32_t i = 0; i < SHAPE_COUNT; i++) {
+    switch (i % 7) {
+      case 0:
+      case 3:
+      case 5:
+        shapes[i].vtable = &square_vtable;
+        break;
+      case 1:
+      case 4:
+        shapes[i].vtable = &rectangle_vtable;
+        break;
+      default:
+        shapes[i].vtable = &triangle_vtable;
+        break;
+    }
+    shapes[i].a = i % 97 + 1;
+    shapes[i].b = i % 89 + 1;
+  }
+}
+
+void benchmarkTeardownEach() {
+}
+
+int benchmarkRun() {
+  int32_t checksum = 0;
+  for (int32_t round = 0; round < ROUNDS; round++) {
+    for (int32_t i = 0; i < SHAPE_COUNT; i++) {
+      shape* s = &shapes[i];
+      checksum = (checksum + s->vtable->area(s)) % 1000003;
+      checksum = (checksum + s->vtable->perimeter(s)) % 1000003;
+      s->vtable->scale(s, round % 3 + 2);
+    }
+  }
+  return checksum;
+}
@@ -0,0 +1,102 @@
+;;
+;; Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+;; DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+;;
+;; The Universal Permissive License (UPL), Version 1.0
+;;
+;; Subject to the condition set forth below, permission is hereby granted to any
+;; person obtaining a copy of this software, associated documentation and/or
+;; data (collectively the "Software"), free of charge and under any and all
+;; copyright rights in the Software, and any and all patent rights owned or
+;; freely licensable by each licensor hereunder covering either (i) the
+;; unmodified Software as contributed to or provided by such licensor, or (ii)
+;; the Larger Works (as defined below), to deal in both
+;;
+;; (a) the Software, and
+;;
+;; (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+;; one is included with the Software each a "Larger Work" to which the Software
+;; is contributed by such licensors),
+;;
+;; without restriction, including without limitation the rights to copy, create
+;; derivative works of, display, perform, and distribute the Software and make,
+;; use, sell, offer for sale, import, export, have made, and have sold the
+;; Software and the Larger Work(s), and to sublicense the foregoing rights on
+;; either these or other terms.
+;;
+;; This license is subject to the following condition:
+;;
+;; The above copyright notice and either this complete permission notice or at a
+;; minimum a reference to the UPL must be included in all copies or substantial
+;; portions of the Software.
+;;
+;; THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+;; IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+;; FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+;; AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+;; LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+;; OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+;; SOFTWARE.
+;;
+;; Nested loops that branch out of several enclosing blocks at once, to measure the cost of
+;; control transfer in the interpreter and in compiled code.
+(module
+    (type $void (func))
+    (type $int (func (result i32)))
+    (func (export "_benchmarkSetupEach") (type $void))
+    (func (export "_benchmarkTeardownEach") (type $void))
+    (func (export "_benchmarkRun") (type $int) (local $i i32) (local $j i32) (local $k i32) (local $sum i32)
+        block $EXIT_I
+            loop $LOOP_I
+                i32.const 0
+                local.set $j
+                block $EXIT_J
+                    loop $LOOP_J
+                        i32.const 0
+                        local.set $k
+                        loop $LOOP_K
+                            ;; sum = sum + (i ^ j) + k
+                            local.get $sum
+                            local.get $i
+                            local.get $j
+                            i32.xor
+                            local.get $k
+                            i32.add
+                            i32.add
+                            local.set $sum
+                            ;; Leave the two inner loops at once.
+                            local.get $j
+                            local.get $k
+                            i32.add
+                            i32.const 250
+                            i32.eq
+                            br_if $EXIT_J
+                            local.get $k
+                            i32.const 1
+                            i32.add
+                            local.tee $k
+                            i32.const 100
+                            i32.lt_s
+                            br_if $LOOP_K
+                        end
+                        local.get $j
+                        i32.const 1
+                        i32.add
+                        local.tee $j
+                        i32.const 200
+                        i32.lt_s
+                        br_if $LOOP_J
+                    end
+                end
+                local.get $i
+                i32.const 1
+                i32.add
+                local.tee $i
+                i32.const 300
+                i32.lt_s
+                br_if $LOOP_I
+            end
+        end
+        local.get $sum
+    )
+)
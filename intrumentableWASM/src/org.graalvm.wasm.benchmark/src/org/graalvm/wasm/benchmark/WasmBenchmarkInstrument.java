@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.graalvm.wasm.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.graalvm.options.OptionCategory;
+import org.graalvm.options.OptionDescriptors;
+import org.graalvm.options.OptionKey;
+
+import com.oracle.truffle.api.Option;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.instrumentation.EventContext;
+import com.oracle.truffle.api.instrumentation.ExecutionEventListener;
+import com.oracle.truffle.api.instrumentation.SourceSectionFilter;
+import com.oracle.truffle.api.instrumentation.Tag;
+import com.oracle.truffle.api.instrumentation.TruffleInstrument;
+import com.oracle.truffle.api.instrumentation.TruffleInstrument.Registration;
+import com.oracle.truffle.api.nodes.LanguageInfo;
+
+/**
+ * A minimal instrument used to measure the cost of instrumenting the WebAssembly instruction
+ * nodes. When enabled, it attaches an execution listener to all the nodes that carry one of the
+ * requested tags and counts the number of times they are entered.
+ */
+@Registration(id = WasmBenchmarkInstrument.ID, name = "WebAssembly Benchmark Instrument", services = WasmBenchmarkInstrument.class)
+public final class WasmBenchmarkInstrument extends TruffleInstrument {
+    public static final String ID = "wasm-benchmark-instrument";
+
+    @Option(name = "", help = "Enable the benchmark instrument (default: false).", category = OptionCategory.INTERNAL) //
+    static final OptionKey<Boolean> Enabled = new OptionKey<>(false);
+
+    @Option(name = "Tags", help = "Comma-separated identifiers of the tags to instrument (default: STATEMENT).", category = OptionCategory.INTERNAL) //
+    static final OptionKey<String> Tags = new OptionKey<>("STATEMENT");
+
+    private final LongAdder enterCount = new LongAdder();
+
+    @Override
+    protected void onCreate(Env env) {
+        if (Enabled.getValue(env.getOptions())) {
+            final LanguageInfo wasm = env.getLanguages().get("wasm");
+            final List<Class<? extends Tag>> tags = new ArrayList<>();
+            for (String identifier : Tags.getValue(env.getOptions()).split(",")) {
+                final Class<? extends Tag> tag = Tag.findProvidedTag(wasm, identifier.trim());
+                if (tag == null) {
+                    throw new IllegalArgumentException("Tag '" + identifier + "' is not provided by the WebAssembly language.");
+                }
+                tags.add(tag);
+            }
+            final SourceSectionFilter filter = SourceSectionFilter.newBuilder().tagIs(tags.toArray(new Class<?>[0])).build();
+            env.getInstrumenter().attachExecutionEventListener(filter, new ExecutionEventListener() {
+                @Override
+                public void onEnter(EventContext context, VirtualFrame frame) {
+                    enterCount.increment();
+                }
+
+                @Override
+                public void onReturnValue(EventContext context, VirtualFrame frame, Object result) {
+                }
+
+                @Override
+                public void onReturnExceptional(EventContext context, VirtualFrame frame, Throwable exception) {
+                }
+            });
+        }
+        env.registerService(this);
+    }
+
+    @Override
+    protected OptionDescriptors getOptionDescriptors() {
+        return new WasmBenchmarkInstrumentOptionDescriptors();
+    }
+
+    public long enterCount() {
+        return enterCount.sum();
+    }
+}
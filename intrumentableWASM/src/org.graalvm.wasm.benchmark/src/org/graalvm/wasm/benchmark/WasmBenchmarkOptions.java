@@ -42,4 +42,22 @@ package org.graalvm.wasm.benchmark;
 
 public class WasmBenchmarkOptions {
     public static final String BENCHMARK_NAME = System.getProperty("wasmbench.benchmarkName");
+
+    /**
+     * Comma-separated identifiers of the tags that the {@link WasmBenchmarkInstrument} attaches to,
+     * for example {@code STATEMENT} or {@code MEMORY_ACCESS,BRANCH}. When unset, no instrument is
+     * attached, which gives the baseline to compare against.
+     */
+    public static final String INSTRUMENT_TAGS = System.getProperty("wasmbench.instrumentTags");
+
+    /**
+     * Value of the {@code wasm.LazyFunctionBodies} option, or the language default when unset.
+     */
+    public static final String LAZY_FUNCTION_BODIES = System.getProperty("wasmbench.lazyFunctionBodies");
+
+    /**
+     * When set to {@code true}, the time from the start of parsing until the end of the first call
+     * into the benchmark module, and the resident memory at that point, are printed to stderr.
+     */
+    public static final boolean REPORT_STARTUP = Boolean.getBoolean("wasmbench.reportStartup");
 }
@@ -47,6 +47,10 @@ import static org.graalvm.wasm.benchmark.WasmBenchmarkSuiteBase.Defaults.WARMUP_
 import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.Map;
 
 import org.graalvm.polyglot.Context;
@@ -90,6 +94,8 @@ public abstract class WasmBenchmarkSuiteBase {
          * Benchmarks must not be validated via their standard out, unlike tests.
          */
         private ByteArrayOutputStream dummyStdout = new ByteArrayOutputStream();
+        private long startupStartTime;
+        private boolean startupReported;
 
         @Setup(Level.Trial)
         public void setup() throws IOException, InterruptedException {
@@ -103,8 +109,16 @@ public abstract class WasmBenchmarkSuiteBase {
 
             Assert.assertNotNull(String.format("Benchmark %s.%s not found", benchmarkResource(), wantedBenchmarkName), benchmarkCase);
 
+            startupStartTime = System.nanoTime();
             Context.Builder contextBuilder = Context.newBuilder("wasm");
             contextBuilder.option("wasm.Builtins", "testutil,env:emscripten,memory");
+            if (WasmBenchmarkOptions.LAZY_FUNCTION_BODIES != null) {
+                contextBuilder.option("wasm.LazyFunctionBodies", WasmBenchmarkOptions.LAZY_FUNCTION_BODIES);
+            }
+            if (WasmBenchmarkOptions.INSTRUMENT_TAGS != null) {
+                contextBuilder.option(WasmBenchmarkInstrument.ID, "true");
+                contextBuilder.option(WasmBenchmarkInstrument.ID + ".Tags", WasmBenchmarkOptions.INSTRUMENT_TAGS);
+            }
 
             Map<String, byte[]> binaries = benchmarkCase.createBinaries();
             Context context = contextBuilder.build();
@@ -134,7 +148,40 @@ public abstract class WasmBenchmarkSuiteBase {
 
             if (benchmarkSetupOnce != null) {
                 benchmarkSetupOnce.execute();
+                reportStartup();
+            }
+        }
+
+        /**
+         * Reports the startup cost of the benchmark module after the first call into it. Modules
+         * with many functions that are never called mostly measure the parsing of the function
+         * bodies here.
+         */
+        private void reportStartup() {
+            if (!WasmBenchmarkOptions.REPORT_STARTUP || startupReported) {
+                return;
+            }
+            startupReported = true;
+            final long timeToFirstCall = System.nanoTime() - startupStartTime;
+            System.err.printf("%s: time-to-first-call = %.3f ms, resident memory = %d kB%n",
+                            benchmarkCase.name(), timeToFirstCall / 1_000_000.0, residentMemoryKilobytes());
+        }
+
+        private static long residentMemoryKilobytes() {
+            final Path status = Paths.get("/proc/self/status");
+            if (Files.isReadable(status)) {
+                try {
+                    for (String line : Files.readAllLines(status, StandardCharsets.UTF_8)) {
+                        if (line.startsWith("VmRSS:")) {
+                            return Long.parseLong(line.substring("VmRSS:".length()).replace("kB", "").trim());
+                        }
+                    }
+                } catch (IOException | NumberFormatException e) {
+                    // Fall back to the heap usage below.
+                }
             }
+            final Runtime runtime = Runtime.getRuntime();
+            return (runtime.totalMemory() - runtime.freeMemory()) / 1024;
         }
 
         @Setup(Level.Iteration)
@@ -158,6 +205,7 @@ public abstract class WasmBenchmarkSuiteBase {
             // level).
 
             benchmarkSetupEach.execute();
+            reportStartup();
         }
 
         @TearDown(Level.Invocation)
@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.graalvm.wasm.test;
+
+import java.io.IOException;
+
+import org.graalvm.polyglot.Context;
+import org.graalvm.polyglot.ContextPool;
+import org.graalvm.polyglot.Engine;
+import org.graalvm.polyglot.Source;
+import org.graalvm.polyglot.Value;
+import org.graalvm.polyglot.io.ByteSequence;
+import org.graalvm.wasm.utils.Assert;
+import org.graalvm.wasm.utils.WasmBinaryTools;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class WasmContextResetTestSuite {
+    /**
+     * A module whose memory starts with a data segment, with a mutable global, and with exports
+     * that write both and grow the memory.
+     */
+    private static final String PROGRAM = "(module\n" +
+                    "  (memory 1 2)\n" +
+                    "  (data (i32.const 0) \"\\2a\")\n" +
+                    "  (global $g (mut i32) (i32.const 0))\n" +
+                    "  (func (export \"inc\") (result i32)\n" +
+                    "    (global.set $g (i32.add (global.get $g) (i32.const 1)))\n" +
+                    "    (global.get $g))\n" +
+                    "  (func (export \"load\") (param i32) (result i32) (i32.load (local.get 0)))\n" +
+                    "  (func (export \"store\") (param i32 i32) (i32.store (local.get 0) (local.get 1)))\n" +
+                    "  (func (export \"grow\") (result i32) (memory.grow (i32.const 1))))";
+
+    private Source source;
+    private Engine engine;
+    private ContextPool pool;
+
+    @Before
+    public void createPool() throws IOException, InterruptedException {
+        source = Source.newBuilder("wasm", ByteSequence.create(WasmBinaryTools.compileWat("reset", PROGRAM)), "main").build();
+        engine = Engine.create();
+        pool = engine.createContextPool(Context.newBuilder("wasm"), 1);
+    }
+
+    @After
+    public void closePool() {
+        pool.close();
+        engine.close();
+    }
+
+    @Test
+    public void testResetAfterMemoryWrites() {
+        final Context first = pool.acquire();
+        first.eval(source);
+        Value bindings = first.getBindings("wasm");
+        Assert.assertEquals("Should be equal: ", 1, bindings.getMember("inc").execute().asInt());
+        bindings.getMember("store").execute(0, 7);
+        bindings.getMember("store").execute(100, 5);
+        pool.release(first);
+
+        // The modules stay linked, and their state is reset to the one after linking.
+        final Context second = pool.acquire();
+        Assert.assertTrue("The context should be reused", first == second);
+        bindings = second.getBindings("wasm");
+        Assert.assertEquals("The data segment should be restored: ", 42, bindings.getMember("load").execute(0).asInt());
+        Assert.assertEquals("The memory should be cleared: ", 0, bindings.getMember("load").execute(100).asInt());
+        Assert.assertEquals("The global should be restored: ", 1, bindings.getMember("inc").execute().asInt());
+        pool.release(second);
+    }
+
+    @Test
+    public void testResetAfterMemoryGrew() {
+        final Context first = pool.acquire();
+        first.eval(source);
+        Assert.assertEquals("Should be equal: ", 1, first.getBindings("wasm").getMember("grow").execute().asInt());
+        pool.release(first);
+
+        // A memory that grew cannot be reset, so the pool closes the context.
+        try {
+            first.eval(source);
+            Assert.fail("The context should be closed");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+        final Context second = pool.acquire();
+        Assert.assertTrue("A new context should be created", first != second);
+        second.eval(source);
+        Assert.assertEquals("Should be equal: ", 42, second.getBindings("wasm").getMember("load").execute(0).asInt());
+        pool.release(second);
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.graalvm.wasm.test;
+
+import java.io.IOException;
+
+import org.graalvm.polyglot.Context;
+import org.graalvm.polyglot.PolyglotException;
+import org.graalvm.polyglot.Source;
+import org.graalvm.polyglot.Value;
+import org.graalvm.polyglot.io.ByteSequence;
+import org.graalvm.wasm.utils.Assert;
+import org.graalvm.wasm.utils.WasmBinaryTools;
+import org.junit.Test;
+
+public class WasmFunctionBodyParsingTestSuite {
+    private static final String PROGRAM = "(module\n" +
+                    "  (func $square (param i32) (result i32)\n" +
+                    "    (i32.mul (local.get 0) (local.get 0)))\n" +
+                    "  (func $sum (param i32) (result i32) (local i32)\n" +
+                    "    (block\n" +
+                    "      (loop\n" +
+                    "        (br_if 1 (i32.eqz (local.get 0)))\n" +
+                    "        (local.set 1 (i32.add (local.get 1) (call $square (local.get 0))))\n" +
+                    "        (local.set 0 (i32.sub (local.get 0) (i32.const 1)))\n" +
+                    "        (br 0)))\n" +
+                    "    (local.get 1))\n" +
+                    "  (func (export \"main\") (result i32)\n" +
+                    "    (call $sum (i32.const 10))))";
+
+    /**
+     * A module that exports a function {@code f}, whose body starts with the invalid opcode 0xff.
+     */
+    private static final byte[] INVALID_BODY = new byte[]{
+                    0x00, 0x61, 0x73, 0x6d, 0x01, 0x00, 0x00, 0x00,
+                    0x01, 0x05, 0x01, 0x60, 0x00, 0x01, 0x7f,
+                    0x03, 0x02, 0x01, 0x00,
+                    0x07, 0x05, 0x01, 0x01, 0x66, 0x00, 0x00,
+                    0x0a, 0x06, 0x01, 0x04, 0x00, (byte) 0xff, 0x01, 0x0b
+    };
+
+    @Test
+    public void testEagerParsing() throws IOException, InterruptedException {
+        runProgram(newContext().option("wasm.LazyFunctionBodies", "false"));
+    }
+
+    @Test
+    public void testLazyParsing() throws IOException, InterruptedException {
+        runProgram(newContext().option("wasm.LazyFunctionBodies", "true"));
+    }
+
+    @Test
+    public void testParallelParsing() throws IOException, InterruptedException {
+        runProgram(newContext().option("wasm.LazyFunctionBodies", "false").option("wasm.ParallelParsingFunctionCount", "1"));
+    }
+
+    private static void runProgram(Context.Builder builder) throws IOException, InterruptedException {
+        final byte[] binary = WasmBinaryTools.compileWat("parsing", PROGRAM);
+        try (Context context = builder.build()) {
+            context.eval(Source.newBuilder("wasm", ByteSequence.create(binary), "main").build());
+            final Value main = context.getBindings("wasm").getMember("main");
+            Assert.assertEquals("Should be equal: ", 385, main.execute().asInt());
+            Assert.assertEquals("Should be equal: ", 385, main.execute().asInt());
+        }
+    }
+
+    @Test
+    public void testInvalidBodyRejectedByDefault() throws IOException {
+        try (Context context = Context.newBuilder("wasm").build()) {
+            try {
+                context.eval(Source.newBuilder("wasm", ByteSequence.create(INVALID_BODY), "invalid").build());
+                Assert.fail("A module with an invalid function body should not be instantiated");
+            } catch (PolyglotException e) {
+                // expected
+            }
+        }
+    }
+
+    @Test
+    public void testInvalidBodyRejectedOnCallWhenLazy() throws IOException {
+        try (Context context = newContext().option("wasm.LazyFunctionBodies", "true").build()) {
+            context.eval(Source.newBuilder("wasm", ByteSequence.create(INVALID_BODY), "invalid").build());
+            try {
+                context.getBindings("wasm").getMember("f").execute();
+                Assert.fail("The invalid function body should be rejected when it is first called");
+            } catch (PolyglotException e) {
+                // expected
+            }
+        }
+    }
+
+    private static Context.Builder newContext() {
+        return Context.newBuilder("wasm").allowExperimentalOptions(true);
+    }
+}
@@ -0,0 +1,165 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.graalvm.wasm.test;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.graalvm.polyglot.Context;
+import org.graalvm.polyglot.Source;
+import org.graalvm.polyglot.Value;
+import org.graalvm.polyglot.io.ByteSequence;
+import org.graalvm.wasm.WasmTags;
+import org.graalvm.wasm.utils.Assert;
+import org.graalvm.wasm.utils.WasmBinaryTools;
+import org.junit.Test;
+
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.instrumentation.EventContext;
+import com.oracle.truffle.api.instrumentation.ExecutionEventListener;
+import com.oracle.truffle.api.instrumentation.SourceSectionFilter;
+import com.oracle.truffle.api.instrumentation.StandardTags;
+import com.oracle.truffle.api.instrumentation.Tag;
+import com.oracle.truffle.api.instrumentation.TruffleInstrument;
+
+public class WasmInstrumentationTestSuite {
+    private static final String PROGRAM = "(module\n" +
+                    "  (memory 1)\n" +
+                    "  (func (export \"main\") (result i32)\n" +
+                    "    (block\n" +
+                    "      (loop\n" +
+                    "        (i32.store (i32.const 0) (i32.add (i32.load (i32.const 0)) (i32.const 1)))\n" +
+                    "        (br_if 0 (i32.lt_s (i32.load (i32.const 0)) (i32.const 10)))))\n" +
+                    "    (i32.load (i32.const 0))))";
+
+    @Test
+    public void testProbesFire() throws IOException, InterruptedException {
+        testProbesFire(false);
+    }
+
+    @Test
+    public void testProbesFireWithSuperinstructions() throws IOException, InterruptedException {
+        // fused nodes must be split again, so that every instruction reports its own events
+        testProbesFire(true);
+    }
+
+    private static void testProbesFire(boolean superinstructions) throws IOException, InterruptedException {
+        final byte[] binary = WasmBinaryTools.compileWat("instrumentation", PROGRAM);
+        final Source source = Source.newBuilder("wasm", ByteSequence.create(binary), "main").build();
+        try (Context context = Context.newBuilder("wasm").allowExperimentalOptions(true).option("wasm.Superinstructions", String.valueOf(superinstructions)).build()) {
+            final TagCounter counter = context.getEngine().getInstruments().get(TagCounter.ID).lookup(TagCounter.class);
+            Assert.assertNotNull("Instrument not found", counter);
+            context.eval(source);
+            final Value main = context.getBindings("wasm").getMember("main");
+            Assert.assertEquals("Should be equal: ", 10, main.execute().asInt());
+
+            // the loop body runs ten times, with two loads and one store per iteration
+            Assert.assertTrue("Memory access probes did not fire", counter.count(WasmTags.MemoryAccessTag.class) >= 30);
+            Assert.assertTrue("Arithmetic probes did not fire", counter.count(WasmTags.ArithmeticTag.class) >= 20);
+            Assert.assertTrue("Branch probes did not fire", counter.count(WasmTags.BranchTag.class) >= 10);
+            Assert.assertTrue("Statement probes did not fire", counter.count(StandardTags.StatementTag.class) >= 10);
+        }
+    }
+
+    private static final String RETURN_PROGRAM = "(module\n" +
+                    "  (func $select (param i32) (result i32)\n" +
+                    "    (block\n" +
+                    "      (br_if 0 (i32.eqz (local.get 0)))\n" +
+                    "      (return (i32.const 42)))\n" +
+                    "    (i32.const 7))\n" +
+                    "  (func (export \"main\") (result i32)\n" +
+                    "    (i32.add (call $select (i32.const 1)) (call $select (i32.const 0)))))";
+
+    @Test
+    public void testExplicitReturnWithProbes() throws IOException, InterruptedException {
+        // an instrumented return is wrapped, so it must not depend on its parent block
+        final byte[] binary = WasmBinaryTools.compileWat("instrumented-return", RETURN_PROGRAM);
+        final Source source = Source.newBuilder("wasm", ByteSequence.create(binary), "main").build();
+        try (Context context = Context.newBuilder("wasm").build()) {
+            final TagCounter counter = context.getEngine().getInstruments().get(TagCounter.ID).lookup(TagCounter.class);
+            Assert.assertNotNull("Instrument not found", counter);
+            context.eval(source);
+            final Value main = context.getBindings("wasm").getMember("main");
+            Assert.assertEquals("Should be equal: ", 49, main.execute().asInt());
+            Assert.assertTrue("Branch probes did not fire", counter.count(WasmTags.BranchTag.class) >= 3);
+        }
+    }
+
+    @TruffleInstrument.Registration(id = TagCounter.ID, services = TagCounter.class)
+    public static final class TagCounter extends TruffleInstrument {
+        static final String ID = "wasm-test-tag-counter";
+
+        private final Map<Class<? extends Tag>, LongAdder> counts = new ConcurrentHashMap<>();
+
+        @Override
+        protected void onCreate(Env env) {
+            attach(env, StandardTags.StatementTag.class);
+            attach(env, WasmTags.MemoryAccessTag.class);
+            attach(env, WasmTags.BranchTag.class);
+            attach(env, WasmTags.ArithmeticTag.class);
+            env.registerService(this);
+        }
+
+        private void attach(Env env, Class<? extends Tag> tag) {
+            final LongAdder count = counts.computeIfAbsent(tag, t -> new LongAdder());
+            env.getInstrumenter().attachExecutionEventListener(SourceSectionFilter.newBuilder().tagIs(tag).build(), new ExecutionEventListener() {
+                @Override
+                public void onEnter(EventContext context, VirtualFrame frame) {
+                    count.increment();
+                }
+
+                @Override
+                public void onReturnValue(EventContext context, VirtualFrame frame, Object result) {
+                }
+
+                @Override
+                public void onReturnExceptional(EventContext context, VirtualFrame frame, Throwable exception) {
+                }
+            });
+        }
+
+        long count(Class<? extends Tag> tag) {
+            return counts.get(tag).sum();
+        }
+    }
+}
@@ -0,0 +1,231 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.graalvm.wasm.test;
+
+import static org.graalvm.wasm.memory.WasmMemory.PAGE_SIZE;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+import org.graalvm.wasm.exception.WasmTrap;
+import org.graalvm.wasm.memory.UnsafeWasmMemory;
+import org.graalvm.wasm.utils.Assert;
+import org.junit.Test;
+
+import com.oracle.truffle.api.interop.InteropException;
+import com.oracle.truffle.api.interop.InvalidArrayIndexException;
+import com.oracle.truffle.api.interop.UnsupportedMessageException;
+
+public class WasmMemoryTestSuite {
+    @Test
+    public void testGrowWithinReservation() {
+        final UnsafeWasmMemory memory = new UnsafeWasmMemory(1, -1, 4);
+        Assert.assertEquals("Should be equal: ", (long) PAGE_SIZE, memory.reservedByteSize());
+        memory.store_i32(null, PAGE_SIZE - 4, 42);
+
+        // the first grow reserves four pages, the second one stays within them
+        Assert.assertTrue("Grow should succeed", memory.grow(1));
+        Assert.assertEquals("Should be equal: ", 4L * PAGE_SIZE, memory.reservedByteSize());
+        Assert.assertTrue("Grow should succeed", memory.grow(2));
+        Assert.assertEquals("Should be equal: ", 4L * PAGE_SIZE, memory.reservedByteSize());
+        Assert.assertEquals("Should be equal: ", 4L, memory.pageSize());
+        Assert.assertEquals("Should be equal: ", 42, memory.load_i32(null, PAGE_SIZE - 4));
+        Assert.assertEquals("Should be equal: ", 0L, memory.load_i64(null, 4L * PAGE_SIZE - 8));
+    }
+
+    @Test
+    public void testGrowBeyondReservation() {
+        final UnsafeWasmMemory memory = new UnsafeWasmMemory(1, -1, 2);
+        memory.store_i64(null, 8, 0x0102030405060708L);
+        Assert.assertTrue("Grow should succeed", memory.grow(1));
+        memory.store_i32(null, 2L * PAGE_SIZE - 4, 7);
+
+        Assert.assertTrue("Grow should succeed", memory.grow(3));
+        Assert.assertEquals("Should be equal: ", 5L * PAGE_SIZE, memory.byteSize());
+        Assert.assertTrue("Reservation should cover the memory", memory.reservedByteSize() >= memory.byteSize());
+        Assert.assertEquals("Should be equal: ", 0x0102030405060708L, memory.load_i64(null, 8));
+        Assert.assertEquals("Should be equal: ", 7, memory.load_i32(null, 2L * PAGE_SIZE - 4));
+        Assert.assertEquals("Should be equal: ", 0, memory.load_i32(null, 5L * PAGE_SIZE - 4));
+    }
+
+    @Test
+    public void testRepeatedGrowReallocatesLogarithmically() {
+        final UnsafeWasmMemory memory = new UnsafeWasmMemory(1, -1, 1);
+        memory.store_i32(null, 0, 42);
+        for (int i = 0; i < 1000; i++) {
+            Assert.assertTrue("Grow should succeed", memory.grow(1));
+        }
+        Assert.assertEquals("Should be equal: ", 1001L, memory.pageSize());
+        // the reservation doubles each time, so 1000 single page grows reallocate at most 10 times
+        Assert.assertTrue("Too many reallocations: " + memory.reallocationCount(), memory.reallocationCount() <= 10);
+        Assert.assertEquals("Should be equal: ", 42, memory.load_i32(null, 0));
+        Assert.assertEquals("Should be equal: ", 0L, memory.load_i64(null, 1001L * PAGE_SIZE - 8));
+
+        final UnsafeWasmMemory bounded = new UnsafeWasmMemory(1, 3, 1);
+        Assert.assertTrue("Grow should succeed", bounded.grow(1));
+        Assert.assertTrue("Grow should succeed", bounded.grow(1));
+        Assert.assertEquals("Reservation should not exceed the maximum", 3L * PAGE_SIZE, bounded.reservedByteSize());
+    }
+
+    @Test
+    public void testGrowBeyondMaximum() {
+        final UnsafeWasmMemory memory = new UnsafeWasmMemory(1, 2, 256);
+        Assert.assertTrue("Grow should succeed", memory.grow(1));
+        Assert.assertEquals("Reservation should not exceed the maximum", 2L * PAGE_SIZE, memory.reservedByteSize());
+        Assert.assertTrue("Grow should fail", !memory.grow(1));
+        Assert.assertEquals("Should be equal: ", 2L, memory.pageSize());
+
+        final UnsafeWasmMemory unbounded = new UnsafeWasmMemory(1, -1, 1);
+        Assert.assertTrue("Grow should fail", !unbounded.grow(UnsafeWasmMemory.MAX_PAGE_SIZE));
+        Assert.assertEquals("Should be equal: ", 1L, unbounded.pageSize());
+    }
+
+    @Test
+    public void testWriteBytes() {
+        final UnsafeWasmMemory memory = new UnsafeWasmMemory(1, -1);
+        final byte[] src = new byte[]{0, 1, 2, 3, 4, 5, (byte) 0x80, (byte) 0xff};
+        memory.writeBytes(null, 100, src, 2, 6);
+        Assert.assertEquals("Should be equal: ", 0x05040302, memory.load_i32(null, 100));
+        Assert.assertEquals("Should be equal: ", 0x80, memory.load_i32_8u(null, 104));
+        Assert.assertEquals("Should be equal: ", 0xff, memory.load_i32_8u(null, 105));
+        Assert.assertEquals("Should be equal: ", 0, memory.load_i32_8u(null, 106));
+    }
+
+    @Test
+    public void testReadBytes() {
+        final UnsafeWasmMemory memory = new UnsafeWasmMemory(1, -1);
+        memory.store_i64(null, PAGE_SIZE - 8, 0x0807060504030201L);
+        final byte[] dst = new byte[10];
+        memory.readBytes(null, PAGE_SIZE - 8, dst, 1, 8);
+        Assert.assertEquals("Should be equal: ", Arrays.toString(new byte[]{0, 1, 2, 3, 4, 5, 6, 7, 8, 0}), Arrays.toString(dst));
+
+        final ByteBuffer copy = memory.copyToByteBuffer(PAGE_SIZE - 8, 8);
+        Assert.assertEquals("Should be equal: ", ByteOrder.LITTLE_ENDIAN, copy.order());
+        Assert.assertEquals("Should be equal: ", 0x0807060504030201L, copy.getLong(0));
+        copy.putLong(0, 0);
+        Assert.assertEquals("The copy should not share storage: ", 0x0807060504030201L, memory.load_i64(null, PAGE_SIZE - 8));
+    }
+
+    @Test
+    public void testBytesOutOfBounds() {
+        final UnsafeWasmMemory memory = new UnsafeWasmMemory(1, -1);
+        final byte[] bytes = new byte[16];
+        try {
+            memory.readBytes(null, PAGE_SIZE - 8, bytes, 0, 16);
+            Assert.fail("Read beyond the memory should trap");
+        } catch (WasmTrap e) {
+            // expected
+        }
+        try {
+            memory.writeBytes(null, 0, bytes, 8, 16);
+            Assert.fail("Write beyond the array should fail");
+        } catch (IndexOutOfBoundsException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testGrowThenAccessBytes() {
+        final UnsafeWasmMemory memory = new UnsafeWasmMemory(1, -1, 2);
+        final byte[] page = new byte[PAGE_SIZE];
+        Arrays.fill(page, (byte) 0x5a);
+        memory.writeBytes(null, 0, page, 0, PAGE_SIZE);
+
+        // the second grow moves the storage beyond the reservation
+        Assert.assertTrue("Grow should succeed", memory.grow(1));
+        Assert.assertTrue("Grow should succeed", memory.grow(2));
+        memory.writeBytes(null, 3L * PAGE_SIZE, page, 0, PAGE_SIZE);
+
+        final byte[] contents = new byte[PAGE_SIZE];
+        memory.readBytes(null, 0, contents, 0, PAGE_SIZE);
+        Assert.assertTrue("Contents should survive the grow", Arrays.equals(page, contents));
+        memory.readBytes(null, PAGE_SIZE, contents, 0, PAGE_SIZE);
+        Assert.assertTrue("New pages should be zero", Arrays.equals(new byte[PAGE_SIZE], contents));
+        memory.readBytes(null, 3L * PAGE_SIZE, contents, 0, PAGE_SIZE);
+        Assert.assertTrue("Should be equal", Arrays.equals(page, contents));
+    }
+
+    @Test
+    public void testBulkArrayElements() throws InteropException {
+        final UnsafeWasmMemory memory = new UnsafeWasmMemory(1, -1);
+        final byte[] src = new byte[]{1, 2, 3, (byte) 0x80, (byte) 0xff, 127};
+        memory.writeArrayElements(8, src, 0, src.length);
+
+        // bulk reads are unsigned, like single element reads
+        final int[] ints = new int[src.length];
+        memory.readArrayElements(8, ints, 0, ints.length);
+        Assert.assertEquals("Should be equal: ", Arrays.toString(new int[]{1, 2, 3, 0x80, 0xff, 127}), Arrays.toString(ints));
+        for (int i = 0; i < src.length; i++) {
+            Assert.assertEquals("Should be equal: ", memory.readArrayElement(8 + i), ints[i]);
+        }
+        final long[] longs = new long[3];
+        memory.readArrayElements(11, longs, 1, 2);
+        Assert.assertEquals("Should be equal: ", Arrays.toString(new long[]{0, 0x80, 0xff}), Arrays.toString(longs));
+
+        final byte[] bytes = new byte[3];
+        memory.readArrayElements(8, bytes, 0, 3);
+        Assert.assertEquals("Should be equal: ", Arrays.toString(new byte[]{1, 2, 3}), Arrays.toString(bytes));
+        final byte[] untouched = new byte[src.length];
+        Arrays.fill(untouched, (byte) 7);
+        try {
+            memory.readArrayElements(8, untouched, 0, src.length);
+            Assert.fail("Bytes above 127 should not be read into a byte array");
+        } catch (UnsupportedMessageException e) {
+            // expected
+        }
+        for (byte b : untouched) {
+            Assert.assertEquals("A failed read should not write the destination: ", (byte) 7, b);
+        }
+        try {
+            memory.readArrayElements(PAGE_SIZE - 2, ints, 0, 4);
+            Assert.fail("Read beyond the memory should fail");
+        } catch (InvalidArrayIndexException e) {
+            // expected
+        }
+        try {
+            memory.writeArrayElements(8, ints, 0, 1);
+            Assert.fail("Only bytes should be written");
+        } catch (UnsupportedMessageException e) {
+            // expected
+        }
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.graalvm.wasm.test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.graalvm.polyglot.Context;
+import org.graalvm.polyglot.Source;
+import org.graalvm.polyglot.Value;
+import org.graalvm.polyglot.io.ByteSequence;
+import org.graalvm.wasm.memory.WasmMemoryTraceDecoder;
+import org.graalvm.wasm.predefined.memorytrace.MemoryTraceModule;
+import org.graalvm.wasm.utils.Assert;
+import org.graalvm.wasm.utils.WasmBinaryTools;
+import org.junit.Test;
+
+public class WasmMemoryTraceTestSuite {
+    private static final String PROGRAM = "(module\n" +
+                    "  (memory 1)\n" +
+                    "  (func (export \"store\") (param i32 i32) (i32.store (local.get 0) (local.get 1))))";
+
+    @Test
+    public void testIndependentContexts() throws IOException, InterruptedException {
+        final Source source = Source.newBuilder("wasm", ByteSequence.create(WasmBinaryTools.compileWat("trace", PROGRAM)), "main").build();
+        final Path firstTrace = Files.createTempFile("wasm-memory-trace", ".bin");
+        final Path secondTrace = Files.createTempFile("wasm-memory-trace", ".bin");
+        try {
+            try (Context second = newContext(secondTrace).build()) {
+                // Both contexts trace at the same time, into their own files.
+                try (Context first = newContext(firstTrace).build()) {
+                    first.eval(source);
+                    second.eval(source);
+                    first.getBindings("wasm").getMember("store").execute(8, 0x11);
+                    second.getBindings("wasm").getMember("store").execute(16, 0x22);
+                }
+                // Closing the first context does not stop the trace of the second one.
+                second.getBindings("wasm").getMember("store").execute(24, 0x33);
+            }
+            final String first = decode(firstTrace);
+            final String second = decode(secondTrace);
+            Assert.assertEquals("Should be equal: ", 1, countStores(first));
+            Assert.assertTrue("First trace should contain its store", first.contains("at 0x00000008 = 0x11"));
+            Assert.assertEquals("Should be equal: ", 2, countStores(second));
+            Assert.assertTrue("Second trace should contain its stores", second.contains("at 0x00000010 = 0x22") && second.contains("at 0x00000018 = 0x33"));
+        } finally {
+            Files.deleteIfExists(firstTrace);
+            Files.deleteIfExists(secondTrace);
+        }
+    }
+
+    @Test
+    public void testPauseAndResume() throws IOException, InterruptedException {
+        final Source source = Source.newBuilder("wasm", ByteSequence.create(WasmBinaryTools.compileWat("trace", PROGRAM)), "main").build();
+        final Path trace = Files.createTempFile("wasm-memory-trace", ".bin");
+        try {
+            try (Context context = newContext(trace).option("wasm.Builtins", "memorytrace").build()) {
+                context.eval(source);
+                final Value bindings = context.getBindings("wasm");
+                bindings.getMember("store").execute(8, 0x11);
+                bindings.getMember(MemoryTraceModule.Names.DISABLE).execute();
+                bindings.getMember("store").execute(16, 0x22);
+                bindings.getMember(MemoryTraceModule.Names.ENABLE).execute();
+                bindings.getMember("store").execute(24, 0x33);
+            }
+            final String decoded = decode(trace);
+            Assert.assertEquals("Should be equal: ", 2, countStores(decoded));
+            Assert.assertTrue("Stores outside the pause should be traced", decoded.contains("at 0x00000008 = 0x11") && decoded.contains("at 0x00000018 = 0x33"));
+            Assert.assertTrue("Stores during the pause should not be traced", !decoded.contains("at 0x00000010 = 0x22"));
+        } finally {
+            Files.deleteIfExists(trace);
+        }
+    }
+
+    private static Context.Builder newContext(Path trace) {
+        return Context.newBuilder("wasm").allowIO(true).allowExperimentalOptions(true).option("wasm.MemoryTrace", trace.toString());
+    }
+
+    private static String decode(Path trace) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (InputStream in = Files.newInputStream(trace); PrintStream out = new PrintStream(bytes, true, "UTF-8")) {
+            WasmMemoryTraceDecoder.decode(in, out);
+        }
+        return bytes.toString("UTF-8");
+    }
+
+    private static int countStores(String decoded) {
+        int count = 0;
+        for (String line : decoded.split("\n")) {
+            if (line.contains(" store ")) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,197 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.graalvm.wasm.test;
+
+import org.graalvm.wasm.predefined.snapshot.SnapshotModule;
+import org.graalvm.wasm.utils.Assert;
+import org.graalvm.wasm.utils.WasmBinaryTools;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import org.graalvm.polyglot.Context;
+import org.graalvm.polyglot.PolyglotException;
+import org.graalvm.polyglot.Source;
+import org.graalvm.polyglot.Value;
+import org.graalvm.polyglot.io.ByteSequence;
+
+public class WasmSnapshotTestSuite {
+    /**
+     * A module with a mutable global, which {@code inc} increments and stores to the start of the
+     * memory, a table of two functions, which {@code callTable} calls, and accessors for the
+     * memory, which spans two pages.
+     */
+    private static final String PROGRAM = "(module\n" +
+                    "  (type $t (func (result i32)))\n" +
+                    "  (table 2 funcref)\n" +
+                    "  (elem (i32.const 0) $one $two)\n" +
+                    "  (memory 2)\n" +
+                    "  (global $g (mut i32) (i32.const 0))\n" +
+                    "  (func $one (result i32) (i32.const 1))\n" +
+                    "  (func $two (result i32) (i32.const 2))\n" +
+                    "  (func (export \"inc\") (result i32)\n" +
+                    "    (global.set $g (i32.add (global.get $g) (i32.const 1)))\n" +
+                    "    (i32.store (i32.const 0) (global.get $g))\n" +
+                    "    (global.get $g))\n" +
+                    "  (func (export \"global\") (result i32) (global.get $g))\n" +
+                    "  (func (export \"load\") (param i32) (result i32) (i32.load (local.get 0)))\n" +
+                    "  (func (export \"store\") (param i32 i32) (i32.store (local.get 0) (local.get 1)))\n" +
+                    "  (func (export \"callTable\") (param i32) (result i32) (call_indirect (type $t) (local.get 0))))";
+
+    private static final int SECOND_PAGE_ADDRESS = 70000;
+
+    @Test
+    public void test() throws IOException, InterruptedException {
+        final Source source = Source.newBuilder("wasm", ByteSequence.create(WasmBinaryTools.compileWat("snapshot", PROGRAM)), "main").build();
+        final Path snapshot = Files.createTempFile("wasm-snapshot", ".bin");
+        try {
+            try (Context context = newContext().build()) {
+                context.eval(source);
+                final Value bindings = context.getBindings("wasm");
+                for (int i = 1; i <= 3; i++) {
+                    Assert.assertEquals("Should be equal: ", i, bindings.getMember("inc").execute().asInt());
+                }
+                bindings.getMember("store").execute(SECOND_PAGE_ADDRESS, 0xabcdef);
+                bindings.getMember(SnapshotModule.Names.SAVE_SNAPSHOT).execute(snapshot.toString());
+            }
+
+            // The snapshot is restored after linking, instead of running the start functions.
+            try (Context context = newContext().option("wasm.RestoreSnapshot", snapshot.toString()).build()) {
+                context.eval(source);
+                assertRestored(context.getBindings("wasm"));
+            }
+
+            // The snapshot is restored into an already running context.
+            try (Context context = newContext().build()) {
+                context.eval(source);
+                final Value bindings = context.getBindings("wasm");
+                Assert.assertEquals("Should be equal: ", 1, bindings.getMember("inc").execute().asInt());
+                bindings.getMember("store").execute(100, 5);
+                bindings.getMember(SnapshotModule.Names.RESTORE_SNAPSHOT).execute(snapshot.toString());
+                Assert.assertEquals("Memory written after the snapshot should be cleared: ", 0, bindings.getMember("load").execute(100).asInt());
+                assertRestored(bindings);
+            }
+        } finally {
+            Files.deleteIfExists(snapshot);
+        }
+    }
+
+    private static void assertRestored(Value bindings) {
+        Assert.assertEquals("Global should be restored: ", 3, bindings.getMember("global").execute().asInt());
+        Assert.assertEquals("Memory should be restored: ", 3, bindings.getMember("load").execute(0).asInt());
+        Assert.assertEquals("Memory should be restored: ", 0xabcdef, bindings.getMember("load").execute(SECOND_PAGE_ADDRESS).asInt());
+        Assert.assertEquals("Table should be restored: ", 1, bindings.getMember("callTable").execute(0).asInt());
+        Assert.assertEquals("Table should be restored: ", 2, bindings.getMember("callTable").execute(1).asInt());
+        Assert.assertEquals("Should be equal: ", 4, bindings.getMember("inc").execute().asInt());
+    }
+
+    @Test
+    public void testMalformedSnapshot() throws IOException, InterruptedException {
+        final Source source = Source.newBuilder("wasm", ByteSequence.create(WasmBinaryTools.compileWat("snapshot", PROGRAM)), "main").build();
+        final Path snapshot = Files.createTempFile("wasm-snapshot", ".bin");
+        try {
+            final byte[] contents;
+            try (Context context = newContext().build()) {
+                context.eval(source);
+                final Value bindings = context.getBindings("wasm");
+                bindings.getMember("inc").execute();
+                bindings.getMember(SnapshotModule.Names.SAVE_SNAPSHOT).execute(snapshot.toString());
+                contents = Files.readAllBytes(snapshot);
+            }
+
+            final byte[] badMagic = contents.clone();
+            badMagic[0] ^= 1;
+            final byte[] badModuleCount = contents.clone();
+            badModuleCount[11] = 0x7f;
+            final byte[][] malformed = new byte[][]{
+                            new byte[0],
+                            badMagic,
+                            badModuleCount,
+                            Arrays.copyOf(contents, 20),
+                            Arrays.copyOf(contents, contents.length - 1),
+                            Arrays.copyOf(contents, contents.length + 1),
+            };
+            for (byte[] bytes : malformed) {
+                Files.write(snapshot, bytes);
+                try (Context context = newContext().build()) {
+                    context.eval(source);
+                    final Value bindings = context.getBindings("wasm");
+                    bindings.getMember("store").execute(100, 5);
+                    try {
+                        bindings.getMember(SnapshotModule.Names.RESTORE_SNAPSHOT).execute(snapshot.toString());
+                        Assert.fail("Restoring a malformed snapshot should fail");
+                    } catch (PolyglotException e) {
+                        Assert.assertTrue("Should report the invalid snapshot: " + e.getMessage(), e.getMessage().contains("snapshot"));
+                    }
+                    Assert.assertEquals("The global should be unchanged: ", 0, bindings.getMember("global").execute().asInt());
+                    Assert.assertEquals("The memory should be unchanged: ", 5, bindings.getMember("load").execute(100).asInt());
+                }
+            }
+        } finally {
+            Files.deleteIfExists(snapshot);
+        }
+    }
+
+    @Test
+    public void testRequiresIO() throws IOException, InterruptedException {
+        final Source source = Source.newBuilder("wasm", ByteSequence.create(WasmBinaryTools.compileWat("snapshot", PROGRAM)), "main").build();
+        final Path snapshot = Files.createTempFile("wasm-snapshot", ".bin");
+        try (Context context = newContext().allowIO(false).build()) {
+            context.eval(source);
+            try {
+                context.getBindings("wasm").getMember(SnapshotModule.Names.SAVE_SNAPSHOT).execute(snapshot.toString());
+                Assert.fail("Saving a snapshot should require I/O access");
+            } catch (PolyglotException e) {
+                // expected
+            }
+            Assert.assertEquals("The file should not be written: ", 0L, Files.size(snapshot));
+        } finally {
+            Files.deleteIfExists(snapshot);
+        }
+    }
+
+    private static Context.Builder newContext() {
+        return Context.newBuilder("wasm").allowIO(true).allowExperimentalOptions(true).option("wasm.Builtins", "snapshot");
+    }
+}
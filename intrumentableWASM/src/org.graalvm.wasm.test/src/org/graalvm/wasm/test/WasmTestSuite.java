@@ -78,6 +78,12 @@ import org.graalvm.wasm.test.suites.webassembly.IssueSuite;
                 WasiSdkSuite.class,
                 LinkerSuite.class,
                 WasmPolyglotTestSuite.class,
+                WasmSnapshotTestSuite.class,
+                WasmInstrumentationTestSuite.class,
+                WasmMemoryTestSuite.class,
+                WasmFunctionBodyParsingTestSuite.class,
+                WasmMemoryTraceTestSuite.class,
+                WasmContextResetTestSuite.class,
 })
 public class WasmTestSuite {
     @Test
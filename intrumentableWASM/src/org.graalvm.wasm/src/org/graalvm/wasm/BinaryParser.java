@@ -42,6 +42,8 @@ package org.graalvm.wasm;
 
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 
 import org.graalvm.wasm.TableRegistry.Table;
 import org.graalvm.wasm.collection.ByteArrayList;
@@ -80,10 +82,10 @@ import org.graalvm.wasm.nodes.control.WasmBrTable;
 import org.graalvm.wasm.nodes.control.WasmCallStubNode;
 import org.graalvm.wasm.nodes.control.WasmDirectCallNode;
 import org.graalvm.wasm.nodes.control.WasmIfNode;
-import org.graalvm.wasm.nodes.control.WasmIndirectCallNode;
 import org.graalvm.wasm.nodes.control.WasmIndirectCallWrapperNode;
 import org.graalvm.wasm.nodes.control.WasmLoopNode;
 import org.graalvm.wasm.nodes.control.WasmReturn;
+import org.graalvm.wasm.nodes.control.WasmTableDispatchNode;
 import org.graalvm.wasm.nodes.conversion.WasmConvert;
 import org.graalvm.wasm.nodes.conversion.WasmDemote;
 import org.graalvm.wasm.nodes.conversion.WasmExtend;
@@ -387,16 +389,44 @@ public class BinaryParser extends BinaryStreamParser {
         for (int entry = 0; entry != numCodeEntries; ++entry) {
             rootNodes[entry] = createCodeEntry(moduleFunctionIndex + entry);
         }
+        // Function bodies are either parsed on their first call (see WasmRootNode), in parallel,
+        // or sequentially. In the first two cases, only the byte range of each body is read here.
+        final boolean lazy = WasmOptions.LazyFunctionBodies.getValue(context.environment().getOptions());
+        final boolean parallel = !lazy && numCodeEntries >= WasmOptions.ParallelParsingFunctionCount.getValue(context.environment().getOptions());
+        final ForkJoinTask<?>[] tasks = parallel ? new ForkJoinTask<?>[numCodeEntries] : null;
         for (int entryIndex = 0; entryIndex != numCodeEntries; ++entryIndex) {
-            int codeEntrySize = readUnsignedInt32();
-            int startOffset = offset;
-            readCodeEntry(context, moduleFunctionIndex + entryIndex, rootNodes[entryIndex]);
-            Assert.assertIntEqual(offset - startOffset, codeEntrySize, String.format("Code entry %d size is incorrect", entryIndex));
+            final int codeEntrySize = readUnsignedInt32();
+            final int funcIndex = moduleFunctionIndex + entryIndex;
+            final WasmRootNode rootNode = rootNodes[entryIndex];
+            rootNode.codeEntry().setBodyRange(offset, codeEntrySize);
+            if (lazy) {
+                offset += codeEntrySize;
+            } else if (parallel) {
+                tasks[entryIndex] = ForkJoinPool.commonPool().submit(() -> new BinaryParser(language, module, data).readCodeEntry(context, funcIndex, rootNode));
+                offset += codeEntrySize;
+            } else {
+                readCodeEntry(context, funcIndex, rootNode);
+            }
             context.linker().resolveCodeEntry(module, entryIndex);
         }
+        if (parallel) {
+            for (ForkJoinTask<?> task : tasks) {
+                task.join();
+            }
+        }
         moduleFunctionIndex += numCodeEntries;
     }
 
+    /**
+     * Parses the body of a function whose parsing was deferred when its module was read, and sets
+     * it as the body of the function's root node.
+     */
+    public static void readDeferredCodeEntry(WasmLanguage language, WasmContext context, WasmRootNode rootNode) {
+        final WasmFunction function = rootNode.codeEntry().function();
+        final BinaryParser reader = new BinaryParser(language, function.module(), rootNode.codeEntry().data());
+        reader.readCodeEntry(context, function.index(), rootNode);
+    }
+
     private WasmRootNode createCodeEntry(int funcIndex) {
         final WasmFunction function = module.symbolTable().function(funcIndex);
         WasmCodeEntry codeEntry = new WasmCodeEntry(function, data);
@@ -428,6 +458,9 @@ public class BinaryParser extends BinaryStreamParser {
     }
 
     private void readCodeEntry(WasmContext context, int funcIndex, WasmRootNode rootNode) {
+        final int startOffset = rootNode.codeEntry().bodyOffset();
+        offset = startOffset;
+
         /*
          * Initialise the code entry local variables (which contain the parameters and the locals).
          */
@@ -443,9 +476,6 @@ public class BinaryParser extends BinaryStreamParser {
         state.popStackState();
         Assert.assertIntEqual(state.stackSize(), returnTypeLength,
                         "Stack size must match the return type length at the function end");
-        rootNode.setBody(bodyBlock);
-        //printBlock(bodyBlock);
-
         /* Push a frame slot to the frame descriptor for every local. */
         rootNode.codeEntry().initLocalSlots(rootNode.getFrameDescriptor());
 
@@ -455,6 +485,11 @@ public class BinaryParser extends BinaryStreamParser {
         rootNode.codeEntry().setLongConstants(state.longConstants());
         rootNode.codeEntry().setBranchTables(state.branchTables());
         rootNode.codeEntry().initStackSlots(rootNode.getFrameDescriptor(), state.maxStackSize());
+
+        /* Publish the body last, so that no thread can run it before its frame slots exist. */
+        rootNode.setBody(bodyBlock);
+
+        Assert.assertIntEqual(offset - startOffset, rootNode.codeEntry().bodyLength(), String.format("Code entry %d size is incorrect", funcIndex));
     }
 
     private ByteArrayList readCodeEntryLocals() {
@@ -665,7 +700,7 @@ public class BinaryParser extends BinaryStreamParser {
                     state.useIntConstant(state.getRootBlockReturnLength());
                     // This instruction is stack-polymorphic.
                     state.setReachable(false);
-                    currentBlock.addStatement(new WasmReturn(module, codeEntry) );
+                    currentBlock.addStatement(new WasmReturn(module, codeEntry, codeEntry.function().returnTypeLength()));
                     break;
                 }
                 case Instructions.CALL: {
@@ -705,10 +740,10 @@ public class BinaryParser extends BinaryStreamParser {
                     state.pop();
                     state.pop(numArguments);
                     state.push(returnLength);
-                    WasmIndirectCallNode indirectCall = WasmIndirectCallNode.create();
-                    callNodes.add(indirectCall);
+                    WasmTableDispatchNode dispatchNode = WasmTableDispatchNode.create(module, expectedFunctionTypeIndex);
+                    callNodes.add(dispatchNode);
                     Assert.assertIntEqual(read1(), CallIndirect.ZERO_TABLE, "CALL_INDIRECT: Instruction must end with 0x00");
-                    currentBlock.addStatement(new WasmIndirectCallWrapperNode(module, codeEntry, expectedFunctionTypeIndex, indirectCall));
+                    currentBlock.addStatement(new WasmIndirectCallWrapperNode(module, codeEntry, expectedFunctionTypeIndex, dispatchNode));
                     break;
                 }
                 case Instructions.DROP:
@@ -1515,7 +1550,7 @@ public class BinaryParser extends BinaryStreamParser {
         // Pop the current block return length in the return lengths stack.
         // Used when branching out of nested blocks (br and br_if instructions).
         state.popContinuationReturnLength();
-        currentBlock.buildEffectiveStatements();
+        currentBlock.buildEffectiveStatements(WasmOptions.Superinstructions.getValue(context.environment().getOptions()));
         return currentBlock;
     }
 
@@ -82,6 +82,7 @@ public class Linker {
     private final WasmLanguage language;
     private final ResolutionDag resolutionDag;
     private @CompilerDirectives.CompilationFinal LinkState linkState;
+    private long[] linkedMemoryPageSizes;
 
     Linker(WasmLanguage language) {
         this.language = language;
@@ -121,17 +122,67 @@ public class Linker {
             for (WasmModule module : modules.values()) {
                 module.setLinked();
             }
-            for (WasmModule module : modules.values()) {
+            final MemoryRegistry memories = WasmContext.getCurrent().memories();
+            linkedMemoryPageSizes = new long[memories.count()];
+            for (int i = 0; i < linkedMemoryPageSizes.length; i++) {
+                linkedMemoryPageSizes[i] = memories.memory(i).pageSize();
+            }
+            initializeModuleState(WasmContext.getCurrent());
+            resolutionDag.clear();
+            linkState = LinkState.linked;
+        }
+    }
+
+    private static void initializeModuleState(WasmContext context) {
+        final String snapshot = WasmOptions.RestoreSnapshot.getValue(context.environment().getOptions());
+        if (!snapshot.isEmpty()) {
+            // The snapshot was taken after the start functions ran, so it already contains
+            // their effects.
+            WasmSnapshot.restore(context, context.environment().getPublicTruffleFile(snapshot));
+        } else {
+            for (WasmModule module : context.modules().values()) {
                 final WasmFunction start = module.symbolTable().startFunction();
                 if (start != null) {
                     start.resolveCallTarget().call(new Object[0]);
                 }
             }
-            resolutionDag.clear();
-            linkState = LinkState.linked;
         }
     }
 
+    /**
+     * Brings the globals and the memories of all the modules in the context back to the state they
+     * had right after linking, and runs the start functions again. The parsed modules and their
+     * call targets are kept.
+     *
+     * Returns {@code false} if the state cannot be reset, which is the case when a memory grew
+     * since linking. The context must then be discarded.
+     */
+    boolean resetState(WasmContext context) {
+        if (linkState != LinkState.linked) {
+            // Nothing has been executed yet, so the state is still the initial one.
+            return linkState == LinkState.notLinked;
+        }
+        final MemoryRegistry memories = context.memories();
+        if (memories.count() != linkedMemoryPageSizes.length) {
+            return false;
+        }
+        for (int i = 0; i < linkedMemoryPageSizes.length; i++) {
+            if (memories.memory(i).pageSize() != linkedMemoryPageSizes[i]) {
+                return false;
+            }
+        }
+        boolean first = true;
+        for (WasmModule module : context.modules().values()) {
+            // As in the ResetContextNode, this assumes that there is only one memory per context.
+            if (!module.isBuiltin()) {
+                resetModuleState(context, module, module.data(), first);
+                first = false;
+            }
+        }
+        initializeModuleState(context);
+        return true;
+    }
+
     private void linkTopologically() {
         final Resolver[] sortedResolutions = resolutionDag.toposort();
         for (Resolver resolver : sortedResolutions) {
@@ -268,6 +319,11 @@ public class Linker {
     }
 
     void resolveCallsite(WasmModule module, WasmDirectCallNode call, int controlTableOffset, WasmFunction function) {
+        if (module.isLinked()) {
+            // The function body was parsed lazily, after linking, so the callee is already resolved.
+            call.resolveCallNode(controlTableOffset);
+            return;
+        }
         final Runnable resolveAction = () -> {
         	call.resolveCallNode(controlTableOffset);
         };
@@ -834,7 +890,7 @@ public class Linker {
             this.resolutions = new HashMap<>();
         }
 
-        void resolveLater(Sym element, Sym[] dependencies, Runnable action) {
+        synchronized void resolveLater(Sym element, Sym[] dependencies, Runnable action) {
             resolutions.put(element, new Resolver(element, dependencies, action));
         }
 
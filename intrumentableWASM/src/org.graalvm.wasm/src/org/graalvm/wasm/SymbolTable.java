@@ -696,7 +696,10 @@ public class SymbolTable {
     public WasmMemory allocateMemory(WasmContext context, int initSize, int maxSize) {
         checkNotLinked();
         validateSingleMemory();
-        memory = new UnsafeWasmMemory(initSize, maxSize);
+        final int reservedSize = WasmOptions.MemoryReservationPages.getValue(context.environment().getOptions());
+        final UnsafeWasmMemory unsafeMemory = new UnsafeWasmMemory(initSize, maxSize, reservedSize);
+        unsafeMemory.setTrace(context.memoryTrace());
+        memory = unsafeMemory;
         context.memories().allocateMemory(memory);
         return memory;
     }
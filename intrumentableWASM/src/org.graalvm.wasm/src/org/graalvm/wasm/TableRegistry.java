@@ -40,7 +40,9 @@
  */
 package org.graalvm.wasm;
 
+import com.oracle.truffle.api.Assumption;
 import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
+import com.oracle.truffle.api.Truffle;
 import org.graalvm.wasm.exception.WasmException;
 
 public class TableRegistry {
@@ -83,11 +85,30 @@ public class TableRegistry {
         private final int tableIndex;
         private final int maxSize;
         @CompilationFinal(dimensions = 1) private Object[] elements;
+        @CompilationFinal private Assumption stableAssumption;
 
         public Table(int tableIndex, int initSize, int maxSize) {
             this.tableIndex = tableIndex;
             this.elements = new Object[initSize];
             this.maxSize = maxSize;
+            this.stableAssumption = createStableAssumption();
+        }
+
+        private Assumption createStableAssumption() {
+            return Truffle.getRuntime().createAssumption("table " + tableIndex + " unchanged");
+        }
+
+        /**
+         * Returns an assumption that stays valid for as long as the elements of the table are not
+         * changed. Call sites that cache the contents of the table must check it.
+         */
+        public Assumption stableAssumption() {
+            return stableAssumption;
+        }
+
+        private void invalidateStableAssumption() {
+            stableAssumption.invalidate();
+            stableAssumption = createStableAssumption();
         }
 
         public void ensureSizeAtLeast(int targetSize) {
@@ -99,6 +120,7 @@ public class TableRegistry {
                 Object[] newElements = new Object[targetSize];
                 System.arraycopy(elements, 0, newElements, 0, elements.length);
                 elements = newElements;
+                invalidateStableAssumption();
             }
         }
 
@@ -114,11 +136,22 @@ public class TableRegistry {
             return elements;
         }
 
+        /**
+         * Replaces all the elements of the table, e.g. when the state of the table is restored from a
+         * {@link WasmSnapshot}.
+         */
+        void restoreElements(Object[] newElements) {
+            ensureSizeAtLeast(newElements.length);
+            System.arraycopy(newElements, 0, elements, 0, newElements.length);
+            invalidateStableAssumption();
+        }
+
         public void set(int i, WasmFunction function) {
             if (elements[i] != null) {
                 throw new WasmException("Table " + tableIndex + " already has an element at index " + i + ".");
             }
             elements[i] = function;
+            invalidateStableAssumption();
         }
     }
 }
@@ -50,17 +50,21 @@ public final class WasmCodeEntry {
     @CompilationFinal(dimensions = 1) private final byte[] data;
     @CompilationFinal(dimensions = 1) private FrameSlot[] localSlots;
     @CompilationFinal(dimensions = 1) private FrameSlot[] stackSlots;
+    @CompilationFinal private FrameSlot stackPointerSlot;
     @CompilationFinal(dimensions = 1) private byte[] localTypes;
     @CompilationFinal(dimensions = 1) private byte[] byteConstants;
     @CompilationFinal(dimensions = 1) private int[] intConstants;
     @CompilationFinal(dimensions = 1) private long[] longConstants;
     @CompilationFinal(dimensions = 2) private int[][] branchTables;
+    private int bodyOffset;
+    private int bodyLength;
 
     public WasmCodeEntry(WasmFunction function, byte[] data) {
         this.function = function;
         this.data = data;
         this.localSlots = null;
         this.stackSlots = null;
+        this.stackPointerSlot = null;
         this.localTypes = null;
         this.byteConstants = null;
         this.intConstants = null;
@@ -83,6 +87,15 @@ public final class WasmCodeEntry {
         return stackSlots[index];
     }
 
+    /**
+     * Returns the frame slot that holds the operand stack pointer of the current activation.
+     * Keeping the stack pointer in the frame (instead of in the shared {@link WasmContext}) lets
+     * partial evaluation scalar-replace it, and keeps activations on different threads apart.
+     */
+    public FrameSlot stackPointerSlot() {
+        return stackPointerSlot;
+    }
+
     public void initLocalSlots(FrameDescriptor frameDescriptor) {
         localSlots = new FrameSlot[localTypes.length];
         for (int i = 0; i != localTypes.length; ++i) {
@@ -113,6 +126,7 @@ public final class WasmCodeEntry {
             FrameSlot stackSlot = frameDescriptor.addFrameSlot(localSlots.length + i, FrameSlotKind.Long);
             stackSlots[i] = stackSlot;
         }
+        stackPointerSlot = frameDescriptor.addFrameSlot(localSlots.length + maxStackSize, FrameSlotKind.Int);
     }
 
     public void setLocalTypes(byte[] localTypes) {
@@ -167,6 +181,24 @@ public final class WasmCodeEntry {
         this.branchTables = branchTables;
     }
 
+    /**
+     * Records the range of the {@link #data() binary} that holds the code entry, i.e. its local
+     * declarations followed by the function body, so that the body can be parsed when the function
+     * is first called.
+     */
+    public void setBodyRange(int offset, int length) {
+        this.bodyOffset = offset;
+        this.bodyLength = length;
+    }
+
+    public int bodyOffset() {
+        return bodyOffset;
+    }
+
+    public int bodyLength() {
+        return bodyLength;
+    }
+
     public int numLocals() {
         return localTypes.length;
     }
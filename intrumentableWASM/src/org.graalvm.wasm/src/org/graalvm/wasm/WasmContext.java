@@ -49,6 +49,7 @@ import com.oracle.truffle.api.Scope;
 import com.oracle.truffle.api.TruffleLanguage.Env;
 import com.oracle.truffle.api.source.Source;
 import org.graalvm.wasm.exception.WasmException;
+import org.graalvm.wasm.memory.WasmMemoryTrace;
 import org.graalvm.wasm.predefined.BuiltinModule;
 
 public final class WasmContext {
@@ -58,14 +59,14 @@ public final class WasmContext {
     private final GlobalRegistry globals;
     private final TableRegistry tableRegistry;
     private final Linker linker;
+    private final WasmMemoryTrace memoryTrace;
     private Map<String, WasmModule> modules;
-    public int stackpointer = 0;
 
     public static WasmContext getCurrent() {
         return WasmLanguage.getCurrentContext();
     }
 
-    public WasmContext(Env env, WasmLanguage language) {
+    public WasmContext(Env env, WasmLanguage language, WasmMemoryTrace memoryTrace) {
         this.env = env;
         this.language = language;
         this.globals = new GlobalRegistry();
@@ -73,6 +74,7 @@ public final class WasmContext {
         this.memoryRegistry = new MemoryRegistry();
         this.modules = new LinkedHashMap<>();
         this.linker = new Linker(language);
+        this.memoryTrace = memoryTrace;
         initializeBuiltinModules();
     }
 
@@ -105,6 +107,14 @@ public final class WasmContext {
         return linker;
     }
 
+    /**
+     * Returns the trace of the memory accesses of this context, or {@code null} if the memory
+     * accesses are not traced.
+     */
+    public WasmMemoryTrace memoryTrace() {
+        return memoryTrace;
+    }
+
     public Iterable<Scope> getTopScopes() {
         // Go through all WasmModules parsed with this context, and create a Scope for each of them.
         ArrayList<Scope> scopes = new ArrayList<>();
@@ -122,6 +132,14 @@ public final class WasmContext {
         return modules;
     }
 
+    /**
+     * Resets the guest-visible state of the context, so that it can be reused without parsing and
+     * linking the modules again. Returns {@code false} if the state cannot be reset.
+     */
+    public boolean reset() {
+        return linker.resetState(this);
+    }
+
     void registerModule(WasmModule module) {
         if (modules.containsKey(module.name())) {
             throw new RuntimeException("Context already contains a module named '" + module.name() + "'.");
@@ -73,6 +73,10 @@ public class WasmFunction implements TruffleObject {
         this.callTarget = null;
     }
 
+    WasmModule module() {
+        return symbolTable.module();
+    }
+
     public String moduleName() {
         return symbolTable.module().name();
     }
@@ -44,19 +44,41 @@ import com.oracle.truffle.api.CallTarget;
 import com.oracle.truffle.api.Scope;
 import com.oracle.truffle.api.Truffle;
 import com.oracle.truffle.api.TruffleLanguage;
+import com.oracle.truffle.api.instrumentation.ProvidedTags;
+import com.oracle.truffle.api.instrumentation.StandardTags;
 import org.graalvm.wasm.exception.WasmException;
+import org.graalvm.wasm.memory.WasmMemoryTrace;
 import org.graalvm.wasm.nodes.WasmEmptyRootNode;
 import org.graalvm.options.OptionDescriptors;
 
 @TruffleLanguage.Registration(id = "wasm", name = "WebAssembly", defaultMimeType = "application/wasm", byteMimeTypes = "application/wasm", contextPolicy = TruffleLanguage.ContextPolicy.EXCLUSIVE, fileTypeDetectors = WasmFileDetector.class, //
                 interactive = false)
+@ProvidedTags({StandardTags.RootTag.class, StandardTags.RootBodyTag.class, StandardTags.StatementTag.class, StandardTags.CallTag.class, WasmTags.MemoryAccessTag.class, WasmTags.BranchTag.class,
+                WasmTags.ArithmeticTag.class})
 public final class WasmLanguage extends TruffleLanguage<WasmContext> {
     private static final int MIN_DEFAULT_STACK_SIZE = 1_000_000;
     private static final int MAX_DEFAULT_ASYNC_STACK_SIZE = 10_000_000;
 
     @Override
     protected WasmContext createContext(Env env) {
-        return new WasmContext(env, this);
+        final String memoryTracePath = WasmOptions.MemoryTrace.getValue(env.getOptions());
+        WasmMemoryTrace memoryTrace = null;
+        if (!memoryTracePath.isEmpty()) {
+            memoryTrace = WasmMemoryTrace.open(env.getPublicTruffleFile(memoryTracePath), WasmOptions.MemoryTraceRecords.getValue(env.getOptions()));
+        }
+        return new WasmContext(env, this, memoryTrace);
+    }
+
+    @Override
+    protected void disposeContext(WasmContext context) {
+        if (context.memoryTrace() != null) {
+            context.memoryTrace().close();
+        }
+    }
+
+    @Override
+    protected boolean resetContext(WasmContext context) {
+        return context.reset();
     }
 
     @Override
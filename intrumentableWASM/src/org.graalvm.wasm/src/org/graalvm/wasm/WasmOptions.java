@@ -55,4 +55,25 @@ public class WasmOptions {
 
     @Option(help = "The stack size in kilobytes to use during async parsing, or zero to use defaults.", category = OptionCategory.USER, stability = OptionStability.STABLE)//
     public static final OptionKey<Integer> AsyncParsingStackSize = new OptionKey<>(0);
+
+    @Option(help = "Fuse common instruction sequences into superinstructions. Fused nodes are split again when an instrument needs per-instruction events.", category = OptionCategory.EXPERT, stability = OptionStability.EXPERIMENTAL)//
+    public static final OptionKey<Boolean> Superinstructions = new OptionKey<>(true);
+
+    @Option(help = "The number of pages to reserve for a linear memory when it first grows, so that later memory.grow instructions within the reservation do not move its contents (at most the declared maximum is reserved).", category = OptionCategory.EXPERT, stability = OptionStability.EXPERIMENTAL)//
+    public static final OptionKey<Integer> MemoryReservationPages = new OptionKey<>(256);
+
+    @Option(help = "Parse function bodies when the function is first called, instead of when the module is read. Invalid function bodies are then only reported when they are first called, which deviates from the validation semantics of the specification.", category = OptionCategory.EXPERT, stability = OptionStability.EXPERIMENTAL)//
+    public static final OptionKey<Boolean> LazyFunctionBodies = new OptionKey<>(false);
+
+    @Option(help = "The minimal number of function bodies in a module for which the bodies are parsed in parallel, when they are not parsed lazily.", category = OptionCategory.EXPERT, stability = OptionStability.EXPERIMENTAL)//
+    public static final OptionKey<Integer> ParallelParsingFunctionCount = new OptionKey<>(256);
+
+    @Option(help = "Path of a snapshot, saved with the snapshot builtin module, whose state is restored after linking instead of running the start functions.", category = OptionCategory.USER, stability = OptionStability.EXPERIMENTAL)//
+    public static final OptionKey<String> RestoreSnapshot = new OptionKey<>("");
+
+    @Option(help = "Path of a file to which a binary trace of the linear memory accesses is written when the context is closed. Decode it with org.graalvm.wasm.memory.WasmMemoryTraceDecoder. Pause and resume the trace with the memorytrace builtin module.", category = OptionCategory.EXPERT, stability = OptionStability.EXPERIMENTAL)//
+    public static final OptionKey<String> MemoryTrace = new OptionKey<>("");
+
+    @Option(help = "The number of most recent memory accesses that the memory trace retains for each thread.", category = OptionCategory.EXPERT, stability = OptionStability.EXPERIMENTAL)//
+    public static final OptionKey<Integer> MemoryTraceRecords = new OptionKey<>(1 << 16);
 }
@@ -0,0 +1,384 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.graalvm.wasm;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+
+import org.graalvm.wasm.TableRegistry.Table;
+import org.graalvm.wasm.exception.WasmException;
+import org.graalvm.wasm.memory.UnsafeWasmMemory;
+import org.graalvm.wasm.memory.WasmMemory;
+
+import com.oracle.truffle.api.TruffleFile;
+
+/**
+ * Saves the state of an instantiated {@link WasmContext} to a file, and restores it into another
+ * context that has the same modules.
+ *
+ * <p>
+ * The snapshot holds the values of the global variables, the elements of the tables and the
+ * contents of the memories. Code is not part of the snapshot: the restoring context parses and
+ * links the modules as usual, and then replaces the state that linking produced, so that it does
+ * not need to run the initialization code again.
+ *
+ * <p>
+ * Memories are stored page by page, each page after its index, and pages that only contain zeroes
+ * are omitted, so that restoring only copies the pages that initialization actually wrote to.
+ * Restoring validates the file before it changes the context, and then streams the pages from the
+ * file and copies them into the memory. The file is not memory-mapped: the memories are allocated
+ * off-heap by the context and cannot be backed by a file mapping, so the time and memory needed to
+ * restore a snapshot grow with the number of saved pages. The file is accessed as a
+ * {@link TruffleFile}, so that the I/O policy of the context applies.
+ */
+public final class WasmSnapshot {
+    private static final int MAGIC = 0x57534e50;
+    private static final int VERSION = 2;
+    private static final int PAGE_SIZE = WasmMemory.PAGE_SIZE;
+
+    private WasmSnapshot() {
+    }
+
+    public static void save(WasmContext context, TruffleFile file) {
+        try (SeekableByteChannel channel = file.newByteChannel(EnumSet.of(StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING))) {
+            final List<String> moduleNames = new ArrayList<>(context.modules().keySet());
+            final ByteBuffer header = newBuffer(12);
+            header.putInt(MAGIC);
+            header.putInt(VERSION);
+            header.putInt(moduleNames.size());
+            write(channel, header);
+            for (String name : moduleNames) {
+                final byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+                final ByteBuffer entry = newBuffer(4 + bytes.length);
+                entry.putInt(bytes.length);
+                entry.put(bytes);
+                write(channel, entry);
+            }
+
+            final GlobalRegistry globals = context.globals();
+            final ByteBuffer globalValues = newBuffer(4 + 8 * globals.count());
+            globalValues.putInt(globals.count());
+            for (int address = 0; address < globals.count(); address++) {
+                globalValues.putLong(globals.loadAsLong(address));
+            }
+            write(channel, globalValues);
+
+            final TableRegistry tables = context.tables();
+            writeInt(channel, tables.tableCount());
+            for (int tableIndex = 0; tableIndex < tables.tableCount(); tableIndex++) {
+                final Object[] elements = tables.table(tableIndex).elements();
+                final ByteBuffer tableEntries = newBuffer(4 + 8 * elements.length);
+                tableEntries.putInt(elements.length);
+                for (Object element : elements) {
+                    final WasmFunction function = (WasmFunction) element;
+                    tableEntries.putInt(function != null ? moduleNames.indexOf(function.module().name()) : -1);
+                    tableEntries.putInt(function != null ? function.index() : -1);
+                }
+                write(channel, tableEntries);
+            }
+
+            final MemoryRegistry memories = context.memories();
+            writeInt(channel, memories.count());
+            for (int memoryIndex = 0; memoryIndex < memories.count(); memoryIndex++) {
+                final WasmMemory memory = memories.memory(memoryIndex);
+                final ByteBuffer pageHeader = newBuffer(12);
+                pageHeader.putLong(memory.pageSize());
+                pageHeader.putInt(0);
+                final long pageCountPosition = channel.position() + 8;
+                write(channel, pageHeader);
+                // each page is read once, checked and written from the same buffer
+                final byte[] contents = new byte[PAGE_SIZE];
+                int pageCount = 0;
+                for (int page = 0; page < memory.pageSize(); page++) {
+                    memory.readBytes(null, (long) page * PAGE_SIZE, contents, 0, PAGE_SIZE);
+                    if (!isZeroPage(contents)) {
+                        writeInt(channel, page);
+                        writeFully(channel, ByteBuffer.wrap(contents));
+                        pageCount++;
+                    }
+                }
+                final long end = channel.position();
+                channel.position(pageCountPosition);
+                writeInt(channel, pageCount);
+                channel.position(end);
+            }
+        } catch (IOException | SecurityException e) {
+            throw new WasmException("Could not save the snapshot to " + file + ".", e);
+        }
+    }
+
+    /**
+     * Restores the state saved in {@code file} into {@code context}. The whole file is validated
+     * against the context before any state is replaced, so that a malformed snapshot fails with a
+     * {@link WasmException} and leaves the context unchanged. The memory pages are then streamed
+     * from the file, one page at a time.
+     */
+    public static void restore(WasmContext context, TruffleFile file) {
+        try (SeekableByteChannel channel = file.newByteChannel(EnumSet.of(StandardOpenOption.READ))) {
+            final SnapshotReader reader = new SnapshotReader(channel, file);
+            final State state = reader.readState(context);
+            state.apply(context, reader);
+        } catch (IOException | SecurityException e) {
+            throw new WasmException("Could not read the snapshot from " + file + ".", e);
+        }
+    }
+
+    /**
+     * The validated contents of a snapshot file. The memory pages are not held in memory; only
+     * their positions in the file are recorded.
+     */
+    private static final class State {
+        private final long[] globalValues;
+        private final Object[][] tableElements;
+        private final long[] memoryPageSizes;
+        private final int[][] memoryPages;
+        private final long[] memoryPagePositions;
+
+        State(long[] globalValues, Object[][] tableElements, long[] memoryPageSizes, int[][] memoryPages, long[] memoryPagePositions) {
+            this.globalValues = globalValues;
+            this.tableElements = tableElements;
+            this.memoryPageSizes = memoryPageSizes;
+            this.memoryPages = memoryPages;
+            this.memoryPagePositions = memoryPagePositions;
+        }
+
+        void apply(WasmContext context, SnapshotReader reader) throws IOException {
+            final GlobalRegistry globals = context.globals();
+            for (int address = 0; address < globalValues.length; address++) {
+                globals.storeLong(address, globalValues[address]);
+            }
+            final TableRegistry tables = context.tables();
+            for (int tableIndex = 0; tableIndex < tableElements.length; tableIndex++) {
+                tables.table(tableIndex).restoreElements(tableElements[tableIndex]);
+            }
+            final MemoryRegistry memories = context.memories();
+            final byte[] contents = new byte[PAGE_SIZE];
+            for (int memoryIndex = 0; memoryIndex < memoryPages.length; memoryIndex++) {
+                final WasmMemory memory = memories.memory(memoryIndex);
+                final long pageSize = memoryPageSizes[memoryIndex];
+                if (!memory.grow(pageSize - memory.pageSize())) {
+                    throw new WasmException("Memory " + memoryIndex + " cannot be resized to the " + pageSize + " pages of the snapshot.");
+                }
+                memory.clear();
+                reader.seek(memoryPagePositions[memoryIndex]);
+                for (int page : memoryPages[memoryIndex]) {
+                    // skip the page index, which was validated before
+                    reader.readInt();
+                    reader.readFully(ByteBuffer.wrap(contents));
+                    memory.writeBytes(null, (long) page * PAGE_SIZE, contents, 0, PAGE_SIZE);
+                }
+            }
+        }
+    }
+
+    private static final class SnapshotReader {
+        private final SeekableByteChannel channel;
+        private final TruffleFile file;
+        private final ByteBuffer buffer = newBuffer(8);
+
+        SnapshotReader(SeekableByteChannel channel, TruffleFile file) {
+            this.channel = channel;
+            this.file = file;
+        }
+
+        State readState(WasmContext context) throws IOException {
+            check(readInt() == MAGIC, "it is not a snapshot file");
+            final int version = readInt();
+            check(version == VERSION, "its version " + version + " is not supported");
+
+            final int moduleCount = readCount(4, "module");
+            final WasmModule[] modules = new WasmModule[moduleCount];
+            for (int i = 0; i < moduleCount; i++) {
+                final ByteBuffer bytes = ByteBuffer.allocate(readCount(1, "module name byte"));
+                readFully(bytes);
+                final String name = new String(bytes.array(), StandardCharsets.UTF_8);
+                modules[i] = context.modules().get(name);
+                if (modules[i] == null) {
+                    throw new WasmException("The snapshot refers to the module '" + name + "', which does not exist in the context.");
+                }
+            }
+
+            final GlobalRegistry globals = context.globals();
+            checkCount(readInt(), globals.count(), "globals");
+            final long[] globalValues = new long[globals.count()];
+            for (int address = 0; address < globalValues.length; address++) {
+                globalValues[address] = readLong();
+            }
+
+            final TableRegistry tables = context.tables();
+            checkCount(readInt(), tables.tableCount(), "tables");
+            final Object[][] tableElements = new Object[tables.tableCount()][];
+            for (int tableIndex = 0; tableIndex < tableElements.length; tableIndex++) {
+                final int maxSize = tables.table(tableIndex).maxSize();
+                final int size = readCount(8, "table element");
+                check(maxSize < 0 || size <= maxSize, "table " + tableIndex + " has " + size + " elements, more than its maximum size " + maxSize);
+                final Object[] elements = new Object[size];
+                for (int i = 0; i < size; i++) {
+                    elements[i] = readFunction(modules);
+                }
+                tableElements[tableIndex] = elements;
+            }
+
+            final MemoryRegistry memories = context.memories();
+            checkCount(readInt(), memories.count(), "memories");
+            final long[] memoryPageSizes = new long[memories.count()];
+            final int[][] memoryPages = new int[memories.count()][];
+            final long[] memoryPagePositions = new long[memories.count()];
+            for (int memoryIndex = 0; memoryIndex < memoryPages.length; memoryIndex++) {
+                final WasmMemory memory = memories.memory(memoryIndex);
+                final long maxPageSize = memory.maxPageSize() >= 0 ? Math.min(memory.maxPageSize(), UnsafeWasmMemory.MAX_PAGE_SIZE) : UnsafeWasmMemory.MAX_PAGE_SIZE;
+                final long pageSize = readLong();
+                check(pageSize >= memory.pageSize() && pageSize <= maxPageSize,
+                                "memory " + memoryIndex + " cannot be resized from " + memory.pageSize() + " to " + pageSize + " pages");
+                final int pageCount = readCount(4 + PAGE_SIZE, "page");
+                check(pageCount <= pageSize, "memory " + memoryIndex + " has more saved pages than pages");
+                final long pagePosition = channel.position();
+                final int[] pages = new int[pageCount];
+                for (int i = 0; i < pageCount; i++) {
+                    pages[i] = readInt();
+                    check(pages[i] >= 0 && pages[i] < pageSize && (i == 0 || pages[i] > pages[i - 1]), "memory " + memoryIndex + " has an invalid page index " + pages[i]);
+                    check(PAGE_SIZE <= channel.size() - channel.position(), "it is truncated");
+                    seek(channel.position() + PAGE_SIZE);
+                }
+                memoryPageSizes[memoryIndex] = pageSize;
+                memoryPages[memoryIndex] = pages;
+                memoryPagePositions[memoryIndex] = pagePosition;
+            }
+            check(channel.position() == channel.size(), "it has trailing data");
+            return new State(globalValues, tableElements, memoryPageSizes, memoryPages, memoryPagePositions);
+        }
+
+        private WasmFunction readFunction(WasmModule[] modules) throws IOException {
+            final int moduleIndex = readInt();
+            final int functionIndex = readInt();
+            if (moduleIndex == -1 && functionIndex == -1) {
+                return null;
+            }
+            check(moduleIndex >= 0 && moduleIndex < modules.length, "it has an invalid module index " + moduleIndex);
+            final SymbolTable symbolTable = modules[moduleIndex].symbolTable();
+            check(functionIndex >= 0 && functionIndex < symbolTable.numFunctions(), "it has an invalid function index " + functionIndex);
+            return symbolTable.function(functionIndex);
+        }
+
+        /**
+         * Reads a count of entries that take at least {@code entrySize} bytes each, so that a
+         * corrupted count cannot make the reader allocate more than the size of the file.
+         */
+        private int readCount(int entrySize, String entryName) throws IOException {
+            final int count = readInt();
+            check(count >= 0 && (long) count * entrySize <= channel.size() - channel.position(), "it has an invalid " + entryName + " count " + count);
+            return count;
+        }
+
+        private static void checkCount(int actual, int expected, String name) {
+            if (actual != expected) {
+                throw new WasmException("The snapshot has " + actual + " " + name + ", but the context has " + expected + ".");
+            }
+        }
+
+        private void check(boolean condition, String reason) {
+            if (!condition) {
+                throw new WasmException("Could not restore the snapshot from " + file + ", because " + reason + ".");
+            }
+        }
+
+        int readInt() throws IOException {
+            buffer.clear().limit(4);
+            readFully(buffer);
+            return buffer.getInt(0);
+        }
+
+        long readLong() throws IOException {
+            buffer.clear();
+            readFully(buffer);
+            return buffer.getLong(0);
+        }
+
+        void readFully(ByteBuffer destination) throws IOException {
+            while (destination.hasRemaining()) {
+                if (channel.read(destination) < 0) {
+                    check(false, "it is truncated");
+                }
+            }
+        }
+
+        void seek(long position) throws IOException {
+            channel.position(position);
+        }
+    }
+
+    private static boolean isZeroPage(byte[] contents) {
+        for (byte b : contents) {
+            if (b != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static ByteBuffer newBuffer(int capacity) {
+        return ByteBuffer.allocate(capacity).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private static void writeInt(SeekableByteChannel channel, int value) throws IOException {
+        final ByteBuffer buffer = newBuffer(4);
+        buffer.putInt(value);
+        write(channel, buffer);
+    }
+
+    private static void write(SeekableByteChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        writeFully(channel, buffer);
+    }
+
+    private static void writeFully(SeekableByteChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+}
@@ -40,57 +40,26 @@
  */
 package org.graalvm.wasm.constants;
 
-import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
-
+/**
+ * The values that the {@code execute} methods of the WebAssembly nodes return to signal where the
+ * execution continues.
+ *
+ * A positive value is the number of enclosing blocks that a branch still has to leave. Each block
+ * that the branch leaves decrements the value, and a loop that receives the value {@code 1}
+ * starts its next iteration. The values are primitive, so that branching does not allocate and
+ * partial evaluation only has to compare constants.
+ */
 public final class TargetOffset {
-    public final int value;
-
-    private TargetOffset(int value) {
-        this.value = value;
-    }
-
-    public boolean isGreaterThanZero() {
-        return value > 0;
-    }
-
-    public boolean isZero() {
-        return value == 0;
-    }
-
-    public boolean isMinusOne() {
-        return value == -1;
-    }
-    
-    public boolean isOne() {
-        return value == 1;
-    }
-
-    public TargetOffset decrement() {
-        final int resultValue = value - 1;
-        return createOrCached(resultValue);
-    }
-
-    public static TargetOffset createOrCached(int value) {
-        // The cache index starts with value -1, so we need a +1 offset.
-        final int resultCacheIndex = value + 1;
-        if (resultCacheIndex < CACHE.length) {
-            return CACHE[resultCacheIndex];
-        }
-        return new TargetOffset(value);
-    }
-
-    public static final TargetOffset MINUS_ONE = new TargetOffset(-1);
-    public static final TargetOffset ZERO = new TargetOffset(0);
+    /**
+     * The execution continues with the next instruction.
+     */
+    public static final int FALL_THROUGH = 0;
 
-    private static final int CACHE_SIZE = 256;
-    @CompilationFinal(dimensions = 1) private static final TargetOffset[] CACHE;
+    /**
+     * The execution leaves the current function.
+     */
+    public static final int RETURN = -1;
 
-    static {
-        CACHE = new TargetOffset[CACHE_SIZE];
-        CACHE[0] = MINUS_ONE;
-        CACHE[1] = ZERO;
-        for (int i = 2; i < CACHE_SIZE; i++) {
-            CACHE[i] = new TargetOffset(i - 1);
-        }
+    private TargetOffset() {
     }
 }
@@ -45,16 +45,43 @@ import java.lang.reflect.Field;
 import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.nodes.Node;
 import org.graalvm.wasm.exception.WasmTrap;
-import org.graalvm.wasm.WasmTracing;
 import sun.misc.Unsafe;
 
+/**
+ * Linear memory backed by off-heap storage.
+ *
+ * <p>
+ * The memory is allocated with its initial size. When it first grows, the storage is extended to
+ * {@code reservedPageSize} pages at once, but only the pages up to {@link #pageSize()} are
+ * accessible. Growing within the reservation only zeroes the newly accessible pages, so that
+ * {@code memory.grow} does not need to copy the existing contents. Memories that never grow
+ * therefore never pay for the reservation. If the memory grows past the reservation, the storage
+ * is reallocated to at least twice its reserved size, bounded by the maximum size of the memory.
+ * A reallocation may move the storage, so the start address must be read again after every
+ * {@link #grow(long) grow}.
+ */
 public class UnsafeWasmMemory extends WasmMemory {
+    /**
+     * The largest number of pages that a 32-bit linear memory can address.
+     */
+    public static final long MAX_PAGE_SIZE = 1L << 16;
+
     private final Unsafe unsafe;
     private long startAddress;
     private long pageSize;
+    private long byteSize;
+    private long reservedByteSize;
+    private final long reservationByteSize;
     private final long maxPageSize;
+    private final long maxReservationByteSize;
+    private int reallocationCount;
+    private WasmMemoryTrace trace;
 
     public UnsafeWasmMemory(long initPageSize, long maxPageSize) {
+        this(initPageSize, maxPageSize, initPageSize);
+    }
+
+    public UnsafeWasmMemory(long initPageSize, long maxPageSize, long reservedPageSize) {
         try {
             Field f = Unsafe.class.getDeclaredField("theUnsafe");
             f.setAccessible(true);
@@ -63,16 +90,50 @@ public class UnsafeWasmMemory extends WasmMemory {
             throw new RuntimeException(e);
         }
         this.pageSize = initPageSize;
+        this.byteSize = initPageSize * PAGE_SIZE;
         this.maxPageSize = maxPageSize;
-        long byteSize = byteSize();
+        final long reservationLimit = maxPageSize >= 0 ? Math.min(maxPageSize, MAX_PAGE_SIZE) : MAX_PAGE_SIZE;
+        this.maxReservationByteSize = Math.max(initPageSize, reservationLimit) * PAGE_SIZE;
+        this.reservationByteSize = Math.max(initPageSize, Math.min(reservedPageSize, reservationLimit)) * PAGE_SIZE;
         this.startAddress = unsafe.allocateMemory(byteSize);
+        this.reservedByteSize = byteSize;
         unsafe.setMemory(startAddress, byteSize, (byte) 0);
     }
 
+    /**
+     * Extends the storage so that it holds at least {@code targetByteSize} bytes, at least the
+     * reservation, and at least twice the current storage, but no more than the maximum size of the
+     * memory. Returns {@code false} if the native allocation fails. The storage is then left
+     * unchanged, and {@code memory.grow} fails, as the specification allows.
+     */
+    @CompilerDirectives.TruffleBoundary
+    private boolean reserve(long targetByteSize) {
+        final long doubledByteSize = Math.min(2 * reservedByteSize, maxReservationByteSize);
+        final long newReservedByteSize = Math.max(targetByteSize, Math.max(reservationByteSize, doubledByteSize));
+        final long newStartAddress;
+        try {
+            newStartAddress = unsafe.reallocateMemory(startAddress, newReservedByteSize);
+        } catch (OutOfMemoryError e) {
+            // Unsafe signals a failed native allocation only with this error.
+            return false;
+        }
+        startAddress = newStartAddress;
+        reservedByteSize = newReservedByteSize;
+        reallocationCount++;
+        return true;
+    }
+
+    /**
+     * Records the accesses to this memory in {@code memoryTrace}, or stops recording them if it is
+     * {@code null}.
+     */
+    public void setTrace(WasmMemoryTrace memoryTrace) {
+        this.trace = memoryTrace;
+    }
+
     @Override
     public void validateAddress(Node node, long address, long offset) {
-        WasmTracing.trace("validating memory address: 0x%016X (%d)", address, address);
-        if (address < 0 || address + offset > this.byteSize()) {
+        if (address < 0 || address > byteSize - offset) {
             trapOutOfBounds(node, address, offset);
         }
     }
@@ -86,15 +147,15 @@ public class UnsafeWasmMemory extends WasmMemory {
 
     @Override
     public void copy(Node node, long src, long dst, long n) {
-        WasmTracing.trace("memcopy from = %d, to = %d, n = %d", src, dst, n);
         validateAddress(node, src, n);
         validateAddress(node, dst, n);
         unsafe.copyMemory(startAddress + src, startAddress + dst, n);
+        WasmMemoryTrace.copy(trace, src, dst, n);
     }
 
     @Override
     public void clear() {
-        unsafe.setMemory(startAddress, byteSize(), (byte) 0);
+        unsafe.setMemory(startAddress, byteSize, (byte) 0);
     }
 
     @Override
@@ -104,7 +165,21 @@ public class UnsafeWasmMemory extends WasmMemory {
 
     @Override
     public long byteSize() {
-        return pageSize * PAGE_SIZE;
+        return byteSize;
+    }
+
+    /**
+     * The number of bytes that this memory can currently grow to without moving its contents.
+     */
+    public long reservedByteSize() {
+        return reservedByteSize;
+    }
+
+    /**
+     * The number of times that the storage of this memory was reallocated by {@code memory.grow}.
+     */
+    public int reallocationCount() {
+        return reallocationCount;
     }
 
     @Override
@@ -117,220 +192,231 @@ public class UnsafeWasmMemory extends WasmMemory {
         if (extraPageSize < 0) {
             throw new WasmTrap(null, "Extra size cannot be negative.");
         }
-        long targetSize = byteSize() + extraPageSize * PAGE_SIZE;
-        if (maxPageSize >= 0 && targetSize > maxPageSize * PAGE_SIZE) {
-            // Cannot grow the memory beyond maxPageSize bytes.
+        final long targetPageSize = pageSize + extraPageSize;
+        if ((maxPageSize >= 0 && targetPageSize > maxPageSize) || targetPageSize > MAX_PAGE_SIZE) {
+            // Cannot grow the memory beyond maxPageSize pages.
             return false;
         }
-        if (targetSize * PAGE_SIZE == byteSize()) {
+        if (extraPageSize == 0) {
             return true;
         }
-        long updatedStartAddress = unsafe.allocateMemory(targetSize);
-        unsafe.copyMemory(startAddress, updatedStartAddress, byteSize());
-        unsafe.setMemory(updatedStartAddress + byteSize(), targetSize - byteSize(), (byte) 0);
-        unsafe.freeMemory(startAddress);
-        startAddress = updatedStartAddress;
-        pageSize += extraPageSize;
+        final long targetByteSize = targetPageSize * PAGE_SIZE;
+        if (targetByteSize > reservedByteSize && !reserve(targetByteSize)) {
+            return false;
+        }
+        unsafe.setMemory(startAddress + byteSize, targetByteSize - byteSize, (byte) 0);
+        pageSize = targetPageSize;
+        byteSize = targetByteSize;
         return true;
     }
 
+    @Override
+    public void readBytes(Node node, long address, byte[] dst, int dstOffset, int length) {
+        checkArrayRange(dst, dstOffset, length);
+        validateAddress(node, address, length);
+        unsafe.copyMemory(null, startAddress + address, dst, Unsafe.ARRAY_BYTE_BASE_OFFSET + dstOffset, length);
+        WasmMemoryTrace.readBytes(trace, address, length);
+    }
+
+    @Override
+    public void writeBytes(Node node, long address, byte[] src, int srcOffset, int length) {
+        checkArrayRange(src, srcOffset, length);
+        validateAddress(node, address, length);
+        unsafe.copyMemory(src, Unsafe.ARRAY_BYTE_BASE_OFFSET + srcOffset, null, startAddress + address, length);
+        WasmMemoryTrace.writeBytes(trace, address, length);
+    }
+
+    private static void checkArrayRange(byte[] array, int offset, int length) {
+        if (offset < 0 || length < 0 || offset > array.length - length) {
+            CompilerDirectives.transferToInterpreter();
+            throw new IndexOutOfBoundsException("Range [" + offset + ", " + offset + " + " + length + ") out of bounds for length " + array.length);
+        }
+    }
+
     // Checkstyle: stop
     @Override
     public int load_i32(Node node, long address) {
-        WasmTracing.trace("load.i32 address = %d", address);
         validateAddress(node, address, 4);
         int value = unsafe.getInt(startAddress + address);
-        WasmTracing.trace("load.i32 value = 0x%08X (%d)", value, value);
+        WasmMemoryTrace.load(trace, address, 4, value);
         return value;
     }
 
     @Override
     public long load_i64(Node node, long address) {
-        WasmTracing.trace("load.i64 address = %d", address);
         validateAddress(node, address, 8);
         long value = unsafe.getLong(startAddress + address);
-        WasmTracing.trace("load.i64 value = 0x%016X (%d)", value, value);
+        WasmMemoryTrace.load(trace, address, 8, value);
         return value;
     }
 
     @Override
     public float load_f32(Node node, long address) {
-        WasmTracing.trace("load.f32 address = %d", address);
         validateAddress(node, address, 4);
         float value = unsafe.getFloat(startAddress + address);
-        WasmTracing.trace("load.f32 address = %d, value = 0x%08X (%f)", address, Float.floatToRawIntBits(value), value);
+        WasmMemoryTrace.load(trace, address, 4, Float.floatToRawIntBits(value));
         return value;
     }
 
     @Override
     public double load_f64(Node node, long address) {
-        WasmTracing.trace("load.f64 address = %d", address);
         validateAddress(node, address, 8);
         double value = unsafe.getDouble(startAddress + address);
-        WasmTracing.trace("load.f64 address = %d, value = 0x%016X (%f)", address, Double.doubleToRawLongBits(value), value);
+        WasmMemoryTrace.load(trace, address, 8, Double.doubleToRawLongBits(value));
         return value;
     }
 
     @Override
     public int load_i32_8s(Node node, long address) {
-        WasmTracing.trace("load.i32_8s address = %d", address);
         validateAddress(node, address, 1);
         int value = unsafe.getByte(startAddress + address);
-        WasmTracing.trace("load.i32_8s value = 0x%02X (%d)", value, value);
+        WasmMemoryTrace.load(trace, address, 1, value);
         return value;
     }
 
     @Override
     public int load_i32_8u(Node node, long address) {
-        WasmTracing.trace("load.i32_8u address = %d", address);
         validateAddress(node, address, 1);
         int value = 0x0000_00ff & unsafe.getByte(startAddress + address);
-        WasmTracing.trace("load.i32_8u value = 0x%02X (%d)", value, value);
+        WasmMemoryTrace.load(trace, address, 1, value);
         return value;
     }
 
     @Override
     public int load_i32_16s(Node node, long address) {
-        WasmTracing.trace("load.i32_16s address = %d", address);
         validateAddress(node, address, 2);
         int value = unsafe.getShort(startAddress + address);
-        WasmTracing.trace("load.i32_16s value = 0x%04X (%d)", value, value);
+        WasmMemoryTrace.load(trace, address, 2, value);
         return value;
     }
 
     @Override
     public int load_i32_16u(Node node, long address) {
-        WasmTracing.trace("load.i32_16u address = %d", address);
         validateAddress(node, address, 2);
         int value = 0x0000_ffff & unsafe.getShort(startAddress + address);
-        WasmTracing.trace("load.i32_16u value = 0x%04X (%d)", value, value);
+        WasmMemoryTrace.load(trace, address, 2, value);
         return value;
     }
 
     @Override
     public long load_i64_8s(Node node, long address) {
-        WasmTracing.trace("load.i64_8s address = %d", address);
         validateAddress(node, address, 1);
         long value = unsafe.getByte(startAddress + address);
-        WasmTracing.trace("load.i64_8s value = 0x%02X (%d)", value, value);
+        WasmMemoryTrace.load(trace, address, 1, value);
         return value;
     }
 
     @Override
     public long load_i64_8u(Node node, long address) {
-        WasmTracing.trace("load.i64_8u address = %d", address);
         validateAddress(node, address, 1);
         long value = 0x0000_0000_0000_00ffL & unsafe.getByte(startAddress + address);
-        WasmTracing.trace("load.i64_8u value = 0x%02X (%d)", value, value);
+        WasmMemoryTrace.load(trace, address, 1, value);
         return value;
     }
 
     @Override
     public long load_i64_16s(Node node, long address) {
-        WasmTracing.trace("load.i64_16s address = %d", address);
         validateAddress(node, address, 2);
         long value = unsafe.getShort(startAddress + address);
-        WasmTracing.trace("load.i64_16s value = 0x%04X (%d)", value, value);
+        WasmMemoryTrace.load(trace, address, 2, value);
         return value;
     }
 
     @Override
     public long load_i64_16u(Node node, long address) {
-        WasmTracing.trace("load.i64_16u address = %d", address);
         validateAddress(node, address, 2);
         long value = 0x0000_0000_0000_ffffL & unsafe.getShort(startAddress + address);
-        WasmTracing.trace("load.i64_16u value = 0x%04X (%d)", value, value);
+        WasmMemoryTrace.load(trace, address, 2, value);
         return value;
     }
 
     @Override
     public long load_i64_32s(Node node, long address) {
-        WasmTracing.trace("load.i64_32s address = %d", address);
         validateAddress(node, address, 4);
         long value = unsafe.getInt(startAddress + address);
-        WasmTracing.trace("load.i64_32s value = 0x%08X (%d)", value, value);
+        WasmMemoryTrace.load(trace, address, 4, value);
         return value;
     }
 
     @Override
     public long load_i64_32u(Node node, long address) {
-        WasmTracing.trace("load.i64_32u address = %d", address);
         validateAddress(node, address, 4);
         long value = 0x0000_0000_ffff_ffffL & unsafe.getInt(startAddress + address);
-        WasmTracing.trace("load.i64_32u value = 0x%08X (%d)", value, value);
+        WasmMemoryTrace.load(trace, address, 4, value);
         return value;
     }
 
     @Override
     public void store_i32(Node node, long address, int value) {
-        WasmTracing.trace("store.i32 address = %d, value = 0x%08X (%d)", address, value, value);
         validateAddress(node, address, 4);
         unsafe.putInt(startAddress + address, value);
+        WasmMemoryTrace.store(trace, address, 4, value);
     }
 
     @Override
     public void store_i64(Node node, long address, long value) {
-        WasmTracing.trace("store.i64 address = %d, value = 0x%016X (%d)", address, value, value);
         validateAddress(node, address, 8);
         unsafe.putLong(startAddress + address, value);
+        WasmMemoryTrace.store(trace, address, 8, value);
 
     }
 
     @Override
     public void store_f32(Node node, long address, float value) {
-        WasmTracing.trace("store.f32 address = %d, value = 0x%08X (%f)", address, Float.floatToRawIntBits(value), value);
         validateAddress(node, address, 4);
         unsafe.putFloat(startAddress + address, value);
+        WasmMemoryTrace.store(trace, address, 4, Float.floatToRawIntBits(value));
 
     }
 
     @Override
     public void store_f64(Node node, long address, double value) {
-        WasmTracing.trace("store.f64 address = %d, value = 0x%016X (%f)", address, Double.doubleToRawLongBits(value), value);
         validateAddress(node, address, 8);
         unsafe.putDouble(startAddress + address, value);
+        WasmMemoryTrace.store(trace, address, 8, Double.doubleToRawLongBits(value));
     }
 
     @Override
     public void store_i32_8(Node node, long address, byte value) {
-        WasmTracing.trace("store.i32_8 address = %d, value = 0x%02X (%d)", address, value, value);
         validateAddress(node, address, 1);
         unsafe.putByte(startAddress + address, value);
+        WasmMemoryTrace.store(trace, address, 1, value);
     }
 
     @Override
     public void store_i32_16(Node node, long address, short value) {
-        WasmTracing.trace("store.i32_16 address = %d, value = 0x%04X (%d)", address, value, value);
         validateAddress(node, address, 2);
         unsafe.putShort(startAddress + address, value);
+        WasmMemoryTrace.store(trace, address, 2, value);
     }
 
     @Override
     public void store_i64_8(Node node, long address, byte value) {
-        WasmTracing.trace("store.i64_8 address = %d, value = 0x%02X (%d)", address, value, value);
         validateAddress(node, address, 1);
         unsafe.putByte(startAddress + address, value);
+        WasmMemoryTrace.store(trace, address, 1, value);
     }
 
     @Override
     public void store_i64_16(Node node, long address, short value) {
-        WasmTracing.trace("store.i64_16 address = %d, value = 0x%04X (%d)", address, value, value);
         validateAddress(node, address, 2);
         unsafe.putShort(startAddress + address, value);
+        WasmMemoryTrace.store(trace, address, 2, value);
     }
 
     @Override
     public void store_i64_32(Node node, long address, int value) {
-        WasmTracing.trace("store.i64_32 address = %d, value = 0x%08X (%d)", address, value, value);
         validateAddress(node, address, 4);
         unsafe.putInt(startAddress + address, value);
+        WasmMemoryTrace.store(trace, address, 4, value);
     }
     // Checkstyle: resume
 
     @Override
     public WasmMemory duplicate() {
-        final UnsafeWasmMemory other = new UnsafeWasmMemory(pageSize, maxPageSize);
-        unsafe.copyMemory(this.startAddress, other.startAddress, this.byteSize());
+        final UnsafeWasmMemory other = new UnsafeWasmMemory(pageSize, maxPageSize, reservedByteSize / PAGE_SIZE);
+        unsafe.copyMemory(this.startAddress, other.startAddress, byteSize);
+        other.trace = trace;
         return other;
     }
 }
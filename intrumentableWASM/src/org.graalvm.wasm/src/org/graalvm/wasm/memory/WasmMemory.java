@@ -40,6 +40,9 @@
  */
 package org.graalvm.wasm.memory;
 
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
 import com.oracle.truffle.api.interop.InteropLibrary;
 import com.oracle.truffle.api.interop.InvalidArrayIndexException;
 import com.oracle.truffle.api.interop.TruffleObject;
@@ -54,7 +57,7 @@ import static com.oracle.truffle.api.CompilerDirectives.transferToInterpreter;
 
 @ExportLibrary(InteropLibrary.class)
 public abstract class WasmMemory implements TruffleObject {
-    static final int PAGE_SIZE = 1 << 16;
+    public static final int PAGE_SIZE = 1 << 16;
     static final int LONG_SIZE = 8;
 
     public abstract void validateAddress(Node node, long address, long offset);
@@ -129,6 +132,31 @@ public abstract class WasmMemory implements TruffleObject {
     public abstract void store_i64_32(Node node, long address, int value);
     // Checkstyle: resume
 
+    /**
+     * Copies {@code length} bytes starting at {@code address} into {@code dst}, starting at
+     * {@code dstOffset}.
+     */
+    public abstract void readBytes(Node node, long address, byte[] dst, int dstOffset, int length);
+
+    /**
+     * Copies {@code length} bytes from {@code src}, starting at {@code srcOffset}, into this memory
+     * starting at {@code address}.
+     */
+    public abstract void writeBytes(Node node, long address, byte[] src, int srcOffset, int length);
+
+    /**
+     * Returns a little-endian heap buffer holding a copy of {@code length} bytes of this memory
+     * starting at {@code address}. The buffer does not share storage with the memory.
+     */
+    public ByteBuffer copyToByteBuffer(long address, int length) {
+        if (length < 0) {
+            throw new IllegalArgumentException("Length cannot be negative.");
+        }
+        final byte[] bytes = new byte[length];
+        readBytes(null, address, bytes, 0, length);
+        return ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
     public abstract void clear();
 
     public abstract WasmMemory duplicate();
@@ -222,6 +250,61 @@ public abstract class WasmMemory implements TruffleObject {
         return load_i32_8u(null, address);
     }
 
+    /**
+     * Bulk reads return the same unsigned byte values as {@link #readArrayElement(long)}. An
+     * <code>int[]</code> or <code>long[]</code> destination receives every byte. A
+     * <code>byte[]</code> destination receives the raw bytes, but only if none of them is above
+     * 127, since such values do not fit into a byte. The bytes are checked before the destination
+     * is written, so that it is left unchanged if the read fails.
+     */
+    @ExportMessage
+    public void readArrayElements(long address, Object destination, int offset, int length) throws UnsupportedMessageException, InvalidArrayIndexException {
+        if (destination instanceof byte[]) {
+            checkArrayRange(address, length);
+            for (int i = 0; i < length; i++) {
+                if (load_i32_8u(null, address + i) > Byte.MAX_VALUE) {
+                    transferToInterpreter();
+                    throw UnsupportedMessageException.create();
+                }
+            }
+            readBytes(null, address, (byte[]) destination, offset, length);
+        } else if (destination instanceof int[]) {
+            checkArrayRange(address, length);
+            final int[] ints = (int[]) destination;
+            for (int i = 0; i < length; i++) {
+                ints[offset + i] = load_i32_8u(null, address + i);
+            }
+        } else if (destination instanceof long[]) {
+            checkArrayRange(address, length);
+            final long[] longs = (long[]) destination;
+            for (int i = 0; i < length; i++) {
+                longs[offset + i] = load_i32_8u(null, address + i);
+            }
+        } else {
+            throw UnsupportedMessageException.create();
+        }
+    }
+
+    /**
+     * Bulk writes take the bytes of a <code>byte[]</code> source, the same values that
+     * {@link #writeArrayElement(long, Object, InteropLibrary)} accepts.
+     */
+    @ExportMessage
+    public void writeArrayElements(long address, Object source, int offset, int length) throws UnsupportedMessageException, InvalidArrayIndexException {
+        if (!(source instanceof byte[])) {
+            throw UnsupportedMessageException.create();
+        }
+        checkArrayRange(address, length);
+        writeBytes(null, address, (byte[]) source, offset, length);
+    }
+
+    private void checkArrayRange(long address, int length) throws InvalidArrayIndexException {
+        if (address < 0 || address > getArraySize() - length) {
+            transferToInterpreter();
+            throw InvalidArrayIndexException.create(address < 0 ? address : Math.max(address, getArraySize()));
+        }
+    }
+
     @ExportMessage(limit = "3")
     public void writeArrayElement(long address, Object value, @CachedLibrary("value") InteropLibrary valueLib)
                     throws InvalidArrayIndexException, UnsupportedMessageException, UnsupportedTypeException {
@@ -0,0 +1,294 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.graalvm.wasm.memory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.EnumSet;
+
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.TruffleFile;
+import com.oracle.truffle.api.utilities.CyclicAssumption;
+import org.graalvm.wasm.exception.WasmException;
+
+/**
+ * Binary trace of the linear memory accesses of a single context.
+ *
+ * <p>
+ * A trace is opened by the context that enables the {@code wasm.MemoryTrace} option, and is
+ * attached to the memories that this context allocates. It records from the start, and can be
+ * paused and resumed at run time with {@link #setEnabled(boolean)}, for example through the
+ * {@code memorytrace} builtin module. While no trace is enabled in the process, the checks at the
+ * access sites fold away in compiled code, because they only depend on an assumption. Enabling the
+ * first trace invalidates the assumption, after which every access to a traced memory appends a
+ * fixed-size record to a ring buffer owned by the accessing thread. Disabling or closing the last
+ * enabled trace invalidates the assumption again, so that code compiled while tracing was active is
+ * recompiled without the checks. The buffers are written to the trace file when the trace is
+ * closed, and can be decoded offline with {@link WasmMemoryTraceDecoder}.
+ *
+ * <p>
+ * The trace file is little-endian. It starts with {@link #MAGIC}, {@link #VERSION} and
+ * {@link #RECORD_SIZE}, followed by a section per thread: the thread id, the length and UTF-8
+ * bytes of the thread name, the number of recorded accesses, the number of retained records, and
+ * the retained records, oldest first. Each record consists of the {@link System#nanoTime()}
+ * timestamp, the event kind, the access size, the address and the value.
+ */
+public final class WasmMemoryTrace {
+    public static final int MAGIC = 0x5754524d;
+    public static final int VERSION = 1;
+    public static final int RECORD_SIZE = 32;
+
+    public static final int LOAD = 1;
+    public static final int STORE = 2;
+    public static final int COPY = 3;
+    public static final int READ_BYTES = 4;
+    public static final int WRITE_BYTES = 5;
+
+    private static final CyclicAssumption ACTIVE_TRACES_UNCHANGED = new CyclicAssumption("wasm memory trace count unchanged");
+    @CompilationFinal private static volatile int activeTraces;
+
+    private final TruffleFile file;
+    private final int recordsPerThread;
+    private final ArrayList<RingBuffer> allBuffers = new ArrayList<>();
+    private final ThreadLocal<RingBuffer> buffers = new ThreadLocal<RingBuffer>() {
+        @Override
+        protected RingBuffer initialValue() {
+            final RingBuffer buffer = new RingBuffer(Thread.currentThread(), recordsPerThread);
+            synchronized (allBuffers) {
+                allBuffers.add(buffer);
+            }
+            return buffer;
+        }
+    };
+    private boolean enabled;
+    private volatile boolean recording;
+    private boolean closed;
+
+    private WasmMemoryTrace(TruffleFile file, int recordsPerThread) {
+        this.file = file;
+        this.recordsPerThread = recordsPerThread;
+    }
+
+    /**
+     * Starts a trace that retains the last {@code recordsPerThread} accesses of each thread, and
+     * writes them to {@code file} when it is {@link #close() closed}.
+     */
+    public static WasmMemoryTrace open(TruffleFile file, int recordsPerThread) {
+        if (recordsPerThread <= 0) {
+            throw new WasmException("The memory trace needs at least one record per thread.");
+        }
+        final WasmMemoryTrace trace = new WasmMemoryTrace(file, recordsPerThread);
+        trace.setEnabled(true);
+        return trace;
+    }
+
+    /**
+     * Resumes or pauses recording. Accesses made while the trace is paused are not recorded. Does
+     * nothing if the trace is closed.
+     */
+    public synchronized void setEnabled(boolean enable) {
+        if (closed || enabled == enable) {
+            return;
+        }
+        enabled = enable;
+        recording = enable;
+        updateActiveTraces(enable ? 1 : -1);
+    }
+
+    public synchronized boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Stops this trace and writes the recorded accesses to the trace file. Does nothing if the
+     * trace is already closed. Each ring buffer is sealed before it is written, so that a thread
+     * that is still accessing a traced memory cannot change the records while they are exported.
+     */
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        setEnabled(false);
+        closed = true;
+        try (SeekableByteChannel channel = file.newByteChannel(EnumSet.of(StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE))) {
+            final ByteBuffer header = newBuffer(12);
+            header.putInt(MAGIC).putInt(VERSION).putInt(RECORD_SIZE);
+            write(channel, header);
+            synchronized (allBuffers) {
+                for (RingBuffer buffer : allBuffers) {
+                    buffer.writeTo(channel);
+                }
+            }
+        } catch (IOException | SecurityException e) {
+            throw new WasmException("Could not write the memory trace to '" + file + "'.", e);
+        }
+    }
+
+    private static synchronized void updateActiveTraces(int delta) {
+        final int previous = activeTraces;
+        activeTraces = previous + delta;
+        if (previous == 0 || activeTraces == 0) {
+            ACTIVE_TRACES_UNCHANGED.invalidate();
+        }
+    }
+
+    /**
+     * Returns whether any trace is enabled in this process. Constant in compiled code until the
+     * first trace is enabled or the last one is disabled, which invalidates the compiled code.
+     */
+    public static boolean isActive() {
+        if (!ACTIVE_TRACES_UNCHANGED.getAssumption().isValid()) {
+            // The count changed after this code was compiled, so the folded count is stale.
+            CompilerDirectives.transferToInterpreterAndInvalidate();
+        }
+        return activeTraces != 0;
+    }
+
+    public static void load(WasmMemoryTrace trace, long address, int size, long value) {
+        if (isActive() && trace != null) {
+            trace.record(LOAD, size, address, value);
+        }
+    }
+
+    public static void store(WasmMemoryTrace trace, long address, int size, long value) {
+        if (isActive() && trace != null) {
+            trace.record(STORE, size, address, value);
+        }
+    }
+
+    public static void copy(WasmMemoryTrace trace, long src, long dst, long n) {
+        if (isActive() && trace != null) {
+            trace.record(COPY, (int) Math.min(n, Integer.MAX_VALUE), dst, src);
+        }
+    }
+
+    public static void readBytes(WasmMemoryTrace trace, long address, int length) {
+        if (isActive() && trace != null) {
+            trace.record(READ_BYTES, length, address, 0);
+        }
+    }
+
+    public static void writeBytes(WasmMemoryTrace trace, long address, int length) {
+        if (isActive() && trace != null) {
+            trace.record(WRITE_BYTES, length, address, 0);
+        }
+    }
+
+    @TruffleBoundary
+    private void record(int kind, int size, long address, long value) {
+        if (recording) {
+            buffers.get().record(kind, size, address, value);
+        }
+    }
+
+    /**
+     * Retains the most recent records of a single thread. Only the owning thread appends to it, but
+     * the closing thread reads it, so both hold the lock of the buffer. The lock is uncontended
+     * while the trace is open.
+     */
+    private static final class RingBuffer {
+        private final long threadId;
+        private final String threadName;
+        private final ByteBuffer records;
+        private long count;
+        private boolean sealed;
+
+        RingBuffer(Thread thread, int capacity) {
+            this.threadId = thread.getId();
+            this.threadName = thread.getName();
+            this.records = newBuffer(capacity * RECORD_SIZE);
+        }
+
+        synchronized void record(int kind, int size, long address, long value) {
+            if (sealed) {
+                return;
+            }
+            final int index = (int) (count % (records.capacity() / RECORD_SIZE)) * RECORD_SIZE;
+            records.putLong(index, System.nanoTime());
+            records.putInt(index + 8, kind);
+            records.putInt(index + 12, size);
+            records.putLong(index + 16, address);
+            records.putLong(index + 24, value);
+            count++;
+        }
+
+        synchronized void writeTo(SeekableByteChannel channel) throws IOException {
+            sealed = true;
+            final int capacity = records.capacity() / RECORD_SIZE;
+            final long recorded = count;
+            final int retained = (int) Math.min(recorded, capacity);
+            final byte[] name = threadName.getBytes(StandardCharsets.UTF_8);
+            final ByteBuffer header = newBuffer(24 + name.length);
+            header.putLong(threadId).putInt(name.length).put(name).putLong(recorded).putInt(retained);
+            write(channel, header);
+            final int oldest = (int) ((recorded - retained) % capacity);
+            final ByteBuffer view = records.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+            view.position(oldest * RECORD_SIZE).limit(Math.min(oldest + retained, capacity) * RECORD_SIZE);
+            writeFully(channel, view);
+            if (oldest + retained > capacity) {
+                view.position(0).limit((oldest + retained - capacity) * RECORD_SIZE);
+                writeFully(channel, view);
+            }
+        }
+    }
+
+    private static ByteBuffer newBuffer(int capacity) {
+        return ByteBuffer.allocate(capacity).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private static void write(SeekableByteChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        writeFully(channel, buffer);
+    }
+
+    private static void writeFully(SeekableByteChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+}
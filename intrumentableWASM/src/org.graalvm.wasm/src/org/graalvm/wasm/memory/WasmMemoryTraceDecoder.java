@@ -0,0 +1,147 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.graalvm.wasm.memory;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+/**
+ * Prints a memory trace written by {@link WasmMemoryTrace} as text, one access per line.
+ *
+ * <pre>
+ * java org.graalvm.wasm.memory.WasmMemoryTraceDecoder &lt;trace-file&gt;
+ * </pre>
+ */
+public final class WasmMemoryTraceDecoder {
+    private final DataInputStream in;
+    private final PrintStream out;
+
+    private WasmMemoryTraceDecoder(InputStream in, PrintStream out) {
+        this.in = new DataInputStream(new BufferedInputStream(in));
+        this.out = out;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            System.err.println("Usage: WasmMemoryTraceDecoder <trace-file>");
+            System.exit(1);
+        }
+        try (InputStream in = Files.newInputStream(Paths.get(args[0]))) {
+            new WasmMemoryTraceDecoder(in, System.out).decode();
+        }
+    }
+
+    public static void decode(InputStream in, PrintStream out) throws IOException {
+        new WasmMemoryTraceDecoder(in, out).decode();
+    }
+
+    private void decode() throws IOException {
+        final ByteBuffer header = read(12);
+        if (header.getInt() != WasmMemoryTrace.MAGIC) {
+            throw new IOException("Not a WebAssembly memory trace.");
+        }
+        final int version = header.getInt();
+        if (version != WasmMemoryTrace.VERSION) {
+            throw new IOException("Unsupported memory trace version " + version + ".");
+        }
+        final int recordSize = header.getInt();
+        while (true) {
+            final ByteBuffer threadHeader;
+            try {
+                threadHeader = read(12);
+            } catch (EOFException e) {
+                return;
+            }
+            final long threadId = threadHeader.getLong();
+            final byte[] name = new byte[threadHeader.getInt()];
+            in.readFully(name);
+            final ByteBuffer counts = read(12);
+            final long recorded = counts.getLong();
+            final int retained = counts.getInt();
+            out.printf("thread %d (%s): %d accesses, last %d retained%n", threadId, new String(name, StandardCharsets.UTF_8), recorded, retained);
+            for (int i = 0; i < retained; i++) {
+                printRecord(read(recordSize));
+            }
+        }
+    }
+
+    private void printRecord(ByteBuffer record) {
+        final long timestamp = record.getLong();
+        final int kind = record.getInt();
+        final int size = record.getInt();
+        final long address = record.getLong();
+        final long value = record.getLong();
+        switch (kind) {
+            case WasmMemoryTrace.LOAD:
+                out.printf("%d load  %d bytes at 0x%08X = 0x%X%n", timestamp, size, address, value);
+                break;
+            case WasmMemoryTrace.STORE:
+                out.printf("%d store %d bytes at 0x%08X = 0x%X%n", timestamp, size, address, value);
+                break;
+            case WasmMemoryTrace.COPY:
+                out.printf("%d copy  %d bytes from 0x%08X to 0x%08X%n", timestamp, size, value, address);
+                break;
+            case WasmMemoryTrace.READ_BYTES:
+                out.printf("%d read  %d bytes at 0x%08X%n", timestamp, size, address);
+                break;
+            case WasmMemoryTrace.WRITE_BYTES:
+                out.printf("%d write %d bytes at 0x%08X%n", timestamp, size, address);
+                break;
+            default:
+                out.printf("%d unknown event %d%n", timestamp, kind);
+        }
+    }
+
+    private ByteBuffer read(int length) throws IOException {
+        final byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+    }
+}
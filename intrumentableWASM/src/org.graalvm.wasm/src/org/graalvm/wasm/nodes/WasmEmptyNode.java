@@ -56,9 +56,9 @@ public final class WasmEmptyNode extends WasmNode {
     }
 
     @Override
-    public TargetOffset execute(WasmContext context, VirtualFrame frame) {
+    public int execute(VirtualFrame frame, WasmContext context) {
         // A return value of -1 means no branch to be taken.
-        return TargetOffset.ZERO;
+        return TargetOffset.FALL_THROUGH;
     }
 
     @Override
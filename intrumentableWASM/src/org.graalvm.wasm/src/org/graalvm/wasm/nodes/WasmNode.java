@@ -46,30 +46,63 @@ import org.graalvm.wasm.WasmModule;
 import org.graalvm.wasm.constants.TargetOffset;
 
 import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.instrumentation.GenerateWrapper;
+import com.oracle.truffle.api.instrumentation.InstrumentableNode;
+import com.oracle.truffle.api.instrumentation.ProbeNode;
+import com.oracle.truffle.api.instrumentation.StandardTags;
+import com.oracle.truffle.api.instrumentation.Tag;
 import com.oracle.truffle.api.nodes.Node;
 
-public abstract class WasmNode extends Node implements WasmNodeInterface {
+/**
+ * Base class of the nodes that implement a single WebAssembly instruction (or a block of them).
+ * Every instruction node is instrumentable: the wrapper and its probe are only inserted once an
+ * instrument requests one of the tags reported by {@link #hasTag(Class)}, so the uninstrumented
+ * node tree is left untouched.
+ */
+@GenerateWrapper
+public abstract class WasmNode extends Node implements WasmNodeInterface, InstrumentableNode {
     // TODO: We should not cache the module in the nodes, only the symbol table.
     private final WasmModule wasmModule;
     private final WasmCodeEntry codeEntry;
 
-
-
     public WasmNode(WasmModule wasmModule, WasmCodeEntry codeEntry) {
         this.wasmModule = wasmModule;
         this.codeEntry = codeEntry;
     }
 
+    /**
+     * Copy constructor, used by the generated {@link WasmNodeWrapper}.
+     */
+    protected WasmNode(WasmNode node) {
+        this(node.wasmModule, node.codeEntry);
+    }
+
     /**
      * Execute the current node within the given frame and return the branch target.
      *
      * @param frame The frame to use for execution.
-     * @return The return value of this method indicates whether a branch is to be executed, in case
-     *         of nested blocks. An offset with value -1 means no branch, whereas a return value n
-     *         greater than or equal to 0 means that the execution engine has to branch n levels up
-     *         the block execution stack.
+     * @return The return value of this method indicates where the execution continues, see
+     *         {@link TargetOffset}. {@link TargetOffset#FALL_THROUGH}
+     *         means no branch, {@link TargetOffset#RETURN} leaves the current function, and a value
+     *         n greater than 0 means that the execution engine has to branch n levels up the block
+     *         execution stack.
      */
-    public abstract TargetOffset execute(WasmContext context, VirtualFrame frame);
+    public abstract int execute(VirtualFrame frame, WasmContext context);
+
+    @Override
+    public boolean isInstrumentable() {
+        return true;
+    }
+
+    @Override
+    public WrapperNode createWrapper(ProbeNode probe) {
+        return new WasmNodeWrapper(this, this, probe);
+    }
+
+    @Override
+    public boolean hasTag(Class<? extends Tag> tag) {
+        return tag == StandardTags.StatementTag.class;
+    }
 
     public abstract byte returnTypeId();
 
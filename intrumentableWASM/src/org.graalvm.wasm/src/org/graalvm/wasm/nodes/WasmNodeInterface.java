@@ -97,6 +97,28 @@ public interface WasmNodeInterface {
         frame.setDouble(codeEntry().localSlot(slot), value);
     }
 
+    /* STACK POINTER operations */
+
+    default int getStackPointer(VirtualFrame frame) {
+        try {
+            return frame.getInt(codeEntry().stackPointerSlot());
+        } catch (FrameSlotTypeException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    default void setStackPointer(VirtualFrame frame, int stackPointer) {
+        frame.setInt(codeEntry().stackPointerSlot(), stackPointer);
+    }
+
+    default void incrementStackPointer(VirtualFrame frame) {
+        setStackPointer(frame, getStackPointer(frame) + 1);
+    }
+
+    default void decrementStackPointer(VirtualFrame frame) {
+        setStackPointer(frame, getStackPointer(frame) - 1);
+    }
+
     /* STACK operations */
 
     default void push(VirtualFrame frame, int slot, long value) {
@@ -44,6 +44,7 @@ import static org.graalvm.wasm.WasmTracing.trace;
 
 import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.TruffleLanguage;
 import com.oracle.truffle.api.TruffleLanguage.ContextReference;
 import com.oracle.truffle.api.frame.FrameSlot;
@@ -52,6 +53,7 @@ import com.oracle.truffle.api.frame.VirtualFrame;
 import com.oracle.truffle.api.nodes.ExplodeLoop;
 import com.oracle.truffle.api.nodes.NodeInfo;
 import com.oracle.truffle.api.nodes.RootNode;
+import org.graalvm.wasm.BinaryParser;
 import org.graalvm.wasm.ValueTypes;
 import org.graalvm.wasm.WasmCodeEntry;
 import org.graalvm.wasm.WasmContext;
@@ -65,6 +67,11 @@ public class WasmRootNode extends RootNode implements WasmNodeInterface {
     private final WasmCodeEntry codeEntry;
     @CompilationFinal private ContextReference<WasmContext> rawContextReference;
     @Child private WasmNode body;
+    /**
+     * Set after the body and the frame slots of the function are initialized. A thread that reads
+     * {@code true} here also sees the complete body.
+     */
+    private volatile boolean bodyPublished;
 
     public WasmRootNode(TruffleLanguage<?> language, WasmCodeEntry codeEntry) {
         super(language);
@@ -80,13 +87,18 @@ public class WasmRootNode extends RootNode implements WasmNodeInterface {
         return rawContextReference;
     }
 
+    /**
+     * Sets the body and publishes it to other threads. This must be called after the frame slots
+     * that the body uses have been added to the frame descriptor.
+     */
     public void setBody(WasmNode body) {
         this.body = insert(body);
+        this.bodyPublished = true;
     }
 
     @Override
     protected boolean isInstrumentable() {
-        return false;
+        return true;
     }
 
     public void tryInitialize(WasmContext context) {
@@ -94,15 +106,37 @@ public class WasmRootNode extends RootNode implements WasmNodeInterface {
         // This linking should be as late as possible, because a WebAssembly context should
         // be able to parse multiple modules before the code gets run.
         context.linker().tryLink();
-        context.stackpointer = 0;
     }
 
     @Override
     public final Object execute(VirtualFrame frame) {
         final WasmContext context = contextReference().get();
         tryInitialize(context);
+        // Compiled code folds the body away as a constant, so only the interpreter needs the
+        // ordered read of the published flag.
+        if (codeEntry != null && (CompilerDirectives.inInterpreter() ? !bodyPublished : body == null)) {
+            CompilerDirectives.transferToInterpreterAndInvalidate();
+            materializeBody(context);
+        }
         return executeWithContext(frame, context);
     }
+
+    /**
+     * Parses the function body on the first call, when the module was read with lazily parsed
+     * function bodies.
+     */
+    @TruffleBoundary
+    private void materializeBody(WasmContext context) {
+        getLock().lock();
+        try {
+            if (!bodyPublished) {
+                BinaryParser.readDeferredCodeEntry(getLanguage(WasmLanguage.class), context, this);
+                notifyInserted(body);
+            }
+        } finally {
+            getLock().unlock();
+        }
+    }
     
     private void printBlock(WasmBlockNode block) {
     	System.out.println("start Block");
@@ -119,6 +153,10 @@ public class WasmRootNode extends RootNode implements WasmNodeInterface {
 
     public Object executeWithContext(VirtualFrame frame, WasmContext context) {
 
+        // The operand stack pointer is part of the activation, so that it does not escape to the
+        // shared context and can be kept in a register by the compiled code.
+        setStackPointer(frame, 0);
+
         // WebAssembly structure dictates that a function's arguments are provided to the function
         // as local variables, followed by any additional local variables that the function
         // declares. A VirtualFrame contains a special array for the arguments, so we need to move
@@ -134,14 +172,14 @@ public class WasmRootNode extends RootNode implements WasmNodeInterface {
 
         //printBlock((WasmBlockNode) body);
         
-        body.execute(context, frame);
+        body.execute(frame, context);
 
-        context.stackpointer--;
+        decrementStackPointer(frame);
         switch (body.returnTypeId()) {
         	
             case 0x00:
             case ValueTypes.VOID_TYPE: {
-            	context.stackpointer++;
+            	incrementStackPointer(frame);
                 return WasmVoidResult.getInstance();
             }
             case ValueTypes.I32_TYPE: {
@@ -6,12 +6,14 @@ import org.graalvm.wasm.ValueTypes;
 import org.graalvm.wasm.WasmCodeEntry;
 import org.graalvm.wasm.WasmContext;
 import org.graalvm.wasm.WasmModule;
+import org.graalvm.wasm.WasmTags;
 import org.graalvm.wasm.constants.TargetOffset;
 import org.graalvm.wasm.exception.WasmTrap;
 import org.graalvm.wasm.nodes.WasmNode;
 
 import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
 import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.instrumentation.Tag;
 
 public class WasmPopCnt extends WasmNode {
 
@@ -23,30 +25,35 @@ public class WasmPopCnt extends WasmNode {
 	}
 
 	@Override
-	public TargetOffset execute(WasmContext context, VirtualFrame frame) {
+	public int execute(VirtualFrame frame, WasmContext context) {
 		switch (type) {
 		case ValueTypes.I32_TYPE: {
-			context.stackpointer--;
-            int x = popInt(frame, context.stackpointer);
+			decrementStackPointer(frame);
+            int x = popInt(frame, getStackPointer(frame));
             int result = Integer.bitCount(x);
-            pushInt(frame, context.stackpointer, result);
-            context.stackpointer++;
+            pushInt(frame, getStackPointer(frame), result);
+            incrementStackPointer(frame);
             trace("popcnt(0x%08X) = %d [i32]", x, result);
 			break;
 		}
 		case ValueTypes.I64_TYPE: {
-			context.stackpointer--;
-            long x = pop(frame, context.stackpointer);
+			decrementStackPointer(frame);
+            long x = pop(frame, getStackPointer(frame));
             long result = Long.bitCount(x);
-            push(frame, context.stackpointer, result);
-            context.stackpointer++;
+            push(frame, getStackPointer(frame), result);
+            incrementStackPointer(frame);
             trace("popcnt(0x%016X) = 0x%08X (%d) [i64]", x, result, result);
 			break;
 		}
 		default:
 			throw new WasmTrap(this, "PopCnt need the I** type.");
 		}
-		return null;
+		return TargetOffset.FALL_THROUGH;
+	}
+
+	@Override
+	public boolean hasTag(Class<? extends Tag> tag) {
+		return tag == WasmTags.ArithmeticTag.class || super.hasTag(tag);
 	}
 
 	@Override
@@ -24,52 +24,56 @@ public class WasmEQ extends WasmNode {
 	}
 
 	@Override
-	public TargetOffset execute(WasmContext context, VirtualFrame frame) {
+	public int execute(VirtualFrame frame, WasmContext context) {
 		switch (type) {
 		case ValueTypes.I32_TYPE: {
-			context.stackpointer--;
-            int x = popInt(frame, context.stackpointer);
-            context.stackpointer--;
-            int y = popInt(frame, context.stackpointer);
-            pushInt(frame, context.stackpointer, y == x ? 1 : 0);
-            context.stackpointer++;
+			decrementStackPointer(frame);
+            int x = popInt(frame, getStackPointer(frame));
+            decrementStackPointer(frame);
+            int y = popInt(frame, getStackPointer(frame));
+            pushInt(frame, getStackPointer(frame), y == x ? 1 : 0);
+            incrementStackPointer(frame);
             trace("0x%016X == 0x%016X ? [i32]", y, x);
 			break;
 		}
 		case ValueTypes.I64_TYPE: {
-			context.stackpointer--;
-            long x = pop(frame, context.stackpointer);
-            context.stackpointer--;
-            long y = pop(frame, context.stackpointer);
-            pushInt(frame, context.stackpointer, y == x ? 1 : 0);
-            context.stackpointer++;
+			decrementStackPointer(frame);
+            long x = pop(frame, getStackPointer(frame));
+            decrementStackPointer(frame);
+            long y = pop(frame, getStackPointer(frame));
+            pushInt(frame, getStackPointer(frame), y == x ? 1 : 0);
+            incrementStackPointer(frame);
             trace("0x%016X == 0x%016X ? [i64]", y, x);
 			break;
 		}
 		case ValueTypes.F32_TYPE: {
-			context.stackpointer--;
-            float x = popAsFloat(frame, context.stackpointer);
-            context.stackpointer--;
-            float y = popAsFloat(frame, context.stackpointer);
-            pushInt(frame, context.stackpointer, y == x ? 1 : 0);
-            context.stackpointer++;
+			decrementStackPointer(frame);
+            float x = popAsFloat(frame, getStackPointer(frame));
+            decrementStackPointer(frame);
+            float y = popAsFloat(frame, getStackPointer(frame));
+            pushInt(frame, getStackPointer(frame), y == x ? 1 : 0);
+            incrementStackPointer(frame);
             trace("%f == %f ? [f32]", y, x);
 			break;
 		}
 		case ValueTypes.F64_TYPE: {
-			context.stackpointer--;
-            double x = popAsDouble(frame, context.stackpointer);
-            context.stackpointer--;
-            double y = popAsDouble(frame, context.stackpointer);
-            pushInt(frame, context.stackpointer, y == x ? 1 : 0);
-            context.stackpointer++;
+			decrementStackPointer(frame);
+            double x = popAsDouble(frame, getStackPointer(frame));
+            decrementStackPointer(frame);
+            double y = popAsDouble(frame, getStackPointer(frame));
+            pushInt(frame, getStackPointer(frame), y == x ? 1 : 0);
+            incrementStackPointer(frame);
             trace("%f == %f ? [f64]", y, x);
 			break;
 		}
 		default:
 			throw new WasmTrap(this, "EQ cannot have the void type.");
 		}
-		return null;
+		return TargetOffset.FALL_THROUGH;
+	}
+
+	public byte type() {
+		return type;
 	}
 
 	@Override
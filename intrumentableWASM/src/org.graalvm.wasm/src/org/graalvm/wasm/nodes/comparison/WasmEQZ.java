@@ -24,28 +24,32 @@ public class WasmEQZ extends WasmNode {
 	}
 
 	@Override
-	public TargetOffset execute(WasmContext context, VirtualFrame frame) {
+	public int execute(VirtualFrame frame, WasmContext context) {
 		switch (type) {
 		case ValueTypes.I32_TYPE: {
-			context.stackpointer--;
-            int x = popInt(frame, context.stackpointer);
-            pushInt(frame, context.stackpointer, x == 0 ? 1 : 0);
-            context.stackpointer++;
+			decrementStackPointer(frame);
+            int x = popInt(frame, getStackPointer(frame));
+            pushInt(frame, getStackPointer(frame), x == 0 ? 1 : 0);
+            incrementStackPointer(frame);
             trace("0x%08X == 0x%08X ? [i32]", x, 0);
 			break;
 		}
 		case ValueTypes.I64_TYPE: {
-			context.stackpointer--;
-            long x = pop(frame, context.stackpointer);
-            pushInt(frame, context.stackpointer, x == 0 ? 1 : 0);
-            context.stackpointer++;
+			decrementStackPointer(frame);
+            long x = pop(frame, getStackPointer(frame));
+            pushInt(frame, getStackPointer(frame), x == 0 ? 1 : 0);
+            incrementStackPointer(frame);
             trace("0x%016X == 0x%016X ? [i64]", x, 0);
 			break;
 		}
 		default:
 			throw new WasmTrap(this, "EQZ need the I** type.");
 		}
-		return null;
+		return TargetOffset.FALL_THROUGH;
+	}
+
+	public byte type() {
+		return type;
 	}
 
 	@Override
@@ -61,6 +61,7 @@ import org.graalvm.wasm.exception.WasmTrap;
 import org.graalvm.wasm.memory.WasmMemory;
 import org.graalvm.wasm.memory.WasmMemoryException;
 import org.graalvm.wasm.nodes.WasmNode;
+import org.graalvm.wasm.nodes.fused.WasmFusionPass;
 
 import com.oracle.truffle.api.CallTarget;
 import com.oracle.truffle.api.CompilerAsserts;
@@ -70,6 +71,8 @@ import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.Truffle;
 import com.oracle.truffle.api.TruffleLanguage.ContextReference;
 import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.instrumentation.StandardTags;
+import com.oracle.truffle.api.instrumentation.Tag;
 import com.oracle.truffle.api.nodes.DirectCallNode;
 import com.oracle.truffle.api.nodes.ExplodeLoop;
 import com.oracle.truffle.api.nodes.LoopNode;
@@ -109,7 +112,6 @@ public class WasmBlockNode extends WasmNode{
     @CompilationFinal private final int initialBranchTableOffset;
     @CompilationFinal private ContextReference<WasmContext> rawContextReference;
     @CompilationFinal private final boolean functionBlock;
-    private boolean internalFlag = false;
     
     private List<WasmNode> statements;
     @Children private WasmNode[] effectiveStatements;
@@ -141,7 +143,10 @@ public class WasmBlockNode extends WasmNode{
     	this.statements.add(st);
     }
     
-    public void buildEffectiveStatements() {
+    public void buildEffectiveStatements(boolean fuseInstructions) {
+    	if (fuseInstructions) {
+    		statements = WasmFusionPass.fuse(module(), codeEntry(), statements);
+    	}
     	this.effectiveStatements = new WasmNode[statements.size()];
     	int i = 0;
     	for (WasmNode wasmNode : statements) {
@@ -154,6 +159,21 @@ public class WasmBlockNode extends WasmNode{
     	return this.effectiveStatements;
     }
 
+    /**
+     * Only the body of a function can be wrapped: the blocks nested in {@code if} and {@code loop}
+     * nodes are referenced through fields of type {@link WasmBlockNode}, and their statements are
+     * instrumented individually anyway.
+     */
+    @Override
+    public boolean isInstrumentable() {
+        return functionBlock;
+    }
+
+    @Override
+    public boolean hasTag(Class<? extends Tag> tag) {
+        return functionBlock && (tag == StandardTags.RootTag.class || tag == StandardTags.RootBodyTag.class);
+    }
+
     @Override
     public int byteConstantLength() {
         return byteConstantLength;
@@ -180,47 +200,37 @@ public class WasmBlockNode extends WasmNode{
 
     @Override
     //@ExplodeLoop(kind = ExplodeLoop.LoopExplosionKind.FULL_EXPLODE_UNTIL_RETURN)
-	public TargetOffset execute(WasmContext context, VirtualFrame frame) {
+	public int execute(VirtualFrame frame, WasmContext context) {
+    	return executeBody(frame, context, false);
+	}
+    
+    public int executeLoop(VirtualFrame frame, WasmContext context) {
+    	return executeBody(frame, context, true);
+    }
+
+    // Whether the block is the body of a loop is passed along with the activation instead of being
+    // stored in the node, so that concurrent and recursive activations cannot observe each other.
+    private int executeBody(VirtualFrame frame, WasmContext context, boolean isLoop) {
     	trace("block START");
-    	//System.out.println("block START");
     	for (int i = 0; i < effectiveStatements.length; i++) {
-    		//System.out.println("start Statement "+i+"/"+effectiveStatements.length);
 			WasmNode statement = effectiveStatements[i];
-			//System.out.println("statement : " + statement.toString());
-			//System.out.println("before statement SP : " + context.stackpointer);
-			final boolean isLoop = internalFlag;
-			internalFlag = false;
-			TargetOffset br = statement.execute(context, frame);
-			internalFlag = isLoop;
-			//System.out.println("after statement SP : " + context.stackpointer);
-			//System.out.println("Returned offset :" + (br==null?0:br.value));
-			if(br != null && !br.isZero()) {
-				if(br.isMinusOne()) {
+			int br = statement.execute(frame, context);
+			if (br != TargetOffset.FALL_THROUGH) {
+				if (br == TargetOffset.RETURN) {
 					trace("block END");
-					//System.out.println("block END");
-					return functionBlock ? TargetOffset.ZERO : br;
+					return functionBlock ? TargetOffset.FALL_THROUGH : br;
 				} else {
 					trace("block END");
-					//System.out.println("block END");
-					return internalFlag ? br : br.decrement();
+					return isLoop ? br : br - 1;
 				}
 			}
-			//System.out.println("end Statement "+i+"/"+effectiveStatements.length);
 		}
-    	//System.out.println("Block END");
 		trace("block END");
-		return TargetOffset.ZERO;
+		return TargetOffset.FALL_THROUGH;
 	}
     
-    public TargetOffset executeLoop(WasmContext context, VirtualFrame frame) {
-    	this.internalFlag = true;
-    	TargetOffset out = execute(context, frame);
-    	this.internalFlag = false;
-    	return out;
-    }
-    
     /*@ExplodeLoop(kind = ExplodeLoop.LoopExplosionKind.FULL_EXPLODE_UNTIL_RETURN)
-    public TargetOffset executeOld(WasmContext context, VirtualFrame frame) {
+    public TargetOffset executeOld(VirtualFrame frame, WasmContext context) {
         int nestedControlOffset = 0;
         int callNodeOffset = 0;
         int byteConstantOffset = initialByteConstantOffset;
@@ -248,7 +258,7 @@ public class WasmBlockNode extends WasmNode{
                     // The unwind counter indicates how many levels up we need to branch from within
                     // the block.
                     trace("block ENTER");
-                    TargetOffset unwindCounter = block.execute(context, frame);
+                    TargetOffset unwindCounter = block.execute(frame, context);
                     trace("block EXIT, target = %d", unwindCounter.value);
                     if (unwindCounter.isGreaterThanZero()) {
                         return unwindCounter.decrement();
@@ -300,7 +310,7 @@ public class WasmBlockNode extends WasmNode{
                     WasmIfNode ifNode = (WasmIfNode) nestedControlTable[nestedControlOffset];
                     stackPointer--;
                     trace("if ENTER");
-                    TargetOffset unwindCounter = ifNode.execute(context, frame);
+                    TargetOffset unwindCounter = ifNode.execute(frame, context);
                     trace("if EXIT, target = %d", unwindCounter.value);
                     if (unwindCounter.isGreaterThanZero()) {
                         return unwindCounter.decrement();
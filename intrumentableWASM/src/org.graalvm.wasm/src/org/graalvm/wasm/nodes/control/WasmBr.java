@@ -5,12 +5,13 @@ import static org.graalvm.wasm.WasmTracing.trace;
 import org.graalvm.wasm.WasmCodeEntry;
 import org.graalvm.wasm.WasmContext;
 import org.graalvm.wasm.WasmModule;
-import org.graalvm.wasm.constants.TargetOffset;
+import org.graalvm.wasm.WasmTags;
 import org.graalvm.wasm.nodes.WasmNode;
 
 import com.oracle.truffle.api.CompilerAsserts;
 import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
 import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.instrumentation.Tag;
 import com.oracle.truffle.api.nodes.ExplodeLoop;
 
 public class WasmBr extends WasmNode {
@@ -27,10 +28,10 @@ public class WasmBr extends WasmNode {
 	}
 
 	@Override
-	public TargetOffset execute(WasmContext context, VirtualFrame frame) {
+	public int execute(VirtualFrame frame, WasmContext context) {
 		trace("br, target = %d", unwindLevel);
-		unwindStack(frame, context, context.stackpointer, continuationStackPointer, targetBlockReturnLength);
-		return TargetOffset.createOrCached(unwindLevel);
+		unwindStack(frame, context, getStackPointer(frame), continuationStackPointer, targetBlockReturnLength);
+		return unwindLevel;
 	}
 	
 	@ExplodeLoop
@@ -47,9 +48,14 @@ public class WasmBr extends WasmNode {
             push(frame, continuationStackPointer, value);
             continuationStackPointer++;
         }
-        context.stackpointer = continuationStackPointer;
+        setStackPointer(frame, continuationStackPointer);
     }
 
+	@Override
+	public boolean hasTag(Class<? extends Tag> tag) {
+		return tag == WasmTags.BranchTag.class || super.hasTag(tag);
+	}
+
 	@Override
 	public byte returnTypeId() {
 		// TODO Auto-generated method stub
@@ -5,12 +5,14 @@ import static org.graalvm.wasm.WasmTracing.trace;
 import org.graalvm.wasm.WasmCodeEntry;
 import org.graalvm.wasm.WasmContext;
 import org.graalvm.wasm.WasmModule;
+import org.graalvm.wasm.WasmTags;
 import org.graalvm.wasm.constants.TargetOffset;
 import org.graalvm.wasm.nodes.WasmNode;
 
 import com.oracle.truffle.api.CompilerAsserts;
 import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
 import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.instrumentation.Tag;
 import com.oracle.truffle.api.nodes.ExplodeLoop;
 
 public class WasmBrIf extends WasmNode {
@@ -27,20 +29,25 @@ public class WasmBrIf extends WasmNode {
 	}
 
 	@Override
-	public TargetOffset execute(WasmContext context, VirtualFrame frame) {
-		context.stackpointer--;
-        if (popCondition(frame, context.stackpointer)) {
-            TargetOffset unwindCounter = TargetOffset.createOrCached(unwindLevel);
+	public int execute(VirtualFrame frame, WasmContext context) {
+		decrementStackPointer(frame);
+		return branchIf(frame, context, popCondition(frame, getStackPointer(frame)));
+	}
 
+	/**
+	 * Branches if the given condition, already popped from the operand stack, holds.
+	 */
+	public int branchIf(VirtualFrame frame, WasmContext context, boolean condition) {
+        if (condition) {
             trace("br_if, target = %d", unwindLevel);
 
             // Populate the stack with the return values of the current block (the one
             // we are escaping from).
-            unwindStack(frame, context, context.stackpointer, continuationStackPointer, targetBlockReturnLength);
+            unwindStack(frame, context, getStackPointer(frame), continuationStackPointer, targetBlockReturnLength);
 
-            return unwindCounter;
+            return unwindLevel;
         }
-		return TargetOffset.ZERO;
+		return TargetOffset.FALL_THROUGH;
 	}
 	
 	@ExplodeLoop
@@ -57,7 +64,7 @@ public class WasmBrIf extends WasmNode {
             push(frame, continuationStackPointer, value);
             continuationStackPointer++;
         }
-        context.stackpointer = continuationStackPointer;
+        setStackPointer(frame, continuationStackPointer);
     }
 	
 	private boolean popCondition(VirtualFrame frame, int stackpointer) {
@@ -65,6 +72,11 @@ public class WasmBrIf extends WasmNode {
         return condition != 0;
     }
 
+	@Override
+	public boolean hasTag(Class<? extends Tag> tag) {
+		return tag == WasmTags.BranchTag.class || super.hasTag(tag);
+	}
+
 	@Override
 	public byte returnTypeId() {
 		// TODO Auto-generated method stub
@@ -5,12 +5,13 @@ import static org.graalvm.wasm.WasmTracing.trace;
 import org.graalvm.wasm.WasmCodeEntry;
 import org.graalvm.wasm.WasmContext;
 import org.graalvm.wasm.WasmModule;
-import org.graalvm.wasm.constants.TargetOffset;
+import org.graalvm.wasm.WasmTags;
 import org.graalvm.wasm.nodes.WasmNode;
 
 import com.oracle.truffle.api.CompilerAsserts;
 import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
 import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.instrumentation.Tag;
 import com.oracle.truffle.api.nodes.ExplodeLoop;
 
 public class WasmBrTable extends WasmNode {
@@ -23,9 +24,9 @@ public class WasmBrTable extends WasmNode {
 	}
 
 	@Override
-	public TargetOffset execute(WasmContext context, VirtualFrame frame) {
-		context.stackpointer--;
-        int index = popInt(frame, context.stackpointer);
+	public int execute(VirtualFrame frame, WasmContext context) {
+		decrementStackPointer(frame);
+        int index = popInt(frame, getStackPointer(frame));
         int[] table = codeEntry().branchTable(branchTableOffset);
         index = index < 0 || index >= (table.length - 1) / 2 ? (table.length - 1) / 2 - 1 : index;
         // Technically, we should increment the branchTableOffset at this point,
@@ -38,9 +39,9 @@ public class WasmBrTable extends WasmNode {
 
         // Populate the stack with the return values of the current block (the one we
         // are escaping from).
-        unwindStack(frame, context, context.stackpointer, continuationStackPointer, returnTypeLength);
+        unwindStack(frame, context, getStackPointer(frame), continuationStackPointer, returnTypeLength);
 
-        return TargetOffset.createOrCached(unwindCounterValue);
+        return unwindCounterValue;
 	}
 	
 	@ExplodeLoop
@@ -57,9 +58,14 @@ public class WasmBrTable extends WasmNode {
             push(frame, continuationStackPointer, value);
             continuationStackPointer++;
         }
-        context.stackpointer = continuationStackPointer;
+        setStackPointer(frame, continuationStackPointer);
     }
 
+	@Override
+	public boolean hasTag(Class<? extends Tag> tag) {
+		return tag == WasmTags.BranchTag.class || super.hasTag(tag);
+	}
+
 	@Override
 	public byte returnTypeId() {
 		// TODO Auto-generated method stub
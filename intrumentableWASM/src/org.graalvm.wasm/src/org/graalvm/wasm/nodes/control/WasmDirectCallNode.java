@@ -17,6 +17,8 @@ import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.Truffle;
 import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.instrumentation.StandardTags;
+import com.oracle.truffle.api.instrumentation.Tag;
 import com.oracle.truffle.api.nodes.DirectCallNode;
 import com.oracle.truffle.api.nodes.ExplodeLoop;
 
@@ -33,41 +35,39 @@ public class WasmDirectCallNode extends WasmNode {
 	}
 
 	@Override
-	public TargetOffset execute(WasmContext context, VirtualFrame frame) {
+	public int execute(VirtualFrame frame, WasmContext context) {
 		WasmFunction function = module().symbolTable().function(functionIndex);
         byte returnType = function.returnType();
         int numArgs = function.numArguments();
 
-        Object[] args = createArgumentsForCall(frame, function, numArgs, context.stackpointer);
-        context.stackpointer -= args.length;
+        Object[] args = createArgumentsForCall(frame, function, numArgs, getStackPointer(frame));
+        setStackPointer(frame, getStackPointer(frame) - args.length);
 
-        int stackSave = context.stackpointer;
         trace("direct call to function %s (%d args)", function, args.length);
         Object result = callNode.call(args);
         trace("return from direct call to function %s : %s", function, result);
-        context.stackpointer = stackSave;
         // At the moment, WebAssembly functions may return up to one value.
         // As per the WebAssembly specification,
         // this restriction may be lifted in the future.
         switch (returnType) {
             case ValueTypes.I32_TYPE: {
-                pushInt(frame, context.stackpointer, (int) result);
-                context.stackpointer++;
+                pushInt(frame, getStackPointer(frame), (int) result);
+                incrementStackPointer(frame);
                 break;
             }
             case ValueTypes.I64_TYPE: {
-                push(frame, context.stackpointer, (long) result);
-                context.stackpointer++;
+                push(frame, getStackPointer(frame), (long) result);
+                incrementStackPointer(frame);
                 break;
             }
             case ValueTypes.F32_TYPE: {
-                pushFloat(frame, context.stackpointer, (float) result);
-                context.stackpointer++;
+                pushFloat(frame, getStackPointer(frame), (float) result);
+                incrementStackPointer(frame);
                 break;
             }
             case ValueTypes.F64_TYPE: {
-                pushDouble(frame, context.stackpointer, (double) result);
-                context.stackpointer++;
+                pushDouble(frame, getStackPointer(frame), (double) result);
+                incrementStackPointer(frame);
                 break;
             }
             case ValueTypes.VOID_TYPE: {
@@ -78,7 +78,7 @@ public class WasmDirectCallNode extends WasmNode {
                 throw new WasmTrap(this, "Unknown return type: " + returnType);
             }
         }
-		return null;
+		return TargetOffset.FALL_THROUGH;
 	}
 	
 	public void setCallTarget(DirectCallNode call) {
@@ -120,6 +120,11 @@ public class WasmDirectCallNode extends WasmNode {
         return args;
     }
 
+	@Override
+	public boolean hasTag(Class<? extends Tag> tag) {
+		return tag == StandardTags.CallTag.class || super.hasTag(tag);
+	}
+
 	@Override
 	public byte returnTypeId() {
 		// TODO Auto-generated method stub
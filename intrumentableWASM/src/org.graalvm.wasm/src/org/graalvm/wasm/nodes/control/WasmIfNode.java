@@ -42,11 +42,12 @@ package org.graalvm.wasm.nodes.control;
 
 import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
 import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.instrumentation.Tag;
 import com.oracle.truffle.api.profiles.ConditionProfile;
 import org.graalvm.wasm.WasmCodeEntry;
 import org.graalvm.wasm.WasmContext;
 import org.graalvm.wasm.WasmModule;
-import org.graalvm.wasm.constants.TargetOffset;
+import org.graalvm.wasm.WasmTags;
 import org.graalvm.wasm.nodes.WasmNode;
 
 import static org.graalvm.wasm.WasmTracing.trace;
@@ -69,17 +70,22 @@ public final class WasmIfNode extends WasmNode {
     }
 
     @Override
-    public TargetOffset execute(WasmContext context, VirtualFrame frame) {
-        context.stackpointer--;
-        if (condition.profile(popInt(frame, context.stackpointer) != 0)) {
+    public int execute(VirtualFrame frame, WasmContext context) {
+        decrementStackPointer(frame);
+        if (condition.profile(popInt(frame, getStackPointer(frame)) != 0)) {
             trace("taking if branch");
-            return trueBranch.execute(context, frame);
+            return trueBranch.execute(frame, context);
         } else {
             trace("taking else branch");
-            return falseBranch.execute(context, frame);
+            return falseBranch.execute(frame, context);
         }
     }
 
+    @Override
+    public boolean hasTag(Class<? extends Tag> tag) {
+        return tag == WasmTags.BranchTag.class || super.hasTag(tag);
+    }
+
     @Override
     public byte returnTypeId() {
         return returnTypeId;
@@ -2,12 +2,9 @@ package org.graalvm.wasm.nodes.control;
 
 import static org.graalvm.wasm.WasmTracing.trace;
 
-import org.graalvm.wasm.Assert;
-import org.graalvm.wasm.SymbolTable;
 import org.graalvm.wasm.ValueTypes;
 import org.graalvm.wasm.WasmCodeEntry;
 import org.graalvm.wasm.WasmContext;
-import org.graalvm.wasm.WasmFunction;
 import org.graalvm.wasm.WasmModule;
 import org.graalvm.wasm.constants.TargetOffset;
 import org.graalvm.wasm.exception.WasmTrap;
@@ -16,78 +13,59 @@ import org.graalvm.wasm.nodes.WasmNode;
 import com.oracle.truffle.api.CompilerAsserts;
 import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
 import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.instrumentation.StandardTags;
+import com.oracle.truffle.api.instrumentation.Tag;
 import com.oracle.truffle.api.nodes.ExplodeLoop;
 
 public class WasmIndirectCallWrapperNode extends WasmNode {
 	
 	@CompilationFinal private final int expectedFunctionTypeIndex;
-	@CompilationFinal private final WasmIndirectCallNode callNode;
+	@Child private WasmTableDispatchNode dispatchNode;
 
-	public WasmIndirectCallWrapperNode(WasmModule wasmModule, WasmCodeEntry codeEntry, int expectedFunctionTypeIndex, WasmIndirectCallNode callNode) {
+	public WasmIndirectCallWrapperNode(WasmModule wasmModule, WasmCodeEntry codeEntry, int expectedFunctionTypeIndex, WasmTableDispatchNode dispatchNode) {
 		super(wasmModule, codeEntry);
-		this.callNode = callNode;
+		this.dispatchNode = dispatchNode;
 		this.expectedFunctionTypeIndex = expectedFunctionTypeIndex;
 	}
 
 	@Override
-	public TargetOffset execute(WasmContext context, VirtualFrame frame) {
-		// Extract the function object.
-        context.stackpointer--;
-        final SymbolTable symtab = module().symbolTable();
-        final Object[] elements = symtab.table().elements();
-        final int elementIndex = popInt(frame, context.stackpointer);
-        if (elementIndex < 0 || elementIndex >= elements.length) {
-            throw new WasmTrap(this, "Element index '" + elementIndex + "' out of table bounds.");
-        }
-        // Currently, table elements may only be functions.
-        // We can add a check here when this changes in the future.
-        final WasmFunction function = (WasmFunction) elements[elementIndex];
-        if (function == null) {
-            throw new WasmTrap(this, "Table element at index " + elementIndex + " is uninitialized.");
-        }
-
-        // Extract the function type index.
-        int expectedTypeEquivalenceClass = symtab.equivalenceClass(expectedFunctionTypeIndex);
-
-        // Validate that the function type matches the expected type.
-        if (expectedTypeEquivalenceClass != function.typeEquivalenceClass()) {
-            // TODO: This check may be too rigorous, as the WebAssembly specification
-            // seems to allow multiple definitions of the same type.
-            // We should refine the check.
-            throw new WasmTrap(this, Assert.format("Actual (type %d of function %s) and expected (type %d in module %s) types differ in the indirect call.",
-                            function.typeIndex(), function.name(), expectedFunctionTypeIndex, module().name()));
-        }
+	public int execute(VirtualFrame frame, WasmContext context) {
+		// Extract the table element index.
+        decrementStackPointer(frame);
+        final int elementIndex = popInt(frame, getStackPointer(frame));
 
+        // The arguments are popped according to the expected type, which the dispatch node
+        // checks against the type of the called function.
         int numArgs = module().symbolTable().functionTypeArgumentCount(expectedFunctionTypeIndex);
-        Object[] args = createArgumentsForCall(frame, function, numArgs, context.stackpointer);
-        context.stackpointer -= args.length;
+        Object[] args = createArgumentsForCall(frame, numArgs, getStackPointer(frame));
+        setStackPointer(frame, getStackPointer(frame) - args.length);
 
-        trace("indirect call to function %s (%d args)", function, args.length);
-        Object result = callNode.execute(function, args);
-        trace("return from indirect_call to function %s : %s", function, result);
+        trace("indirect call to table element %d (%d args)", elementIndex, args.length);
+        Object result = dispatchNode.execute(elementIndex, args);
+        trace("return from indirect_call to table element %d : %s", elementIndex, result);
         // At the moment, WebAssembly functions may return up to one value.
         // As per the WebAssembly specification, this restriction may be lifted in the
         // future.
         int returnType = module().symbolTable().functionTypeReturnType(expectedFunctionTypeIndex);
         switch (returnType) {
             case ValueTypes.I32_TYPE: {
-                pushInt(frame, context.stackpointer, (int) result);
-                context.stackpointer++;
+                pushInt(frame, getStackPointer(frame), (int) result);
+                incrementStackPointer(frame);
                 break;
             }
             case ValueTypes.I64_TYPE: {
-                push(frame, context.stackpointer, (long) result);
-                context.stackpointer++;
+                push(frame, getStackPointer(frame), (long) result);
+                incrementStackPointer(frame);
                 break;
             }
             case ValueTypes.F32_TYPE: {
-                pushFloat(frame, context.stackpointer, (float) result);
-                context.stackpointer++;
+                pushFloat(frame, getStackPointer(frame), (float) result);
+                incrementStackPointer(frame);
                 break;
             }
             case ValueTypes.F64_TYPE: {
-                pushDouble(frame, context.stackpointer, (double) result);
-                context.stackpointer++;
+                pushDouble(frame, getStackPointer(frame), (double) result);
+                incrementStackPointer(frame);
                 break;
             }
             case ValueTypes.VOID_TYPE: {
@@ -98,17 +76,17 @@ public class WasmIndirectCallWrapperNode extends WasmNode {
                 throw new WasmTrap(this, "Unknown return type: " + returnType);
             }
         }
-		return null;
+		return TargetOffset.FALL_THROUGH;
 	}
 	
 	@ExplodeLoop
-    private Object[] createArgumentsForCall(VirtualFrame frame, WasmFunction function, int numArgs, int stackPointerOffset) {
+    private Object[] createArgumentsForCall(VirtualFrame frame, int numArgs, int stackPointerOffset) {
         CompilerAsserts.partialEvaluationConstant(numArgs);
         Object[] args = new Object[numArgs];
         int stackPointer = stackPointerOffset;
         for (int i = numArgs - 1; i >= 0; --i) {
             stackPointer--;
-            byte type = module().symbolTable().functionTypeArgumentTypeAt(function.typeIndex(), i);
+            byte type = module().symbolTable().functionTypeArgumentTypeAt(expectedFunctionTypeIndex, i);
             switch (type) {
                 case ValueTypes.I32_TYPE:
                     args[i] = popInt(frame, stackPointer);
@@ -130,6 +108,11 @@ public class WasmIndirectCallWrapperNode extends WasmNode {
         return args;
     }
 
+	@Override
+	public boolean hasTag(Class<? extends Tag> tag) {
+		return tag == StandardTags.CallTag.class || super.hasTag(tag);
+	}
+
 	@Override
 	public byte returnTypeId() {
 		// TODO Auto-generated method stub
@@ -7,13 +7,12 @@ import org.graalvm.wasm.constants.TargetOffset;
 import org.graalvm.wasm.exception.WasmExecutionException;
 import org.graalvm.wasm.nodes.WasmNode;
 
-import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
 import com.oracle.truffle.api.frame.VirtualFrame;
 import com.oracle.truffle.api.nodes.RepeatingNode;
 
 public class WasmLoopNode extends WasmNode implements RepeatingNode {
 	
-	@CompilationFinal private final WasmBlockNode body;
+	@Child private WasmBlockNode body;
 
 	public WasmLoopNode(WasmModule wasmModule, WasmCodeEntry codeEntry, WasmBlockNode body) {
 		super(wasmModule, codeEntry);
@@ -29,22 +28,22 @@ public class WasmLoopNode extends WasmNode implements RepeatingNode {
 
     @Override
     public Object executeRepeatingWithValue(VirtualFrame frame) {
-        final TargetOffset offset = execute(body.contextReference().get(), frame);
-        if (offset.isZero()) {
+        final int offset = execute(frame, body.contextReference().get());
+        if (offset == TargetOffset.FALL_THROUGH) {
             return CONTINUE_LOOP_STATUS;
         }
-        return offset.isMinusOne() ? offset : offset.decrement();
+        return offset;
     }
 
 
 
 	@Override
-	public TargetOffset execute(WasmContext context, VirtualFrame frame) {
-		TargetOffset offset = body.executeLoop(context, frame);
-        while (offset.isOne()) {
-        	offset = body.executeLoop(context, frame);
+	public int execute(VirtualFrame frame, WasmContext context) {
+		int offset = body.executeLoop(frame, context);
+        while (offset == 1) {
+        	offset = body.executeLoop(frame, context);
         }
-		return offset.isMinusOne() || offset.isZero() ? offset : offset.decrement();
+		return offset == TargetOffset.RETURN || offset == TargetOffset.FALL_THROUGH ? offset : offset - 1;
 	}
 
 
@@ -5,24 +5,29 @@ import static org.graalvm.wasm.WasmTracing.trace;
 import org.graalvm.wasm.WasmCodeEntry;
 import org.graalvm.wasm.WasmContext;
 import org.graalvm.wasm.WasmModule;
+import org.graalvm.wasm.WasmTags;
 import org.graalvm.wasm.constants.TargetOffset;
 import org.graalvm.wasm.nodes.WasmNode;
 
 import com.oracle.truffle.api.CompilerAsserts;
 import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.instrumentation.Tag;
 import com.oracle.truffle.api.nodes.ExplodeLoop;
 
 public class WasmReturn extends WasmNode {
 
-	public WasmReturn(WasmModule wasmModule, WasmCodeEntry codeEntry) {
+	private final int functionReturnLength;
+
+	public WasmReturn(WasmModule wasmModule, WasmCodeEntry codeEntry, int functionReturnLength) {
 		super(wasmModule, codeEntry);
+		this.functionReturnLength = functionReturnLength;
 	}
 
 	@Override
-	public TargetOffset execute(WasmContext context, VirtualFrame frame) {
+	public int execute(VirtualFrame frame, WasmContext context) {
 		trace("return");
-		unwindStack(frame, context, context.stackpointer, 0, ((WasmNode) this.getParent()).returnTypeLength());
-		return TargetOffset.MINUS_ONE;
+		unwindStack(frame, context, getStackPointer(frame), 0, functionReturnLength);
+		return TargetOffset.RETURN;
 	}
 	
 	@ExplodeLoop
@@ -39,9 +44,14 @@ public class WasmReturn extends WasmNode {
             push(frame, continuationStackPointer, value);
             continuationStackPointer++;
         }
-        context.stackpointer = continuationStackPointer;
+        setStackPointer(frame, continuationStackPointer);
     }
 
+	@Override
+	public boolean hasTag(Class<? extends Tag> tag) {
+		return tag == WasmTags.BranchTag.class || super.hasTag(tag);
+	}
+
 	@Override
 	public byte returnTypeId() {
 		// TODO Auto-generated method stub
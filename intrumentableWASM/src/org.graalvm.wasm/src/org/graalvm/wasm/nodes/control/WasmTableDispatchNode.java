@@ -0,0 +1,135 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.graalvm.wasm.nodes.control;
+
+import org.graalvm.wasm.Assert;
+import org.graalvm.wasm.SymbolTable;
+import org.graalvm.wasm.TableRegistry.Table;
+import org.graalvm.wasm.WasmFunction;
+import org.graalvm.wasm.WasmModule;
+import org.graalvm.wasm.exception.WasmTrap;
+
+import com.oracle.truffle.api.Assumption;
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.nodes.DirectCallNode;
+import com.oracle.truffle.api.nodes.IndirectCallNode;
+import com.oracle.truffle.api.nodes.Node;
+import com.oracle.truffle.api.utilities.AlwaysValidAssumption;
+
+/**
+ * Resolves the table element of a {@code call_indirect} instruction and calls it.
+ *
+ * The node keeps a polymorphic inline cache keyed on the element index. Each cache entry holds the
+ * function that was resolved and type-checked for its element, and a {@link DirectCallNode} for
+ * the function, so that cached calls neither read the table nor check the signature. The entries
+ * are dropped when the table changes, through the table's {@link Table#stableAssumption() stable
+ * assumption}. Once the cache limit is exceeded, the node falls back to an
+ * {@link IndirectCallNode}.
+ */
+public abstract class WasmTableDispatchNode extends Node {
+
+    static final int INLINE_CACHE_LIMIT = 5;
+
+    private final WasmModule module;
+    private final int expectedFunctionTypeIndex;
+
+    protected WasmTableDispatchNode(WasmModule module, int expectedFunctionTypeIndex) {
+        this.module = module;
+        this.expectedFunctionTypeIndex = expectedFunctionTypeIndex;
+    }
+
+    public abstract Object execute(int elementIndex, Object[] args);
+
+    @Specialization(guards = "elementIndex == cachedElementIndex", assumptions = "tableAssumption", limit = "INLINE_CACHE_LIMIT")
+    @SuppressWarnings("unused")
+    Object doCached(int elementIndex, Object[] args,
+                    @Cached("elementIndex") int cachedElementIndex,
+                    @Cached("tableAssumption()") Assumption tableAssumption,
+                    @Cached("resolveFunction(elementIndex)") WasmFunction function,
+                    @Cached("create(function.resolveCallTarget())") DirectCallNode callNode) {
+        return callNode.call(args);
+    }
+
+    @Specialization(replaces = "doCached")
+    Object doIndirect(int elementIndex, Object[] args,
+                    @Cached IndirectCallNode indirectCall) {
+        return indirectCall.call(resolveFunction(elementIndex).resolveCallTarget(), args);
+    }
+
+    Assumption tableAssumption() {
+        final Table table = module.symbolTable().table();
+        return table != null ? table.stableAssumption() : AlwaysValidAssumption.INSTANCE;
+    }
+
+    /**
+     * Reads the table element at the given index, and checks that it is a function of the type
+     * that the call site expects.
+     */
+    WasmFunction resolveFunction(int elementIndex) {
+        final SymbolTable symtab = module.symbolTable();
+        if (symtab.table() == null) {
+            throw new WasmTrap(this, "Module '" + module.name() + "' has no table for the indirect call.");
+        }
+        final Object[] elements = symtab.table().elements();
+        if (elementIndex < 0 || elementIndex >= elements.length) {
+            throw new WasmTrap(this, "Element index '" + elementIndex + "' out of table bounds.");
+        }
+        // Currently, table elements may only be functions.
+        // We can add a check here when this changes in the future.
+        final WasmFunction function = (WasmFunction) elements[elementIndex];
+        if (function == null) {
+            throw new WasmTrap(this, "Table element at index " + elementIndex + " is uninitialized.");
+        }
+
+        // Validate that the function type matches the expected type.
+        final int expectedTypeEquivalenceClass = symtab.equivalenceClass(expectedFunctionTypeIndex);
+        if (expectedTypeEquivalenceClass != function.typeEquivalenceClass()) {
+            throw new WasmTrap(this, Assert.format("Actual (type %d of function %s) and expected (type %d in module %s) types differ in the indirect call.",
+                            function.typeIndex(), function.name(), expectedFunctionTypeIndex, module.name()));
+        }
+        return function;
+    }
+
+    public static WasmTableDispatchNode create(WasmModule module, int expectedFunctionTypeIndex) {
+        return WasmTableDispatchNodeGen.create(module, expectedFunctionTypeIndex);
+    }
+}
@@ -25,22 +25,22 @@ public class WasmConvert extends WasmNode {
 	}
 
 	@Override
-	public TargetOffset execute(WasmContext context, VirtualFrame frame) {
-		context.stackpointer--;
+	public int execute(VirtualFrame frame, WasmContext context) {
+		decrementStackPointer(frame);
 		switch (fromT) {
 		case ValueTypes.I32_TYPE:
-			int xInt = popInt(frame, context.stackpointer);
+			int xInt = popInt(frame, getStackPointer(frame));
 			switch (toT) {
 			case ValueTypes.F32_TYPE:
 				float resultFloat =  xInt;
-                pushFloat(frame, context.stackpointer, resultFloat);
-                context.stackpointer++;
+                pushFloat(frame, getStackPointer(frame), resultFloat);
+                incrementStackPointer(frame);
                 trace("push conv_i32(%f) = 0x%08X (%d) [f32]", xInt, resultFloat, resultFloat);
 				break;
 			case ValueTypes.F64_TYPE:
 				double resultDouble =  xInt;
-                pushDouble(frame, context.stackpointer, resultDouble);
-                context.stackpointer++;
+                pushDouble(frame, getStackPointer(frame), resultDouble);
+                incrementStackPointer(frame);
                 trace("push conv_i32(%f) = 0x%08X (%d) [f64]", xInt, resultDouble, resultDouble);
 				break;
 
@@ -50,18 +50,18 @@ public class WasmConvert extends WasmNode {
 			
 			break;
 		case ValueTypes.I64_TYPE:
-			long xLong = pop(frame, context.stackpointer);
+			long xLong = pop(frame, getStackPointer(frame));
 			switch (toT) {
 			case ValueTypes.F32_TYPE:
 				float resultFloat =  xLong;
-                pushFloat(frame, context.stackpointer, resultFloat);
-                context.stackpointer++;
+                pushFloat(frame, getStackPointer(frame), resultFloat);
+                incrementStackPointer(frame);
                 trace("push conv_i64(%f) = 0x%08X (%d) [f32]", xLong, resultFloat, resultFloat);
 				break;
 			case ValueTypes.F64_TYPE:
 				double resultDouble =  xLong;
-                pushDouble(frame, context.stackpointer, resultDouble);
-                context.stackpointer++;
+                pushDouble(frame, getStackPointer(frame), resultDouble);
+                incrementStackPointer(frame);
                 trace("push conv_i64(%f) = 0x%08X (%d) [f64]", xLong, resultDouble, resultDouble);
 				break;
 
@@ -76,7 +76,7 @@ public class WasmConvert extends WasmNode {
 		}
 		
 		
-		return null;
+		return TargetOffset.FALL_THROUGH;
 	}
 
 	@Override
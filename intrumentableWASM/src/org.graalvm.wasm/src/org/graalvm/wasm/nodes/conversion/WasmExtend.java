@@ -21,14 +21,14 @@ public class WasmExtend extends WasmNode {
 	}
 
 	@Override
-	public TargetOffset execute(WasmContext context, VirtualFrame frame) {
-		context.stackpointer--;
-        int x = popInt(frame, context.stackpointer);
+	public int execute(VirtualFrame frame, WasmContext context) {
+		decrementStackPointer(frame);
+        int x = popInt(frame, getStackPointer(frame));
         long result = this.signed ? x : x & 0xFFFF_FFFFL;
-        push(frame, context.stackpointer, result);
-        context.stackpointer++;
+        push(frame, getStackPointer(frame), result);
+        incrementStackPointer(frame);
         trace("push extend_i32_" + (signed?"s":"u") + "(0x%08X) = 0x%016X (%d) [i64]", x, result, result);
-		return null;
+		return TargetOffset.FALL_THROUGH;
 	}
 
 	@Override
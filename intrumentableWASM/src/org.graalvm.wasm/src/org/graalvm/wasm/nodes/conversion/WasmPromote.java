@@ -17,9 +17,9 @@ public class WasmPromote extends WasmNode {
 	}
 
 	@Override
-	public TargetOffset execute(WasmContext context, VirtualFrame frame) {
+	public int execute(VirtualFrame frame, WasmContext context) {
 		throw new NotImplementedException();
-		//return null;
+		//return TargetOffset.FALL_THROUGH;
 	}
 
 	@Override
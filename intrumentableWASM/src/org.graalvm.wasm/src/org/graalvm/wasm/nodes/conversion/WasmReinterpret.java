@@ -23,9 +23,9 @@ public class WasmReinterpret extends WasmNode {
 	}
 
 	@Override
-	public TargetOffset execute(WasmContext context, VirtualFrame frame) {
+	public int execute(VirtualFrame frame, WasmContext context) {
 		trace("push reinterpret_" + fromT + " [" + toT + "]");
-		return null;
+		return TargetOffset.FALL_THROUGH;
 	}
 
 	@Override
@@ -25,22 +25,22 @@ public class WasmTruncConv extends WasmNode {
 	}
 
 	@Override
-	public TargetOffset execute(WasmContext context, VirtualFrame frame) {
-		context.stackpointer--;
+	public int execute(VirtualFrame frame, WasmContext context) {
+		decrementStackPointer(frame);
 		switch (fromT) {
 		case ValueTypes.F32_TYPE:
-			float xFloat = popAsFloat(frame, context.stackpointer);
+			float xFloat = popAsFloat(frame, getStackPointer(frame));
 			switch (toT) {
 			case ValueTypes.I32_TYPE:
 				int resultInt = (int) xFloat;
-                pushInt(frame, context.stackpointer, resultInt);
-                context.stackpointer++;
+                pushInt(frame, getStackPointer(frame), resultInt);
+                incrementStackPointer(frame);
                 trace("push trunc_f32(%f) = 0x%08X (%d) [i32]", xFloat, resultInt, resultInt);
 				break;
 			case ValueTypes.I64_TYPE:
 				long resultLong = (long) xFloat;
-                push(frame, context.stackpointer, resultLong);
-                context.stackpointer++;
+                push(frame, getStackPointer(frame), resultLong);
+                incrementStackPointer(frame);
                 trace("push trunc_f32(%f) = 0x%08X (%d) [i64]", xFloat, resultLong, resultLong);
 				break;
 
@@ -50,18 +50,18 @@ public class WasmTruncConv extends WasmNode {
 			
 			break;
 		case ValueTypes.F64_TYPE:
-			double xDouble = popAsDouble(frame, context.stackpointer);
+			double xDouble = popAsDouble(frame, getStackPointer(frame));
 			switch (toT) {
 			case ValueTypes.I32_TYPE:
 				int resultInt = (int) xDouble;
-                pushInt(frame, context.stackpointer, resultInt);
-                context.stackpointer++;
+                pushInt(frame, getStackPointer(frame), resultInt);
+                incrementStackPointer(frame);
                 trace("push trunc_f64(%f) = 0x%08X (%d) [i32]", xDouble, resultInt, resultInt);
 				break;
 			case ValueTypes.I64_TYPE:
 				long resultLong = (long) xDouble;
-                push(frame, context.stackpointer, resultLong);
-                context.stackpointer++;
+                push(frame, getStackPointer(frame), resultLong);
+                incrementStackPointer(frame);
                 trace("push trunc_f64(%f) = 0x%08X (%d) [i64]", xDouble, resultLong, resultLong);
 				break;
 
@@ -76,7 +76,7 @@ public class WasmTruncConv extends WasmNode {
 		}
 		
 		
-		return null;
+		return TargetOffset.FALL_THROUGH;
 	}
 
 	@Override
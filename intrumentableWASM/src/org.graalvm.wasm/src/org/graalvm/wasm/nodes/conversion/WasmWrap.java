@@ -17,14 +17,14 @@ public class WasmWrap extends WasmNode {
 	}
 
 	@Override
-	public TargetOffset execute(WasmContext context, VirtualFrame frame) {
-		context.stackpointer--;
-        long x = pop(frame, context.stackpointer);
+	public int execute(VirtualFrame frame, WasmContext context) {
+		decrementStackPointer(frame);
+        long x = pop(frame, getStackPointer(frame));
         int result = (int) (x & 0xFFFF_FFFFL);
-        pushInt(frame, context.stackpointer, result);
-        context.stackpointer++;
+        pushInt(frame, getStackPointer(frame), result);
+        incrementStackPointer(frame);
         trace("push wrap_i64(0x%016X) = 0x%08X (%d) [i32]", x, result, result);
-		return null;
+		return TargetOffset.FALL_THROUGH;
 	}
 
 	@Override
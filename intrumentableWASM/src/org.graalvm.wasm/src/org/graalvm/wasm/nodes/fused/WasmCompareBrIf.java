@@ -0,0 +1,114 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.graalvm.wasm.nodes.fused;
+
+import static org.graalvm.wasm.WasmTracing.trace;
+
+import org.graalvm.wasm.WasmCodeEntry;
+import org.graalvm.wasm.WasmContext;
+import org.graalvm.wasm.WasmModule;
+import org.graalvm.wasm.constants.Instructions;
+import org.graalvm.wasm.exception.WasmTrap;
+import org.graalvm.wasm.nodes.WasmNode;
+import org.graalvm.wasm.nodes.control.WasmBrIf;
+
+import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
+import com.oracle.truffle.api.frame.VirtualFrame;
+
+/**
+ * Fused i32 comparison followed by {@code br_if}: the comparison result is used directly as the
+ * branch condition, instead of being pushed to the operand stack and popped again.
+ */
+public final class WasmCompareBrIf extends WasmFusedNode {
+
+    /**
+     * The opcode of the comparison, one of the {@code I32_EQZ} ... {@code I32_GE_U} instructions.
+     */
+    @CompilationFinal private final int comparison;
+    @Child private WasmBrIf branch;
+
+    public WasmCompareBrIf(WasmModule wasmModule, WasmCodeEntry codeEntry, int comparison, WasmBrIf branch, WasmNode[] unfusedNodes) {
+        super(wasmModule, codeEntry, unfusedNodes);
+        this.comparison = comparison;
+        this.branch = branch;
+    }
+
+    @Override
+    public int execute(VirtualFrame frame, WasmContext context) {
+        decrementStackPointer(frame);
+        int x = popInt(frame, getStackPointer(frame));
+        if (comparison == Instructions.I32_EQZ) {
+            trace("0x%08X == 0x%08X ? [i32]", x, 0);
+            return branch.branchIf(frame, context, x == 0);
+        }
+        decrementStackPointer(frame);
+        int y = popInt(frame, getStackPointer(frame));
+        trace("compare 0x%08X 0x%08X [i32]", y, x);
+        return branch.branchIf(frame, context, compare(y, x));
+    }
+
+    private boolean compare(int y, int x) {
+        switch (comparison) {
+            case Instructions.I32_EQ:
+                return y == x;
+            case Instructions.I32_NE:
+                return y != x;
+            case Instructions.I32_LT_S:
+                return y < x;
+            case Instructions.I32_LT_U:
+                return Integer.compareUnsigned(y, x) < 0;
+            case Instructions.I32_GT_S:
+                return y > x;
+            case Instructions.I32_GT_U:
+                return Integer.compareUnsigned(y, x) > 0;
+            case Instructions.I32_LE_S:
+                return y <= x;
+            case Instructions.I32_LE_U:
+                return Integer.compareUnsigned(y, x) <= 0;
+            case Instructions.I32_GE_S:
+                return y >= x;
+            case Instructions.I32_GE_U:
+                return Integer.compareUnsigned(y, x) >= 0;
+            default:
+                throw new WasmTrap(this, "Unknown comparison: " + comparison);
+        }
+    }
+}
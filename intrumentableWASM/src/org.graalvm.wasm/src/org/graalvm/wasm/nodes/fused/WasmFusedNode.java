@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.graalvm.wasm.nodes.fused;
+
+import java.util.Set;
+
+import org.graalvm.wasm.WasmCodeEntry;
+import org.graalvm.wasm.WasmModule;
+import org.graalvm.wasm.WasmTags;
+import org.graalvm.wasm.nodes.WasmNode;
+
+import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
+import com.oracle.truffle.api.instrumentation.InstrumentableNode;
+import com.oracle.truffle.api.instrumentation.StandardTags;
+import com.oracle.truffle.api.instrumentation.Tag;
+
+/**
+ * Base class of the superinstructions created by {@link WasmFusionPass}. A fused node executes a
+ * short sequence of instructions at once, reading and writing the locals directly instead of going
+ * through the operand stack slots.
+ *
+ * A fused node remembers the instruction nodes it replaces. As soon as an instrument requests one
+ * of the per-instruction tags, the fused node is materialized back into these nodes, so that every
+ * instruction can be probed individually.
+ */
+public abstract class WasmFusedNode extends WasmNode {
+
+    @CompilationFinal(dimensions = 1) private final WasmNode[] unfusedNodes;
+
+    protected WasmFusedNode(WasmModule wasmModule, WasmCodeEntry codeEntry, WasmNode[] unfusedNodes) {
+        super(wasmModule, codeEntry);
+        this.unfusedNodes = unfusedNodes;
+    }
+
+    static boolean requiresInstructionGranularity(Set<Class<? extends Tag>> materializedTags) {
+        return materializedTags.contains(StandardTags.StatementTag.class) || materializedTags.contains(WasmTags.ArithmeticTag.class) ||
+                        materializedTags.contains(WasmTags.MemoryAccessTag.class) || materializedTags.contains(WasmTags.BranchTag.class);
+    }
+
+    @Override
+    public InstrumentableNode materializeInstrumentableNodes(Set<Class<? extends Tag>> materializedTags) {
+        if (!requiresInstructionGranularity(materializedTags)) {
+            return this;
+        }
+        final WasmNode[] instructions = new WasmNode[unfusedNodes.length];
+        for (int i = 0; i != unfusedNodes.length; ++i) {
+            instructions[i] = (WasmNode) unfusedNodes[i].deepCopy();
+        }
+        return new WasmInstructionSequence(module(), codeEntry(), instructions);
+    }
+
+    @Override
+    public boolean hasTag(Class<? extends Tag> tag) {
+        return false;
+    }
+
+    @Override
+    public byte returnTypeId() {
+        return 0;
+    }
+
+    @Override
+    public int byteConstantLength() {
+        return 0;
+    }
+
+    @Override
+    public int intConstantLength() {
+        return 0;
+    }
+
+    @Override
+    public int longConstantLength() {
+        return 0;
+    }
+
+    @Override
+    public int branchTableLength() {
+        return 0;
+    }
+}
@@ -0,0 +1,156 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.graalvm.wasm.nodes.fused;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.graalvm.wasm.ValueTypes;
+import org.graalvm.wasm.WasmCodeEntry;
+import org.graalvm.wasm.WasmModule;
+import org.graalvm.wasm.constants.Instructions;
+import org.graalvm.wasm.nodes.WasmNode;
+import org.graalvm.wasm.nodes.comparison.WasmEQ;
+import org.graalvm.wasm.nodes.comparison.WasmEQZ;
+import org.graalvm.wasm.nodes.comparison.WasmGE;
+import org.graalvm.wasm.nodes.comparison.WasmGT;
+import org.graalvm.wasm.nodes.comparison.WasmLE;
+import org.graalvm.wasm.nodes.comparison.WasmLT;
+import org.graalvm.wasm.nodes.comparison.WasmNEQ;
+import org.graalvm.wasm.nodes.control.WasmBrIf;
+import org.graalvm.wasm.nodes.memory.WasmLoad;
+import org.graalvm.wasm.nodes.numeric.WasmAdd;
+import org.graalvm.wasm.nodes.variables.WasmConst;
+import org.graalvm.wasm.nodes.variables.WasmLocalGet;
+import org.graalvm.wasm.nodes.variables.WasmLocalSet;
+
+/**
+ * Replaces common instruction sequences of a block with {@link WasmFusedNode superinstructions}.
+ * The pass runs once per block, after the block was parsed. The following sequences are fused:
+ * <ul>
+ * <li>{@code local.get x; i32.const c; i32.add; local.set y}</li>
+ * <li>{@code local.get x; local.get y; i32.add}</li>
+ * <li>{@code i32.const c; <load>}</li>
+ * <li>{@code <i32 comparison>; br_if}</li>
+ * </ul>
+ */
+public final class WasmFusionPass {
+
+    private WasmFusionPass() {
+    }
+
+    public static List<WasmNode> fuse(WasmModule module, WasmCodeEntry codeEntry, List<WasmNode> statements) {
+        final WasmNode[] nodes = statements.toArray(new WasmNode[0]);
+        final List<WasmNode> result = new ArrayList<>(nodes.length);
+        int i = 0;
+        while (i < nodes.length) {
+            if (isI32LocalGet(codeEntry, nodes, i) && isI32Const(nodes, i + 1) && isI32Add(nodes, i + 2) && isI32LocalSet(codeEntry, nodes, i + 3)) {
+                final int sourceIndex = ((WasmLocalGet) nodes[i]).index();
+                final int value = ((WasmConst) nodes[i + 1]).intValue();
+                final int targetIndex = ((WasmLocalSet) nodes[i + 3]).index();
+                result.add(new WasmLocalConstAddSet(module, codeEntry, sourceIndex, value, targetIndex, range(nodes, i, 4)));
+                i += 4;
+            } else if (isI32LocalGet(codeEntry, nodes, i) && isI32LocalGet(codeEntry, nodes, i + 1) && isI32Add(nodes, i + 2)) {
+                final int leftIndex = ((WasmLocalGet) nodes[i]).index();
+                final int rightIndex = ((WasmLocalGet) nodes[i + 1]).index();
+                result.add(new WasmLocalLocalAdd(module, codeEntry, leftIndex, rightIndex, range(nodes, i, 3)));
+                i += 3;
+            } else if (isI32Const(nodes, i) && i + 1 < nodes.length && nodes[i + 1] instanceof WasmLoad) {
+                final int baseAddress = ((WasmConst) nodes[i]).intValue();
+                final WasmLoad load = (WasmLoad) nodes[i + 1];
+                result.add(new WasmConstLoad(module, codeEntry, baseAddress, (WasmLoad) load.copy(), range(nodes, i, 2)));
+                i += 2;
+            } else if (i + 1 < nodes.length && i32Comparison(nodes[i]) != -1 && nodes[i + 1] instanceof WasmBrIf) {
+                final WasmBrIf brIf = (WasmBrIf) nodes[i + 1];
+                result.add(new WasmCompareBrIf(module, codeEntry, i32Comparison(nodes[i]), (WasmBrIf) brIf.copy(), range(nodes, i, 2)));
+                i += 2;
+            } else {
+                result.add(nodes[i]);
+                i++;
+            }
+        }
+        return result;
+    }
+
+    private static WasmNode[] range(WasmNode[] nodes, int from, int length) {
+        final WasmNode[] range = new WasmNode[length];
+        System.arraycopy(nodes, from, range, 0, length);
+        return range;
+    }
+
+    private static boolean isI32LocalGet(WasmCodeEntry codeEntry, WasmNode[] nodes, int i) {
+        return i < nodes.length && nodes[i] instanceof WasmLocalGet && codeEntry.localType(((WasmLocalGet) nodes[i]).index()) == ValueTypes.I32_TYPE;
+    }
+
+    private static boolean isI32LocalSet(WasmCodeEntry codeEntry, WasmNode[] nodes, int i) {
+        return i < nodes.length && nodes[i] instanceof WasmLocalSet && codeEntry.localType(((WasmLocalSet) nodes[i]).index()) == ValueTypes.I32_TYPE;
+    }
+
+    private static boolean isI32Const(WasmNode[] nodes, int i) {
+        return i < nodes.length && nodes[i] instanceof WasmConst && ((WasmConst) nodes[i]).type() == ValueTypes.I32_TYPE;
+    }
+
+    private static boolean isI32Add(WasmNode[] nodes, int i) {
+        return i < nodes.length && nodes[i] instanceof WasmAdd && ((WasmAdd) nodes[i]).type() == ValueTypes.I32_TYPE;
+    }
+
+    /**
+     * Returns the opcode of the given i32 comparison node, or -1 if the node is not one.
+     */
+    private static int i32Comparison(WasmNode node) {
+        if (node instanceof WasmEQZ && ((WasmEQZ) node).type() == ValueTypes.I32_TYPE) {
+            return Instructions.I32_EQZ;
+        } else if (node instanceof WasmEQ && ((WasmEQ) node).type() == ValueTypes.I32_TYPE) {
+            return Instructions.I32_EQ;
+        } else if (node instanceof WasmNEQ && ((WasmNEQ) node).type() == ValueTypes.I32_TYPE) {
+            return Instructions.I32_NE;
+        } else if (node instanceof WasmLT && ((WasmLT) node).type() == ValueTypes.I32_TYPE) {
+            return ((WasmLT) node).isSigned() ? Instructions.I32_LT_S : Instructions.I32_LT_U;
+        } else if (node instanceof WasmGT && ((WasmGT) node).type() == ValueTypes.I32_TYPE) {
+            return ((WasmGT) node).isSigned() ? Instructions.I32_GT_S : Instructions.I32_GT_U;
+        } else if (node instanceof WasmLE && ((WasmLE) node).type() == ValueTypes.I32_TYPE) {
+            return ((WasmLE) node).isSigned() ? Instructions.I32_LE_S : Instructions.I32_LE_U;
+        } else if (node instanceof WasmGE && ((WasmGE) node).type() == ValueTypes.I32_TYPE) {
+            return ((WasmGE) node).isSigned() ? Instructions.I32_GE_S : Instructions.I32_GE_U;
+        }
+        return -1;
+    }
+}
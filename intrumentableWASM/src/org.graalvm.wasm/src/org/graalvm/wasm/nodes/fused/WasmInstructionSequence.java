@@ -0,0 +1,111 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.graalvm.wasm.nodes.fused;
+
+import org.graalvm.wasm.WasmCodeEntry;
+import org.graalvm.wasm.WasmContext;
+import org.graalvm.wasm.WasmModule;
+import org.graalvm.wasm.constants.TargetOffset;
+import org.graalvm.wasm.nodes.WasmNode;
+
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.instrumentation.Tag;
+import com.oracle.truffle.api.nodes.ExplodeLoop;
+
+/**
+ * The unfused form of a {@link WasmFusedNode}: executes the original instruction nodes one after
+ * the other, each of which can be instrumented on its own. Unlike a block, the sequence is not a
+ * branch target, so a branch taken by the last instruction is returned unchanged.
+ */
+public final class WasmInstructionSequence extends WasmNode {
+
+    @Children private final WasmNode[] instructions;
+
+    public WasmInstructionSequence(WasmModule wasmModule, WasmCodeEntry codeEntry, WasmNode[] instructions) {
+        super(wasmModule, codeEntry);
+        this.instructions = instructions;
+    }
+
+    @Override
+    @ExplodeLoop
+    public int execute(VirtualFrame frame, WasmContext context) {
+        int result = TargetOffset.FALL_THROUGH;
+        for (int i = 0; i < instructions.length; i++) {
+            result = instructions[i].execute(frame, context);
+        }
+        return result;
+    }
+
+    @Override
+    public boolean isInstrumentable() {
+        return false;
+    }
+
+    @Override
+    public boolean hasTag(Class<? extends Tag> tag) {
+        return false;
+    }
+
+    @Override
+    public byte returnTypeId() {
+        return 0;
+    }
+
+    @Override
+    public int byteConstantLength() {
+        return 0;
+    }
+
+    @Override
+    public int intConstantLength() {
+        return 0;
+    }
+
+    @Override
+    public int longConstantLength() {
+        return 0;
+    }
+
+    @Override
+    public int branchTableLength() {
+        return 0;
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.graalvm.wasm.nodes.fused;
+
+import static org.graalvm.wasm.WasmTracing.trace;
+
+import org.graalvm.wasm.WasmCodeEntry;
+import org.graalvm.wasm.WasmContext;
+import org.graalvm.wasm.WasmModule;
+import org.graalvm.wasm.constants.TargetOffset;
+import org.graalvm.wasm.nodes.WasmNode;
+
+import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
+import com.oracle.truffle.api.frame.VirtualFrame;
+
+/**
+ * Fused {@code local.get x; i32.const c; i32.add; local.set y}, typically a loop counter update.
+ * The operand stack is not touched at all.
+ */
+public final class WasmLocalConstAddSet extends WasmFusedNode {
+
+    @CompilationFinal private final int sourceIndex;
+    @CompilationFinal private final int value;
+    @CompilationFinal private final int targetIndex;
+
+    public WasmLocalConstAddSet(WasmModule wasmModule, WasmCodeEntry codeEntry, int sourceIndex, int value, int targetIndex, WasmNode[] unfusedNodes) {
+        super(wasmModule, codeEntry, unfusedNodes);
+        this.sourceIndex = sourceIndex;
+        this.value = value;
+        this.targetIndex = targetIndex;
+    }
+
+    @Override
+    public int execute(VirtualFrame frame, WasmContext context) {
+        int result = getInt(frame, sourceIndex) + value;
+        setInt(frame, targetIndex, result);
+        trace("local.set %d, value = 0x%08X (%d) [i32]", targetIndex, result, result);
+        return TargetOffset.FALL_THROUGH;
+    }
+}
@@ -18,6 +18,7 @@ import static org.graalvm.wasm.constants.Instructions.I64_LOAD8_U;
 import org.graalvm.wasm.WasmCodeEntry;
 import org.graalvm.wasm.WasmContext;
 import org.graalvm.wasm.WasmModule;
+import org.graalvm.wasm.WasmTags;
 import org.graalvm.wasm.constants.TargetOffset;
 import org.graalvm.wasm.exception.WasmTrap;
 import org.graalvm.wasm.memory.WasmMemory;
@@ -26,6 +27,7 @@ import org.graalvm.wasm.nodes.WasmNode;
 
 import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
 import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.instrumentation.Tag;
 
 public class WasmLoad extends WasmNode {
 	
@@ -39,9 +41,18 @@ public class WasmLoad extends WasmNode {
 	}
 
 	@Override
-	public TargetOffset execute(WasmContext context, VirtualFrame frame) {
-		context.stackpointer--;
-        int baseAddress = popInt(frame, context.stackpointer);
+	public int execute(VirtualFrame frame, WasmContext context) {
+		decrementStackPointer(frame);
+        int baseAddress = popInt(frame, getStackPointer(frame));
+        load(frame, baseAddress);
+		return TargetOffset.FALL_THROUGH;
+	}
+
+	/**
+	 * Loads the value at the given base address (plus the static offset of this instruction) and
+	 * pushes it to the operand stack.
+	 */
+	public void load(VirtualFrame frame, int baseAddress) {
         int address = baseAddress + memOffset;
         WasmMemory memory = module().symbolTable().memory();
         
@@ -49,72 +60,72 @@ public class WasmLoad extends WasmNode {
             switch (loadType) {
                 case I32_LOAD: {
                     int value = memory.load_i32(this, address);
-                    pushInt(frame, context.stackpointer, value);
+                    pushInt(frame, getStackPointer(frame), value);
                     break;
                 }
                 case I64_LOAD: {
                     long value = memory.load_i64(this, address);
-                    push(frame, context.stackpointer, value);
+                    push(frame, getStackPointer(frame), value);
                     break;
                 }
                 case F32_LOAD: {
                     float value = memory.load_f32(this, address);
-                    pushFloat(frame, context.stackpointer, value);
+                    pushFloat(frame, getStackPointer(frame), value);
                     break;
                 }
                 case F64_LOAD: {
                     double value = memory.load_f64(this, address);
-                    pushDouble(frame, context.stackpointer, value);
+                    pushDouble(frame, getStackPointer(frame), value);
                     break;
                 }
                 case I32_LOAD8_S: {
                     int value = memory.load_i32_8s(this, address);
-                    pushInt(frame, context.stackpointer, value);
+                    pushInt(frame, getStackPointer(frame), value);
                     break;
                 }
                 case I32_LOAD8_U: {
                     int value = memory.load_i32_8u(this, address);
-                    pushInt(frame, context.stackpointer, value);
+                    pushInt(frame, getStackPointer(frame), value);
                     break;
                 }
                 case I32_LOAD16_S: {
                     int value = memory.load_i32_16s(this, address);
-                    pushInt(frame, context.stackpointer, value);
+                    pushInt(frame, getStackPointer(frame), value);
                     break;
                 }
                 case I32_LOAD16_U: {
                     int value = memory.load_i32_16u(this, address);
-                    pushInt(frame, context.stackpointer, value);
+                    pushInt(frame, getStackPointer(frame), value);
                     break;
                 }
                 case I64_LOAD8_S: {
                     long value = memory.load_i64_8s(this, address);
-                    push(frame, context.stackpointer, value);
+                    push(frame, getStackPointer(frame), value);
                     break;
                 }
                 case I64_LOAD8_U: {
                     long value = memory.load_i64_8u(this, address);
-                    push(frame, context.stackpointer, value);
+                    push(frame, getStackPointer(frame), value);
                     break;
                 }
                 case I64_LOAD16_S: {
                     long value = memory.load_i64_16s(this, address);
-                    push(frame, context.stackpointer, value);
+                    push(frame, getStackPointer(frame), value);
                     break;
                 }
                 case I64_LOAD16_U: {
                     long value = memory.load_i64_16u(this, address);
-                    push(frame, context.stackpointer, value);
+                    push(frame, getStackPointer(frame), value);
                     break;
                 }
                 case I64_LOAD32_S: {
                     long value = memory.load_i64_32s(this, address);
-                    push(frame, context.stackpointer, value);
+                    push(frame, getStackPointer(frame), value);
                     break;
                 }
                 case I64_LOAD32_U: {
                     long value = memory.load_i64_32u(this, address);
-                    push(frame, context.stackpointer, value);
+                    push(frame, getStackPointer(frame), value);
                     break;
                 }
                 default: {
@@ -124,9 +135,16 @@ public class WasmLoad extends WasmNode {
         } catch (WasmMemoryException e) {
             throw new WasmTrap(this, "memory address out-of-bounds");
         }
-        context.stackpointer++;
-        
-		return null;
+        incrementStackPointer(frame);
+	}
+
+	public int loadType() {
+		return loadType;
+	}
+
+	@Override
+	public boolean hasTag(Class<? extends Tag> tag) {
+		return tag == WasmTags.MemoryAccessTag.class || super.hasTag(tag);
 	}
 
 	@Override
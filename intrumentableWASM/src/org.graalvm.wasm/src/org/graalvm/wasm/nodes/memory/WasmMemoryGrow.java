@@ -19,20 +19,20 @@ public class WasmMemoryGrow extends WasmNode {
 	}
 
 	@Override
-	public TargetOffset execute(WasmContext context, VirtualFrame frame) {
+	public int execute(VirtualFrame frame, WasmContext context) {
 		trace("memory_grow");
-        context.stackpointer--;
-        int extraSize = popInt(frame, context.stackpointer);
+        decrementStackPointer(frame);
+        int extraSize = popInt(frame, getStackPointer(frame));
         final WasmMemory memory = module().symbolTable().memory();
         int pageSize = (int) memory.pageSize();
         if (memory.grow(extraSize)) {
-            pushInt(frame, context.stackpointer, pageSize);
-            context.stackpointer++;
+            pushInt(frame, getStackPointer(frame), pageSize);
+            incrementStackPointer(frame);
         } else {
-            pushInt(frame, context.stackpointer, -1);
-            context.stackpointer++;
+            pushInt(frame, getStackPointer(frame), -1);
+            incrementStackPointer(frame);
         }
-		return null;
+		return TargetOffset.FALL_THROUGH;
 	}
 
 	@Override
@@ -17,12 +17,12 @@ public class WasmMemorySize extends WasmNode {
 	}
 
 	@Override
-	public TargetOffset execute(WasmContext context, VirtualFrame frame) {
+	public int execute(VirtualFrame frame, WasmContext context) {
 		trace("memory_size");
         int pageSize = (int) (module().symbolTable().memory().pageSize());
-        pushInt(frame, context.stackpointer, pageSize);
-        context.stackpointer++;
-		return null;
+        pushInt(frame, getStackPointer(frame), pageSize);
+        incrementStackPointer(frame);
+		return TargetOffset.FALL_THROUGH;
 	}
 
 	@Override
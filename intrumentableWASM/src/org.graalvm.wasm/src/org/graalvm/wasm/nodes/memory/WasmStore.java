@@ -13,6 +13,7 @@ import static org.graalvm.wasm.constants.Instructions.I64_STORE_8;
 import org.graalvm.wasm.WasmCodeEntry;
 import org.graalvm.wasm.WasmContext;
 import org.graalvm.wasm.WasmModule;
+import org.graalvm.wasm.WasmTags;
 import org.graalvm.wasm.constants.TargetOffset;
 import org.graalvm.wasm.exception.WasmTrap;
 import org.graalvm.wasm.memory.WasmMemory;
@@ -21,6 +22,7 @@ import org.graalvm.wasm.nodes.WasmNode;
 
 import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
 import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.instrumentation.Tag;
 
 public class WasmStore extends WasmNode {
 	
@@ -34,88 +36,88 @@ public class WasmStore extends WasmNode {
 	}
 
 	@Override
-	public TargetOffset execute(WasmContext context, VirtualFrame frame) {
+	public int execute(VirtualFrame frame, WasmContext context) {
 		WasmMemory memory = module().symbolTable().memory();
 
         try {
             switch (storeType) {
                 case I32_STORE: {
-                    context.stackpointer--;
-                    int value = popInt(frame, context.stackpointer);
-                    context.stackpointer--;
-                    int baseAddress = popInt(frame, context.stackpointer);
+                    decrementStackPointer(frame);
+                    int value = popInt(frame, getStackPointer(frame));
+                    decrementStackPointer(frame);
+                    int baseAddress = popInt(frame, getStackPointer(frame));
                     int address = baseAddress + memOffset;
                     memory.store_i32(this, address, value);
                     break;
                 }
                 case I64_STORE: {
-                    context.stackpointer--;
-                    long value = pop(frame, context.stackpointer);
-                    context.stackpointer--;
-                    int baseAddress = popInt(frame, context.stackpointer);
+                    decrementStackPointer(frame);
+                    long value = pop(frame, getStackPointer(frame));
+                    decrementStackPointer(frame);
+                    int baseAddress = popInt(frame, getStackPointer(frame));
                     int address = baseAddress + memOffset;
                     memory.store_i64(this, address, value);
                     break;
                 }
                 case F32_STORE: {
-                    context.stackpointer--;
-                    float value = popAsFloat(frame, context.stackpointer);
-                    context.stackpointer--;
-                    int baseAddress = popInt(frame, context.stackpointer);
+                    decrementStackPointer(frame);
+                    float value = popAsFloat(frame, getStackPointer(frame));
+                    decrementStackPointer(frame);
+                    int baseAddress = popInt(frame, getStackPointer(frame));
                     int address = baseAddress + memOffset;
                     memory.store_f32(this, address, value);
                     break;
                 }
                 case F64_STORE: {
-                    context.stackpointer--;
-                    double value = popAsDouble(frame, context.stackpointer);
-                    context.stackpointer--;
-                    int baseAddress = popInt(frame, context.stackpointer);
+                    decrementStackPointer(frame);
+                    double value = popAsDouble(frame, getStackPointer(frame));
+                    decrementStackPointer(frame);
+                    int baseAddress = popInt(frame, getStackPointer(frame));
                     int address = baseAddress + memOffset;
                     memory.store_f64(this, address, value);
                     break;
                 }
                 case I32_STORE_8: {
-                    context.stackpointer--;
-                    int value = popInt(frame, context.stackpointer);
-                    context.stackpointer--;
-                    int baseAddress = popInt(frame, context.stackpointer);
+                    decrementStackPointer(frame);
+                    int value = popInt(frame, getStackPointer(frame));
+                    decrementStackPointer(frame);
+                    int baseAddress = popInt(frame, getStackPointer(frame));
                     int address = baseAddress + memOffset;
                     memory.store_i32_8(this, address, (byte) value);
                     break;
                 }
                 case I32_STORE_16: {
-                    context.stackpointer--;
-                    int value = popInt(frame, context.stackpointer);
-                    context.stackpointer--;
-                    int baseAddress = popInt(frame, context.stackpointer);
+                    decrementStackPointer(frame);
+                    int value = popInt(frame, getStackPointer(frame));
+                    decrementStackPointer(frame);
+                    int baseAddress = popInt(frame, getStackPointer(frame));
                     int address = baseAddress + memOffset;
                     memory.store_i32_16(this, address, (short) value);
                     break;
                 }
                 case I64_STORE_8: {
-                    context.stackpointer--;
-                    long value = pop(frame, context.stackpointer);
-                    context.stackpointer--;
-                    int baseAddress = popInt(frame, context.stackpointer);
+                    decrementStackPointer(frame);
+                    long value = pop(frame, getStackPointer(frame));
+                    decrementStackPointer(frame);
+                    int baseAddress = popInt(frame, getStackPointer(frame));
                     int address = baseAddress + memOffset;
                     memory.store_i64_8(this, address, (byte) value);
                     break;
                 }
                 case I64_STORE_16: {
-                    context.stackpointer--;
-                    long value = pop(frame, context.stackpointer);
-                    context.stackpointer--;
-                    int baseAddress = popInt(frame, context.stackpointer);
+                    decrementStackPointer(frame);
+                    long value = pop(frame, getStackPointer(frame));
+                    decrementStackPointer(frame);
+                    int baseAddress = popInt(frame, getStackPointer(frame));
                     int address = baseAddress + memOffset;
                     memory.store_i64_16(this, address, (short) value);
                     break;
                 }
                 case I64_STORE_32: {
-                    context.stackpointer--;
-                    long value = pop(frame, context.stackpointer);
-                    context.stackpointer--;
-                    int baseAddress = popInt(frame, context.stackpointer);
+                    decrementStackPointer(frame);
+                    long value = pop(frame, getStackPointer(frame));
+                    decrementStackPointer(frame);
+                    int baseAddress = popInt(frame, getStackPointer(frame));
                     int address = baseAddress + memOffset;
                     memory.store_i64_32(this, address, (int) value);
                     break;
@@ -127,7 +129,12 @@ public class WasmStore extends WasmNode {
         } catch (WasmMemoryException e) {
             throw new WasmTrap(this, "memory address out-of-bounds");
         }
-		return null;
+		return TargetOffset.FALL_THROUGH;
+	}
+
+	@Override
+	public boolean hasTag(Class<? extends Tag> tag) {
+		return tag == WasmTags.MemoryAccessTag.class || super.hasTag(tag);
 	}
 
 	@Override
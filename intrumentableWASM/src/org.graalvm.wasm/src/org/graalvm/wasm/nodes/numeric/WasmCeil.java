@@ -6,12 +6,14 @@ import org.graalvm.wasm.ValueTypes;
 import org.graalvm.wasm.WasmCodeEntry;
 import org.graalvm.wasm.WasmContext;
 import org.graalvm.wasm.WasmModule;
+import org.graalvm.wasm.WasmTags;
 import org.graalvm.wasm.constants.TargetOffset;
 import org.graalvm.wasm.exception.WasmTrap;
 import org.graalvm.wasm.nodes.WasmNode;
 
 import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
 import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.instrumentation.Tag;
 
 public class WasmCeil extends WasmNode {
 
@@ -24,23 +26,23 @@ public class WasmCeil extends WasmNode {
 	}
 
 	@Override
-	public TargetOffset execute(WasmContext context, VirtualFrame frame) {
+	public int execute(VirtualFrame frame, WasmContext context) {
 		switch (type) {
 		case ValueTypes.F32_TYPE: {
-			context.stackpointer--;
-			float x = popAsFloat(frame, context.stackpointer);
+			decrementStackPointer(frame);
+			float x = popAsFloat(frame, getStackPointer(frame));
 			float result = (float) Math.ceil(x);
-			pushFloat(frame, context.stackpointer, result);
-			context.stackpointer++;
+			pushFloat(frame, getStackPointer(frame), result);
+			incrementStackPointer(frame);
 			trace("f32.ceil(%f) = %f", x, result);
 			break;
 		}
 		case ValueTypes.F64_TYPE: {
-			context.stackpointer--;
-			double x = popAsDouble(frame, context.stackpointer);
+			decrementStackPointer(frame);
+			double x = popAsDouble(frame, getStackPointer(frame));
 			double result = Math.ceil(x);
-			pushDouble(frame, context.stackpointer, result);
-			context.stackpointer++;
+			pushDouble(frame, getStackPointer(frame), result);
+			incrementStackPointer(frame);
 			trace("f64.ceil(%f) = %f", x, result);
 			break;
 		}
@@ -48,7 +50,12 @@ public class WasmCeil extends WasmNode {
 		default:
 			throw new WasmTrap(this, "Ceil need the F** type.");
 		}
-		return null;
+		return TargetOffset.FALL_THROUGH;
+	}
+
+	@Override
+	public boolean hasTag(Class<? extends Tag> tag) {
+		return tag == WasmTags.ArithmeticTag.class || super.hasTag(tag);
 	}
 
 	@Override
@@ -6,12 +6,14 @@ import org.graalvm.wasm.ValueTypes;
 import org.graalvm.wasm.WasmCodeEntry;
 import org.graalvm.wasm.WasmContext;
 import org.graalvm.wasm.WasmModule;
+import org.graalvm.wasm.WasmTags;
 import org.graalvm.wasm.constants.TargetOffset;
 import org.graalvm.wasm.exception.WasmTrap;
 import org.graalvm.wasm.nodes.WasmNode;
 
 import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
 import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.instrumentation.Tag;
 
 public class WasmRem extends WasmNode {
 	
@@ -25,34 +27,39 @@ public class WasmRem extends WasmNode {
 	}
 
 	@Override
-	public TargetOffset execute(WasmContext context, VirtualFrame frame) {
+	public int execute(VirtualFrame frame, WasmContext context) {
 		switch (type) {
 		case ValueTypes.I32_TYPE: {
-			context.stackpointer--;
-			int x = popInt(frame, context.stackpointer);
-			context.stackpointer--;
-			int y = popInt(frame, context.stackpointer);
+			decrementStackPointer(frame);
+			int x = popInt(frame, getStackPointer(frame));
+			decrementStackPointer(frame);
+			int y = popInt(frame, getStackPointer(frame));
 			int result = (signed ? y % x : Integer.remainderUnsigned(y, x));
-			pushInt(frame, context.stackpointer, result);
-			context.stackpointer++;
+			pushInt(frame, getStackPointer(frame), result);
+			incrementStackPointer(frame);
 			trace("push 0x%08X % 0x%08X = 0x%08X (%d) [i32]", y, x, result, result);
 			break;
 		}
 		case ValueTypes.I64_TYPE: {
-			context.stackpointer--;
-			long x = pop(frame, context.stackpointer);
-			context.stackpointer--;
-			long y = pop(frame, context.stackpointer);
+			decrementStackPointer(frame);
+			long x = pop(frame, getStackPointer(frame));
+			decrementStackPointer(frame);
+			long y = pop(frame, getStackPointer(frame));
 			long result = (signed ? y % x : Long.remainderUnsigned(y, x));
-			push(frame, context.stackpointer, result);
-			context.stackpointer++;
+			push(frame, getStackPointer(frame), result);
+			incrementStackPointer(frame);
 			trace("push 0x%016X % 0x%016X = 0x%016X (%d) [i64]", y, x, result, result);
 			break;
 		}
 		default:
 			throw new WasmTrap(this, "Rem cannot have the void type.");
 		}
-		return null;
+		return TargetOffset.FALL_THROUGH;
+	}
+
+	@Override
+	public boolean hasTag(Class<? extends Tag> tag) {
+		return tag == WasmTags.ArithmeticTag.class || super.hasTag(tag);
 	}
 
 	@Override
@@ -6,12 +6,14 @@ import org.graalvm.wasm.ValueTypes;
 import org.graalvm.wasm.WasmCodeEntry;
 import org.graalvm.wasm.WasmContext;
 import org.graalvm.wasm.WasmModule;
+import org.graalvm.wasm.WasmTags;
 import org.graalvm.wasm.constants.TargetOffset;
 import org.graalvm.wasm.exception.WasmTrap;
 import org.graalvm.wasm.nodes.WasmNode;
 
 import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
 import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.instrumentation.Tag;
 
 public class WasmSub extends WasmNode {
 	
@@ -24,56 +26,61 @@ public class WasmSub extends WasmNode {
 	}
 
 	@Override
-	public TargetOffset execute(WasmContext context, VirtualFrame frame) {
+	public int execute(VirtualFrame frame, WasmContext context) {
 		switch (type) {
 		case ValueTypes.I32_TYPE: {
-			context.stackpointer--;
-			int x = popInt(frame, context.stackpointer);
-			context.stackpointer--;
-			int y = popInt(frame, context.stackpointer);
+			decrementStackPointer(frame);
+			int x = popInt(frame, getStackPointer(frame));
+			decrementStackPointer(frame);
+			int y = popInt(frame, getStackPointer(frame));
 			int result = y - x;
-			pushInt(frame, context.stackpointer, result);
-			context.stackpointer++;
+			pushInt(frame, getStackPointer(frame), result);
+			incrementStackPointer(frame);
 			trace("push 0x%08X - 0x%08X = 0x%08X (%d) [i32]", y, x, result, result);
 			break;
 		}
 		case ValueTypes.I64_TYPE: {
-			context.stackpointer--;
-			long x = pop(frame, context.stackpointer);
-			context.stackpointer--;
-			long y = pop(frame, context.stackpointer);
+			decrementStackPointer(frame);
+			long x = pop(frame, getStackPointer(frame));
+			decrementStackPointer(frame);
+			long y = pop(frame, getStackPointer(frame));
 			long result = y - x;
-			push(frame, context.stackpointer, result);
-			context.stackpointer++;
+			push(frame, getStackPointer(frame), result);
+			incrementStackPointer(frame);
 			trace("push 0x%016X - 0x%016X = 0x%016X (%d) [i64]", y, x, result, result);
 			break;
 		}
 		case ValueTypes.F32_TYPE: {
-			context.stackpointer--;
-			float x = popAsFloat(frame, context.stackpointer);
-			context.stackpointer--;
-			float y = popAsFloat(frame, context.stackpointer);
+			decrementStackPointer(frame);
+			float x = popAsFloat(frame, getStackPointer(frame));
+			decrementStackPointer(frame);
+			float y = popAsFloat(frame, getStackPointer(frame));
 			float result = y - x;
-			pushFloat(frame, context.stackpointer, result);
+			pushFloat(frame, getStackPointer(frame), result);
 			trace("push %f - %f = %f [f32]", y, x, result);
-			context.stackpointer++;
+			incrementStackPointer(frame);
 			break;
 		}
 		case ValueTypes.F64_TYPE: {
-			context.stackpointer--;
-			double x = popAsDouble(frame, context.stackpointer);
-			context.stackpointer--;
-			double y = popAsDouble(frame, context.stackpointer);
+			decrementStackPointer(frame);
+			double x = popAsDouble(frame, getStackPointer(frame));
+			decrementStackPointer(frame);
+			double y = popAsDouble(frame, getStackPointer(frame));
 			double result = y - x;
-			pushDouble(frame, context.stackpointer, result);
-			context.stackpointer++;
+			pushDouble(frame, getStackPointer(frame), result);
+			incrementStackPointer(frame);
 			trace("push %f - %f = %f [f64]", y, x, result);
 			break;
 		}
 		default:
 			throw new WasmTrap(this, "Sub cannot have the void type.");
 		}
-		return null;
+		return TargetOffset.FALL_THROUGH;
+	}
+
+	@Override
+	public boolean hasTag(Class<? extends Tag> tag) {
+		return tag == WasmTags.ArithmeticTag.class || super.hasTag(tag);
 	}
 
 	@Override
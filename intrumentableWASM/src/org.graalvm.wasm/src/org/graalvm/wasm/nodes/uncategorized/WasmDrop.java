@@ -17,11 +17,11 @@ public class WasmDrop extends WasmNode {
 	}
 
 	@Override
-	public TargetOffset execute(WasmContext context, VirtualFrame frame) {
-		context.stackpointer--;
-        long x = pop(frame, context.stackpointer);
+	public int execute(VirtualFrame frame, WasmContext context) {
+		decrementStackPointer(frame);
+        long x = pop(frame, getStackPointer(frame));
         trace("drop (raw long value = 0x%016X)", x);
-		return null;
+		return TargetOffset.FALL_THROUGH;
 	}
 
 	@Override
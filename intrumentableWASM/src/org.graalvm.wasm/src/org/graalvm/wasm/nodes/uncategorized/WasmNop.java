@@ -17,9 +17,9 @@ public class WasmNop extends WasmNode {
 	}
 
 	@Override
-	public TargetOffset execute(WasmContext context, VirtualFrame frame) {
+	public int execute(VirtualFrame frame, WasmContext context) {
 		trace("noop");
-		return null;
+		return TargetOffset.FALL_THROUGH;
 	}
 
 	@Override
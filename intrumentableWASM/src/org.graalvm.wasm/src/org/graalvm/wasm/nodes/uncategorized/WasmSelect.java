@@ -17,17 +17,17 @@ public class WasmSelect extends WasmNode {
 	}
 
 	@Override
-	public TargetOffset execute(WasmContext context, VirtualFrame frame) {
-		context.stackpointer--;
-        int cond = popInt(frame, context.stackpointer);
-        context.stackpointer--;
-        long val2 = pop(frame, context.stackpointer);
-        context.stackpointer--;
-        long val1 = pop(frame, context.stackpointer);
-        push(frame, context.stackpointer, cond != 0 ? val1 : val2);
-        context.stackpointer++;
+	public int execute(VirtualFrame frame, WasmContext context) {
+		decrementStackPointer(frame);
+        int cond = popInt(frame, getStackPointer(frame));
+        decrementStackPointer(frame);
+        long val2 = pop(frame, getStackPointer(frame));
+        decrementStackPointer(frame);
+        long val1 = pop(frame, getStackPointer(frame));
+        push(frame, getStackPointer(frame), cond != 0 ? val1 : val2);
+        incrementStackPointer(frame);
         trace("select 0x%08X ? 0x%08X : 0x%08X = 0x%08X", cond, val1, val2, cond != 0 ? val1 : val2);
-		return null;
+		return TargetOffset.FALL_THROUGH;
 	}
 
 	@Override
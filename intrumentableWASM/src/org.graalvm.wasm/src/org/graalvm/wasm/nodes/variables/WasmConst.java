@@ -33,37 +33,41 @@ public class WasmConst extends WasmNode {
 	}
 
 	@Override
-	public TargetOffset execute(WasmContext context, VirtualFrame frame) {
+	public int execute(VirtualFrame frame, WasmContext context) {
 		switch (this.type) {
 		case ValueTypes.F32_TYPE:
-			pushInt(frame, context.stackpointer, this.intvalue);
-			context.stackpointer++;
+			pushInt(frame, getStackPointer(frame), this.intvalue);
+			incrementStackPointer(frame);
             trace("f32.const %f", Float.intBitsToFloat(this.intvalue));
-            //System.out.println("F32 const : "+Float.intBitsToFloat(this.intvalue)+" -> SP :" + context.stackpointer);
 			break;
 		case ValueTypes.F64_TYPE:
-			push(frame, context.stackpointer, this.longvalue);
-			context.stackpointer++;
+			push(frame, getStackPointer(frame), this.longvalue);
+			incrementStackPointer(frame);
             trace("f64.const %f", Double.longBitsToDouble(this.longvalue));
-            //System.out.println("F64 const : "+Double.longBitsToDouble(this.longvalue)+" -> SP :" + context.stackpointer);
 			break;
 		case ValueTypes.I32_TYPE:
-			pushInt(frame, context.stackpointer, this.intvalue);
-			context.stackpointer++;
+			pushInt(frame, getStackPointer(frame), this.intvalue);
+			incrementStackPointer(frame);
             trace("i32.const 0x%08X (%d)", this.intvalue, this.intvalue);
-            //System.out.println("I32 const : "+intvalue+" -> SP :" + context.stackpointer);
 			break;
 		case ValueTypes.I64_TYPE:
-			push(frame, context.stackpointer, this.longvalue);
-			context.stackpointer++;
+			push(frame, getStackPointer(frame), this.longvalue);
+			incrementStackPointer(frame);
             trace("i64.const 0x%08X (%d)", this.longvalue, this.longvalue);
-            //System.out.println("I64 const : "+longvalue+" -> SP :" + context.stackpointer);
 			break;
 
 		default:
 			throw new WasmTrap(this, "Constant cannot have the void type.");
 		}
-		return null;
+		return TargetOffset.FALL_THROUGH;
+	}
+
+	public byte type() {
+		return type;
+	}
+
+	public int intValue() {
+		return intvalue;
 	}
 
 	@Override
@@ -23,38 +23,38 @@ public class WasmGlobalGet extends WasmNode {
 	}
 
 	@Override
-	public TargetOffset execute(WasmContext context, VirtualFrame frame) {
+	public int execute(VirtualFrame frame, WasmContext context) {
 		byte type = module().symbolTable().globalValueType(index);
 		switch (type) {
         case ValueTypes.I32_TYPE: {
             int address = module().symbolTable().globalAddress(index);
             int value = context.globals().loadAsInt(address);
-            pushInt(frame, context.stackpointer, value);
-            context.stackpointer++;
+            pushInt(frame, getStackPointer(frame), value);
+            incrementStackPointer(frame);
             trace("global.get %d, value = 0x%08X (%d) [i32]", index, value, value);
             break;
         }
         case ValueTypes.I64_TYPE: {
             int address = module().symbolTable().globalAddress(index);
             long value = context.globals().loadAsLong(address);
-            push(frame, context.stackpointer, value);
-            context.stackpointer++;
+            push(frame, getStackPointer(frame), value);
+            incrementStackPointer(frame);
             trace("global.get %d, value = 0x%016X (%d) [i64]", index, value, value);
             break;
         }
         case ValueTypes.F32_TYPE: {
             int address = module().symbolTable().globalAddress(index);
             int value = context.globals().loadAsInt(address);
-            pushInt(frame, context.stackpointer, value);
-            context.stackpointer++;
+            pushInt(frame, getStackPointer(frame), value);
+            incrementStackPointer(frame);
             trace("global.get %d, value = %f [f32]", index, Float.intBitsToFloat(value));
             break;
         }
         case ValueTypes.F64_TYPE: {
             int address = module().symbolTable().globalAddress(index);
             long value = context.globals().loadAsLong(address);
-            push(frame, context.stackpointer, value);
-            context.stackpointer++;
+            push(frame, getStackPointer(frame), value);
+            incrementStackPointer(frame);
             trace("global.get %d, value = %f [f64]", index, Double.longBitsToDouble(value));
             break;
         }
@@ -62,7 +62,7 @@ public class WasmGlobalGet extends WasmNode {
             throw new WasmTrap(this, "Local variable cannot have the void type.");
         }
     }
-		return null;
+		return TargetOffset.FALL_THROUGH;
 	}
 
 	@Override
@@ -23,36 +23,36 @@ public class WasmGlobalSet extends WasmNode {
 	}
 
 	@Override
-	public TargetOffset execute(WasmContext context, VirtualFrame frame) {
+	public int execute(VirtualFrame frame, WasmContext context) {
 		byte type = module().symbolTable().globalValueType(index);
 		switch (type) {
         case ValueTypes.I32_TYPE: {
-            context.stackpointer--;
-            int value = popInt(frame, context.stackpointer);
+            decrementStackPointer(frame);
+            int value = popInt(frame, getStackPointer(frame));
             int address = module().symbolTable().globalAddress(index);
             context.globals().storeInt(address, value);
             trace("global.set %d, value = 0x%08X (%d) [i32]", index, value, value);
             break;
         }
         case ValueTypes.I64_TYPE: {
-            context.stackpointer--;
-            long value = pop(frame, context.stackpointer);
+            decrementStackPointer(frame);
+            long value = pop(frame, getStackPointer(frame));
             int address = module().symbolTable().globalAddress(index);
             context.globals().storeLong(address, value);
             trace("global.set %d, value = 0x%016X (%d) [i64]", index, value, value);
             break;
         }
         case ValueTypes.F32_TYPE: {
-            context.stackpointer--;
-            int value = popInt(frame, context.stackpointer);
+            decrementStackPointer(frame);
+            int value = popInt(frame, getStackPointer(frame));
             int address = module().symbolTable().globalAddress(index);
             context.globals().storeFloatWithInt(address, value);
             trace("global.set %d, value = %f [f32]", index, Float.intBitsToFloat(value));
             break;
         }
         case ValueTypes.F64_TYPE: {
-            context.stackpointer--;
-            long value = pop(frame, context.stackpointer);
+            decrementStackPointer(frame);
+            long value = pop(frame, getStackPointer(frame));
             int address = module().symbolTable().globalAddress(index);
             context.globals().storeDoubleWithLong(address, value);
             trace("global.set %d, value = %f [f64]", index, Double.longBitsToDouble(value));
@@ -62,7 +62,7 @@ public class WasmGlobalSet extends WasmNode {
             throw new WasmTrap(this, "Local variable cannot have the void type.");
         }
     }
-		return null;
+		return TargetOffset.FALL_THROUGH;
 	}
 
 	@Override
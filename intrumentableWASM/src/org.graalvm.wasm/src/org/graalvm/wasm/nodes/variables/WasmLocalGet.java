@@ -23,34 +23,34 @@ public class WasmLocalGet extends WasmNode {
 	}
 
 	@Override
-	public TargetOffset execute(WasmContext context, VirtualFrame frame) {
+	public int execute(VirtualFrame frame, WasmContext context) {
 		byte type = codeEntry().localType(index);
         switch (type) {
             case ValueTypes.I32_TYPE: {
                 int value = getInt(frame, index);
-                pushInt(frame, context.stackpointer, value);
-                context.stackpointer++;
+                pushInt(frame, getStackPointer(frame), value);
+                incrementStackPointer(frame);
                 trace("local.get %d, value = 0x%08X (%d) [i32]", index, value, value);
                 break;
             }
             case ValueTypes.I64_TYPE: {
                 long value = getLong(frame, index);
-                push(frame, context.stackpointer, value);
-                context.stackpointer++;
+                push(frame, getStackPointer(frame), value);
+                incrementStackPointer(frame);
                 trace("local.get %d, value = 0x%016X (%d) [i64]", index, value, value);
                 break;
             }
             case ValueTypes.F32_TYPE: {
                 float value = getFloat(frame, index);
-                pushFloat(frame, context.stackpointer, value);
-                context.stackpointer++;
+                pushFloat(frame, getStackPointer(frame), value);
+                incrementStackPointer(frame);
                 trace("local.get %d, value = %f [f32]", index, value);
                 break;
             }
             case ValueTypes.F64_TYPE: {
                 double value = getDouble(frame, index);
-                pushDouble(frame, context.stackpointer, value);
-                context.stackpointer++;
+                pushDouble(frame, getStackPointer(frame), value);
+                incrementStackPointer(frame);
                 trace("local.get %d, value = %f [f64]", index, value);
                 break;
             }
@@ -58,7 +58,11 @@ public class WasmLocalGet extends WasmNode {
                 throw new WasmTrap(this, "Local variable cannot have the void type.");
             }
         }
-        return null;
+        return TargetOffset.FALL_THROUGH;
+	}
+
+	public int index() {
+		return index;
 	}
 
 	@Override
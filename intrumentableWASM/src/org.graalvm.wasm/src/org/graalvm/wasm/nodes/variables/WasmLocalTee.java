@@ -23,41 +23,41 @@ public class WasmLocalTee extends WasmNode {
 	}
 
 	@Override
-	public TargetOffset execute(WasmContext context, VirtualFrame frame) {
+	public int execute(VirtualFrame frame, WasmContext context) {
 		byte type = codeEntry().localType(index);
 		switch (type) {
         case ValueTypes.I32_TYPE: {
-            context.stackpointer--;
-            int value = popInt(frame, context.stackpointer);
-            pushInt(frame, context.stackpointer, value);
-            context.stackpointer++;
+            decrementStackPointer(frame);
+            int value = popInt(frame, getStackPointer(frame));
+            pushInt(frame, getStackPointer(frame), value);
+            incrementStackPointer(frame);
             setInt(frame, index, value);
             trace("local.tee %d, value = 0x%08X (%d) [i32]", index, value, value);
             break;
         }
         case ValueTypes.I64_TYPE: {
-            context.stackpointer--;
-            long value = pop(frame, context.stackpointer);
-            push(frame, context.stackpointer, value);
-            context.stackpointer++;
+            decrementStackPointer(frame);
+            long value = pop(frame, getStackPointer(frame));
+            push(frame, getStackPointer(frame), value);
+            incrementStackPointer(frame);
             setLong(frame, index, value);
             trace("local.tee %d, value = 0x%016X (%d) [i64]", index, value, value);
             break;
         }
         case ValueTypes.F32_TYPE: {
-            context.stackpointer--;
-            float value = popAsFloat(frame, context.stackpointer);
-            pushFloat(frame, context.stackpointer, value);
-            context.stackpointer++;
+            decrementStackPointer(frame);
+            float value = popAsFloat(frame, getStackPointer(frame));
+            pushFloat(frame, getStackPointer(frame), value);
+            incrementStackPointer(frame);
             setFloat(frame, index, value);
             trace("local.tee %d, value = %f [f32]", index, value);
             break;
         }
         case ValueTypes.F64_TYPE: {
-            context.stackpointer--;
-            double value = popAsDouble(frame, context.stackpointer);
-            pushDouble(frame, context.stackpointer, value);
-            context.stackpointer++;
+            decrementStackPointer(frame);
+            double value = popAsDouble(frame, getStackPointer(frame));
+            pushDouble(frame, getStackPointer(frame), value);
+            incrementStackPointer(frame);
             setDouble(frame, index, value);
             trace("local.tee %d, value = %f [f64]", index, value);
             break;
@@ -66,7 +66,7 @@ public class WasmLocalTee extends WasmNode {
             throw new WasmTrap(this, "Local variable cannot have the void type.");
         }
     }
-		return null;
+		return TargetOffset.FALL_THROUGH;
 	}
 
 	@Override
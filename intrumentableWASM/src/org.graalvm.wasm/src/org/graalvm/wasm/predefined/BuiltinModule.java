@@ -56,6 +56,8 @@ import org.graalvm.wasm.exception.WasmException;
 import org.graalvm.wasm.memory.WasmMemory;
 import org.graalvm.wasm.predefined.emscripten.EmscriptenModule;
 import org.graalvm.wasm.predefined.memory.MemoryModule;
+import org.graalvm.wasm.predefined.memorytrace.MemoryTraceModule;
+import org.graalvm.wasm.predefined.snapshot.SnapshotModule;
 import org.graalvm.wasm.predefined.testutil.TestutilModule;
 import org.graalvm.wasm.predefined.wasi.WasiModule;
 
@@ -68,6 +70,8 @@ public abstract class BuiltinModule {
         pm.put("testutil", new TestutilModule());
         pm.put("wasi", new WasiModule());
         pm.put("memory", new MemoryModule());
+        pm.put("snapshot", new SnapshotModule());
+        pm.put("memorytrace", new MemoryTraceModule());
     }
 
     public static WasmModule createBuiltinModule(WasmLanguage language, WasmContext context, String name, String predefinedModuleName) {
@@ -54,6 +54,11 @@ public abstract class WasmBuiltinRootNode extends WasmRootNode {
 
     public abstract String builtinNodeName();
 
+    @Override
+    protected boolean isInstrumentable() {
+        return false;
+    }
+
     @Override
     public String getName() {
         return "wasm-function:" + builtinNodeName();
@@ -0,0 +1,215 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.graalvm.polyglot;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * A pool of initialized contexts that share one {@link Engine engine}. Contexts are
+ * {@link #acquire() acquired} for the duration of a unit of work, for example a request, and
+ * {@link #release(Context) released} afterwards. On release, the guest visible global state of all
+ * initialized languages of the context is reset and the context is kept for the next acquisition.
+ * Language contexts, builtins and cached parse results survive the reset, which makes acquiring a
+ * pooled context much cheaper than creating a new one.
+ * <p>
+ * If any initialized language of a context does not support resetting its state, or if the pool
+ * already holds the maximum number of idle contexts, the released context is closed instead. A
+ * context pool can therefore be used with any language, it only becomes faster with languages that
+ * support resetting.
+ * <p>
+ * Usage example:
+ *
+ * <pre>
+ * try (Engine engine = Engine.create();
+ *                 ContextPool pool = engine.createContextPool(Context.newBuilder("js"), 16)) {
+ *     pool.prewarm(4, (context) -> context.initialize("js"));
+ *     Context context = pool.acquire();
+ *     try {
+ *         context.eval("js", "42");
+ *     } finally {
+ *         pool.release(context);
+ *     }
+ * }
+ * </pre>
+ *
+ * All methods of a context pool may be called from multiple threads.
+ *
+ * @see Engine#createContextPool(Context.Builder, int)
+ * @since 20.1
+ */
+public final class ContextPool implements AutoCloseable {
+
+    private final Context.Builder builder;
+    private final int maxIdleContexts;
+    private final ArrayDeque<Context> idle = new ArrayDeque<>();
+    private final Set<Context> acquired = Collections.newSetFromMap(new IdentityHashMap<>());
+    private boolean closed;
+
+    ContextPool(Context.Builder builder, int maxIdleContexts) {
+        this.builder = builder;
+        this.maxIdleContexts = maxIdleContexts;
+    }
+
+    /**
+     * Creates the given number of contexts, initializes each of them with the given initializer,
+     * and adds them to the pool. At most the maximum number of idle contexts is added. A typical
+     * initializer {@link Context#initialize(String) initializes} the languages that are used later
+     * on.
+     *
+     * @throws IllegalStateException if the pool is closed.
+     * @since 20.1
+     */
+    public void prewarm(int count, Consumer<Context> initializer) {
+        Objects.requireNonNull(initializer);
+        for (int i = 0; i < count; i++) {
+            synchronized (this) {
+                checkClosed();
+                if (idle.size() >= maxIdleContexts) {
+                    return;
+                }
+            }
+            Context context = builder.build();
+            initializer.accept(context);
+            if (!offer(context)) {
+                context.close();
+            }
+        }
+    }
+
+    /**
+     * Returns an idle context of the pool, or creates a new context if the pool is empty. The
+     * returned context must be {@link #release(Context) released} after use, it must not be closed
+     * directly.
+     *
+     * @throws IllegalStateException if the pool is closed.
+     * @since 20.1
+     */
+    public Context acquire() {
+        synchronized (this) {
+            checkClosed();
+            Context context = idle.pollFirst();
+            if (context != null) {
+                acquired.add(context);
+                return context;
+            }
+        }
+        Context context = builder.build();
+        synchronized (this) {
+            if (closed) {
+                context.close();
+                checkClosed();
+            }
+            acquired.add(context);
+        }
+        return context;
+    }
+
+    /**
+     * Returns a context that was {@link #acquire() acquired} from this pool. The state of the
+     * context is reset and the context is kept for later use. If the context cannot be reset, if
+     * the pool is full or if the pool was closed, then the context is closed instead. The context
+     * must not be used after it was released.
+     *
+     * @throws IllegalArgumentException if the context was not acquired from this pool.
+     * @throws IllegalStateException if the context is still executing or entered on a thread.
+     * @since 20.1
+     */
+    public void release(Context context) {
+        synchronized (this) {
+            if (!acquired.remove(context)) {
+                throw new IllegalArgumentException("The context was not acquired from this pool.");
+            }
+            if (closed || idle.size() >= maxIdleContexts) {
+                context.close();
+                return;
+            }
+        }
+        boolean reset = false;
+        try {
+            reset = context.impl.reset();
+        } finally {
+            if (!reset || !offer(context)) {
+                context.close();
+            }
+        }
+    }
+
+    /**
+     * Closes all idle contexts of this pool. Contexts that are currently acquired are closed when
+     * they are released. If the pool is already closed then this method has no effect.
+     *
+     * @since 20.1
+     */
+    @Override
+    public void close() {
+        Context[] contexts;
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            contexts = idle.toArray(new Context[idle.size()]);
+            idle.clear();
+        }
+        for (Context context : contexts) {
+            context.close();
+        }
+    }
+
+    private synchronized boolean offer(Context context) {
+        if (closed || idle.size() >= maxIdleContexts) {
+            return false;
+        }
+        idle.addFirst(context);
+        return true;
+    }
+
+    private void checkClosed() {
+        if (closed) {
+            throw new IllegalStateException("The context pool is already closed.");
+        }
+    }
+}
@@ -225,6 +225,23 @@ public final class Engine implements AutoCloseable {
         close(false);
     }
 
+    /**
+     * Creates a pool of contexts that are created with the given builder and use this engine. At
+     * most {@code maxIdleContexts} contexts are kept by the pool while they are not in use. The
+     * {@link Context.Builder#engine(Engine) engine} of the builder is set to this engine, the
+     * builder must not be modified afterwards.
+     *
+     * @see ContextPool
+     * @since 20.1
+     */
+    public ContextPool createContextPool(Context.Builder contextBuilder, int maxIdleContexts) {
+        Objects.requireNonNull(contextBuilder);
+        if (maxIdleContexts < 0) {
+            throw new IllegalArgumentException("The maximum number of idle contexts must not be negative.");
+        }
+        return new ContextPool(contextBuilder.engine(this), maxIdleContexts);
+    }
+
     /**
      * Gets a human-readable name of the polyglot implementation (for example, "Default Truffle
      * Engine" or "Graal Truffle Engine"). The returned value may change without notice. The value
@@ -827,6 +844,11 @@ public final class Engine implements AutoCloseable {
                     throw noPolyglotImplementationFound();
                 }
 
+                @Override
+                public long[] getSourceCacheStatistics(Engine engine) {
+                    throw noPolyglotImplementationFound();
+                }
+
             };
         }
 
@@ -234,6 +234,140 @@ public final class Value {
         return impl.getArraySize(receiver);
     }
 
+    /**
+     * Copies <code>length</code> array elements starting at <code>index</code> into
+     * <code>destination</code>, starting at <code>offset</code>. This is equivalent to invoking
+     * {@link #getArrayElement(long)} and {@link #asByte()} for every element, but languages that
+     * store their elements as bytes may implement it with a single bulk copy and no intermediate
+     * {@link Value} instances.
+     *
+     * @throws IndexOutOfBoundsException if <code>offset</code> or <code>length</code> are negative
+     *             or exceed the bounds of <code>destination</code>.
+     * @throws ArrayIndexOutOfBoundsException if one of the array indices does not exist.
+     * @throws ClassCastException if an array element cannot be converted to the destination type.
+     * @throws UnsupportedOperationException if the value does not have any
+     *             {@link #hasArrayElements() array elements} or if an element exists but is not
+     *             readable.
+     * @throws IllegalStateException if the context is already closed.
+     * @throws PolyglotException if a guest language error occurred during execution.
+     * @since 20.1
+     */
+    public void readArrayElements(long index, byte[] destination, int offset, int length) {
+        Objects.requireNonNull(destination, "destination");
+        checkArrayRange(destination.length, offset, length);
+        impl.readArrayElements(receiver, index, destination, offset, length);
+    }
+
+    /**
+     * Copies <code>length</code> array elements starting at <code>index</code> into
+     * <code>destination</code>, starting at <code>offset</code>. This is equivalent to invoking
+     * {@link #getArrayElement(long)} and {@link #asInt()} for every element.
+     *
+     * @see #readArrayElements(long, byte[], int, int)
+     * @since 20.1
+     */
+    public void readArrayElements(long index, int[] destination, int offset, int length) {
+        Objects.requireNonNull(destination, "destination");
+        checkArrayRange(destination.length, offset, length);
+        impl.readArrayElements(receiver, index, destination, offset, length);
+    }
+
+    /**
+     * Copies <code>length</code> array elements starting at <code>index</code> into
+     * <code>destination</code>, starting at <code>offset</code>. This is equivalent to invoking
+     * {@link #getArrayElement(long)} and {@link #asLong()} for every element.
+     *
+     * @see #readArrayElements(long, byte[], int, int)
+     * @since 20.1
+     */
+    public void readArrayElements(long index, long[] destination, int offset, int length) {
+        Objects.requireNonNull(destination, "destination");
+        checkArrayRange(destination.length, offset, length);
+        impl.readArrayElements(receiver, index, destination, offset, length);
+    }
+
+    /**
+     * Copies <code>length</code> array elements starting at <code>index</code> into
+     * <code>destination</code>, starting at <code>offset</code>. This is equivalent to invoking
+     * {@link #getArrayElement(long)} and {@link #asDouble()} for every element.
+     *
+     * @see #readArrayElements(long, byte[], int, int)
+     * @since 20.1
+     */
+    public void readArrayElements(long index, double[] destination, int offset, int length) {
+        Objects.requireNonNull(destination, "destination");
+        checkArrayRange(destination.length, offset, length);
+        impl.readArrayElements(receiver, index, destination, offset, length);
+    }
+
+    /**
+     * Copies <code>length</code> elements of <code>source</code>, starting at <code>offset</code>,
+     * into the array elements of this value starting at <code>index</code>. This is equivalent to
+     * invoking {@link #setArrayElement(long, Object)} for every element, but languages that store
+     * their elements as bytes may implement it with a single bulk copy.
+     *
+     * @throws IndexOutOfBoundsException if <code>offset</code> or <code>length</code> are negative
+     *             or exceed the bounds of <code>source</code>.
+     * @throws ArrayIndexOutOfBoundsException if one of the array indices does not exist.
+     * @throws ClassCastException if an element cannot be stored in this array.
+     * @throws UnsupportedOperationException if the value does not have any
+     *             {@link #hasArrayElements() array elements} or if an element exists but is not
+     *             modifiable.
+     * @throws IllegalStateException if the context is already closed.
+     * @throws PolyglotException if a guest language error occurred during execution.
+     * @since 20.1
+     */
+    public void writeArrayElements(long index, byte[] source, int offset, int length) {
+        Objects.requireNonNull(source, "source");
+        checkArrayRange(source.length, offset, length);
+        impl.writeArrayElements(receiver, index, source, offset, length);
+    }
+
+    /**
+     * Copies <code>length</code> elements of <code>source</code>, starting at <code>offset</code>,
+     * into the array elements of this value starting at <code>index</code>.
+     *
+     * @see #writeArrayElements(long, byte[], int, int)
+     * @since 20.1
+     */
+    public void writeArrayElements(long index, int[] source, int offset, int length) {
+        Objects.requireNonNull(source, "source");
+        checkArrayRange(source.length, offset, length);
+        impl.writeArrayElements(receiver, index, source, offset, length);
+    }
+
+    /**
+     * Copies <code>length</code> elements of <code>source</code>, starting at <code>offset</code>,
+     * into the array elements of this value starting at <code>index</code>.
+     *
+     * @see #writeArrayElements(long, byte[], int, int)
+     * @since 20.1
+     */
+    public void writeArrayElements(long index, long[] source, int offset, int length) {
+        Objects.requireNonNull(source, "source");
+        checkArrayRange(source.length, offset, length);
+        impl.writeArrayElements(receiver, index, source, offset, length);
+    }
+
+    /**
+     * Copies <code>length</code> elements of <code>source</code>, starting at <code>offset</code>,
+     * into the array elements of this value starting at <code>index</code>.
+     *
+     * @see #writeArrayElements(long, byte[], int, int)
+     * @since 20.1
+     */
+    public void writeArrayElements(long index, double[] source, int offset, int length) {
+        Objects.requireNonNull(source, "source");
+        checkArrayRange(source.length, offset, length);
+        impl.writeArrayElements(receiver, index, source, offset, length);
+    }
+
+    private static void checkArrayRange(int arrayLength, int offset, int length) {
+        if (offset < 0 || length < 0 || offset > arrayLength - length) {
+            throw new IndexOutOfBoundsException("Invalid range offset " + offset + " and length " + length + " for array of length " + arrayLength + ".");
+        }
+    }
+
     /**
      * Returns <code>true</code> if this value generally supports containing members. To check
      * whether a value has <i>no</i> members use
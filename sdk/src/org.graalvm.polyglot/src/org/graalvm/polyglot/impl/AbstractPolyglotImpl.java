@@ -281,6 +281,8 @@ public abstract class AbstractPolyglotImpl {
 
         public abstract PolyglotException getExecutionEventException(Object impl);
 
+        public abstract long[] getSourceCacheStatistics(Engine engine);
+
     }
 
     public abstract static class AbstractSourceImpl {
@@ -418,6 +420,8 @@ public abstract class AbstractPolyglotImpl {
         public abstract Value getPolyglotBindings();
 
         public abstract void resetLimits();
+
+        public abstract boolean reset();
     }
 
     public abstract static class AbstractEngineImpl {
@@ -571,6 +575,10 @@ public abstract class AbstractPolyglotImpl {
 
         public abstract long getArraySize(Object receiver);
 
+        public abstract void readArrayElements(Object receiver, long index, Object destination, int offset, int length);
+
+        public abstract void writeArrayElements(Object receiver, long index, Object source, int offset, int length);
+
         public boolean hasMembers(Object receiver) {
             return false;
         }
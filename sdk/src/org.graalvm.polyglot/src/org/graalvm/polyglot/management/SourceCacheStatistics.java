@@ -0,0 +1,152 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.graalvm.polyglot.management;
+
+import java.util.Objects;
+
+import org.graalvm.polyglot.Engine;
+
+/**
+ * A snapshot of the parsed source caches of an engine. Guest languages cache the result of parsing
+ * a {@link org.graalvm.polyglot.Source#isCached() cached} source per engine, such that evaluating
+ * the same source again does not parse it again. The size of these caches may be bounded using the
+ * <code>engine.SourceCacheEntries</code> and <code>engine.SourceCacheNodes</code> options; the
+ * least recently used sources are evicted first.
+ * <p>
+ * Usage example:
+ *
+ * <pre>
+ * Engine engine = Engine.create();
+ * // evaluate sources in contexts of the engine
+ * SourceCacheStatistics statistics = SourceCacheStatistics.create(engine);
+ * System.out.println(statistics.getHits() + " hits, " + statistics.getMisses() + " misses");
+ * </pre>
+ *
+ * The counters are not updated after the snapshot was created. Create a new snapshot to observe
+ * newer values.
+ *
+ * @since 20.1
+ */
+public final class SourceCacheStatistics {
+
+    private final long hits;
+    private final long misses;
+    private final long evictions;
+    private final long entries;
+    private final long nodeCount;
+
+    private SourceCacheStatistics(long[] values) {
+        this.hits = values[0];
+        this.misses = values[1];
+        this.evictions = values[2];
+        this.entries = values[3];
+        this.nodeCount = values[4];
+    }
+
+    /**
+     * Creates a snapshot of the source cache statistics of all languages of an engine.
+     *
+     * @since 20.1
+     */
+    public static SourceCacheStatistics create(Engine engine) {
+        Objects.requireNonNull(engine);
+        return new SourceCacheStatistics(Management.IMPL.getSourceCacheStatistics(engine));
+    }
+
+    /**
+     * Returns the number of times a parse request was served from the cache.
+     *
+     * @since 20.1
+     */
+    public long getHits() {
+        return hits;
+    }
+
+    /**
+     * Returns the number of times a cached source needed to be parsed.
+     *
+     * @since 20.1
+     */
+    public long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Returns the number of parsed sources that were evicted to stay within the configured cache
+     * size.
+     *
+     * @since 20.1
+     */
+    public long getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * Returns the number of parsed sources currently cached.
+     *
+     * @since 20.1
+     */
+    public long getEntries() {
+        return entries;
+    }
+
+    /**
+     * Returns the total number of AST nodes of the parsed sources currently cached. The number of
+     * nodes is determined when a source is added to the cache. Nodes are only counted if the
+     * <code>engine.SourceCacheNodes</code> option is set, otherwise <code>0</code> is returned.
+     *
+     * @since 20.1
+     */
+    public long getNodeCount() {
+        return nodeCount;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @since 20.1
+     */
+    @Override
+    public String toString() {
+        return "SourceCacheStatistics[hits=" + hits + ", misses=" + misses + ", evictions=" + evictions + ", entries=" + entries + ", nodeCount=" + nodeCount + "]";
+    }
+
+}
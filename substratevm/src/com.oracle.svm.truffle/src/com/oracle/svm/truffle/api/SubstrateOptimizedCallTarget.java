@@ -122,6 +122,7 @@ public class SubstrateOptimizedCallTarget extends OptimizedCallTarget implements
     @Override
     public void setAddress(long address, ResolvedJavaMethod method) {
         this.address = address;
+        onCodeInstalled();
     }
 
     @Override
@@ -50,6 +50,7 @@ import com.oracle.truffle.api.instrumentation.Tag;
 import com.oracle.truffle.api.nodes.DirectCallNode;
 import com.oracle.truffle.api.nodes.Node;
 import com.oracle.truffle.api.source.SourceSection;
+import com.oracle.truffle.api.test.ReflectionUtils;
 import com.oracle.truffle.tools.profiler.CPUSampler;
 import com.oracle.truffle.tools.profiler.ProfilerNode;
 
@@ -146,6 +147,108 @@ public class CPUSamplerTest extends AbstractProfilerTest {
         Assert.assertTrue(children.size() == 0);
     }
 
+    @Test
+    public void testCorrectRootStructureSafepoint() {
+        sampler.setSafepointSampling(true);
+        testCorrectRootStructure();
+    }
+
+    @Test
+    public void testSafepointStackOverflows() {
+        sampler.setSafepointSampling(true);
+        sampler.setFilter(NO_INTERNAL_ROOT_TAG_FILTER);
+        sampler.setStackLimit(2);
+        sampler.setCollecting(true);
+        for (int i = 0; i < executionCount; i++) {
+            eval(defaultSourceForSampling);
+        }
+        Assert.assertTrue(sampler.hasStackOverflowed());
+    }
+
+    final Source slowAndFastSourceForSampling = makeSource("ROOT(" +
+                    "DEFINE(slow,ROOT(SLEEP(2)))," +
+                    "DEFINE(fast,ROOT(STATEMENT))," +
+                    "DEFINE(mix,ROOT(LOOP(10, BLOCK(CALL(slow),LOOP(10, CALL(fast))))))," +
+                    "CALL(mix)" +
+                    ")");
+
+    @Test
+    public void testSafepointAccuracy() {
+        double shadowStackRatio = sampleSelfHitRatio(false, "slow");
+        double safepointRatio = sampleSelfHitRatio(true, "slow");
+        // nearly all the time is spent sleeping, both modes must attribute it to the same root
+        Assert.assertTrue("Shadow stack ratio " + shadowStackRatio, shadowStackRatio > 0.5);
+        Assert.assertTrue("Safepoint ratio " + safepointRatio, safepointRatio > 0.5);
+    }
+
+    private double sampleSelfHitRatio(boolean safepointSampling, String rootName) {
+        sampler.setSafepointSampling(safepointSampling);
+        sampler.setFilter(NO_INTERNAL_ROOT_TAG_FILTER);
+        sampler.setCollecting(true);
+        for (int i = 0; i < executionCount; i++) {
+            eval(slowAndFastSourceForSampling);
+        }
+        sampler.setCollecting(false);
+        long[] hits = new long[2];
+        countSelfHits(sampler.getRootNodes(), rootName, hits);
+        sampler.clearData();
+        Assert.assertNotEquals(0, hits[1]);
+        return (double) hits[0] / hits[1];
+    }
+
+    private static void countSelfHits(Collection<ProfilerNode<CPUSampler.Payload>> nodes, String rootName, long[] hits) {
+        for (ProfilerNode<CPUSampler.Payload> node : nodes) {
+            int selfHits = node.getPayload().getSelfHitCount();
+            if (rootName.equals(node.getRootName())) {
+                hits[0] += selfHits;
+            }
+            hits[1] += selfHits;
+            countSelfHits(node.getChildren(), rootName, hits);
+        }
+    }
+
+    final Source callIntensiveSourceForSampling = makeSource("ROOT(" +
+                    "DEFINE(leaf,ROOT(STATEMENT))," +
+                    "DEFINE(inner,ROOT(LOOP(100, CALL(leaf))))," +
+                    "LOOP(100, CALL(inner))" +
+                    ")");
+
+    @Test
+    public void testSafepointSamplingWithoutShadowStack() {
+        sampler.setSafepointSampling(true);
+        sampler.setFilter(NO_INTERNAL_ROOT_TAG_FILTER);
+        sampler.setCollecting(true);
+        eval(callIntensiveSourceForSampling);
+        Assert.assertNotNull(ReflectionUtils.getField(sampler, "safepointSampler"));
+        Assert.assertNull(ReflectionUtils.getField(sampler, "shadowStack"));
+        sampler.setCollecting(false);
+    }
+
+    @Test
+    public void testSafepointOverhead() {
+        // warm up both modes, then keep the best of a few runs to reduce noise
+        long shadowStackTime = Long.MAX_VALUE;
+        long safepointTime = Long.MAX_VALUE;
+        for (int i = 0; i < 5; i++) {
+            shadowStackTime = Math.min(shadowStackTime, sampleElapsedTime(false));
+            safepointTime = Math.min(safepointTime, sampleElapsedTime(true));
+        }
+        // the bound is deliberately loose, safepoint sampling must not be considerably slower
+        Assert.assertTrue("Safepoint " + safepointTime + "ns, shadow stack " + shadowStackTime + "ns", safepointTime < shadowStackTime * 3);
+    }
+
+    private long sampleElapsedTime(boolean safepointSampling) {
+        sampler.setSafepointSampling(safepointSampling);
+        sampler.setFilter(NO_INTERNAL_ROOT_TAG_FILTER);
+        sampler.setCollecting(true);
+        long start = System.nanoTime();
+        eval(callIntensiveSourceForSampling);
+        long elapsed = System.nanoTime() - start;
+        sampler.setCollecting(false);
+        sampler.clearData();
+        return elapsed;
+    }
+
     final Source defaultRecursiveSourceForSampling = makeSource("ROOT(" +
                     "DEFINE(rfoo,ROOT(BLOCK(RECURSIVE_CALL(foo, 10),SLEEP(1))))," +
                     "DEFINE(rbar,ROOT(BLOCK(STATEMENT,LOOP(10, CALL(foo)))))," +
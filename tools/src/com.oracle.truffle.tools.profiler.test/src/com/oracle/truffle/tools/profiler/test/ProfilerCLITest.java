@@ -25,12 +25,19 @@
 package com.oracle.truffle.tools.profiler.test;
 
 import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.zip.GZIPInputStream;
 
 import org.graalvm.polyglot.Context;
+import org.graalvm.polyglot.PolyglotException;
 import org.graalvm.polyglot.Source;
 import org.junit.Assert;
 import org.junit.Test;
@@ -82,6 +89,154 @@ public class ProfilerCLITest {
         deepCompare(samples, profilerNodes);
     }
 
+    @Test
+    public void testSamplerFlameGraph() {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final ByteArrayOutputStream err = new ByteArrayOutputStream();
+        Context context = Context.newBuilder().in(System.in).out(out).err(err).option("cpusampler", "true").option("cpusampler.Output", "flamegraph").build();
+        Source defaultSourceForSampling = makeSource("ROOT(" +
+                        "DEFINE(foo,ROOT(SLEEP(1)))," +
+                        "DEFINE(bar,ROOT(BLOCK(STATEMENT,LOOP(10, CALL(foo)))))," +
+                        "CALL(bar)" +
+                        ")");
+        for (int i = 0; i < 10; i++) {
+            context.eval(defaultSourceForSampling);
+        }
+        CPUSampler sampler = CPUSampler.find(context.getEngine());
+        long compiled = 0;
+        long interpreted = 0;
+        for (Collection<ProfilerNode<CPUSampler.Payload>> nodes : sampler.getThreadToNodesMap().values()) {
+            for (ProfilerNode<CPUSampler.Payload> node : nodes) {
+                compiled += sumSelfHits(node, true);
+                interpreted += sumSelfHits(node, false);
+            }
+        }
+        context.close();
+
+        long collapsedCompiled = 0;
+        long collapsedInterpreted = 0;
+        for (String line : out.toString().split("\n")) {
+            if (line.isEmpty()) {
+                continue;
+            }
+            int countIndex = line.lastIndexOf(' ');
+            String stack = line.substring(0, countIndex);
+            long count = Long.parseLong(line.substring(countIndex + 1));
+            Assert.assertTrue(line, stack.startsWith(Thread.currentThread().getName() + ";"));
+            if (stack.endsWith("_[j]")) {
+                collapsedCompiled += count;
+            } else {
+                Assert.assertTrue(line, stack.endsWith("_[0]"));
+                collapsedInterpreted += count;
+            }
+        }
+        Assert.assertEquals(compiled, collapsedCompiled);
+        Assert.assertEquals(interpreted, collapsedInterpreted);
+    }
+
+    private static long sumSelfHits(ProfilerNode<CPUSampler.Payload> node, boolean compiled) {
+        long sum = compiled ? node.getPayload().getSelfCompiledHitCount() : node.getPayload().getSelfInterpretedHitCount();
+        for (ProfilerNode<CPUSampler.Payload> child : node.getChildren()) {
+            sum += sumSelfHits(child, compiled);
+        }
+        return sum;
+    }
+
+    @Test
+    public void testSamplerPprofRotation() throws IOException {
+        File directory = Files.createTempDirectory("cpu.sampler").toFile();
+        try {
+            File outputFile = new File(directory, "profile.pb.gz");
+            Context context = Context.newBuilder().option("cpusampler", "true").option("cpusampler.Output", "pprof").option("cpusampler.OutputFile", outputFile.getPath()).option(
+                            "cpusampler.OutputInterval", "10").option("cpusampler.RotateOutput", "true").build();
+            Source source = makeSource("ROOT(DEFINE(foo,ROOT(SLEEP(1))),LOOP(100, CALL(foo)))");
+            context.eval(source);
+            context.close();
+
+            Assert.assertFalse(outputFile.exists());
+            File firstFile = new File(directory, "profile.pb-0.gz");
+            Assert.assertTrue(firstFile.exists());
+            for (File file : directory.listFiles()) {
+                Assert.assertTrue(file.getName(), file.getName().matches("profile\\.pb-\\d+\\.gz"));
+                try (InputStream in = new GZIPInputStream(new FileInputStream(file))) {
+                    byte[] profile = readAll(in);
+                    // every profile contains the sample types in its string table
+                    Assert.assertTrue(contains(profile, "samples".getBytes("UTF-8")));
+                    Assert.assertTrue(contains(profile, "execution".getBytes("UTF-8")));
+                }
+            }
+        } finally {
+            for (File file : directory.listFiles()) {
+                file.delete();
+            }
+            directory.delete();
+        }
+    }
+
+    @Test
+    public void testSamplerOutputIntervalRequiresFile() {
+        try {
+            Context.newBuilder().option("cpusampler", "true").option("cpusampler.Output", "flamegraph").option("cpusampler.OutputInterval", "10").build().close();
+            Assert.fail("Expected an error for a missing output file.");
+        } catch (PolyglotException e) {
+            Assert.assertTrue(e.getMessage(), e.getMessage().contains("OutputFile"));
+        }
+    }
+
+    @Test
+    public void testSamplerPprofRequiresFile() {
+        try {
+            Context.newBuilder().option("cpusampler", "true").option("cpusampler.Output", "pprof").build().close();
+            Assert.fail("Expected an error for a missing output file.");
+        } catch (PolyglotException e) {
+            Assert.assertTrue(e.getMessage(), e.getMessage().contains("OutputFile"));
+        }
+    }
+
+    @Test
+    public void testSamplerRotationKeepsExistingFiles() throws IOException {
+        File directory = Files.createTempDirectory("cpu.sampler").toFile();
+        try {
+            File outputFile = new File(directory, "profile.pb.gz");
+            File firstFile = new File(directory, "profile.pb-0.gz");
+            Assert.assertTrue(firstFile.createNewFile());
+            try {
+                Context.newBuilder().option("cpusampler", "true").option("cpusampler.Output", "pprof").option("cpusampler.OutputFile", outputFile.getPath()).option(
+                                "cpusampler.OutputInterval", "10").option("cpusampler.RotateOutput", "true").build().close();
+                Assert.fail("Expected an error for an existing rotated output file.");
+            } catch (PolyglotException e) {
+                Assert.assertTrue(e.getMessage(), e.getMessage().contains("existing file"));
+            }
+            Assert.assertEquals(0, firstFile.length());
+        } finally {
+            for (File file : directory.listFiles()) {
+                file.delete();
+            }
+            directory.delete();
+        }
+    }
+
+    private static byte[] readAll(InputStream in) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        byte[] buffer = new byte[4096];
+        for (int read; (read = in.read(buffer)) != -1;) {
+            bytes.write(buffer, 0, read);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static boolean contains(byte[] data, byte[] pattern) {
+        outer: for (int i = 0; i <= data.length - pattern.length; i++) {
+            for (int j = 0; j < pattern.length; j++) {
+                if (data[i + j] != pattern[j]) {
+                    continue outer;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
     private void deepCompare(JSONArray samples, Collection<ProfilerNode<CPUSampler.Payload>> nodes) {
         for (int i = 0; i < samples.length(); i++) {
             JSONObject sample = (JSONObject) samples.get(i);
@@ -63,7 +63,9 @@ import com.oracle.truffle.tools.profiler.impl.ProfilerToolFactory;
  * <p>
  * The sampler keeps a shadow stack during execution. This shadow stack is sampled at regular
  * intervals, i.e. the state of the stack is copied and saved into trees of {@linkplain ProfilerNode
- * nodes}, which represent the profile of the execution.
+ * nodes}, which represent the profile of the execution. Alternatively, with
+ * {@link #setSafepointSampling(boolean) safepoint sampling} no shadow stack is kept and every thread
+ * reconstructs its stack when it reaches the next safepoint after a sample was requested.
  * <p>
  * Usage example: {@codesnippet CPUSamplerSnippets#example}
  *
@@ -214,6 +216,11 @@ public final class CPUSampler implements Closeable {
     private volatile ShadowStack shadowStack;
     private volatile EventBinding<?> stacksBinding;
 
+    private boolean safepointSampling = false;
+
+    private volatile SafepointStackSampler safepointSampler;
+    private volatile EventBinding<?> safepointBinding;
+
     private final Map<Thread, ProfilerNode<Payload>> rootNodes = new HashMap<>();
 
     private final Env env;
@@ -383,6 +390,33 @@ public final class CPUSampler implements Closeable {
         this.delaySamplingUntilNonInternalLangInit = delaySamplingUntilNonInternalLangInit;
     }
 
+    /**
+     * Sets whether the stacks are sampled at safepoints instead of from a shadow stack. With
+     * safepoint sampling the sampler does not maintain a shadow stack, which removes most of the
+     * overhead the sampler adds to guest calls. Instead, each sampled thread reconstructs its stack
+     * from the {@link com.oracle.truffle.api.TruffleRuntime#iterateFrames frames} of the runtime
+     * the next time it returns from a sampled root (or statement in
+     * {@link Mode#STATEMENTS statements} mode) after a sample was requested. Samples are therefore
+     * biased towards those safepoints, and threads that are blocked or do not reach one are not
+     * sampled. Inlined roots are always included in the sampled stacks. {@link #takeSample()}
+     * always uses a shadow stack.
+     *
+     * @param safepointSampling {@code true} to sample at safepoints
+     * @since 20.1
+     */
+    public synchronized void setSafepointSampling(boolean safepointSampling) {
+        enterChangeConfig();
+        this.safepointSampling = safepointSampling;
+    }
+
+    /**
+     * @return whether the stacks are sampled at safepoints instead of from a shadow stack.
+     * @since 20.1
+     */
+    public synchronized boolean isSafepointSampling() {
+        return safepointSampling;
+    }
+
     /**
      * @return The filter describing which part of the source code to sample
      * @since 0.30
@@ -588,6 +622,18 @@ public final class CPUSampler implements Closeable {
         return localShadowStack;
     }
 
+    private synchronized void initializeSafepointSampler() {
+        if (safepointSampler == null) {
+            assert safepointBinding == null;
+            SourceSectionFilter f = this.filter;
+            if (f == null) {
+                f = DEFAULT_FILTER;
+            }
+            this.safepointSampler = new SafepointStackSampler(stackLimit, combine(f, mode), env.getInstrumenter());
+            this.safepointBinding = this.safepointSampler.install();
+        }
+    }
+
     private void resetSampling() {
         assert Thread.holdsLock(this);
         cleanup();
@@ -599,7 +645,11 @@ public final class CPUSampler implements Closeable {
             samplerThread = new Timer("Sampling thread", true);
         }
         this.stackOverflowed = false;
-        initializeShadowStack();
+        if (safepointSampling) {
+            initializeSafepointSampler();
+        } else {
+            initializeShadowStack();
+        }
         this.samplerTask = new SamplingTimerTask();
         this.samplerThread.schedule(samplerTask, delay, period);
     }
@@ -637,6 +687,15 @@ public final class CPUSampler implements Closeable {
     }
 
     private void invalidateStack() {
+        if (safepointSampler != null) {
+            synchronized (this) {
+                if (safepointBinding != null) {
+                    safepointBinding.dispose();
+                    safepointBinding = null;
+                }
+                safepointSampler = null;
+            }
+        }
         ShadowStack localShadowStack = this.shadowStack;
         if (localShadowStack != null) {
             synchronized (this) {
@@ -663,19 +722,23 @@ public final class CPUSampler implements Closeable {
             }
             long timestamp = System.currentTimeMillis();
             boolean sampleTaken = false;
-            ShadowStack localShadowStack = shadowStack;
-            if (localShadowStack != null) {
-                for (ShadowStack.ThreadLocalStack stack : localShadowStack.getStacks()) {
-                    ProfilerNode<Payload> threadNode;
-                    synchronized (CPUSampler.this) {
-                        threadNode = rootNodes.computeIfAbsent(stack.getThread(), new Function<Thread, ProfilerNode<Payload>>() {
-                            @Override
-                            public ProfilerNode<Payload> apply(Thread thread) {
-                                return new ProfilerNode<>();
-                            }
-                        });
+            SafepointStackSampler localSafepointSampler = safepointSampler;
+            if (localSafepointSampler != null) {
+                // samples requested in the previous period are collected before the next request
+                for (SafepointStackSampler.ThreadSample sample : localSafepointSampler.collectSamples()) {
+                    insertSample(sample.stack, sample.timestamp, getThreadNode(sample.thread));
+                    sampleTaken = true;
+                }
+                if (localSafepointSampler.hasStackOverflowed()) {
+                    stackOverflowed = true;
+                }
+                localSafepointSampler.requestSamples();
+            } else {
+                ShadowStack localShadowStack = shadowStack;
+                if (localShadowStack != null) {
+                    for (ShadowStack.ThreadLocalStack stack : localShadowStack.getStacks()) {
+                        sampleTaken |= sample(stack, timestamp, getThreadNode(stack.getThread()));
                     }
-                    sampleTaken |= sample(stack, timestamp, threadNode);
                 }
             }
             if (sampleTaken) {
@@ -683,6 +746,17 @@ public final class CPUSampler implements Closeable {
             }
         }
 
+        private ProfilerNode<Payload> getThreadNode(Thread sampledThread) {
+            synchronized (CPUSampler.this) {
+                return rootNodes.computeIfAbsent(sampledThread, new Function<Thread, ProfilerNode<Payload>>() {
+                    @Override
+                    public ProfilerNode<Payload> apply(Thread thread) {
+                        return new ProfilerNode<>();
+                    }
+                });
+            }
+        }
+
         boolean sample(ShadowStack.ThreadLocalStack stack, long timestamp, ProfilerNode<Payload> threadNode) {
             if (stack.hasStackOverflowed()) {
                 stackOverflowed = true;
@@ -696,6 +770,11 @@ public final class CPUSampler implements Closeable {
             if (stackFrames == null || stackFrames.length == 0) {
                 return false;
             }
+            insertSample(stackFrames, timestamp, threadNode);
+            return true;
+        }
+
+        private void insertSample(StackTraceEntry[] stackFrames, long timestamp, ProfilerNode<Payload> threadNode) {
             synchronized (CPUSampler.this) {
                 // now traverse the stack and insert the path into the tree
                 ProfilerNode<Payload> treeNode = threadNode;
@@ -724,7 +803,6 @@ public final class CPUSampler implements Closeable {
                     }
                 }
             }
-            return true;
         }
 
         private ProfilerNode<Payload> addOrUpdateChild(ProfilerNode<Payload> treeNode, StackTraceEntry location) {
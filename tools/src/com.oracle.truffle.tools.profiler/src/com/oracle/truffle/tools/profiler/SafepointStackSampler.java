@@ -0,0 +1,253 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.tools.profiler;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.Truffle;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.instrumentation.EventBinding;
+import com.oracle.truffle.api.instrumentation.EventContext;
+import com.oracle.truffle.api.instrumentation.ExecutionEventNode;
+import com.oracle.truffle.api.instrumentation.ExecutionEventNodeFactory;
+import com.oracle.truffle.api.instrumentation.Instrumenter;
+import com.oracle.truffle.api.instrumentation.SourceSectionFilter;
+import com.oracle.truffle.api.nodes.Node;
+import com.oracle.truffle.api.nodes.NodeCost;
+
+/**
+ * Samples guest stacks without maintaining a {@link ShadowStack}. The sampler thread only requests
+ * a sample from every known thread. Each thread answers the request at its next safepoint, i.e. the
+ * next time it leaves an instrumented root or statement, by reconstructing its stack with
+ * {@link com.oracle.truffle.api.TruffleRuntime#iterateFrames iterateFrames}. Entering a root or
+ * statement is not instrumented, the time spent in a frame always ends with its own return or the
+ * return of a callee. As long as no request is pending, a safepoint only reads a single flag of the
+ * sampler; nothing is written on calls and returns. Threads that do not reach a safepoint, e.g.
+ * because they are blocked, are not sampled. Threads that terminated are forgotten, and requests
+ * that were not answered are withdrawn, when the next sampling period starts.
+ */
+final class SafepointStackSampler {
+
+    private final ConcurrentHashMap<Thread, ThreadState> states = new ConcurrentHashMap<>();
+    private final int stackLimit;
+    private final SourceSectionFilter sourceSectionFilter;
+    private final Instrumenter instrumenter;
+    /** Number of threads that have not answered their current request yet. */
+    private final AtomicInteger pendingRequests = new AtomicInteger();
+    /** Whether any thread may have a pending request; read by every safepoint. */
+    private volatile boolean requestPending;
+    private volatile boolean stackOverflowed;
+
+    SafepointStackSampler(int stackLimit, SourceSectionFilter sourceSectionFilter, Instrumenter instrumenter) {
+        this.stackLimit = stackLimit;
+        this.sourceSectionFilter = sourceSectionFilter;
+        this.instrumenter = instrumenter;
+    }
+
+    EventBinding<?> install() {
+        return instrumenter.attachExecutionEventFactory(sourceSectionFilter, new ExecutionEventNodeFactory() {
+            public ExecutionEventNode create(EventContext context) {
+                if (context.getInstrumentedNode().getSourceSection() == null) {
+                    return null;
+                }
+                return new SafepointNode(SafepointStackSampler.this, context);
+            }
+        });
+    }
+
+    boolean hasStackOverflowed() {
+        return stackOverflowed;
+    }
+
+    /**
+     * Starts a new sampling period and requests a new sample from every live thread that has
+     * executed guest code so far. Requests of the previous period that were not answered, e.g.
+     * because the thread returned to the host without reaching a safepoint, are withdrawn first.
+     */
+    void requestSamples() {
+        requestPending = false;
+        for (Iterator<ThreadState> iterator = states.values().iterator(); iterator.hasNext();) {
+            ThreadState state = iterator.next();
+            if (state.requested.compareAndSet(true, false)) {
+                pendingRequests.decrementAndGet();
+            }
+            if (!state.thread.isAlive()) {
+                iterator.remove();
+            } else if (state.requested.compareAndSet(false, true)) {
+                pendingRequests.incrementAndGet();
+            }
+        }
+        if (pendingRequests.get() > 0) {
+            requestPending = true;
+        }
+    }
+
+    private void answered() {
+        if (pendingRequests.decrementAndGet() == 0) {
+            requestPending = false;
+        }
+    }
+
+    /**
+     * Returns the samples taken since the last call, at most one per thread.
+     */
+    List<ThreadSample> collectSamples() {
+        List<ThreadSample> samples = new ArrayList<>();
+        for (ThreadState state : states.values()) {
+            ThreadSample sample = state.sample.getAndSet(null);
+            if (sample != null) {
+                samples.add(sample);
+            }
+        }
+        return samples;
+    }
+
+    @TruffleBoundary
+    private ThreadState getState() {
+        return states.computeIfAbsent(Thread.currentThread(), ThreadState::new);
+    }
+
+    @TruffleBoundary
+    private void takeSample(ThreadState state, Node instrumentedNode, boolean compiled) {
+        if (!state.requested.compareAndSet(true, false)) {
+            // the request was withdrawn by a new sampling period in the meantime
+            return;
+        }
+        answered();
+        List<StackTraceEntry> entries = new ArrayList<>();
+        addEntries(entries, instrumentedNode, compiled ? StackTraceEntry.STATE_COMPILED : StackTraceEntry.STATE_INTERPRETED);
+        Truffle.getRuntime().iterateFrames(frame -> {
+            // the call node of the current frame is null, its entries were added above
+            Node callNode = frame.getCallNode();
+            if (callNode != null) {
+                addEntries(entries, callNode.getParent(), frame.isVirtualFrame() ? StackTraceEntry.STATE_COMPILED : StackTraceEntry.STATE_INTERPRETED);
+            }
+            // a non-null result stops the iteration
+            return entries.size() > stackLimit ? entries : null;
+        });
+        if (entries.size() > stackLimit) {
+            stackOverflowed = true;
+            return;
+        }
+        Collections.reverse(entries);
+        state.sample.set(new ThreadSample(state.thread, entries.toArray(new StackTraceEntry[entries.size()]), System.currentTimeMillis()));
+    }
+
+    private void addEntries(List<StackTraceEntry> entries, Node node, byte state) {
+        Node current = node;
+        while (current != null) {
+            if (sourceSectionFilter.includes(current) && current.getSourceSection() != null) {
+                entries.add(new StackTraceEntry(instrumenter, current, state));
+            }
+            current = current.getParent();
+        }
+    }
+
+    static final class ThreadSample {
+
+        final Thread thread;
+        final StackTraceEntry[] stack;
+        final long timestamp;
+
+        ThreadSample(Thread thread, StackTraceEntry[] stack, long timestamp) {
+            this.thread = thread;
+            this.stack = stack;
+            this.timestamp = timestamp;
+        }
+    }
+
+    private static final class ThreadState {
+
+        final Thread thread;
+        final AtomicReference<ThreadSample> sample = new AtomicReference<>();
+        final AtomicBoolean requested = new AtomicBoolean();
+
+        ThreadState(Thread thread) {
+            this.thread = thread;
+        }
+    }
+
+    private static final class SafepointNode extends ExecutionEventNode {
+
+        private final SafepointStackSampler sampler;
+        private final Node instrumentedNode;
+        private final Thread cachedThread;
+        private final ThreadState cachedState;
+
+        @CompilationFinal private boolean seenOtherThreads;
+
+        SafepointNode(SafepointStackSampler sampler, EventContext context) {
+            this.sampler = sampler;
+            this.instrumentedNode = context.getInstrumentedNode();
+            this.cachedThread = Thread.currentThread();
+            this.cachedState = sampler.getState();
+        }
+
+        @Override
+        protected void onReturnValue(VirtualFrame frame, Object result) {
+            poll();
+        }
+
+        @Override
+        protected void onReturnExceptional(VirtualFrame frame, Throwable exception) {
+            poll();
+        }
+
+        private void poll() {
+            ThreadState state;
+            if (!seenOtherThreads && cachedThread == Thread.currentThread()) {
+                state = cachedState;
+            } else {
+                if (!seenOtherThreads) {
+                    CompilerDirectives.transferToInterpreterAndInvalidate();
+                    seenOtherThreads = true;
+                }
+                if (!sampler.requestPending) {
+                    // avoid looking up the state of the current thread unless needed
+                    return;
+                }
+                state = sampler.getState();
+            }
+            if (state.requested.get()) {
+                sampler.takeSample(state, instrumentedNode, CompilerDirectives.inCompiledCode());
+            }
+        }
+
+        @Override
+        public NodeCost getCost() {
+            return NodeCost.NONE;
+        }
+    }
+}
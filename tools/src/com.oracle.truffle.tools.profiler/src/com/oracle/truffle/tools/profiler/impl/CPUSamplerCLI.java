@@ -37,6 +37,8 @@ import org.graalvm.options.OptionKey;
 import org.graalvm.options.OptionStability;
 import org.graalvm.options.OptionType;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.io.PrintStream;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -56,6 +58,8 @@ class CPUSamplerCLI extends ProfilerCLI {
         HISTOGRAM,
         CALLTREE,
         JSON,
+        FLAMEGRAPH,
+        PPROF,
     }
 
     static final OptionType<Output> CLI_OUTPUT_TYPE = new OptionType<>("Output",
@@ -65,7 +69,7 @@ class CPUSamplerCLI extends ProfilerCLI {
                             try {
                                 return Output.valueOf(s.toUpperCase());
                             } catch (IllegalArgumentException e) {
-                                throw new IllegalArgumentException("Output can be: histogram, calltree or json");
+                                throw new IllegalArgumentException("Output can be: histogram, calltree, json, flamegraph or pprof");
                             }
                         }
                     });
@@ -100,7 +104,7 @@ class CPUSamplerCLI extends ProfilerCLI {
     @Option(name = "StackLimit", help = "Maximum number of maximum stack elements.", category = OptionCategory.USER, stability = OptionStability.STABLE) //
     static final OptionKey<Integer> STACK_LIMIT = new OptionKey<>(10000);
 
-    @Option(name = "Output", help = "Print a 'histogram', 'calltree' or 'json' as output (default:HISTOGRAM).", category = OptionCategory.USER, stability = OptionStability.STABLE) //
+    @Option(name = "Output", help = "Print a 'histogram', 'calltree', 'json', 'flamegraph' (collapsed stacks) or 'pprof' (gzip compressed protocol buffers) as output (default:HISTOGRAM).", category = OptionCategory.USER, stability = OptionStability.STABLE) //
     static final OptionKey<Output> OUTPUT = new OptionKey<>(Output.HISTOGRAM, CLI_OUTPUT_TYPE);
 
     @Option(name = "FilterRootName", help = "Wildcard filter for program roots. (eg. Math.*, default:*).", category = OptionCategory.USER, stability = OptionStability.STABLE) //
@@ -121,12 +125,43 @@ class CPUSamplerCLI extends ProfilerCLI {
     @Option(name = "SummariseThreads", help = "Print output as a summary of all 'per thread' profiles. (default: false)", category = OptionCategory.USER, stability = OptionStability.STABLE) //
     static final OptionKey<Boolean> SUMMARISE_THREADS = new OptionKey<>(false);
 
+    @Option(name = "SafepointSampling", help = "Sample the stacks when threads reach the next safepoint, i.e. return from a sampled root or statement, instead of keeping a shadow stack. " +
+                    "Adds less overhead to calls, but samples are biased towards safepoints (default:false).", category = OptionCategory.USER) //
+    static final OptionKey<Boolean> SAFEPOINT_SAMPLING = new OptionKey<>(false);
+
     @Option(name = "GatherHitTimes", help = "Save a timestamp for each taken sample (default:false).", category = OptionCategory.USER, stability = OptionStability.STABLE) //
     static final OptionKey<Boolean> GATHER_HIT_TIMES = new OptionKey<>(false);
 
     @Option(name = "OutputFile", help = "Save output to the given file. Output is printed to output stream by default.", category = OptionCategory.USER, stability = OptionStability.STABLE) //
     static final OptionKey<String> OUTPUT_FILE = new OptionKey<>("");
 
+    @Option(name = "OutputInterval", help = "Write the samples to the output file every given number of milliseconds and discard them from the sampler. " +
+                    "Requires an output file and the 'flamegraph' or 'pprof' output (default: 0, write at exit only).", category = OptionCategory.USER, stability = OptionStability.STABLE) //
+    static final OptionKey<Long> OUTPUT_INTERVAL = new OptionKey<>(0L);
+
+    @Option(name = "RotateOutput", help = "Write the samples of every output interval to a new numbered file instead of updating the output file (default: false).", category = OptionCategory.USER, stability = OptionStability.STABLE) //
+    static final OptionKey<Boolean> ROTATE_OUTPUT = new OptionKey<>(false);
+
+    static void validateOutput(TruffleInstrument.Env env) {
+        if (env.getOptions().get(OUTPUT) == Output.PPROF && !OUTPUT_FILE.hasBeenSet(env.getOptions())) {
+            throw new IllegalArgumentException("The pprof output is binary and requires --" + CPUSamplerInstrument.ID + ".OutputFile to be set.");
+        }
+    }
+
+    static CPUSamplerStreamingOutput startStreaming(TruffleInstrument.Env env, CPUSampler sampler) {
+        Output output = env.getOptions().get(OUTPUT);
+        if (output != Output.FLAMEGRAPH && output != Output.PPROF) {
+            throw new IllegalArgumentException("Periodic output is only supported for the flamegraph and pprof outputs.");
+        }
+        if (!OUTPUT_FILE.hasBeenSet(env.getOptions())) {
+            throw new IllegalArgumentException("Periodic output requires --" + CPUSamplerInstrument.ID + ".OutputFile to be set.");
+        }
+        CPUSamplerStreamingOutput streamingOutput = new CPUSamplerStreamingOutput(sampler, output, env.getOptions().get(OUTPUT_FILE), env.getOptions().get(ROTATE_OUTPUT),
+                        env.getOptions().get(SUMMARISE_THREADS));
+        streamingOutput.start(env.getOptions().get(OUTPUT_INTERVAL));
+        return streamingOutput;
+    }
+
     static void handleOutput(TruffleInstrument.Env env, CPUSampler sampler) {
         try (PrintStream out = chooseOutputStream(env, OUTPUT_FILE)) {
             if (sampler.hasStackOverflowed()) {
@@ -147,10 +182,35 @@ class CPUSamplerCLI extends ProfilerCLI {
                     break;
                 case JSON:
                     printSamplingJson(out, sampler);
+                    break;
+                case FLAMEGRAPH:
+                case PPROF:
+                    printSamplingAggregate(out, env, sampler, summariseThreads);
+                    break;
             }
         }
     }
 
+    private static void printSamplingAggregate(PrintStream out, TruffleInstrument.Env env, CPUSampler sampler, boolean summariseThreads) {
+        SampleAggregator aggregator = new SampleAggregator(summariseThreads);
+        aggregator.add(sampler.getThreadToNodesMap(), sampler.getSampleCount());
+        boolean compress = env.getOptions().get(OUTPUT_FILE).endsWith(".gz");
+        try {
+            writeAggregate(out, env.getOptions().get(OUTPUT), aggregator, sampler.getPeriod(), System.currentTimeMillis(), 0, compress);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to write the sampler output.", e);
+        }
+    }
+
+    static void writeAggregate(OutputStream out, Output output, SampleAggregator aggregator, long period, long startTime, long duration, boolean compress) throws IOException {
+        if (output == Output.PPROF) {
+            aggregator.writePprof(out, period, startTime, duration);
+        } else {
+            assert output == Output.FLAMEGRAPH;
+            aggregator.writeCollapsed(out, compress);
+        }
+    }
+
     private static void printSamplingJson(PrintStream out, CPUSampler sampler) {
         JSONObject output = new JSONObject();
         output.put("tool", CPUSamplerInstrument.ID);
@@ -58,6 +58,7 @@ public class CPUSamplerInstrument extends TruffleInstrument {
     public static final String ID = "cpusampler";
     static final String VERSION = "0.4.0";
     private CPUSampler sampler;
+    private CPUSamplerStreamingOutput streamingOutput;
     private static ProfilerToolFactory<CPUSampler> factory;
 
     /**
@@ -107,13 +108,18 @@ public class CPUSamplerInstrument extends TruffleInstrument {
     protected void onCreate(Env env) {
         sampler = factory.create(env);
         if (env.getOptions().get(CPUSamplerCLI.ENABLED)) {
+            CPUSamplerCLI.validateOutput(env);
             sampler.setPeriod(env.getOptions().get(CPUSamplerCLI.SAMPLE_PERIOD));
             sampler.setDelay(env.getOptions().get(CPUSamplerCLI.DELAY_PERIOD));
             sampler.setStackLimit(env.getOptions().get(CPUSamplerCLI.STACK_LIMIT));
             sampler.setFilter(getSourceSectionFilter(env));
             sampler.setGatherSelfHitTimes(env.getOptions().get(GATHER_HIT_TIMES));
             sampler.setMode(env.getOptions().get(CPUSamplerCLI.MODE));
+            sampler.setSafepointSampling(env.getOptions().get(CPUSamplerCLI.SAFEPOINT_SAMPLING));
             sampler.setCollecting(true);
+            if (env.getOptions().get(CPUSamplerCLI.OUTPUT_INTERVAL) > 0) {
+                streamingOutput = CPUSamplerCLI.startStreaming(env, sampler);
+            }
         }
         env.registerService(sampler);
     }
@@ -146,7 +152,9 @@ public class CPUSamplerInstrument extends TruffleInstrument {
      */
     @Override
     protected void onDispose(Env env) {
-        if (env.getOptions().get(CPUSamplerCLI.ENABLED)) {
+        if (streamingOutput != null) {
+            streamingOutput.close();
+        } else if (env.getOptions().get(CPUSamplerCLI.ENABLED)) {
             CPUSamplerCLI.handleOutput(env, sampler);
         }
         sampler.close();
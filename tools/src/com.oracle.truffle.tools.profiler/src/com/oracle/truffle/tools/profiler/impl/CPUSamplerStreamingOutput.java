@@ -0,0 +1,153 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.tools.profiler.impl;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Timer;
+import java.util.TimerTask;
+import java.util.logging.Level;
+
+import com.oracle.truffle.api.TruffleLogger;
+import com.oracle.truffle.tools.profiler.CPUSampler;
+import com.oracle.truffle.tools.profiler.ProfilerNode;
+
+/**
+ * Periodically moves the samples collected by a {@link CPUSampler} into a {@link SampleAggregator}
+ * and writes the aggregate to the output file, so that the sampler never holds more than the
+ * samples of one interval. Every write replaces the output file atomically. With rotation enabled
+ * each interval is written to a new numbered file instead and the aggregate is discarded
+ * afterwards.
+ */
+final class CPUSamplerStreamingOutput {
+
+    private final CPUSampler sampler;
+    private final CPUSamplerCLI.Output output;
+    private final File outputFile;
+    private final boolean rotate;
+    private final boolean summariseThreads;
+    private final TruffleLogger logger = TruffleLogger.getLogger(CPUSamplerInstrument.ID);
+    private final Timer timer = new Timer("Sampler output thread", true);
+
+    private SampleAggregator aggregator;
+    private long intervalStart;
+    private int fileIndex;
+    private boolean written;
+
+    CPUSamplerStreamingOutput(CPUSampler sampler, CPUSamplerCLI.Output output, String outputFile, boolean rotate, boolean summariseThreads) {
+        this.sampler = sampler;
+        this.output = output;
+        this.outputFile = new File(outputFile);
+        this.rotate = rotate;
+        this.summariseThreads = summariseThreads;
+        if (this.outputFile.exists() || (rotate && rotatedFile(0).exists())) {
+            throw new IllegalArgumentException("Cannot redirect output to an existing file!");
+        }
+    }
+
+    void start(long interval) {
+        synchronized (this) {
+            aggregator = new SampleAggregator(summariseThreads);
+            intervalStart = System.currentTimeMillis();
+        }
+        timer.schedule(new TimerTask() {
+            @Override
+            public void run() {
+                try {
+                    flush(false);
+                } catch (IOException e) {
+                    logger.log(Level.WARNING, "Failed to write the sampler output.", e);
+                }
+            }
+        }, interval, interval);
+    }
+
+    void close() {
+        timer.cancel();
+        try {
+            flush(true);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to write the sampler output.", e);
+        }
+    }
+
+    private synchronized void flush(boolean last) throws IOException {
+        Map<Thread, Collection<ProfilerNode<CPUSampler.Payload>>> threadToNodes;
+        long samples;
+        /*
+         * The sampler inserts samples while holding its own lock, so taking the nodes and clearing
+         * them under that lock does not lose samples taken in between.
+         */
+        synchronized (sampler) {
+            threadToNodes = sampler.getThreadToNodesMap();
+            samples = sampler.getSampleCount();
+            sampler.clearData();
+        }
+        aggregator.add(threadToNodes, samples);
+        if (samples == 0 && (written || !last)) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        File target = outputFile;
+        if (rotate) {
+            target = rotatedFile(fileIndex++);
+            if (target.exists()) {
+                throw new IOException("Cannot redirect output to the existing file " + target + ".");
+            }
+        }
+        write(target, now);
+        written = true;
+        if (rotate) {
+            aggregator = new SampleAggregator(summariseThreads);
+            intervalStart = now;
+        }
+    }
+
+    private void write(File target, long now) throws IOException {
+        File temp = new File(target.getPath() + ".tmp");
+        try (OutputStream out = new BufferedOutputStream(new FileOutputStream(temp))) {
+            CPUSamplerCLI.writeAggregate(out, output, aggregator, sampler.getPeriod(), intervalStart, now - intervalStart, outputFile.getName().endsWith(".gz"));
+        }
+        Files.move(temp.toPath(), target.toPath(), StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /*
+     * Inserts the file index before the last extension, e.g. profile.gz becomes profile-1.gz. Dots
+     * in the parent directories are not considered.
+     */
+    private File rotatedFile(int index) {
+        String name = outputFile.getName();
+        int dot = name.lastIndexOf('.');
+        String rotatedName = dot <= 0 ? name + "-" + index : name.substring(0, dot) + "-" + index + name.substring(dot);
+        return new File(outputFile.getAbsoluteFile().getParentFile(), rotatedName);
+    }
+}
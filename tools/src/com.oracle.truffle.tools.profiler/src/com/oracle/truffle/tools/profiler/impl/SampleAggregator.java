@@ -0,0 +1,362 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+package com.oracle.truffle.tools.profiler.impl;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+import com.oracle.truffle.api.instrumentation.StandardTags;
+import com.oracle.truffle.api.source.Source;
+import com.oracle.truffle.api.source.SourceSection;
+import com.oracle.truffle.tools.profiler.CPUSampler;
+import com.oracle.truffle.tools.profiler.ProfilerNode;
+
+/**
+ * Compact aggregate of the stacks sampled by the {@link CPUSampler}, used for the flame graph and
+ * pprof outputs. Frames are interned into a table and every distinct stack is kept once as an array
+ * of frame indices together with its self hit counts, split into compiled and interpreted hits. The
+ * memory used is therefore proportional to the number of distinct stacks and not to the number of
+ * samples, and the profiler nodes can be discarded once they have been added.
+ */
+final class SampleAggregator {
+
+    private static final int COMPILED = 0;
+    private static final int INTERPRETED = 1;
+
+    private final boolean summariseThreads;
+    private final Map<String, Integer> frameIndices = new HashMap<>();
+    private final List<Frame> frames = new ArrayList<>();
+    private final Map<Stack, long[]> stacks = new LinkedHashMap<>();
+    private long sampleCount;
+
+    SampleAggregator(boolean summariseThreads) {
+        this.summariseThreads = summariseThreads;
+    }
+
+    long getSampleCount() {
+        return sampleCount;
+    }
+
+    boolean isEmpty() {
+        return stacks.isEmpty();
+    }
+
+    void add(Map<Thread, Collection<ProfilerNode<CPUSampler.Payload>>> threadToNodes, long samples) {
+        sampleCount += samples;
+        for (Map.Entry<Thread, Collection<ProfilerNode<CPUSampler.Payload>>> entry : threadToNodes.entrySet()) {
+            String threadName = summariseThreads ? null : entry.getKey().getName();
+            addRec(threadName, new int[16], 0, entry.getValue());
+        }
+    }
+
+    private void addRec(String threadName, int[] path, int depth, Collection<ProfilerNode<CPUSampler.Payload>> nodes) {
+        int[] currentPath = path;
+        if (depth == currentPath.length) {
+            currentPath = Arrays.copyOf(currentPath, depth * 2);
+        }
+        for (ProfilerNode<CPUSampler.Payload> node : nodes) {
+            currentPath[depth] = internFrame(node);
+            CPUSampler.Payload payload = node.getPayload();
+            if (payload.getSelfHitCount() > 0) {
+                long[] counts = stacks.computeIfAbsent(new Stack(threadName, Arrays.copyOf(currentPath, depth + 1)), s -> new long[2]);
+                counts[COMPILED] += payload.getSelfCompiledHitCount();
+                counts[INTERPRETED] += payload.getSelfInterpretedHitCount();
+            }
+            addRec(threadName, currentPath, depth + 1, node.getChildren());
+        }
+    }
+
+    private int internFrame(ProfilerNode<CPUSampler.Payload> node) {
+        SourceSection sourceSection = node.getSourceSection();
+        String name = node.getRootName();
+        Source source = sourceSection == null ? null : sourceSection.getSource();
+        String key;
+        if (sourceSection == null) {
+            key = sanitize(name);
+        } else {
+            if (!node.getTags().contains(StandardTags.RootTag.class)) {
+                name += "~" + ProfilerCLI.formatIndices(sourceSection, true);
+            }
+            key = sanitize(name + " (" + ProfilerCLI.getShortDescription(sourceSection) + ")");
+        }
+        Integer index = frameIndices.get(key);
+        if (index == null) {
+            String fileName;
+            if (source == null) {
+                fileName = "<Unknown>";
+            } else {
+                fileName = source.getPath() != null ? source.getPath() : source.getName();
+            }
+            index = frames.size();
+            frames.add(new Frame(key, name, fileName, source == null ? 0 : sourceSection.getStartLine()));
+            frameIndices.put(key, index);
+        }
+        return index;
+    }
+
+    /*
+     * Semicolons separate frames and new lines separate stacks in the collapsed format.
+     */
+    private static String sanitize(String frame) {
+        return frame.replace(';', ',').replace('\n', ' ');
+    }
+
+    /**
+     * Writes the stacks in the collapsed stack format understood by flame graph tools, one line
+     * per stack with the frames separated by semicolons and followed by the sample count. The leaf
+     * frame is annotated with {@code _[j]} for samples taken in compiled code and with {@code _[0]}
+     * for samples taken in the interpreter.
+     */
+    void writeCollapsed(OutputStream out, boolean compress) throws IOException {
+        GZIPOutputStream gzip = compress ? new GZIPOutputStream(out) : null;
+        Writer writer = new OutputStreamWriter(compress ? gzip : out, StandardCharsets.UTF_8);
+        StringBuilder line = new StringBuilder();
+        for (Map.Entry<Stack, long[]> entry : stacks.entrySet()) {
+            Stack stack = entry.getKey();
+            line.setLength(0);
+            if (stack.threadName != null) {
+                line.append(sanitize(stack.threadName)).append(';');
+            }
+            for (int i = 0; i < stack.frames.length; i++) {
+                if (i > 0) {
+                    line.append(';');
+                }
+                line.append(frames.get(stack.frames[i]).key);
+            }
+            long[] counts = entry.getValue();
+            if (counts[COMPILED] > 0) {
+                writer.append(line).append("_[j] ").append(String.valueOf(counts[COMPILED])).append('\n');
+            }
+            if (counts[INTERPRETED] > 0) {
+                writer.append(line).append("_[0] ").append(String.valueOf(counts[INTERPRETED])).append('\n');
+            }
+        }
+        writer.flush();
+        if (gzip != null) {
+            gzip.finish();
+        }
+        out.flush();
+    }
+
+    /**
+     * Writes the stacks as a gzip compressed profile in the protocol buffer format of pprof. Every
+     * sample has a count and a cpu time value and is labeled with {@code execution=compiled} or
+     * {@code execution=interpreted}, and with the sampled thread unless threads are summarised.
+     */
+    void writePprof(OutputStream out, long periodMillis, long startTimeMillis, long durationMillis) throws IOException {
+        StringTable strings = new StringTable();
+        long periodNanos = TimeUnit.MILLISECONDS.toNanos(periodMillis);
+        ProtoBuffer profile = new ProtoBuffer();
+        profile.message(1, valueType(strings, "samples", "count"));
+        profile.message(1, valueType(strings, "cpu", "nanoseconds"));
+
+        long executionKey = strings.index("execution");
+        long threadKey = strings.index("thread");
+        long[] executionValues = {strings.index("compiled"), strings.index("interpreted")};
+        for (Map.Entry<Stack, long[]> entry : stacks.entrySet()) {
+            Stack stack = entry.getKey();
+            // pprof expects the leaf location first
+            long[] locationIds = new long[stack.frames.length];
+            for (int i = 0; i < locationIds.length; i++) {
+                locationIds[i] = stack.frames[stack.frames.length - 1 - i] + 1;
+            }
+            long[] counts = entry.getValue();
+            for (int execution = COMPILED; execution <= INTERPRETED; execution++) {
+                long count = counts[execution];
+                if (count == 0) {
+                    continue;
+                }
+                ProtoBuffer sample = new ProtoBuffer();
+                sample.packed(1, locationIds);
+                sample.packed(2, new long[]{count, count * periodNanos});
+                sample.message(3, new ProtoBuffer().varint(1, executionKey).varint(2, executionValues[execution]));
+                if (stack.threadName != null) {
+                    sample.message(3, new ProtoBuffer().varint(1, threadKey).varint(2, strings.index(stack.threadName)));
+                }
+                profile.message(2, sample);
+            }
+        }
+
+        for (int i = 0; i < frames.size(); i++) {
+            Frame frame = frames.get(i);
+            long id = i + 1;
+            // one location and one function per frame, sharing the id
+            profile.message(4, new ProtoBuffer().varint(1, id).message(4, new ProtoBuffer().varint(1, id).varint(2, frame.line)));
+            long name = strings.index(frame.name);
+            profile.message(5, new ProtoBuffer().varint(1, id).varint(2, name).varint(3, name).varint(4, strings.index(frame.fileName)).varint(5, frame.line));
+        }
+
+        profile.varint(9, TimeUnit.MILLISECONDS.toNanos(startTimeMillis));
+        profile.varint(10, TimeUnit.MILLISECONDS.toNanos(durationMillis));
+        profile.message(11, valueType(strings, "cpu", "nanoseconds"));
+        profile.varint(12, periodNanos);
+        for (String string : strings.strings) {
+            profile.string(6, string);
+        }
+
+        GZIPOutputStream gzip = new GZIPOutputStream(out);
+        profile.writeTo(gzip);
+        gzip.finish();
+        out.flush();
+    }
+
+    private static ProtoBuffer valueType(StringTable strings, String type, String unit) {
+        return new ProtoBuffer().varint(1, strings.index(type)).varint(2, strings.index(unit));
+    }
+
+    private static final class Frame {
+
+        final String key;
+        final String name;
+        final String fileName;
+        final int line;
+
+        Frame(String key, String name, String fileName, int line) {
+            this.key = key;
+            this.name = name;
+            this.fileName = fileName;
+            this.line = line;
+        }
+    }
+
+    private static final class Stack {
+
+        final String threadName;
+        final int[] frames;
+        private final int hash;
+
+        Stack(String threadName, int[] frames) {
+            this.threadName = threadName;
+            this.frames = frames;
+            this.hash = 31 * (threadName == null ? 0 : threadName.hashCode()) + Arrays.hashCode(frames);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Stack)) {
+                return false;
+            }
+            Stack other = (Stack) obj;
+            return hash == other.hash && Arrays.equals(frames, other.frames) && (threadName == null ? other.threadName == null : threadName.equals(other.threadName));
+        }
+    }
+
+    private static final class StringTable {
+
+        final List<String> strings = new ArrayList<>();
+        private final Map<String, Integer> indices = new HashMap<>();
+
+        StringTable() {
+            // the first entry of a pprof string table must be the empty string
+            index("");
+        }
+
+        long index(String string) {
+            Integer index = indices.get(string);
+            if (index == null) {
+                index = strings.size();
+                strings.add(string);
+                indices.put(string, index);
+            }
+            return index;
+        }
+    }
+
+    /**
+     * Minimal protocol buffer encoder for the varint, packed and length delimited fields used by
+     * the pprof profile format.
+     */
+    private static final class ProtoBuffer {
+
+        private static final int VARINT = 0;
+        private static final int LENGTH_DELIMITED = 2;
+
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        ProtoBuffer varint(int field, long value) {
+            tag(field, VARINT);
+            rawVarint(value);
+            return this;
+        }
+
+        ProtoBuffer packed(int field, long[] values) {
+            ProtoBuffer packed = new ProtoBuffer();
+            for (long value : values) {
+                packed.rawVarint(value);
+            }
+            return message(field, packed);
+        }
+
+        ProtoBuffer string(int field, String value) {
+            return bytes(field, value.getBytes(StandardCharsets.UTF_8));
+        }
+
+        ProtoBuffer message(int field, ProtoBuffer message) {
+            return bytes(field, message.bytes.toByteArray());
+        }
+
+        private ProtoBuffer bytes(int field, byte[] value) {
+            tag(field, LENGTH_DELIMITED);
+            rawVarint(value.length);
+            bytes.write(value, 0, value.length);
+            return this;
+        }
+
+        void writeTo(OutputStream out) throws IOException {
+            bytes.writeTo(out);
+        }
+
+        private void tag(int field, int wireType) {
+            rawVarint((field << 3) | wireType);
+        }
+
+        private void rawVarint(long value) {
+            long v = value;
+            while ((v & ~0x7FL) != 0) {
+                bytes.write((int) ((v & 0x7F) | 0x80));
+                v >>>= 7;
+            }
+            bytes.write((int) v);
+        }
+    }
+}
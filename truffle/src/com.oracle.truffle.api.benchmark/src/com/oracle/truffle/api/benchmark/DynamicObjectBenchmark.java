@@ -0,0 +1,341 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.api.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import com.oracle.truffle.api.CallTarget;
+import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
+import com.oracle.truffle.api.Truffle;
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.nodes.ExplodeLoop;
+import com.oracle.truffle.api.nodes.RootNode;
+import com.oracle.truffle.api.object.DynamicObject;
+import com.oracle.truffle.api.object.DynamicObjectLibrary;
+import com.oracle.truffle.api.object.Layout;
+import com.oracle.truffle.api.object.ObjectType;
+import com.oracle.truffle.api.object.Shape;
+
+/**
+ * Compares property access through {@link DynamicObjectLibrary} with the uncached
+ * {@link DynamicObject} methods on the default object layout, and objects with many properties in
+ * the default and in the larger object size class.
+ */
+@State(Scope.Thread)
+public class DynamicObjectBenchmark extends TruffleBenchmark {
+
+    private static final int ITERATIONS = 1000;
+    private static final Layout LAYOUT = Layout.createLayout();
+    private static final Shape ROOT_SHAPE = LAYOUT.createShape(new ObjectType());
+    @CompilationFinal(dimensions = 1) private static final String[] KEYS = {"a", "b", "c"};
+    @CompilationFinal(dimensions = 1) private static final String[] MANY_KEYS = createKeys(16);
+
+    private final DynamicObject object = createObject();
+
+    private final CallTarget readLibrary = createTarget(new AccessRootNode() {
+        @Child DynamicObjectLibrary library = DynamicObjectLibrary.getFactory().createDispatched(3);
+
+        @Override
+        @ExplodeLoop
+        int access(DynamicObject receiver, int iteration) {
+            int sum = 0;
+            for (String key : KEYS) {
+                sum += (int) library.getOrDefault(receiver, key, 0);
+            }
+            return sum;
+        }
+    });
+
+    private final CallTarget readUncached = createTarget(new AccessRootNode() {
+        @Override
+        @ExplodeLoop
+        int access(DynamicObject receiver, int iteration) {
+            int sum = 0;
+            for (String key : KEYS) {
+                sum += (int) receiver.get(key, 0);
+            }
+            return sum;
+        }
+    });
+
+    private final CallTarget writeLibrary = createTarget(new AccessRootNode() {
+        @Child DynamicObjectLibrary library = DynamicObjectLibrary.getFactory().createDispatched(3);
+
+        @Override
+        @ExplodeLoop
+        int access(DynamicObject receiver, int iteration) {
+            for (String key : KEYS) {
+                library.put(receiver, key, iteration);
+            }
+            return iteration;
+        }
+    });
+
+    private final CallTarget writeUncached = createTarget(new AccessRootNode() {
+        @Override
+        @ExplodeLoop
+        int access(DynamicObject receiver, int iteration) {
+            for (String key : KEYS) {
+                receiver.set(key, iteration);
+            }
+            return iteration;
+        }
+    });
+
+    private final CallTarget defineLibrary = createTarget(new AccessRootNode() {
+        @Child DynamicObjectLibrary library = DynamicObjectLibrary.getFactory().createDispatched(3);
+
+        @Override
+        @ExplodeLoop
+        int access(DynamicObject receiver, int iteration) {
+            DynamicObject newObject = ROOT_SHAPE.newInstance();
+            for (String key : KEYS) {
+                library.put(newObject, key, iteration);
+            }
+            return newObject.getShape() == receiver.getShape() ? iteration : 0;
+        }
+    });
+
+    private final CallTarget defineUncached = createTarget(new AccessRootNode() {
+        @Override
+        @ExplodeLoop
+        int access(DynamicObject receiver, int iteration) {
+            DynamicObject newObject = ROOT_SHAPE.newInstance();
+            for (String key : KEYS) {
+                newObject.define(key, iteration);
+            }
+            return newObject.getShape() == receiver.getShape() ? iteration : 0;
+        }
+    });
+
+    @Benchmark
+    public Object readLibrary() {
+        return readLibrary.call(object);
+    }
+
+    @Benchmark
+    public Object readUncached() {
+        return readUncached.call(object);
+    }
+
+    @Benchmark
+    public Object writeLibrary() {
+        return writeLibrary.call(object);
+    }
+
+    @Benchmark
+    public Object writeUncached() {
+        return writeUncached.call(object);
+    }
+
+    @Benchmark
+    public Object defineLibrary() {
+        return defineLibrary.call(object);
+    }
+
+    @Benchmark
+    public Object defineUncached() {
+        return defineUncached.call(object);
+    }
+
+    /**
+     * Objects with 16 properties. Objects of the default object size class spill properties into
+     * the extension arrays, root shapes created with the expected property count use the larger
+     * object size class.
+     */
+    @State(Scope.Thread)
+    public static class ManyPropertiesState {
+
+        final Shape spillingRootShape;
+        final Shape sizedRootShape;
+        final DynamicObject spillingObject;
+        final DynamicObject sizedObject;
+
+        final CallTarget allocateSpilling;
+        final CallTarget allocateSized;
+        final CallTarget read;
+
+        public ManyPropertiesState() {
+            spillingRootShape = LAYOUT.createShape(new ObjectType());
+            spillingObject = createManyPropertiesObject(spillingRootShape);
+            sizedRootShape = LAYOUT.createShape(new ObjectType(), null, 0, MANY_KEYS.length);
+            sizedObject = createManyPropertiesObject(sizedRootShape);
+
+            allocateSpilling = createTarget(new AllocateRootNode(spillingRootShape));
+            allocateSized = createTarget(new AllocateRootNode(sizedRootShape));
+            read = createTarget(new ReadRootNode());
+        }
+    }
+
+    @Benchmark
+    public Object allocateManySpilling(ManyPropertiesState state) {
+        return state.allocateSpilling.call();
+    }
+
+    @Benchmark
+    public Object allocateManySized(ManyPropertiesState state) {
+        return state.allocateSized.call();
+    }
+
+    @Benchmark
+    public Object readManySpilling(ManyPropertiesState state) {
+        return state.read.call(state.spillingObject);
+    }
+
+    @Benchmark
+    public Object readManySized(ManyPropertiesState state) {
+        return state.read.call(state.sizedObject);
+    }
+
+    private static String[] createKeys(int count) {
+        String[] keys = new String[count];
+        for (int i = 0; i < count; i++) {
+            keys[i] = ("p" + i).intern();
+        }
+        return keys;
+    }
+
+    private static DynamicObject createManyPropertiesObject(Shape rootShape) {
+        DynamicObject object = rootShape.newInstance();
+        for (int i = 0; i < MANY_KEYS.length; i++) {
+            object.define(MANY_KEYS[i], (long) i);
+        }
+        return object;
+    }
+
+    private static DynamicObjectLibrary[] createLibraries(int count) {
+        DynamicObjectLibrary[] libraries = new DynamicObjectLibrary[count];
+        for (int i = 0; i < count; i++) {
+            libraries[i] = DynamicObjectLibrary.getFactory().createDispatched(1);
+        }
+        return libraries;
+    }
+
+    static final class AllocateRootNode extends RootNode {
+
+        private final Shape rootShape;
+        @Children private final DynamicObjectLibrary[] libraries = createLibraries(MANY_KEYS.length);
+
+        AllocateRootNode(Shape rootShape) {
+            super(null);
+            this.rootShape = rootShape;
+        }
+
+        @Override
+        public Object execute(VirtualFrame frame) {
+            DynamicObject last = null;
+            for (int i = 0; i < ITERATIONS; i++) {
+                last = allocate(i);
+            }
+            return last;
+        }
+
+        @ExplodeLoop
+        private DynamicObject allocate(long value) {
+            DynamicObject newObject = rootShape.newInstance();
+            for (int i = 0; i < MANY_KEYS.length; i++) {
+                libraries[i].put(newObject, MANY_KEYS[i], value);
+            }
+            return newObject;
+        }
+    }
+
+    static final class ReadRootNode extends RootNode {
+
+        @Children private final DynamicObjectLibrary[] libraries = createLibraries(MANY_KEYS.length);
+
+        ReadRootNode() {
+            super(null);
+        }
+
+        @Override
+        public Object execute(VirtualFrame frame) {
+            DynamicObject receiver = (DynamicObject) frame.getArguments()[0];
+            long sum = 0;
+            for (int i = 0; i < ITERATIONS; i++) {
+                sum += read(receiver);
+            }
+            return sum;
+        }
+
+        @ExplodeLoop
+        private long read(DynamicObject receiver) {
+            long sum = 0;
+            for (int i = 0; i < MANY_KEYS.length; i++) {
+                sum += (long) libraries[i].getOrDefault(receiver, MANY_KEYS[i], 0L);
+            }
+            return sum;
+        }
+    }
+
+    private static DynamicObject createObject() {
+        DynamicObject object = ROOT_SHAPE.newInstance();
+        for (String key : KEYS) {
+            object.define(key, 0);
+        }
+        return object;
+    }
+
+    private static CallTarget createTarget(RootNode root) {
+        return Truffle.getRuntime().createCallTarget(root);
+    }
+
+    abstract static class AccessRootNode extends RootNode {
+
+        AccessRootNode() {
+            super(null);
+        }
+
+        @Override
+        public final Object execute(VirtualFrame frame) {
+            DynamicObject receiver = (DynamicObject) frame.getArguments()[0];
+            int result = 0;
+            for (int i = 0; i < ITERATIONS; i++) {
+                result += access(receiver, i);
+            }
+            return result;
+        }
+
+        abstract int access(DynamicObject receiver, int iteration);
+    }
+}
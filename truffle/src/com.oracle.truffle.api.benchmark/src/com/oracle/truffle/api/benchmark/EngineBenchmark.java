@@ -42,6 +42,7 @@ package com.oracle.truffle.api.benchmark;
 
 import org.graalvm.polyglot.Context;
 import org.graalvm.polyglot.Engine;
+import org.graalvm.polyglot.HostAccess;
 import org.graalvm.polyglot.Source;
 import org.graalvm.polyglot.Value;
 import org.openjdk.jmh.annotations.Benchmark;
@@ -218,6 +219,49 @@ public class EngineBenchmark extends TruffleBenchmark {
         state.context1.leave();
     }
 
+    @State(org.openjdk.jmh.annotations.Scope.Benchmark)
+    public static class ContextEnterLeaveMultiThread {
+        final Source source = Source.create(TEST_LANGUAGE, "");
+        final Context context = Context.create(TEST_LANGUAGE);
+        final Value value = context.eval(source);
+
+        public ContextEnterLeaveMultiThread() {
+        }
+
+        @TearDown
+        public void tearDown() {
+            context.close();
+        }
+    }
+
+    /*
+     * Every execution of a value from the host enters and leaves the shared context. With more than
+     * one thread the context becomes multi-threaded and enter and leave mostly see a changed thread.
+     */
+    @Benchmark
+    @Threads(1)
+    public void enterLeave1Thread(ContextEnterLeaveMultiThread state) {
+        state.value.executeVoid();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void enterLeave4Threads(ContextEnterLeaveMultiThread state) {
+        state.value.executeVoid();
+    }
+
+    @Benchmark
+    @Threads(16)
+    public void enterLeave16Threads(ContextEnterLeaveMultiThread state) {
+        state.value.executeVoid();
+    }
+
+    @Benchmark
+    @Threads(64)
+    public void enterLeave64Threads(ContextEnterLeaveMultiThread state) {
+        state.value.executeVoid();
+    }
+
     @State(org.openjdk.jmh.annotations.Scope.Thread)
     public static class ContextState {
         final Source source = Source.create(TEST_LANGUAGE, "");
@@ -356,6 +400,65 @@ public class EngineBenchmark extends TruffleBenchmark {
         return state.value.getArrayElement(42);
     }
 
+    @State(org.openjdk.jmh.annotations.Scope.Thread)
+    public static class ArrayTransferState {
+        static final int SIZE = 1 << 20;
+
+        final Context context = Context.newBuilder(TEST_LANGUAGE).allowHostAccess(HostAccess.ALL).build();
+        final Value array = context.asValue(new long[SIZE]);
+        final long[] longBuffer = new long[SIZE];
+        final double[] doubleBuffer = new double[SIZE];
+
+        @TearDown
+        public void tearDown() {
+            context.close();
+        }
+    }
+
+    @Benchmark
+    public Object readArrayElementLoop(ArrayTransferState state) {
+        Value array = state.array;
+        long[] buffer = state.longBuffer;
+        for (int i = 0; i < buffer.length; i++) {
+            buffer[i] = array.getArrayElement(i).asLong();
+        }
+        return buffer;
+    }
+
+    @Benchmark
+    public Object readArrayElementsBulk(ArrayTransferState state) {
+        long[] buffer = state.longBuffer;
+        state.array.readArrayElements(0, buffer, 0, buffer.length);
+        return buffer;
+    }
+
+    /*
+     * The element types differ, so the elements are copied one by one in compiled code.
+     */
+    @Benchmark
+    public Object readArrayElementsConverted(ArrayTransferState state) {
+        double[] buffer = state.doubleBuffer;
+        state.array.readArrayElements(0, buffer, 0, buffer.length);
+        return buffer;
+    }
+
+    @Benchmark
+    public Object writeArrayElementLoop(ArrayTransferState state) {
+        Value array = state.array;
+        long[] buffer = state.longBuffer;
+        for (int i = 0; i < buffer.length; i++) {
+            array.setArrayElement(i, buffer[i]);
+        }
+        return array;
+    }
+
+    @Benchmark
+    public Object writeArrayElementsBulk(ArrayTransferState state) {
+        long[] buffer = state.longBuffer;
+        state.array.writeArrayElements(0, buffer, 0, buffer.length);
+        return state.array;
+    }
+
     @Benchmark
     public Object canExecute(ContextState state) {
         return state.value.canExecute();
@@ -0,0 +1,126 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.api.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import com.oracle.truffle.api.object.DynamicObject;
+import com.oracle.truffle.api.object.Layout;
+import com.oracle.truffle.api.object.ObjectType;
+import com.oracle.truffle.api.object.Shape;
+
+/**
+ * Measures the throughput of shape transitions from a root shape shared by an increasing number of
+ * threads. Every operation builds an object with a different combination of properties, so the
+ * threads constantly look up, and initially also add, transitions of the same shapes.
+ */
+public class ShapeTransitionBenchmark extends TruffleBenchmark {
+
+    private static final int KEY_COUNT = 64;
+    private static final int PROPERTIES_PER_OBJECT = 4;
+    private static final String[] KEYS = createKeys();
+
+    private static String[] createKeys() {
+        String[] keys = new String[KEY_COUNT];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = "p" + i;
+        }
+        return keys;
+    }
+
+    @State(Scope.Benchmark)
+    public static class SharedShapeState {
+        final Shape rootShape = Layout.createLayout().createShape(new ObjectType());
+    }
+
+    @State(Scope.Thread)
+    public static class ThreadState {
+        int next;
+    }
+
+    private static DynamicObject createObject(SharedShapeState shared, ThreadState state) {
+        DynamicObject object = shared.rootShape.newInstance();
+        int first = state.next++;
+        for (int i = 0; i < PROPERTIES_PER_OBJECT; i++) {
+            object.define(KEYS[(first + i * 7) % KEY_COUNT], i);
+        }
+        return object;
+    }
+
+    @Benchmark
+    @Threads(1)
+    public DynamicObject transition1Thread(SharedShapeState shared, ThreadState state) {
+        return createObject(shared, state);
+    }
+
+    @Benchmark
+    @Threads(2)
+    public DynamicObject transition2Threads(SharedShapeState shared, ThreadState state) {
+        return createObject(shared, state);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public DynamicObject transition4Threads(SharedShapeState shared, ThreadState state) {
+        return createObject(shared, state);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public DynamicObject transition8Threads(SharedShapeState shared, ThreadState state) {
+        return createObject(shared, state);
+    }
+
+    @Benchmark
+    @Threads(16)
+    public DynamicObject transition16Threads(SharedShapeState shared, ThreadState state) {
+        return createObject(shared, state);
+    }
+
+    @Benchmark
+    @Threads(32)
+    public DynamicObject transition32Threads(SharedShapeState shared, ThreadState state) {
+        return createObject(shared, state);
+    }
+}
@@ -44,6 +44,8 @@ import java.util.Random;
 import java.util.function.IntBinaryOperator;
 
 import org.graalvm.polyglot.Context;
+import org.graalvm.polyglot.HostAccess;
+import org.graalvm.polyglot.Value;
 import org.openjdk.jmh.annotations.Benchmark;
 import org.openjdk.jmh.annotations.Fork;
 import org.openjdk.jmh.annotations.Measurement;
@@ -104,4 +106,117 @@ public class JavaInteropSpeedBench {
         }
         return max;
     }
+
+    public static class HostCalls {
+        public int field = 42;
+
+        public int arity0() {
+            return field;
+        }
+
+        public int arity1(int a) {
+            return a;
+        }
+
+        public int arity2(int a, int b) {
+            return Math.max(a, b);
+        }
+
+        public int arity3(int a, int b, int c) {
+            return Math.max(Math.max(a, b), c);
+        }
+
+        public int arity5(int a, int b, int c, int d, int e) {
+            return Math.max(Math.max(Math.max(a, b), Math.max(c, d)), e);
+        }
+
+        public static int staticArity2(int a, int b) {
+            return Math.max(a, b);
+        }
+    }
+
+    private static final Value HOST_CALLS;
+    private static final Value HOST_CALLS_CLASS;
+
+    static {
+        Context context = Context.newBuilder().allowHostAccess(HostAccess.ALL).build();
+        HOST_CALLS = context.asValue(new HostCalls());
+        HOST_CALLS_CLASS = context.asValue(HostCalls.class);
+    }
+
+    @Benchmark
+    public int invokeHostMethodArity0() {
+        int max = 0;
+        for (int i = 0; i < arr.length; i++) {
+            max += HOST_CALLS.invokeMember("arity0").asInt();
+        }
+        return max;
+    }
+
+    @Benchmark
+    public int invokeHostMethodArity1() {
+        int max = 0;
+        for (int i = 0; i < arr.length; i++) {
+            max = Math.max(HOST_CALLS.invokeMember("arity1", arr[i]).asInt(), max);
+        }
+        return max;
+    }
+
+    @Benchmark
+    public int invokeHostMethodArity2() {
+        int max = 0;
+        for (int i = 0; i < arr.length; i++) {
+            max = HOST_CALLS.invokeMember("arity2", arr[i], max).asInt();
+        }
+        return max;
+    }
+
+    @Benchmark
+    public int invokeHostMethodArity3() {
+        int max = 0;
+        for (int i = 0; i < arr.length; i++) {
+            max = HOST_CALLS.invokeMember("arity3", arr[i], max, i).asInt();
+        }
+        return max;
+    }
+
+    /*
+     * Above the direct arity limit, arguments are spread from an array.
+     */
+    @Benchmark
+    public int invokeHostMethodArity5() {
+        int max = 0;
+        for (int i = 0; i < arr.length; i++) {
+            max = HOST_CALLS.invokeMember("arity5", arr[i], max, i, i, i).asInt();
+        }
+        return max;
+    }
+
+    @Benchmark
+    public int invokeHostStaticMethod() {
+        Value staticMembers = HOST_CALLS_CLASS.getMember("static");
+        int max = 0;
+        for (int i = 0; i < arr.length; i++) {
+            max = staticMembers.invokeMember("staticArity2", arr[i], max).asInt();
+        }
+        return max;
+    }
+
+    @Benchmark
+    public int newHostInstance() {
+        int sum = 0;
+        for (int i = 0; i < arr.length; i++) {
+            sum += HOST_CALLS_CLASS.newInstance().getMember("field").asInt();
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public int readHostField() {
+        int sum = 0;
+        for (int i = 0; i < arr.length; i++) {
+            sum += HOST_CALLS.getMember("field").asInt();
+        }
+        return sum;
+    }
 }
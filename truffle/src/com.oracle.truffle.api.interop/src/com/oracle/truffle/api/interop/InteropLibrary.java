@@ -47,6 +47,7 @@ import static com.oracle.truffle.api.interop.AssertUtils.validReturn;
 import static com.oracle.truffle.api.interop.AssertUtils.violationInvariant;
 import static com.oracle.truffle.api.interop.AssertUtils.violationPost;
 
+import java.lang.reflect.Array;
 import java.time.Duration;
 import java.time.Instant;
 import java.time.LocalDate;
@@ -909,6 +910,57 @@ public abstract class InteropLibrary extends Library {
         return isArrayElementModifiable(receiver, index) || isArrayElementReadable(receiver, index) || isArrayElementRemovable(receiver, index);
     }
 
+    /**
+     * Copies <code>length</code> array elements starting at <code>index</code> into the host
+     * primitive array <code>destination</code>, starting at <code>offset</code>. The destination
+     * is a <code>byte[]</code>, <code>short[]</code>, <code>int[]</code>, <code>long[]</code>,
+     * <code>float[]</code> or <code>double[]</code> array and is not an interop value. Languages
+     * that store their elements in a compatible primitive representation can implement this
+     * message with a single bulk copy, for example with {@link System#arraycopy}. Invoking this
+     * message does not cause any observable side-effects other than the changed destination.
+     * <p>
+     * This message is optional. If it is not supported for a receiver or for the type of the
+     * destination, an {@link UnsupportedMessageException} is thrown and the caller is expected to
+     * {@link #readArrayElement(Object, long) read} the elements one by one instead. Throws
+     * {@link UnsupportedMessageException} by default.
+     *
+     * @throws UnsupportedMessageException if bulk reads into the given destination type are not
+     *             supported.
+     * @throws InvalidArrayIndexException if one of the array indices is out of bounds or invalid.
+     *             No elements are copied in that case.
+     * @see #writeArrayElements(Object, long, Object, int, int)
+     * @since 20.1
+     */
+    @SuppressWarnings("unused")
+    public void readArrayElements(Object receiver, long index, Object destination, int offset, int length) throws UnsupportedMessageException, InvalidArrayIndexException {
+        throw UnsupportedMessageException.create();
+    }
+
+    /**
+     * Copies <code>length</code> elements of the host primitive array <code>source</code>,
+     * starting at <code>offset</code>, into the array elements of the receiver starting at
+     * <code>index</code>. The supported source types are the same as for
+     * {@link #readArrayElements(Object, long, Object, int, int)}. Invoking this message does not
+     * cause any observable side-effects other than the changed array elements.
+     * <p>
+     * This message is optional. If it is not supported for a receiver or for the type of the
+     * source, an {@link UnsupportedMessageException} is thrown and the caller is expected to
+     * {@link #writeArrayElement(Object, long, Object) write} the elements one by one instead.
+     * Throws {@link UnsupportedMessageException} by default.
+     *
+     * @throws UnsupportedMessageException if bulk writes from the given source type are not
+     *             supported.
+     * @throws InvalidArrayIndexException if one of the array indices is not
+     *             {@link #isArrayElementModifiable(Object, long) modifiable}. No elements are
+     *             copied in that case.
+     * @see #readArrayElements(Object, long, Object, int, int)
+     * @since 20.1
+     */
+    @SuppressWarnings("unused")
+    public void writeArrayElements(Object receiver, long index, Object source, int offset, int length) throws UnsupportedMessageException, InvalidArrayIndexException {
+        throw UnsupportedMessageException.create();
+    }
+
     /**
      * Returns <code>true</code> if the receiver value represents a native pointer. Native pointers
      * are represented as 64 bit pointers. Invoking this message does not cause any observable
@@ -1814,6 +1866,39 @@ public abstract class InteropLibrary extends Library {
             }
         }
 
+        @Override
+        public void readArrayElements(Object receiver, long index, Object destination, int offset, int length) throws UnsupportedMessageException, InvalidArrayIndexException {
+            assert preCondition(receiver);
+            assert validBulkArray(destination, offset, length);
+            try {
+                delegate.readArrayElements(receiver, index, destination, offset, length);
+                assert delegate.hasArrayElements(receiver) : violationInvariant(receiver, index);
+            } catch (InteropException e) {
+                assert e instanceof UnsupportedMessageException || e instanceof InvalidArrayIndexException : violationPost(receiver, e);
+                throw e;
+            }
+        }
+
+        @Override
+        public void writeArrayElements(Object receiver, long index, Object source, int offset, int length) throws UnsupportedMessageException, InvalidArrayIndexException {
+            assert preCondition(receiver);
+            assert validBulkArray(source, offset, length);
+            try {
+                delegate.writeArrayElements(receiver, index, source, offset, length);
+                assert delegate.hasArrayElements(receiver) : violationInvariant(receiver, index);
+            } catch (InteropException e) {
+                assert e instanceof UnsupportedMessageException || e instanceof InvalidArrayIndexException : violationPost(receiver, e);
+                throw e;
+            }
+        }
+
+        private static boolean validBulkArray(Object array, int offset, int length) {
+            assert array instanceof byte[] || array instanceof short[] || array instanceof int[] || array instanceof long[] || array instanceof float[] ||
+                            array instanceof double[] : "Invalid bulk array type " + (array == null ? null : array.getClass().getTypeName()) + ".";
+            assert offset >= 0 && length >= 0 && offset + length <= Array.getLength(array) : "Invalid bulk array range " + offset + ", " + length + ".";
+            return true;
+        }
+
         @Override
         public void removeArrayElement(Object receiver, long index) throws UnsupportedMessageException, InvalidArrayIndexException {
             assert preCondition(receiver);
@@ -0,0 +1,191 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.api.object;
+
+import com.oracle.truffle.api.library.GenerateLibrary;
+import com.oracle.truffle.api.library.GenerateLibrary.DefaultExport;
+import com.oracle.truffle.api.library.Library;
+import com.oracle.truffle.api.library.LibraryFactory;
+
+/**
+ * Library for property access on {@link DynamicObject dynamic objects}. Every message is
+ * implemented with a polymorphic inline cache over the shape of the receiver and the property key,
+ * so guest languages get shape-checked property access without writing their own caches with
+ * {@link Shape#getProperty(Object)}, {@link Location#get(DynamicObject, Shape)} and
+ * {@link Shape#defineProperty(Object, Object, int)}.
+ *
+ * Up to {@code truffle.object.DynamicObjectLibraryCacheLimit} (default 3) shape and key
+ * combinations are cached per message and use site before the library falls back to an uncached
+ * lookup. Receivers with an obsolete shape are migrated to the current shape before the property is
+ * accessed, and adding a property or changing its flags or type performs the shape transition as
+ * part of the cached operation.
+ *
+ * Usage example:
+ *
+ * <pre>
+ * &#64;Specialization(limit = "3")
+ * static Object read(DynamicObject receiver, Object key,
+ *                 &#64;CachedLibrary("receiver") DynamicObjectLibrary objectLibrary) {
+ *     return objectLibrary.getOrDefault(receiver, key, NULL_VALUE);
+ * }
+ * </pre>
+ *
+ * Keys are compared by identity and then with {@link Object#equals(Object)}, so they should be
+ * interned or otherwise cheap to compare.
+ *
+ * @since 20.1
+ */
+@GenerateLibrary(dynamicDispatchEnabled = false)
+@DefaultExport(DynamicObjectLibraryImpl.class)
+public abstract class DynamicObjectLibrary extends Library {
+
+    static final LibraryFactory<DynamicObjectLibrary> FACTORY = LibraryFactory.resolve(DynamicObjectLibrary.class);
+
+    /**
+     * Constructor for generated subclasses.
+     *
+     * @since 20.1
+     */
+    protected DynamicObjectLibrary() {
+    }
+
+    /**
+     * Returns the shape of the object, without migrating obsolete shapes.
+     *
+     * @since 20.1
+     */
+    public abstract Shape getShape(DynamicObject object);
+
+    /**
+     * Returns {@code true} if the object has a property with the given key.
+     *
+     * @since 20.1
+     */
+    public abstract boolean containsKey(DynamicObject object, Object key);
+
+    /**
+     * Returns the value of the property with the given key, or {@code defaultValue} if the object
+     * has no such property.
+     *
+     * @since 20.1
+     */
+    public abstract Object getOrDefault(DynamicObject object, Object key, Object defaultValue);
+
+    /**
+     * Sets the value of the property with the given key, adding the property with flags {@code 0}
+     * if it does not exist yet. The flags of an existing property are kept.
+     *
+     * @since 20.1
+     */
+    public abstract void put(DynamicObject object, Object key, Object value);
+
+    /**
+     * Sets the value and the flags of the property with the given key, adding the property if it
+     * does not exist yet.
+     *
+     * @since 20.1
+     */
+    public abstract void putWithFlags(DynamicObject object, Object key, Object value, int flags);
+
+    /**
+     * Removes the property with the given key.
+     *
+     * @return {@code true} if the property existed
+     * @since 20.1
+     */
+    public abstract boolean removeKey(DynamicObject object, Object key);
+
+    /**
+     * Returns the property with the given key, or {@code null} if the object has no such property.
+     *
+     * @since 20.1
+     */
+    public abstract Property getProperty(DynamicObject object, Object key);
+
+    /**
+     * Returns the flags of the property with the given key, or {@code defaultValue} if the object
+     * has no such property.
+     *
+     * @since 20.1
+     */
+    public abstract int getPropertyFlagsOrDefault(DynamicObject object, Object key, int defaultValue);
+
+    /**
+     * Changes the flags of an existing property, keeping its value.
+     *
+     * @return {@code true} if the property exists
+     * @since 20.1
+     */
+    public abstract boolean setPropertyFlags(DynamicObject object, Object key, int flags);
+
+    /**
+     * Returns the keys of all properties of the object in insertion order, as a new array.
+     *
+     * @since 20.1
+     */
+    public abstract Object[] getKeyArray(DynamicObject object);
+
+    /**
+     * Migrates the object to the current shape if its shape is obsolete.
+     *
+     * @return {@code true} if the shape of the object changed
+     * @since 20.1
+     */
+    public abstract boolean updateShape(DynamicObject object);
+
+    /**
+     * Returns the library factory for the dynamic object library.
+     *
+     * @since 20.1
+     */
+    public static LibraryFactory<DynamicObjectLibrary> getFactory() {
+        return FACTORY;
+    }
+
+    /**
+     * Returns the uncached version of the library, for use on slow paths.
+     *
+     * @since 20.1
+     */
+    public static DynamicObjectLibrary getUncached() {
+        return FACTORY.getUncached();
+    }
+}
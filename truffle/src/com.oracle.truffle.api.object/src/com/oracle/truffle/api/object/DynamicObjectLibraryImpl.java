@@ -0,0 +1,406 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.api.object;
+
+import com.oracle.truffle.api.CompilerAsserts;
+import com.oracle.truffle.api.CompilerDirectives;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.dsl.Cached;
+import com.oracle.truffle.api.dsl.Specialization;
+import com.oracle.truffle.api.library.ExportLibrary;
+import com.oracle.truffle.api.library.ExportMessage;
+
+/**
+ * Default export of {@link DynamicObjectLibrary}. Every message caches up to {@link #CACHE_LIMIT}
+ * combinations of receiver shape and key, guarded by the validity of the cached shapes. Obsolete
+ * shapes are migrated before the access, and the generic case performs an uncached lookup behind a
+ * boundary.
+ */
+@ExportLibrary(value = DynamicObjectLibrary.class, receiverType = DynamicObject.class)
+@SuppressWarnings("unused")
+final class DynamicObjectLibraryImpl {
+
+    static final int CACHE_LIMIT = Integer.getInteger("truffle.object.DynamicObjectLibraryCacheLimit", 3);
+
+    private DynamicObjectLibraryImpl() {
+    }
+
+    @ExportMessage
+    static Shape getShape(DynamicObject object) {
+        return object.getShape();
+    }
+
+    @ExportMessage
+    static boolean updateShape(DynamicObject object) {
+        if (object.getShape().isValid()) {
+            return false;
+        }
+        CompilerDirectives.transferToInterpreter();
+        return object.updateShape();
+    }
+
+    @ExportMessage
+    static class ContainsKey {
+
+        @Specialization(limit = "CACHE_LIMIT", guards = {"object.getShape() == cachedShape", "keyEquals(cachedKey, key)"}, assumptions = "cachedShape.getValidAssumption()")
+        static boolean containsKeyCached(DynamicObject object, Object key,
+                        @Cached("key") Object cachedKey,
+                        @Cached("object.getShape()") Shape cachedShape,
+                        @Cached("lookupProperty(cachedShape, key)") Property cachedProperty) {
+            return cachedProperty != null;
+        }
+
+        @TruffleBoundary
+        @Specialization(replaces = "containsKeyCached", guards = "object.getShape().isValid()")
+        static boolean doGeneric(DynamicObject object, Object key) {
+            return object.getShape().getProperty(key) != null;
+        }
+
+        @Specialization(guards = "!object.getShape().isValid()")
+        static boolean doObsolete(DynamicObject object, Object key) {
+            migrateObsoleteShape(object);
+            return doGeneric(object, key);
+        }
+    }
+
+    @ExportMessage
+    static class GetOrDefault {
+
+        @Specialization(limit = "CACHE_LIMIT", guards = {"object.getShape() == cachedShape", "keyEquals(cachedKey, key)"}, assumptions = "cachedShape.getValidAssumption()")
+        static Object getOrDefaultCached(DynamicObject object, Object key, Object defaultValue,
+                        @Cached("key") Object cachedKey,
+                        @Cached("object.getShape()") Shape cachedShape,
+                        @Cached("lookupLocation(cachedShape, key)") Location cachedLocation) {
+            if (cachedLocation == null) {
+                return defaultValue;
+            }
+            return cachedLocation.get(object, cachedShape);
+        }
+
+        @TruffleBoundary
+        @Specialization(replaces = "getOrDefaultCached", guards = "object.getShape().isValid()")
+        static Object doGeneric(DynamicObject object, Object key, Object defaultValue) {
+            return object.get(key, defaultValue);
+        }
+
+        @Specialization(guards = "!object.getShape().isValid()")
+        static Object doObsolete(DynamicObject object, Object key, Object defaultValue) {
+            migrateObsoleteShape(object);
+            return doGeneric(object, key, defaultValue);
+        }
+    }
+
+    @ExportMessage
+    static class Put {
+
+        /*
+         * The property already exists and can hold the value, no shape change is necessary.
+         */
+        @Specialization(limit = "CACHE_LIMIT", guards = {"object.getShape() == cachedShape", "keyEquals(cachedKey, key)", "cachedLocation != null",
+                        "cachedLocation.canSet(value)"}, assumptions = "cachedShape.getValidAssumption()")
+        static void putExisting(DynamicObject object, Object key, Object value,
+                        @Cached("key") Object cachedKey,
+                        @Cached("object.getShape()") Shape cachedShape,
+                        @Cached("lookupLocation(cachedShape, key)") Location cachedLocation) {
+            setExisting(object, cachedLocation, value, cachedShape);
+        }
+
+        /*
+         * The property is added, or its type needs to be generalized, with a shape transition.
+         */
+        @Specialization(limit = "CACHE_LIMIT", guards = {"object.getShape() == oldShape", "keyEquals(cachedKey, key)",
+                        "oldLocation == null || !oldLocation.canSet(value)", "newLocation.canStore(value)"}, assumptions = {"oldShape.getValidAssumption()", "newShape.getValidAssumption()"})
+        static void putTransition(DynamicObject object, Object key, Object value,
+                        @Cached("key") Object cachedKey,
+                        @Cached("object.getShape()") Shape oldShape,
+                        @Cached("lookupLocation(oldShape, key)") Location oldLocation,
+                        @Cached("defineProperty(oldShape, key, value, getFlagsOrDefault(oldShape, key, 0))") Shape newShape,
+                        @Cached("lookupLocation(newShape, key)") Location newLocation) {
+            setTransition(object, newLocation, value, oldShape, newShape);
+        }
+
+        @TruffleBoundary
+        @Specialization(replaces = {"putExisting", "putTransition"}, guards = "object.getShape().isValid()")
+        static void doGeneric(DynamicObject object, Object key, Object value) {
+            if (!object.set(key, value)) {
+                object.define(key, value, 0);
+            }
+        }
+
+        @Specialization(guards = "!object.getShape().isValid()")
+        static void doObsolete(DynamicObject object, Object key, Object value) {
+            migrateObsoleteShape(object);
+            doGeneric(object, key, value);
+        }
+    }
+
+    @ExportMessage
+    static class PutWithFlags {
+
+        @Specialization(limit = "CACHE_LIMIT", guards = {"object.getShape() == cachedShape", "keyEquals(cachedKey, key)", "flags == cachedFlags", "cachedLocation != null",
+                        "cachedLocation.canSet(value)"}, assumptions = "cachedShape.getValidAssumption()")
+        static void putWithFlagsExisting(DynamicObject object, Object key, Object value, int flags,
+                        @Cached("key") Object cachedKey,
+                        @Cached("flags") int cachedFlags,
+                        @Cached("object.getShape()") Shape cachedShape,
+                        @Cached("lookupLocation(cachedShape, key, flags)") Location cachedLocation) {
+            setExisting(object, cachedLocation, value, cachedShape);
+        }
+
+        @Specialization(limit = "CACHE_LIMIT", guards = {"object.getShape() == oldShape", "keyEquals(cachedKey, key)", "flags == cachedFlags", "oldShape != newShape",
+                        "newLocation.canStore(value)"}, assumptions = {"oldShape.getValidAssumption()", "newShape.getValidAssumption()"})
+        static void putWithFlagsTransition(DynamicObject object, Object key, Object value, int flags,
+                        @Cached("key") Object cachedKey,
+                        @Cached("flags") int cachedFlags,
+                        @Cached("object.getShape()") Shape oldShape,
+                        @Cached("defineProperty(oldShape, key, value, flags)") Shape newShape,
+                        @Cached("lookupLocation(newShape, key)") Location newLocation) {
+            setTransition(object, newLocation, value, oldShape, newShape);
+        }
+
+        @TruffleBoundary
+        @Specialization(replaces = {"putWithFlagsExisting", "putWithFlagsTransition"}, guards = "object.getShape().isValid()")
+        static void doGeneric(DynamicObject object, Object key, Object value, int flags) {
+            object.define(key, value, flags);
+        }
+
+        @Specialization(guards = "!object.getShape().isValid()")
+        static void doObsolete(DynamicObject object, Object key, Object value, int flags) {
+            migrateObsoleteShape(object);
+            doGeneric(object, key, value, flags);
+        }
+    }
+
+    @ExportMessage
+    static class RemoveKey {
+
+        /*
+         * Removing an existing property rebuilds the object, so only the absent case is cached.
+         */
+        @Specialization(limit = "CACHE_LIMIT", guards = {"object.getShape() == cachedShape", "keyEquals(cachedKey, key)", "cachedProperty == null"}, //
+                        assumptions = "cachedShape.getValidAssumption()")
+        static boolean doAbsent(DynamicObject object, Object key,
+                        @Cached("key") Object cachedKey,
+                        @Cached("object.getShape()") Shape cachedShape,
+                        @Cached("lookupProperty(cachedShape, key)") Property cachedProperty) {
+            return false;
+        }
+
+        @TruffleBoundary
+        @Specialization(replaces = "doAbsent", guards = "object.getShape().isValid()")
+        static boolean doGeneric(DynamicObject object, Object key) {
+            return object.delete(key);
+        }
+
+        @Specialization(guards = "!object.getShape().isValid()")
+        static boolean doObsolete(DynamicObject object, Object key) {
+            migrateObsoleteShape(object);
+            return doGeneric(object, key);
+        }
+    }
+
+    @ExportMessage
+    static class GetProperty {
+
+        @Specialization(limit = "CACHE_LIMIT", guards = {"object.getShape() == cachedShape", "keyEquals(cachedKey, key)"}, assumptions = "cachedShape.getValidAssumption()")
+        static Property getPropertyCached(DynamicObject object, Object key,
+                        @Cached("key") Object cachedKey,
+                        @Cached("object.getShape()") Shape cachedShape,
+                        @Cached("lookupProperty(cachedShape, key)") Property cachedProperty) {
+            return cachedProperty;
+        }
+
+        @TruffleBoundary
+        @Specialization(replaces = "getPropertyCached", guards = "object.getShape().isValid()")
+        static Property doGeneric(DynamicObject object, Object key) {
+            return object.getShape().getProperty(key);
+        }
+
+        @Specialization(guards = "!object.getShape().isValid()")
+        static Property doObsolete(DynamicObject object, Object key) {
+            migrateObsoleteShape(object);
+            return doGeneric(object, key);
+        }
+    }
+
+    @ExportMessage
+    static class GetPropertyFlagsOrDefault {
+
+        @Specialization(limit = "CACHE_LIMIT", guards = {"object.getShape() == cachedShape", "keyEquals(cachedKey, key)"}, assumptions = "cachedShape.getValidAssumption()")
+        static int getPropertyFlagsCached(DynamicObject object, Object key, int defaultValue,
+                        @Cached("key") Object cachedKey,
+                        @Cached("object.getShape()") Shape cachedShape,
+                        @Cached("lookupProperty(cachedShape, key)") Property cachedProperty) {
+            return cachedProperty == null ? defaultValue : cachedProperty.getFlags();
+        }
+
+        @TruffleBoundary
+        @Specialization(replaces = "getPropertyFlagsCached", guards = "object.getShape().isValid()")
+        static int doGeneric(DynamicObject object, Object key, int defaultValue) {
+            return getFlagsOrDefault(object.getShape(), key, defaultValue);
+        }
+
+        @Specialization(guards = "!object.getShape().isValid()")
+        static int doObsolete(DynamicObject object, Object key, int defaultValue) {
+            migrateObsoleteShape(object);
+            return doGeneric(object, key, defaultValue);
+        }
+    }
+
+    @ExportMessage
+    static class SetPropertyFlags {
+
+        /*
+         * Absent properties and properties that already have the requested flags need no change.
+         */
+        @Specialization(limit = "CACHE_LIMIT", guards = {"object.getShape() == cachedShape", "keyEquals(cachedKey, key)", "flags == cachedFlags",
+                        "cachedProperty == null || cachedProperty.getFlags() == flags"}, assumptions = "cachedShape.getValidAssumption()")
+        static boolean doUnchanged(DynamicObject object, Object key, int flags,
+                        @Cached("key") Object cachedKey,
+                        @Cached("flags") int cachedFlags,
+                        @Cached("object.getShape()") Shape cachedShape,
+                        @Cached("lookupProperty(cachedShape, key)") Property cachedProperty) {
+            return cachedProperty != null;
+        }
+
+        @TruffleBoundary
+        @Specialization(replaces = "doUnchanged", guards = "object.getShape().isValid()")
+        static boolean doGeneric(DynamicObject object, Object key, int flags) {
+            Property property = object.getShape().getProperty(key);
+            if (property == null) {
+                return false;
+            }
+            if (property.getFlags() != flags) {
+                object.define(key, property.get(object, object.getShape()), flags);
+            }
+            return true;
+        }
+
+        @Specialization(guards = "!object.getShape().isValid()")
+        static boolean doObsolete(DynamicObject object, Object key, int flags) {
+            migrateObsoleteShape(object);
+            return doGeneric(object, key, flags);
+        }
+    }
+
+    @ExportMessage
+    static class GetKeyArray {
+
+        @Specialization(limit = "CACHE_LIMIT", guards = "object.getShape() == cachedShape", assumptions = "cachedShape.getValidAssumption()")
+        static Object[] getKeyArrayCached(DynamicObject object,
+                        @Cached("object.getShape()") Shape cachedShape,
+                        @Cached(value = "createKeyArray(cachedShape)", dimensions = 1) Object[] cachedKeys) {
+            return cachedKeys.clone();
+        }
+
+        @TruffleBoundary
+        @Specialization(replaces = "getKeyArrayCached", guards = "object.getShape().isValid()")
+        static Object[] doGeneric(DynamicObject object) {
+            return createKeyArray(object.getShape());
+        }
+
+        @Specialization(guards = "!object.getShape().isValid()")
+        static Object[] doObsolete(DynamicObject object) {
+            migrateObsoleteShape(object);
+            return doGeneric(object);
+        }
+    }
+
+    static boolean keyEquals(Object cachedKey, Object key) {
+        return cachedKey == key || cachedKey.equals(key);
+    }
+
+    static Property lookupProperty(Shape shape, Object key) {
+        CompilerAsserts.neverPartOfCompilation();
+        return shape.getProperty(key);
+    }
+
+    static Location lookupLocation(Shape shape, Object key) {
+        Property property = lookupProperty(shape, key);
+        return property == null ? null : property.getLocation();
+    }
+
+    /**
+     * Returns the location of an existing property with the given flags, or {@code null} if the
+     * property is absent or a shape transition is needed to change its flags.
+     */
+    static Location lookupLocation(Shape shape, Object key, int flags) {
+        Property property = lookupProperty(shape, key);
+        return property == null || property.getFlags() != flags ? null : property.getLocation();
+    }
+
+    static int getFlagsOrDefault(Shape shape, Object key, int defaultValue) {
+        Property property = shape.getProperty(key);
+        return property == null ? defaultValue : property.getFlags();
+    }
+
+    static Shape defineProperty(Shape oldShape, Object key, Object value, int flags) {
+        CompilerAsserts.neverPartOfCompilation();
+        return oldShape.defineProperty(key, value, flags);
+    }
+
+    static Object[] createKeyArray(Shape shape) {
+        return shape.getKeyList().toArray();
+    }
+
+    private static void setExisting(DynamicObject object, Location location, Object value, Shape shape) {
+        try {
+            location.set(object, value, shape);
+        } catch (IncompatibleLocationException | FinalLocationException e) {
+            // guarded by canSet
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void setTransition(DynamicObject object, Location location, Object value, Shape oldShape, Shape newShape) {
+        try {
+            location.set(object, value, oldShape, newShape);
+        } catch (IncompatibleLocationException e) {
+            // guarded by canStore
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void migrateObsoleteShape(DynamicObject object) {
+        CompilerDirectives.transferToInterpreter();
+        object.updateShape();
+    }
+}
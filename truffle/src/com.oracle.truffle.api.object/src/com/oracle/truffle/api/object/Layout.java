@@ -133,6 +133,27 @@ public abstract class Layout {
      */
     public abstract Shape createShape(ObjectType objectType, Object sharedData, int flags);
 
+    /**
+     * Create a root shape for objects that are expected to get about the given number of
+     * properties. Layouts with several object size classes may use the hint to allocate objects
+     * with enough in-object fields from the start. Objects allocated from the shape are still
+     * instances of this shape; the hint never changes the shape of existing objects.
+     *
+     * @param objectType that describes the object instance with this shape.
+     * @param sharedData for language-specific use
+     * @param flags for language-specific use, must be in the range 0-255.
+     * @param expectedPropertyCount the number of properties objects of this shape are expected to
+     *            have, or 0 if unknown
+     * @return new instance of a shape
+     * @since 20.1
+     */
+    public Shape createShape(ObjectType objectType, Object sharedData, int flags, int expectedPropertyCount) {
+        if (expectedPropertyCount < 0) {
+            throw new IllegalArgumentException("expectedPropertyCount must not be negative");
+        }
+        return createShape(objectType, sharedData, flags);
+    }
+
     /**
      * Create an allocator for static property creation. Reserves all array extension slots.
      *
@@ -41,6 +41,8 @@
 package com.oracle.truffle.api.test.polyglot;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 import java.util.ArrayList;
@@ -50,9 +52,15 @@ import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.graalvm.polyglot.Context;
 import org.graalvm.polyglot.Engine;
+import org.graalvm.polyglot.PolyglotException;
+import org.graalvm.polyglot.Value;
+import org.graalvm.polyglot.proxy.ProxyExecutable;
 import org.junit.Test;
 
 import com.oracle.truffle.api.test.polyglot.PolyglotCachingTest.ReuseLanguage;
@@ -109,4 +117,77 @@ public class ContextParallelCloseTest {
         }
     }
 
+    /*
+     * Threads that entered a multi-threaded context before enter and leave it without the context
+     * lock. A close or cancel that races with them must neither hang nor let a thread execute in
+     * the context after the close completed.
+     */
+    @Test
+    public void testCloseRacingWithEnterAndLeave() throws InterruptedException, ExecutionException {
+        final int threads = 8;
+        ExecutorService service = Executors.newFixedThreadPool(threads);
+        Engine engine = Engine.create();
+        try {
+            for (int iteration = 0; iteration < 50; iteration++) {
+                final boolean cancel = iteration % 2 == 0;
+                Context context = Context.newBuilder().engine(engine).build();
+                Value value = context.asValue((ProxyExecutable) (arguments) -> 42);
+                AtomicBoolean closed = new AtomicBoolean();
+                AtomicBoolean stop = new AtomicBoolean();
+                CountDownLatch entered = new CountDownLatch(threads);
+                List<Future<?>> futures = new ArrayList<>();
+                for (int i = 0; i < threads; i++) {
+                    futures.add(service.submit(() -> {
+                        assertEquals(42, value.execute().asInt());
+                        entered.countDown();
+                        try {
+                            while (!stop.get()) {
+                                boolean closedBefore = closed.get();
+                                assertEquals(42, value.execute().asInt());
+                                assertFalse("Executed in a closed context", closedBefore);
+                            }
+                        } catch (IllegalStateException e) {
+                            // the context was closed
+                        } catch (PolyglotException e) {
+                            if (!e.isCancelled()) {
+                                throw e;
+                            }
+                        }
+                    }));
+                }
+                entered.await();
+                if (cancel) {
+                    context.close(true);
+                } else {
+                    while (true) {
+                        try {
+                            context.close();
+                            break;
+                        } catch (IllegalStateException e) {
+                            // still executing on another thread, try again after they stopped
+                            stop.set(true);
+                        }
+                    }
+                }
+                closed.set(true);
+                stop.set(true);
+                for (Future<?> future : futures) {
+                    try {
+                        future.get(1, TimeUnit.MINUTES);
+                    } catch (TimeoutException e) {
+                        fail("A thread did not leave the closed context");
+                    }
+                }
+                try {
+                    value.execute();
+                    fail();
+                } catch (IllegalStateException e) {
+                    assertTrue(e.getMessage(), e.getMessage().contains("closed"));
+                }
+            }
+        } finally {
+            service.shutdownNow();
+            engine.close();
+        }
+    }
 }
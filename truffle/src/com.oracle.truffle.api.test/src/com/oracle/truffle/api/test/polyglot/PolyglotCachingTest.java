@@ -58,6 +58,7 @@ import java.util.concurrent.atomic.AtomicReference;
 import org.graalvm.polyglot.Context;
 import org.graalvm.polyglot.Engine;
 import org.graalvm.polyglot.Source;
+import org.graalvm.polyglot.management.SourceCacheStatistics;
 import org.junit.Assert;
 import org.junit.Assume;
 import org.junit.Test;
@@ -103,6 +104,84 @@ public class PolyglotCachingTest {
         assertEquals(4, parseCalled.get());
     }
 
+    @Test
+    public void testBoundedCache() throws Exception {
+        AtomicInteger parseCalled = new AtomicInteger(0);
+        ProxyLanguage.setDelegate(new ProxyLanguage() {
+            @Override
+            protected CallTarget parse(ParsingRequest request) throws Exception {
+                parseCalled.incrementAndGet();
+                return Truffle.getRuntime().createCallTarget(RootNode.createConstantNode(""));
+            }
+        });
+        Engine engine = Engine.newBuilder().allowExperimentalOptions(true).option("engine.SourceCacheEntries", "2").option("engine.SourceCacheNodes", "100").build();
+        Context c = Context.newBuilder().engine(engine).build();
+        Source source0 = Source.create(ProxyLanguage.ID, "0");
+        Source source1 = Source.create(ProxyLanguage.ID, "1");
+        Source source2 = Source.create(ProxyLanguage.ID, "2");
+        c.eval(source0);
+        c.eval(source1);
+        c.eval(source0);
+        assertEquals(2, parseCalled.get());
+        // evicts source1, the least recently used
+        c.eval(source2);
+        assertEquals(3, parseCalled.get());
+        c.eval(source0);
+        assertEquals(3, parseCalled.get());
+        c.eval(source1);
+        assertEquals(4, parseCalled.get());
+
+        SourceCacheStatistics statistics = SourceCacheStatistics.create(engine);
+        assertEquals(2, statistics.getHits());
+        assertEquals(4, statistics.getMisses());
+        assertEquals(2, statistics.getEvictions());
+        assertEquals(2, statistics.getEntries());
+        assertEquals(2, statistics.getNodeCount());
+        engine.close();
+    }
+
+    @Test
+    public void testContentKeys() throws Exception {
+        AtomicInteger parseCalled = new AtomicInteger(0);
+        ProxyLanguage.setDelegate(new ProxyLanguage() {
+            @Override
+            protected CallTarget parse(ParsingRequest request) throws Exception {
+                parseCalled.incrementAndGet();
+                return Truffle.getRuntime().createCallTarget(RootNode.createConstantNode(""));
+            }
+        });
+        Engine engine = Engine.newBuilder().allowExperimentalOptions(true).option("engine.SourceCacheContentKeys", "true").build();
+        Context c = Context.newBuilder().engine(engine).build();
+        Source source0 = Source.newBuilder(ProxyLanguage.ID, "content", "name0").build();
+        Source source1 = Source.newBuilder(ProxyLanguage.ID, "content", "name1").build();
+        c.eval(source0);
+        c.eval(source1);
+        assertEquals(1, parseCalled.get());
+        c.eval(Source.newBuilder(ProxyLanguage.ID, "other content", "name0").build());
+        assertEquals(2, parseCalled.get());
+        engine.close();
+    }
+
+    /*
+     * Test that caching by contents does not keep the source or the cached CallTargets alive.
+     */
+    @Test
+    public void testSourceFreeContentKeys() {
+        Assume.assumeFalse("This test is too slow in fastdebug.", System.getProperty("java.vm.version").contains("fastdebug"));
+        setupTestLang(false);
+
+        Engine engine = Engine.newBuilder().allowExperimentalOptions(true).option("engine.SourceCacheContentKeys", "true").build();
+        Context survivingContext = Context.newBuilder().engine(engine).build();
+        GCUtils.assertObjectsCollectible((iteration) -> {
+            Source source = Source.create(ProxyLanguage.ID, String.valueOf(iteration));
+            CallTarget target = assertParsedEval(survivingContext, source);
+            assertCachedEval(survivingContext, Source.newBuilder(ProxyLanguage.ID, String.valueOf(iteration), "other").buildLiteral());
+            return target;
+        });
+        survivingContext.close();
+        engine.close();
+    }
+
     /*
      * Tests that the outer source instance is never the same as the one passed in. That allows the
      * outer source instance to be collected while the inner one is still referenced strongly. The
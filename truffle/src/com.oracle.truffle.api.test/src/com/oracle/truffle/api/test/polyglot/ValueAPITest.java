@@ -333,6 +333,49 @@ public class ValueAPITest {
         }
     }
 
+    @Test
+    public void testBulkArrayElements() {
+        long[] hostArray = new long[]{1, 2, 3, 4, 5};
+        Value bulk = context.asValue(hostArray);
+        long[] longs = new long[4];
+        bulk.readArrayElements(1, longs, 1, 3);
+        assertTrue(Arrays.equals(new long[]{0, 2, 3, 4}, longs));
+        bulk.writeArrayElements(3, new long[]{42, 43}, 0, 2);
+        assertTrue(Arrays.equals(new long[]{1, 2, 3, 42, 43}, hostArray));
+
+        // element-wise conversion if the types differ
+        double[] doubles = new double[5];
+        bulk.readArrayElements(0, doubles, 0, 5);
+        assertTrue(Arrays.equals(new double[]{1, 2, 3, 42, 43}, doubles));
+        Value elementWise = context.asValue(ProxyArray.fromArray(1, 2, 3));
+        int[] ints = new int[3];
+        elementWise.readArrayElements(0, ints, 0, 3);
+        assertTrue(Arrays.equals(new int[]{1, 2, 3}, ints));
+        elementWise.writeArrayElements(1, new byte[]{4, 5}, 0, 2);
+        assertEquals(5, elementWise.getArrayElement(2).asInt());
+
+        try {
+            bulk.readArrayElements(3, longs, 0, 3);
+            fail();
+        } catch (ArrayIndexOutOfBoundsException e) {
+        }
+        try {
+            bulk.readArrayElements(0, longs, 2, 3);
+            fail();
+        } catch (IndexOutOfBoundsException e) {
+        }
+        try {
+            context.asValue(new Object[]{"a"}).readArrayElements(0, longs, 0, 1);
+            fail();
+        } catch (ClassCastException e) {
+        }
+        try {
+            context.asValue(42).readArrayElements(0, longs, 0, 1);
+            fail();
+        } catch (UnsupportedOperationException e) {
+        }
+    }
+
     @Test
     public void testListRemove() {
         List<Object> list = new ArrayList<>(Arrays.asList("a", "b", 42, 43));
@@ -163,6 +163,68 @@ public class ValueHostInteropTest extends AbstractPolyglotTest {
         assertValue(data);
     }
 
+    public static class Arities {
+        public final String name;
+
+        public Arities() {
+            this("");
+        }
+
+        public Arities(String a, String b, String c, String d, String e) {
+            this(a + b + c + d + e);
+        }
+
+        public Arities(String name) {
+            this.name = name;
+        }
+
+        public String arity0() {
+            return name;
+        }
+
+        public String arity1(String a) {
+            return name + a;
+        }
+
+        public String arity4(String a, String b, String c, String d) {
+            return name + a + b + c + d;
+        }
+
+        public String arity5(String a, String b, String c, String d, String e) {
+            return name + a + b + c + d + e;
+        }
+
+        public static int staticArity2(int a, long b) {
+            return (int) (a + b);
+        }
+
+        public static int staticArity6(int a, int b, int c, int d, int e, int f) {
+            return a + b + c + d + e + f;
+        }
+
+        public void arity3Void(String a, String b, String c) {
+        }
+    }
+
+    @Test
+    public void testInvokeArities() {
+        Value arities = context.asValue(new Arities("x"));
+        assertEquals("x", arities.invokeMember("arity0").asString());
+        assertEquals("xa", arities.invokeMember("arity1", "a").asString());
+        assertEquals("xabcd", arities.invokeMember("arity4", "a", "b", "c", "d").asString());
+        assertEquals("xabcde", arities.invokeMember("arity5", "a", "b", "c", "d", "e").asString());
+        assertTrue(arities.invokeMember("arity3Void", "a", "b", "c").isNull());
+
+        Value staticArities = context.asValue(Arities.class).getMember("static");
+        assertEquals(3, staticArities.invokeMember("staticArity2", 1, 2).asInt());
+        assertEquals(21, staticArities.invokeMember("staticArity6", 1, 2, 3, 4, 5, 6).asInt());
+
+        Value arityClass = context.asValue(Arities.class);
+        assertEquals("", arityClass.newInstance().invokeMember("arity0").asString());
+        assertEquals("y", arityClass.newInstance("y").invokeMember("arity0").asString());
+        assertEquals("abcde", arityClass.newInstance("a", "b", "c", "d", "e").invokeMember("arity0").asString());
+    }
+
     @Test
     public void conversionToClassNull() {
         assertSame(Void.class, context.asValue(null).getMetaObject().asHostObject());
@@ -101,6 +101,20 @@ public final class CompilerDirectives {
         return true;
     }
 
+    /**
+     * Returns a boolean value indicating whether the method is executed by code that is later
+     * replaced by a more optimized tier, i.e. in the interpreter or in first tier compiled code.
+     * Profiles that feed the optimizations of the last tier should keep being updated while this
+     * is {@code true}.
+     *
+     * @return {@code true} when executed in the interpreter or in first tier compiled code that
+     *         collects profiles, {@code false} in last tier compiled code.
+     * @since 20.1
+     */
+    public static boolean hasNextTier() {
+        return true;
+    }
+
     /**
      * Returns a boolean value indicating whether the method is executed in the compiled code.
      *
@@ -664,6 +664,25 @@ public abstract class TruffleLanguage<C> {
     protected void disposeContext(C context) {
     }
 
+    /**
+     * Resets the guest visible global state of a context, such that the context can be reused as
+     * if it was newly created. Context pools of the polyglot API invoke this method when a context
+     * is returned to the pool, instead of creating a new context for the next use. The language
+     * may keep anything that is not observable by guest code, like builtins or parsed call
+     * targets. No thread is executing in the context while it is reset.
+     * <p>
+     * By default reset is not supported and {@code false} is returned. A context that contains a
+     * language context that cannot be reset is closed instead of being reused.
+     *
+     * @param context the context created by
+     *            {@link #createContext(com.oracle.truffle.api.TruffleLanguage.Env)}
+     * @return {@code true} if the context was reset, {@code false} if it must not be reused
+     * @since 20.1
+     */
+    protected boolean resetContext(C context) {
+        return false;
+    }
+
     /**
      * Parses the {@link ParsingRequest#getSource() provided source} and generates its appropriate
      * AST representation. The parsing should execute no user code, it should only create the
@@ -489,6 +489,8 @@ public abstract class Accessor {
 
         public abstract void finalizeContext(Env localEnv);
 
+        public abstract boolean resetContext(Env localEnv);
+
         public abstract Iterable<Scope> findLocalScopes(Env env, Node node, Frame frame);
 
         public abstract Iterable<Scope> findTopScopes(Env env);
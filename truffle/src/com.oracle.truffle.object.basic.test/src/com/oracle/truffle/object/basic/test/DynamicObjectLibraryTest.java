@@ -0,0 +1,184 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.object.basic.test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameter;
+import org.junit.runners.Parameterized.Parameters;
+
+import com.oracle.truffle.api.frame.VirtualFrame;
+import com.oracle.truffle.api.nodes.RootNode;
+import com.oracle.truffle.api.object.DynamicObject;
+import com.oracle.truffle.api.object.DynamicObjectLibrary;
+import com.oracle.truffle.api.object.Layout;
+import com.oracle.truffle.api.object.ObjectType;
+import com.oracle.truffle.api.object.Shape;
+import com.oracle.truffle.object.basic.DefaultLayoutFactory;
+
+@RunWith(Parameterized.class)
+public class DynamicObjectLibraryTest {
+
+    @Parameter public boolean cached;
+
+    @Parameters(name = "cached={0}")
+    public static Collection<Boolean> data() {
+        return Arrays.asList(Boolean.FALSE, Boolean.TRUE);
+    }
+
+    private final Layout layout = new DefaultLayoutFactory().createLayout(Layout.newLayout());
+    private final Shape rootShape = layout.createShape(new ObjectType());
+
+    private DynamicObjectLibrary createLibrary() {
+        if (!cached) {
+            return DynamicObjectLibrary.getUncached();
+        }
+        DynamicObjectLibrary library = DynamicObjectLibrary.getFactory().createDispatched(3);
+        RootNode root = new RootNode(null) {
+            {
+                insert(library);
+            }
+
+            @Override
+            public Object execute(VirtualFrame frame) {
+                return null;
+            }
+        };
+        root.adoptChildren();
+        return library;
+    }
+
+    @Test
+    public void testPutAndGet() {
+        DynamicObjectLibrary library = createLibrary();
+        for (int i = 0; i < 5; i++) {
+            DynamicObject object = rootShape.newInstance();
+            assertFalse(library.containsKey(object, "a"));
+            assertNull(library.getOrDefault(object, "a", null));
+
+            library.put(object, "a", i);
+            library.put(object, "b", "value" + i);
+            assertTrue(library.containsKey(object, "a"));
+            assertEquals(i, library.getOrDefault(object, "a", null));
+            assertEquals("value" + i, library.getOrDefault(object, "b", null));
+            assertArrayEquals(new Object[]{"a", "b"}, library.getKeyArray(object));
+        }
+    }
+
+    @Test
+    public void testPutGeneralizes() {
+        DynamicObjectLibrary library = createLibrary();
+        DynamicObject object = rootShape.newInstance();
+        library.put(object, "a", 42);
+        Shape intShape = library.getShape(object);
+
+        library.put(object, "a", "string");
+        assertNotSame(intShape, library.getShape(object));
+        assertEquals("string", library.getOrDefault(object, "a", null));
+
+        library.put(object, "a", 43);
+        assertEquals(43, library.getOrDefault(object, "a", null));
+    }
+
+    @Test
+    public void testFlags() {
+        DynamicObjectLibrary library = createLibrary();
+        DynamicObject object = rootShape.newInstance();
+        assertEquals(-1, library.getPropertyFlagsOrDefault(object, "a", -1));
+        assertFalse(library.setPropertyFlags(object, "a", 1));
+
+        library.putWithFlags(object, "a", 1, 2);
+        assertEquals(2, library.getPropertyFlagsOrDefault(object, "a", -1));
+
+        library.put(object, "a", 3);
+        assertEquals(2, library.getPropertyFlagsOrDefault(object, "a", -1));
+        assertEquals(3, library.getOrDefault(object, "a", null));
+
+        assertTrue(library.setPropertyFlags(object, "a", 4));
+        assertEquals(4, library.getPropertyFlagsOrDefault(object, "a", -1));
+        assertEquals(4, library.getProperty(object, "a").getFlags());
+        assertEquals(3, library.getOrDefault(object, "a", null));
+    }
+
+    @Test
+    public void testRemoveKey() {
+        DynamicObjectLibrary library = createLibrary();
+        DynamicObject object = rootShape.newInstance();
+        library.put(object, "a", 1);
+        library.put(object, "b", 2);
+
+        assertFalse(library.removeKey(object, "c"));
+        assertTrue(library.removeKey(object, "a"));
+        assertFalse(library.containsKey(object, "a"));
+        assertNull(library.getProperty(object, "a"));
+        assertEquals(2, library.getOrDefault(object, "b", null));
+        assertArrayEquals(new Object[]{"b"}, library.getKeyArray(object));
+    }
+
+    @Test
+    public void testManyShapes() {
+        DynamicObjectLibrary library = createLibrary();
+        // more shapes and keys than the inline cache can hold
+        for (int i = 0; i < 10; i++) {
+            DynamicObject object = rootShape.newInstance();
+            for (int j = 0; j <= i; j++) {
+                library.put(object, "p" + j, j);
+            }
+            for (int j = 0; j <= i; j++) {
+                assertEquals(j, library.getOrDefault(object, "p" + j, null));
+            }
+            assertFalse(library.containsKey(object, "p" + (i + 1)));
+            assertEquals(i + 1, library.getKeyArray(object).length);
+            assertFalse(library.updateShape(object));
+        }
+    }
+}
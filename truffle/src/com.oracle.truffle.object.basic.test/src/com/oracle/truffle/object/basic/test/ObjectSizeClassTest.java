@@ -0,0 +1,185 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.object.basic.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import com.oracle.truffle.api.object.DynamicObject;
+import com.oracle.truffle.api.object.Layout;
+import com.oracle.truffle.api.object.ObjectType;
+import com.oracle.truffle.api.object.Shape;
+import com.oracle.truffle.object.DynamicObjectBasic;
+import com.oracle.truffle.object.DynamicObjectBasicLarge;
+import com.oracle.truffle.object.ShapeImpl;
+import com.oracle.truffle.object.basic.DefaultLayoutFactory;
+
+public class ObjectSizeClassTest {
+
+    private static final int PROPERTY_COUNT = 16;
+
+    private final Layout layout = new DefaultLayoutFactory().createLayout(Layout.newLayout());
+
+    private static DynamicObject createObject(Shape rootShape, boolean primitive) {
+        DynamicObject object = rootShape.newInstance();
+        for (int i = 0; i < PROPERTY_COUNT; i++) {
+            object.define("p" + i, primitive ? (Object) (long) i : "v" + i);
+        }
+        return object;
+    }
+
+    private static void assertProperties(DynamicObject object, boolean primitive) {
+        for (int i = 0; i < PROPERTY_COUNT; i++) {
+            assertEquals(primitive ? (Object) (long) i : "v" + i, object.get("p" + i));
+        }
+    }
+
+    @Test
+    public void testLargeSizeClassAfterSpill() {
+        ObjectType objectType = new ObjectType();
+        Shape smallRoot = layout.createShape(objectType);
+        for (boolean primitive : new boolean[]{false, true}) {
+            DynamicObject small = createObject(smallRoot, primitive);
+            assertSame(DynamicObjectBasic.class, small.getClass());
+            ShapeImpl smallShape = (ShapeImpl) small.getShape();
+            assertTrue(smallShape.getObjectArraySize() + smallShape.getPrimitiveArraySize() > 0);
+            assertProperties(small, primitive);
+        }
+
+        Shape largeRoot = layout.createShape(objectType);
+        for (boolean primitive : new boolean[]{false, true}) {
+            DynamicObject large = createObject(largeRoot, primitive);
+            assertSame(DynamicObjectBasicLarge.class, large.getClass());
+            ShapeImpl largeShape = (ShapeImpl) large.getShape();
+            assertEquals(0, largeShape.getObjectArraySize());
+            assertEquals(0, largeShape.getPrimitiveArraySize());
+            assertProperties(large, primitive);
+            assertTrue(layout.getType().isInstance(large));
+
+            DynamicObject copy = large.copy(largeShape);
+            assertSame(DynamicObjectBasicLarge.class, copy.getClass());
+            assertProperties(copy, primitive);
+
+            // more properties than in-object fields still spill into the extension arrays
+            for (int i = PROPERTY_COUNT; i < 2 * PROPERTY_COUNT; i++) {
+                large.define("p" + i, i);
+            }
+            assertProperties(large, primitive);
+            assertEquals(2 * PROPERTY_COUNT - 1, large.get("p" + (2 * PROPERTY_COUNT - 1)));
+        }
+    }
+
+    @Test
+    public void testSmallSizeClassByDefault() {
+        ObjectType objectType = new ObjectType();
+        Shape rootShape = layout.createShape(objectType);
+        DynamicObject object = rootShape.newInstance();
+        object.define("a", 1);
+        object.define("b", "b");
+        assertSame(DynamicObjectBasic.class, object.getClass());
+        assertSame(DynamicObjectBasic.class, layout.createShape(objectType).newInstance().getClass());
+
+        createObject(rootShape, false);
+        assertSame(DynamicObjectBasicLarge.class, layout.createShape(objectType).newInstance().getClass());
+        assertSame(DynamicObjectBasic.class, layout.createShape(new ObjectType()).newInstance().getClass());
+        assertSame(DynamicObjectBasic.class, rootShape.newInstance().getClass());
+    }
+
+    @Test
+    public void testSmallAllocationsAfterSpill() {
+        // one allocation site spills, another one keeps allocating small objects from the same root
+        Shape rootShape = layout.createShape(new ObjectType());
+        createObject(rootShape, false);
+        for (int i = 0; i < 10; i++) {
+            DynamicObject small = rootShape.newInstance();
+            assertSame(rootShape, small.getShape());
+            assertSame(DynamicObjectBasic.class, small.getClass());
+            small.define("a", i);
+            small.define("b", "b");
+            assertSame(DynamicObjectBasic.class, small.getClass());
+            assertSame(rootShape, small.getShape().getRoot());
+        }
+    }
+
+    @Test
+    public void testExpectedPropertyCount() {
+        ObjectType objectType = new ObjectType();
+        Shape largeRoot = layout.createShape(objectType, null, 0, PROPERTY_COUNT);
+        DynamicObject large = largeRoot.newInstance();
+        assertSame(largeRoot, large.getShape());
+        assertSame(DynamicObjectBasicLarge.class, large.getClass());
+        DynamicObject filled = createObject(largeRoot, true);
+        assertEquals(0, ((ShapeImpl) filled.getShape()).getPrimitiveArraySize());
+        assertProperties(filled, true);
+
+        // a small hint and no hint keep the default size class
+        assertSame(DynamicObjectBasic.class, layout.createShape(objectType, null, 0, 2).newInstance().getClass());
+        assertSame(DynamicObjectBasic.class, layout.createShape(objectType).newInstance().getClass());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativeExpectedPropertyCount() {
+        layout.createShape(new ObjectType(), null, 0, -1);
+    }
+
+    @Test
+    public void testSizeClassPerRootShape() {
+        ObjectType objectType = new ObjectType();
+        Object sharedData = new Object();
+        Shape spilledRoot = layout.createShape(objectType, sharedData);
+        Shape otherRoot = layout.createShape(objectType, new Object());
+        Shape flaggedRoot = layout.createShape(objectType, sharedData, 1);
+        createObject(spilledRoot, false);
+
+        // root shapes of the same object type only use the large class if they are equal
+        assertSame(DynamicObjectBasicLarge.class, layout.createShape(objectType, sharedData).newInstance().getClass());
+        assertSame(DynamicObjectBasic.class, layout.createShape(objectType, otherRoot.getSharedData()).newInstance().getClass());
+        assertSame(DynamicObjectBasic.class, layout.createShape(objectType, sharedData, 1).newInstance().getClass());
+        assertSame(DynamicObjectBasic.class, layout.createShape(objectType).newInstance().getClass());
+
+        createObject(flaggedRoot, true);
+        assertSame(DynamicObjectBasicLarge.class, layout.createShape(objectType, sharedData, 1).newInstance().getClass());
+        assertSame(DynamicObjectBasic.class, layout.createShape(objectType, otherRoot.getSharedData()).newInstance().getClass());
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.object.basic.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+import com.oracle.truffle.api.object.Layout;
+import com.oracle.truffle.api.object.ObjectType;
+import com.oracle.truffle.api.object.Shape;
+import com.oracle.truffle.object.ShapeImpl;
+import com.oracle.truffle.object.basic.DefaultLayoutFactory;
+
+public class ShapeTransitionTest {
+
+    private static final int THREADS = 8;
+    private static final int KEYS_PER_THREAD = 100;
+
+    private final Layout layout = new DefaultLayoutFactory().createLayout(Layout.newLayout());
+
+    @Test
+    public void testManyTransitions() {
+        Shape rootShape = layout.createShape(new ObjectType());
+        List<Shape> shapes = new ArrayList<>();
+        for (int i = 0; i < KEYS_PER_THREAD; i++) {
+            shapes.add(rootShape.defineProperty("k" + i, i, 0));
+        }
+        for (int i = 0; i < KEYS_PER_THREAD; i++) {
+            assertSame(shapes.get(i), rootShape.defineProperty("k" + i, i, 0));
+        }
+        assertTransitionCount(KEYS_PER_THREAD, rootShape);
+    }
+
+    @Test
+    public void testConcurrentTransitions() throws Exception {
+        Shape rootShape = layout.createShape(new ObjectType());
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            CountDownLatch start = new CountDownLatch(THREADS);
+            List<Future<List<Shape>>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                String prefix = "t" + t + "_";
+                futures.add(executor.submit(() -> {
+                    start.countDown();
+                    start.await();
+                    List<Shape> shapes = new ArrayList<>();
+                    for (int i = 0; i < KEYS_PER_THREAD; i++) {
+                        shapes.add(rootShape.defineProperty(prefix + i, i, 0));
+                    }
+                    return shapes;
+                }));
+            }
+            for (int t = 0; t < THREADS; t++) {
+                List<Shape> shapes = futures.get(t).get();
+                for (int i = 0; i < KEYS_PER_THREAD; i++) {
+                    // no transition may be lost by a concurrent update
+                    assertSame(shapes.get(i), rootShape.defineProperty("t" + t + "_" + i, i, 0));
+                }
+            }
+            assertTransitionCount(THREADS * KEYS_PER_THREAD, rootShape);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void assertTransitionCount(int expected, Shape shape) {
+        int[] count = new int[1];
+        ((ShapeImpl) shape).forEachTransition((transition, successor) -> count[0]++);
+        assertEquals(expected, count[0]);
+    }
+}
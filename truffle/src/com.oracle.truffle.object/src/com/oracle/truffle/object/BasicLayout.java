@@ -40,23 +40,58 @@
  */
 package com.oracle.truffle.object;
 
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
 import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
 
 import com.oracle.truffle.api.object.DynamicObject;
 import com.oracle.truffle.api.object.Layout;
+import com.oracle.truffle.api.object.ObjectType;
 import com.oracle.truffle.api.object.Shape;
 
+/**
+ * Layout of {@link DynamicObjectBasic} objects. Root shapes are created for the
+ * {@link DynamicObjectBasicLarge larger size class} if they are expected to get more properties
+ * than the default class has object fields, or if the shapes of objects allocated from an equal
+ * root shape, i.e. one with the same object type, shared data and flags, had to spill properties
+ * into the extension arrays. The size class of an existing root shape never changes.
+ */
 public class BasicLayout extends DefaultLayout {
-    BasicLayout(EnumSet<ImplicitCast> allowedImplicitCasts, Class<? extends DynamicObject> dynamicObjectClass, LayoutStrategy strategy) {
-        super(allowedImplicitCasts, dynamicObjectClass, strategy);
+    /** Layout of the larger size class, or {@code null} if this is the largest one. */
+    private final BasicLayout largeLayout;
+    /** Root shapes of this layout whose descendants needed extension arrays, by object type. */
+    private final Map<ObjectType, List<SpilledRoot>> spilledRoots;
+
+    @SuppressWarnings("deprecation")
+    BasicLayout(EnumSet<ImplicitCast> allowedImplicitCasts, LayoutStrategy strategy) {
+        super(allowedImplicitCasts, DynamicObjectBasic.class, strategy, DynamicObjectBasic.OBJECT_FIELD_LOCATIONS, DynamicObjectBasic.PRIMITIVE_FIELD_LOCATIONS);
+        if (com.oracle.truffle.object.ObjectStorageOptions.InObjectSizeClasses) {
+            this.largeLayout = new BasicLayout(allowedImplicitCasts, strategy, DynamicObjectBasicLarge.class);
+            this.spilledRoots = new WeakHashMap<>();
+        } else {
+            this.largeLayout = null;
+            this.spilledRoots = null;
+        }
+    }
+
+    private BasicLayout(EnumSet<ImplicitCast> allowedImplicitCasts, LayoutStrategy strategy, Class<DynamicObjectBasicLarge> dynamicObjectClass) {
+        super(allowedImplicitCasts, dynamicObjectClass, strategy, DynamicObjectBasicLarge.OBJECT_FIELD_LOCATIONS, DynamicObjectBasicLarge.PRIMITIVE_FIELD_LOCATIONS);
+        this.largeLayout = null;
+        this.spilledRoots = null;
     }
 
     public static LayoutImpl createLayoutImpl(Layout.Builder builder) {
-        return new BasicLayout(getAllowedImplicitCasts(builder), DynamicObjectBasic.class, DefaultStrategy.SINGLETON);
+        return new BasicLayout(getAllowedImplicitCasts(builder), DefaultStrategy.SINGLETON);
     }
 
     @Override
     public DynamicObject newInstance(Shape shape) {
+        if (((ShapeImpl) shape).getLayout().getType() == DynamicObjectBasicLarge.class) {
+            return new DynamicObjectBasicLarge(shape);
+        }
         return new DynamicObjectBasic(shape);
     }
 
@@ -64,4 +99,66 @@ public class BasicLayout extends DefaultLayout {
     protected int getLongFieldSize() {
         return 1;
     }
+
+    BasicLayout selectSizeClass(ObjectType objectType, Object sharedData, int flags, int expectedPropertyCount) {
+        if (largeLayout != null) {
+            if (expectedPropertyCount > getObjectFieldCount()) {
+                return largeLayout;
+            }
+            synchronized (spilledRoots) {
+                List<SpilledRoot> roots = spilledRoots.get(objectType);
+                if (roots != null) {
+                    for (SpilledRoot root : roots) {
+                        if (root.matches(sharedData, flags)) {
+                            return largeLayout;
+                        }
+                    }
+                }
+            }
+        }
+        return this;
+    }
+
+    void recordExtensionArrayUse(ShapeImpl root) {
+        assert root.getRoot() == root;
+        if (spilledRoots != null) {
+            Object sharedData = root.getSharedData();
+            int flags = root.getId();
+            synchronized (spilledRoots) {
+                List<SpilledRoot> roots = spilledRoots.computeIfAbsent(root.getObjectType(), k -> new ArrayList<>(1));
+                roots.removeIf(SpilledRoot::isCollected);
+                for (SpilledRoot spilled : roots) {
+                    if (spilled.matches(sharedData, flags)) {
+                        return;
+                    }
+                }
+                roots.add(new SpilledRoot(sharedData, flags));
+            }
+        }
+    }
+
+    /**
+     * Identifies a root shape within its object type. Does not refer to the object type or the
+     * shared data strongly, so that neither is kept alive by the layout.
+     */
+    private static final class SpilledRoot {
+        private final WeakReference<Object> sharedData;
+        private final int flags;
+
+        SpilledRoot(Object sharedData, int flags) {
+            this.sharedData = sharedData == null ? null : new WeakReference<>(sharedData);
+            this.flags = flags;
+        }
+
+        boolean matches(Object otherSharedData, int otherFlags) {
+            if (flags != otherFlags) {
+                return false;
+            }
+            return sharedData == null ? otherSharedData == null : otherSharedData != null && sharedData.get() == otherSharedData;
+        }
+
+        boolean isCollected() {
+            return sharedData != null && sharedData.get() == null;
+        }
+    }
 }
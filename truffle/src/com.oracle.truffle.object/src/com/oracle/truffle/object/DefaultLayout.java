@@ -55,11 +55,12 @@ class DefaultLayout extends LayoutImpl {
     private final CoreLocation objectArrayLocation;
     private final CoreLocation primitiveArrayLocation;
 
-    DefaultLayout(EnumSet<ImplicitCast> allowedImplicitCasts, Class<? extends DynamicObject> dynamicObjectClass, LayoutStrategy strategy) {
+    DefaultLayout(EnumSet<ImplicitCast> allowedImplicitCasts, Class<? extends DynamicObject> dynamicObjectClass, LayoutStrategy strategy, ObjectLocation[] objectFields,
+                    LongLocation[] primitiveFields) {
         super(allowedImplicitCasts, dynamicObjectClass, strategy);
-        assert dynamicObjectClass == DynamicObjectBasic.class;
-        this.objectFields = DynamicObjectBasic.OBJECT_FIELD_LOCATIONS;
-        this.primitiveFields = DynamicObjectBasic.PRIMITIVE_FIELD_LOCATIONS;
+        assert DynamicObjectBasic.class.isAssignableFrom(dynamicObjectClass);
+        this.objectFields = objectFields;
+        this.primitiveFields = primitiveFields;
         this.primitiveArrayLocation = DynamicObjectBasic.PRIMITIVE_ARRAY_LOCATION;
         this.objectArrayLocation = DynamicObjectBasic.OBJECT_ARRAY_LOCATION;
     }
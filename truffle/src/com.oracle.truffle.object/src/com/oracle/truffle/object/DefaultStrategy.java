@@ -44,6 +44,7 @@ import java.util.Objects;
 
 import com.oracle.truffle.api.object.DynamicObject;
 import com.oracle.truffle.api.object.Location;
+import com.oracle.truffle.api.object.ObjectType;
 import com.oracle.truffle.object.ShapeImpl.BaseAllocator;
 
 final class DefaultStrategy extends LayoutStrategy {
@@ -78,6 +79,29 @@ final class DefaultStrategy extends LayoutStrategy {
         return shape;
     }
 
+    @Override
+    protected LayoutImpl selectRootLayout(LayoutImpl layout, ObjectType objectType, Object sharedData, int flags, int expectedPropertyCount) {
+        if (layout instanceof BasicLayout) {
+            return ((BasicLayout) layout).selectSizeClass(objectType, sharedData, flags, expectedPropertyCount);
+        }
+        return layout;
+    }
+
+    @Override
+    protected void onPropertyAdded(ShapeImpl newShape) {
+        ShapeImpl parent = newShape.getParent();
+        if (usesExtensionArrays(newShape) && (parent == null || !usesExtensionArrays(parent))) {
+            LayoutImpl layout = newShape.getLayout();
+            if (layout instanceof BasicLayout) {
+                ((BasicLayout) layout).recordExtensionArrayUse(newShape.getRoot());
+            }
+        }
+    }
+
+    private static boolean usesExtensionArrays(ShapeImpl shape) {
+        return shape.getObjectArraySize() != 0 || shape.getPrimitiveArraySize() != 0;
+    }
+
     @Override
     public BaseAllocator createAllocator(ShapeImpl shape) {
         return new CoreAllocator(shape);
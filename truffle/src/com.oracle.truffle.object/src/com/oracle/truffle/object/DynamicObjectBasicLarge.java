@@ -0,0 +1,416 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.object;
+
+import com.oracle.truffle.api.object.DynamicObject;
+import com.oracle.truffle.api.object.Shape;
+import com.oracle.truffle.object.CoreLocations.LongLocation;
+import com.oracle.truffle.object.CoreLocations.ObjectLocation;
+import com.oracle.truffle.object.CoreLocations.SimpleLongFieldLocation;
+import com.oracle.truffle.object.CoreLocations.SimpleObjectFieldLocation;
+
+/**
+ * Larger size class of {@link DynamicObjectBasic} with 16 primitive and 16 object fields in total,
+ * used for root shapes whose objects outgrew the in-object fields of {@link DynamicObjectBasic}.
+ * The fields of the superclass keep their locations, so a property allocated for the smaller class
+ * is valid in this class as well. The extension arrays are inherited.
+ *
+ * @see BasicLayout
+ */
+public class DynamicObjectBasicLarge extends DynamicObjectBasic {
+
+    private long primitive4;
+    private long primitive5;
+    private long primitive6;
+    private long primitive7;
+    private long primitive8;
+    private long primitive9;
+    private long primitive10;
+    private long primitive11;
+    private long primitive12;
+    private long primitive13;
+    private long primitive14;
+    private long primitive15;
+    private long primitive16;
+    private Object object5;
+    private Object object6;
+    private Object object7;
+    private Object object8;
+    private Object object9;
+    private Object object10;
+    private Object object11;
+    private Object object12;
+    private Object object13;
+    private Object object14;
+    private Object object15;
+    private Object object16;
+
+    protected DynamicObjectBasicLarge(Shape shape) {
+        super(shape);
+    }
+
+    static final LongLocation[] PRIMITIVE_FIELD_LOCATIONS;
+    static final ObjectLocation[] OBJECT_FIELD_LOCATIONS;
+
+    abstract static class LargeLongFieldLocation extends SimpleLongFieldLocation {
+        protected LargeLongFieldLocation(int index) {
+            super(index);
+        }
+
+        @Override
+        public final Class<? extends DynamicObject> getDeclaringClass() {
+            return DynamicObjectBasicLarge.class;
+        }
+
+        @Override
+        public final int primitiveFieldCount() {
+            return 1;
+        }
+
+        @Override
+        public final void accept(LocationVisitor locationVisitor) {
+            locationVisitor.visitPrimitiveField(getIndex(), 1);
+        }
+    }
+
+    abstract static class LargeObjectFieldLocation extends SimpleObjectFieldLocation {
+        protected LargeObjectFieldLocation(int index) {
+            super(index);
+        }
+
+        @Override
+        public final Class<? extends DynamicObject> getDeclaringClass() {
+            return DynamicObjectBasicLarge.class;
+        }
+    }
+
+    static {
+        int index;
+
+        index = DynamicObjectBasic.PRIMITIVE_FIELD_LOCATIONS.length;
+        PRIMITIVE_FIELD_LOCATIONS = new LongLocation[]{
+                        DynamicObjectBasic.PRIMITIVE_FIELD_LOCATIONS[0],
+                        DynamicObjectBasic.PRIMITIVE_FIELD_LOCATIONS[1],
+                        DynamicObjectBasic.PRIMITIVE_FIELD_LOCATIONS[2],
+                        new LargeLongFieldLocation(index++) {
+                            @Override
+                            public long getLong(DynamicObject store, boolean condition) {
+                                return ((DynamicObjectBasicLarge) store).primitive4;
+                            }
+
+                            @Override
+                            public void setLong(DynamicObject store, long value, boolean condition) {
+                                ((DynamicObjectBasicLarge) store).primitive4 = value;
+                            }
+                        },
+                        new LargeLongFieldLocation(index++) {
+                            @Override
+                            public long getLong(DynamicObject store, boolean condition) {
+                                return ((DynamicObjectBasicLarge) store).primitive5;
+                            }
+
+                            @Override
+                            public void setLong(DynamicObject store, long value, boolean condition) {
+                                ((DynamicObjectBasicLarge) store).primitive5 = value;
+                            }
+                        },
+                        new LargeLongFieldLocation(index++) {
+                            @Override
+                            public long getLong(DynamicObject store, boolean condition) {
+                                return ((DynamicObjectBasicLarge) store).primitive6;
+                            }
+
+                            @Override
+                            public void setLong(DynamicObject store, long value, boolean condition) {
+                                ((DynamicObjectBasicLarge) store).primitive6 = value;
+                            }
+                        },
+                        new LargeLongFieldLocation(index++) {
+                            @Override
+                            public long getLong(DynamicObject store, boolean condition) {
+                                return ((DynamicObjectBasicLarge) store).primitive7;
+                            }
+
+                            @Override
+                            public void setLong(DynamicObject store, long value, boolean condition) {
+                                ((DynamicObjectBasicLarge) store).primitive7 = value;
+                            }
+                        },
+                        new LargeLongFieldLocation(index++) {
+                            @Override
+                            public long getLong(DynamicObject store, boolean condition) {
+                                return ((DynamicObjectBasicLarge) store).primitive8;
+                            }
+
+                            @Override
+                            public void setLong(DynamicObject store, long value, boolean condition) {
+                                ((DynamicObjectBasicLarge) store).primitive8 = value;
+                            }
+                        },
+                        new LargeLongFieldLocation(index++) {
+                            @Override
+                            public long getLong(DynamicObject store, boolean condition) {
+                                return ((DynamicObjectBasicLarge) store).primitive9;
+                            }
+
+                            @Override
+                            public void setLong(DynamicObject store, long value, boolean condition) {
+                                ((DynamicObjectBasicLarge) store).primitive9 = value;
+                            }
+                        },
+                        new LargeLongFieldLocation(index++) {
+                            @Override
+                            public long getLong(DynamicObject store, boolean condition) {
+                                return ((DynamicObjectBasicLarge) store).primitive10;
+                            }
+
+                            @Override
+                            public void setLong(DynamicObject store, long value, boolean condition) {
+                                ((DynamicObjectBasicLarge) store).primitive10 = value;
+                            }
+                        },
+                        new LargeLongFieldLocation(index++) {
+                            @Override
+                            public long getLong(DynamicObject store, boolean condition) {
+                                return ((DynamicObjectBasicLarge) store).primitive11;
+                            }
+
+                            @Override
+                            public void setLong(DynamicObject store, long value, boolean condition) {
+                                ((DynamicObjectBasicLarge) store).primitive11 = value;
+                            }
+                        },
+                        new LargeLongFieldLocation(index++) {
+                            @Override
+                            public long getLong(DynamicObject store, boolean condition) {
+                                return ((DynamicObjectBasicLarge) store).primitive12;
+                            }
+
+                            @Override
+                            public void setLong(DynamicObject store, long value, boolean condition) {
+                                ((DynamicObjectBasicLarge) store).primitive12 = value;
+                            }
+                        },
+                        new LargeLongFieldLocation(index++) {
+                            @Override
+                            public long getLong(DynamicObject store, boolean condition) {
+                                return ((DynamicObjectBasicLarge) store).primitive13;
+                            }
+
+                            @Override
+                            public void setLong(DynamicObject store, long value, boolean condition) {
+                                ((DynamicObjectBasicLarge) store).primitive13 = value;
+                            }
+                        },
+                        new LargeLongFieldLocation(index++) {
+                            @Override
+                            public long getLong(DynamicObject store, boolean condition) {
+                                return ((DynamicObjectBasicLarge) store).primitive14;
+                            }
+
+                            @Override
+                            public void setLong(DynamicObject store, long value, boolean condition) {
+                                ((DynamicObjectBasicLarge) store).primitive14 = value;
+                            }
+                        },
+                        new LargeLongFieldLocation(index++) {
+                            @Override
+                            public long getLong(DynamicObject store, boolean condition) {
+                                return ((DynamicObjectBasicLarge) store).primitive15;
+                            }
+
+                            @Override
+                            public void setLong(DynamicObject store, long value, boolean condition) {
+                                ((DynamicObjectBasicLarge) store).primitive15 = value;
+                            }
+                        },
+                        new LargeLongFieldLocation(index++) {
+                            @Override
+                            public long getLong(DynamicObject store, boolean condition) {
+                                return ((DynamicObjectBasicLarge) store).primitive16;
+                            }
+
+                            @Override
+                            public void setLong(DynamicObject store, long value, boolean condition) {
+                                ((DynamicObjectBasicLarge) store).primitive16 = value;
+                            }
+                        }};
+
+        index = DynamicObjectBasic.OBJECT_FIELD_LOCATIONS.length;
+        OBJECT_FIELD_LOCATIONS = new ObjectLocation[]{
+                        DynamicObjectBasic.OBJECT_FIELD_LOCATIONS[0],
+                        DynamicObjectBasic.OBJECT_FIELD_LOCATIONS[1],
+                        DynamicObjectBasic.OBJECT_FIELD_LOCATIONS[2],
+                        DynamicObjectBasic.OBJECT_FIELD_LOCATIONS[3],
+                        new LargeObjectFieldLocation(index++) {
+                            @Override
+                            public Object get(DynamicObject store, boolean condition) {
+                                return ((DynamicObjectBasicLarge) store).object5;
+                            }
+
+                            @Override
+                            public void setInternal(DynamicObject store, Object value, boolean condition) {
+                                ((DynamicObjectBasicLarge) store).object5 = value;
+                            }
+                        },
+                        new LargeObjectFieldLocation(index++) {
+                            @Override
+                            public Object get(DynamicObject store, boolean condition) {
+                                return ((DynamicObjectBasicLarge) store).object6;
+                            }
+
+                            @Override
+                            public void setInternal(DynamicObject store, Object value, boolean condition) {
+                                ((DynamicObjectBasicLarge) store).object6 = value;
+                            }
+                        },
+                        new LargeObjectFieldLocation(index++) {
+                            @Override
+                            public Object get(DynamicObject store, boolean condition) {
+                                return ((DynamicObjectBasicLarge) store).object7;
+                            }
+
+                            @Override
+                            public void setInternal(DynamicObject store, Object value, boolean condition) {
+                                ((DynamicObjectBasicLarge) store).object7 = value;
+                            }
+                        },
+                        new LargeObjectFieldLocation(index++) {
+                            @Override
+                            public Object get(DynamicObject store, boolean condition) {
+                                return ((DynamicObjectBasicLarge) store).object8;
+                            }
+
+                            @Override
+                            public void setInternal(DynamicObject store, Object value, boolean condition) {
+                                ((DynamicObjectBasicLarge) store).object8 = value;
+                            }
+                        },
+                        new LargeObjectFieldLocation(index++) {
+                            @Override
+                            public Object get(DynamicObject store, boolean condition) {
+                                return ((DynamicObjectBasicLarge) store).object9;
+                            }
+
+                            @Override
+                            public void setInternal(DynamicObject store, Object value, boolean condition) {
+                                ((DynamicObjectBasicLarge) store).object9 = value;
+                            }
+                        },
+                        new LargeObjectFieldLocation(index++) {
+                            @Override
+                            public Object get(DynamicObject store, boolean condition) {
+                                return ((DynamicObjectBasicLarge) store).object10;
+                            }
+
+                            @Override
+                            public void setInternal(DynamicObject store, Object value, boolean condition) {
+                                ((DynamicObjectBasicLarge) store).object10 = value;
+                            }
+                        },
+                        new LargeObjectFieldLocation(index++) {
+                            @Override
+                            public Object get(DynamicObject store, boolean condition) {
+                                return ((DynamicObjectBasicLarge) store).object11;
+                            }
+
+                            @Override
+                            public void setInternal(DynamicObject store, Object value, boolean condition) {
+                                ((DynamicObjectBasicLarge) store).object11 = value;
+                            }
+                        },
+                        new LargeObjectFieldLocation(index++) {
+                            @Override
+                            public Object get(DynamicObject store, boolean condition) {
+                                return ((DynamicObjectBasicLarge) store).object12;
+                            }
+
+                            @Override
+                            public void setInternal(DynamicObject store, Object value, boolean condition) {
+                                ((DynamicObjectBasicLarge) store).object12 = value;
+                            }
+                        },
+                        new LargeObjectFieldLocation(index++) {
+                            @Override
+                            public Object get(DynamicObject store, boolean condition) {
+                                return ((DynamicObjectBasicLarge) store).object13;
+                            }
+
+                            @Override
+                            public void setInternal(DynamicObject store, Object value, boolean condition) {
+                                ((DynamicObjectBasicLarge) store).object13 = value;
+                            }
+                        },
+                        new LargeObjectFieldLocation(index++) {
+                            @Override
+                            public Object get(DynamicObject store, boolean condition) {
+                                return ((DynamicObjectBasicLarge) store).object14;
+                            }
+
+                            @Override
+                            public void setInternal(DynamicObject store, Object value, boolean condition) {
+                                ((DynamicObjectBasicLarge) store).object14 = value;
+                            }
+                        },
+                        new LargeObjectFieldLocation(index++) {
+                            @Override
+                            public Object get(DynamicObject store, boolean condition) {
+                                return ((DynamicObjectBasicLarge) store).object15;
+                            }
+
+                            @Override
+                            public void setInternal(DynamicObject store, Object value, boolean condition) {
+                                ((DynamicObjectBasicLarge) store).object15 = value;
+                            }
+                        },
+                        new LargeObjectFieldLocation(index++) {
+                            @Override
+                            public Object get(DynamicObject store, boolean condition) {
+                                return ((DynamicObjectBasicLarge) store).object16;
+                            }
+
+                            @Override
+                            public void setInternal(DynamicObject store, Object value, boolean condition) {
+                                ((DynamicObjectBasicLarge) store).object16 = value;
+                            }
+                        }};
+    }
+}
@@ -92,7 +92,17 @@ public abstract class LayoutImpl extends Layout {
 
     @Override
     public final Shape createShape(ObjectType objectType, Object sharedData, int flags) {
-        return newShape(objectType, sharedData, ShapeImpl.checkObjectFlags(flags));
+        return createShape(objectType, sharedData, flags, 0);
+    }
+
+    /** @since 20.1 */
+    @Override
+    public final Shape createShape(ObjectType objectType, Object sharedData, int flags, int expectedPropertyCount) {
+        int objectFlags = ShapeImpl.checkObjectFlags(flags);
+        if (expectedPropertyCount < 0) {
+            throw new IllegalArgumentException("expectedPropertyCount must not be negative");
+        }
+        return strategy.selectRootLayout(this, objectType, sharedData, objectFlags, expectedPropertyCount).newShape(objectType, sharedData, objectFlags);
     }
 
     /** @since 0.17 or earlier */
@@ -47,6 +47,7 @@ import java.util.ListIterator;
 import com.oracle.truffle.api.object.DynamicObject;
 import com.oracle.truffle.api.object.Location;
 import com.oracle.truffle.api.object.LocationFactory;
+import com.oracle.truffle.api.object.ObjectType;
 import com.oracle.truffle.api.object.Property;
 import com.oracle.truffle.api.object.Shape;
 import com.oracle.truffle.object.ShapeImpl.BaseAllocator;
@@ -285,6 +286,7 @@ public abstract class LayoutStrategy {
 
         ShapeImpl newShape = ShapeImpl.makeShapeWithAddedProperty(oldShape, addTransition);
         oldShape.addDirectTransition(addTransition, newShape);
+        onPropertyAdded(newShape);
         if (!oldShape.isValid()) {
             newShape.invalidateValidAssumption();
             return ensureValid ? ensureValid(newShape) : newShape;
@@ -321,6 +323,26 @@ public abstract class LayoutStrategy {
         }
     }
 
+    /**
+     * Selects the layout of a new root shape. Layouts with several object size classes can use the
+     * expected property count, or the shapes previously created from an equal root shape, to pick a
+     * class with enough in-object fields.
+     *
+     * @since 20.1
+     */
+    @SuppressWarnings("unused")
+    protected LayoutImpl selectRootLayout(LayoutImpl layout, ObjectType objectType, Object sharedData, int flags, int expectedPropertyCount) {
+        return layout;
+    }
+
+    /**
+     * Called after a shape has been created by adding a property to its parent.
+     *
+     * @since 20.1
+     */
+    protected void onPropertyAdded(@SuppressWarnings("unused") ShapeImpl newShape) {
+    }
+
     /** @since 0.17 or earlier */
     protected ShapeImpl addPrimitiveExtensionArray(ShapeImpl shape) {
         LayoutImpl layout = shape.getLayout();
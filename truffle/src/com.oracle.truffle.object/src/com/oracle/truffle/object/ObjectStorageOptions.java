@@ -68,6 +68,12 @@ public final class ObjectStorageOptions {
      */
     public static final boolean InObjectFields = booleanOption(OPTION_PREFIX + "InObjectFields", true);
 
+    /**
+     * Allocation of objects with more in-object fields for object types whose shapes spilled into
+     * the extension arrays before.
+     */
+    static final boolean InObjectSizeClasses = booleanOption(OPTION_PREFIX + "InObjectSizeClasses", true);
+
     static final boolean TriePropertyMap = booleanOption(OPTION_PREFIX + "TriePropertyMap", true);
 
     // Debug options (should be final)
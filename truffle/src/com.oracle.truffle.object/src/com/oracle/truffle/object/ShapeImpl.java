@@ -135,7 +135,7 @@ public abstract class ShapeImpl extends Shape {
      * <ol>
      * <li>{@code null}: empty map
      * <li>{@link Map.Entry}: immutable single entry map
-     * <li>{@link Map}: mutable multiple entry map
+     * <li>{@link TransitionMap}: immutable multiple entry map, replaced on update (copy-on-write)
      * </ol>
      *
      * @see #queryTransition(Transition)
@@ -343,47 +343,25 @@ public abstract class ShapeImpl extends Shape {
                 next = newSingleEntry(transition, successor);
             } else if (isSingleEntry(prev)) {
                 StrongKeyWeakValueEntry<Transition, ShapeImpl> entry = asSingleEntry(prev);
-                Transition exTra = entry.getKey();
-                ShapeImpl exSucc = entry.getValue();
-                if (exSucc != null) {
-                    next = newTransitionMap(exTra, exSucc, transition, successor);
+                if (entry.getValue() != null) {
+                    next = TransitionMap.create(entry, transition, successor);
                 } else {
                     next = newSingleEntry(transition, successor);
                 }
             } else {
-                next = addToTransitionMap(transition, successor, prev);
-            }
-            if (prev == next) {
-                break;
+                assert isTransitionMap(prev);
+                next = asTransitionMap(prev).copyAndPut(transition, successor);
             }
         } while (!TRANSITION_MAP_UPDATER.compareAndSet(this, prev, next));
     }
 
-    private static Object newTransitionMap(Transition firstTransition, ShapeImpl firstShape, Transition secondTransition, ShapeImpl secondShape) {
-        Map<Transition, ShapeImpl> map = newTransitionMap();
-        map.put(firstTransition, firstShape);
-        map.put(secondTransition, secondShape);
-        return map;
-    }
-
-    private static Object addToTransitionMap(Transition transition, ShapeImpl successor, Object prevMap) {
-        assert isTransitionMap(prevMap);
-        Map<Transition, ShapeImpl> map = asTransitionMap(prevMap);
-        map.put(transition, successor);
-        return map;
-    }
-
-    private static Map<Transition, ShapeImpl> newTransitionMap() {
-        return new TransitionMap<>();
-    }
-
     @SuppressWarnings("unchecked")
-    private static Map<Transition, ShapeImpl> asTransitionMap(Object map) {
-        return (Map<Transition, ShapeImpl>) map;
+    private static TransitionMap<Transition, ShapeImpl> asTransitionMap(Object map) {
+        return (TransitionMap<Transition, ShapeImpl>) map;
     }
 
     private static boolean isTransitionMap(Object trans) {
-        return trans instanceof Map<?, ?>;
+        return trans instanceof TransitionMap<?, ?>;
     }
 
     private static Object newSingleEntry(Transition transition, ShapeImpl successor) {
@@ -428,8 +406,7 @@ public abstract class ShapeImpl extends Shape {
             }
         } else {
             assert isTransitionMap(trans);
-            Map<Transition, ShapeImpl> map = asTransitionMap(trans);
-            map.forEach(consumer);
+            asTransitionMap(trans).forEach(consumer);
         }
     }
 
@@ -447,8 +424,7 @@ public abstract class ShapeImpl extends Shape {
             }
         } else {
             assert isTransitionMap(trans);
-            Map<Transition, ShapeImpl> map = asTransitionMap(trans);
-            return map.get(transition);
+            return asTransitionMap(trans).get(transition);
         }
     }
 
@@ -1,5 +1,5 @@
 /*
- * Copyright (c) 2019, Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2019, 2020, Oracle and/or its affiliates. All rights reserved.
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
  *
  * The Universal Permissive License (UPL), Version 1.0
@@ -40,8 +40,6 @@
  */
 package com.oracle.truffle.object;
 
-import java.lang.ref.Reference;
-import java.lang.ref.ReferenceQueue;
 import java.util.Collection;
 import java.util.Map;
 import java.util.Set;
@@ -51,16 +49,45 @@ import org.graalvm.collections.EconomicMap;
 import org.graalvm.collections.MapCursor;
 
 /**
- * A synchronized hash map with weakly referenced values. Cleared value references are expunged only
- * when the map is mutated.
+ * An immutable hash map with weakly referenced values, used as the copy-on-write backing store of
+ * shape transitions. Instances are never mutated after publication, so lookups do not require any
+ * synchronization; adding an entry creates a copy that is published by the owning shape with a
+ * compare-and-set. Cleared value references are expunged whenever the map is copied.
  */
 final class TransitionMap<K, V> implements Map<K, V> {
     private final EconomicMap<K, StrongKeyWeakValueEntry<K, V>> map;
-    private final ReferenceQueue<V> queue;
 
-    TransitionMap() {
-        this.map = EconomicMap.create();
-        this.queue = new ReferenceQueue<>();
+    private TransitionMap(EconomicMap<K, StrongKeyWeakValueEntry<K, V>> map) {
+        this.map = map;
+    }
+
+    /**
+     * Creates a new map with the given two entries.
+     */
+    static <K, V> TransitionMap<K, V> create(StrongKeyWeakValueEntry<K, V> first, K secondKey, V secondValue) {
+        EconomicMap<K, StrongKeyWeakValueEntry<K, V>> newMap = EconomicMap.create();
+        newMap.put(first.getKey(), first);
+        newMap.put(secondKey, new StrongKeyWeakValueEntry<>(secondKey, secondValue));
+        return new TransitionMap<>(newMap);
+    }
+
+    /**
+     * Returns a copy of this map with the given entry added or replaced. Entries whose values have
+     * been garbage collected are not copied.
+     */
+    TransitionMap<K, V> copyAndPut(K key, V value) {
+        EconomicMap<K, StrongKeyWeakValueEntry<K, V>> newMap = EconomicMap.create(map.size() + 1);
+        MapCursor<K, StrongKeyWeakValueEntry<K, V>> cursor = map.getEntries();
+        while (cursor.advance()) {
+            StrongKeyWeakValueEntry<K, V> entry = cursor.getValue();
+            if (entry.get() != null) {
+                newMap.put(cursor.getKey(), entry);
+            } else {
+                ShapeImpl.shapeCacheExpunged.inc();
+            }
+        }
+        newMap.put(key, new StrongKeyWeakValueEntry<>(key, value));
+        return new TransitionMap<>(newMap);
     }
 
     @Override
@@ -68,67 +95,37 @@ final class TransitionMap<K, V> implements Map<K, V> {
         return get(key) != null;
     }
 
-    private V getValue(StrongKeyWeakValueEntry<K, V> entry) {
+    @SuppressWarnings("unchecked")
+    @Override
+    public V get(Object key) {
+        StrongKeyWeakValueEntry<K, V> entry = map.get((K) key);
         return entry == null ? null : entry.get();
     }
 
-    @SuppressWarnings("unchecked")
     @Override
-    public V get(Object key) {
-        synchronized (queue) {
-            return getValue(map.get((K) key));
+    public void forEach(BiConsumer<? super K, ? super V> consumer) {
+        MapCursor<K, StrongKeyWeakValueEntry<K, V>> cursor = map.getEntries();
+        while (cursor.advance()) {
+            V value = cursor.getValue().get();
+            if (value != null) {
+                consumer.accept(cursor.getKey(), value);
+            }
         }
     }
 
     @Override
     public V put(K key, V value) {
-        synchronized (queue) {
-            expungeStaleEntries();
-            return getValue(map.put(key, new StrongKeyWeakValueEntry<>(key, value, queue)));
-        }
+        throw new UnsupportedOperationException();
     }
 
-    @SuppressWarnings("unchecked")
     @Override
     public V remove(Object key) {
-        synchronized (queue) {
-            expungeStaleEntries();
-            return getValue(map.removeKey((K) key));
-        }
-    }
-
-    @SuppressWarnings("unchecked")
-    private void expungeStaleEntries() {
-        for (Reference<? extends V> x; (x = queue.poll()) != null;) {
-            StrongKeyWeakValueEntry<K, V> ex = (StrongKeyWeakValueEntry<K, V>) x;
-            if (map.get(ex.getKey()) == ex) {
-                map.removeKey(ex.getKey());
-                ShapeImpl.shapeCacheExpunged.inc();
-            }
-        }
+        throw new UnsupportedOperationException();
     }
 
     @Override
     public void clear() {
-        synchronized (queue) {
-            while (queue.poll() != null) {
-                // clear out ref queue.
-            }
-            map.clear();
-        }
-    }
-
-    @Override
-    public void forEach(BiConsumer<? super K, ? super V> consumer) {
-        synchronized (queue) {
-            MapCursor<K, StrongKeyWeakValueEntry<K, V>> cursor = map.getEntries();
-            while (cursor.advance()) {
-                V value = cursor.getValue().get();
-                if (value != null) {
-                    consumer.accept(cursor.getKey(), value);
-                }
-            }
-        }
+        throw new UnsupportedOperationException();
     }
 
     @Override
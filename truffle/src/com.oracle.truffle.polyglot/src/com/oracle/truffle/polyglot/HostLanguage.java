@@ -242,6 +242,12 @@ class HostLanguage extends TruffleLanguage<HostContext> {
         super.disposeContext(context);
     }
 
+    @Override
+    protected boolean resetContext(HostContext context) {
+        // the host context has no guest visible global state
+        return true;
+    }
+
     @Override
     protected HostContext createContext(com.oracle.truffle.api.TruffleLanguage.Env env) {
         return new HostContext();
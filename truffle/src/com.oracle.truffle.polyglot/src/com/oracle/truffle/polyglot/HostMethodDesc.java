@@ -43,6 +43,7 @@ package com.oracle.truffle.polyglot;
 import java.lang.annotation.Annotation;
 import java.lang.invoke.MethodHandle;
 import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Executable;
 import java.lang.reflect.InvocationTargetException;
@@ -276,6 +277,13 @@ abstract class HostMethodDesc {
         }
 
         abstract static class MHBase extends SingleMethod {
+
+            /*
+             * Methods with up to this number of parameters are invoked with a method handle that
+             * takes every argument separately instead of spreading an argument array.
+             */
+            static final int MAX_DIRECT_ARITY = 4;
+
             @CompilationFinal private MethodHandle methodHandle;
 
             MHBase(Executable executable) {
@@ -299,20 +307,43 @@ abstract class HostMethodDesc {
 
             @TruffleBoundary(allowInlining = true)
             static Object invokeHandle(MethodHandle invokeHandle, Object receiver, Object[] arguments) throws Throwable {
-                return invokeHandle.invokeExact(receiver, arguments);
+                // the arity matches the handle type created by adaptSignature
+                switch (arguments.length) {
+                    case 0:
+                        return invokeHandle.invokeExact(receiver);
+                    case 1:
+                        return invokeHandle.invokeExact(receiver, arguments[0]);
+                    case 2:
+                        return invokeHandle.invokeExact(receiver, arguments[0], arguments[1]);
+                    case 3:
+                        return invokeHandle.invokeExact(receiver, arguments[0], arguments[1], arguments[2]);
+                    case 4:
+                        return invokeHandle.invokeExact(receiver, arguments[0], arguments[1], arguments[2], arguments[3]);
+                    default:
+                        assert arguments.length > MAX_DIRECT_ARITY;
+                        return invokeHandle.invokeExact(receiver, arguments);
+                }
             }
 
             protected abstract MethodHandle makeMethodHandle();
 
+            /**
+             * Adapts a method handle to the type <code>(Object, Object...)Object</code> for use with
+             * {@link #invokeHandle(MethodHandle, Object, Object[])}. The receiver is dropped for
+             * static methods and constructors. Up to {@link #MAX_DIRECT_ARITY} parameters are
+             * passed as separate arguments; otherwise they are spread from an argument array.
+             */
             protected static MethodHandle adaptSignature(MethodHandle originalHandle, boolean isStatic, int parameterCount) {
                 MethodHandle adaptedHandle = originalHandle;
-                adaptedHandle = adaptedHandle.asType(adaptedHandle.type().changeReturnType(Object.class));
                 if (isStatic) {
                     adaptedHandle = MethodHandles.dropArguments(adaptedHandle, 0, Object.class);
+                }
+                if (parameterCount <= MAX_DIRECT_ARITY) {
+                    adaptedHandle = adaptedHandle.asType(MethodType.genericMethodType(parameterCount + 1));
                 } else {
-                    adaptedHandle = adaptedHandle.asType(adaptedHandle.type().changeParameterType(0, Object.class));
+                    adaptedHandle = adaptedHandle.asType(adaptedHandle.type().changeReturnType(Object.class).changeParameterType(0, Object.class));
+                    adaptedHandle = adaptedHandle.asSpreader(Object[].class, parameterCount);
                 }
-                adaptedHandle = adaptedHandle.asSpreader(Object[].class, parameterCount);
                 return adaptedHandle;
             }
 
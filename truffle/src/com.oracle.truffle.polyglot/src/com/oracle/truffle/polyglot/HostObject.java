@@ -611,6 +611,34 @@ final class HostObject implements TruffleObject {
         throw UnsupportedMessageException.create();
     }
 
+    @ExportMessage
+    void readArrayElements(long index, Object destination, int offset, int length,
+                    @Shared("isArray") @Cached IsArrayNode isArray) throws UnsupportedMessageException, InvalidArrayIndexException {
+        if (!isArray.execute(this) || obj.getClass() != destination.getClass()) {
+            throw UnsupportedMessageException.create();
+        }
+        int start = checkArrayRange(index, length);
+        System.arraycopy(obj, start, destination, offset, length);
+    }
+
+    @ExportMessage
+    void writeArrayElements(long index, Object source, int offset, int length,
+                    @Shared("isArray") @Cached IsArrayNode isArray) throws UnsupportedMessageException, InvalidArrayIndexException {
+        if (!isArray.execute(this) || obj.getClass() != source.getClass()) {
+            throw UnsupportedMessageException.create();
+        }
+        int start = checkArrayRange(index, length);
+        System.arraycopy(source, offset, obj, start, length);
+    }
+
+    private int checkArrayRange(long index, int length) throws InvalidArrayIndexException {
+        int size = Array.getLength(obj);
+        if (index < 0 || index > size - length) {
+            throw InvalidArrayIndexException.create(index < 0 ? index : Math.max(index, size));
+        }
+        return (int) index;
+    }
+
     @TruffleBoundary(allowInlining = true)
     int getListSize() {
         return ((List<?>) obj).size();
@@ -150,6 +150,11 @@ final class PolyglotContextImpl extends AbstractContextImpl implements com.oracl
 
     final Assumption singleThreaded = Truffle.getRuntime().createAssumption("Single threaded");
     private final Map<Thread, PolyglotThreadInfo> threads = new WeakHashMap<>();
+    /*
+     * Thread infos of threads that were already initialized for this context. Allows entering and
+     * leaving a multi-threaded context without acquiring the context lock.
+     */
+    private final ThreadLocal<PolyglotThreadInfo> seenThreadInfo = new ThreadLocal<>();
 
     private volatile PolyglotThreadInfo currentThreadInfo = PolyglotThreadInfo.NULL;
     @CompilationFinal private volatile PolyglotThreadInfo constantCurrentThreadInfo = PolyglotThreadInfo.NULL;
@@ -274,6 +279,34 @@ final class PolyglotContextImpl extends AbstractContextImpl implements com.oracl
         PolyglotLimits.reset(this);
     }
 
+    @Override
+    public boolean reset() {
+        synchronized (this) {
+            checkClosed();
+            if (isActive() || !childContexts.isEmpty()) {
+                return false;
+            }
+        }
+        Object prev = engine.enter(this);
+        try {
+            for (PolyglotLanguageContext context : contexts) {
+                if (!context.reset()) {
+                    return false;
+                }
+            }
+        } catch (Throwable t) {
+            throw PolyglotImpl.wrapGuestException(engine, t);
+        } finally {
+            engine.leave(prev, this);
+        }
+        Map<String, Value> bindings = this.polyglotBindings;
+        if (bindings != null) {
+            bindings.clear();
+        }
+        PolyglotLimits.reset(this);
+        return true;
+    }
+
     private PolyglotLanguageContext[] createContextArray() {
         Collection<PolyglotLanguage> languages = engine.idToLanguage.values();
         PolyglotLanguageContext[] newContexts = new PolyglotLanguageContext[engine.contextLength];
@@ -450,6 +483,30 @@ final class PolyglotContextImpl extends AbstractContextImpl implements com.oracl
 
     @TruffleBoundary
     PolyglotContextImpl enterThreadChanged() {
+        PolyglotThreadInfo seenInfo = seenThreadInfo.get();
+        if (seenInfo != null && !singleThreaded.isValid()) {
+            /*
+             * Lock-free path for threads that entered this multi-threaded context before. The
+             * entered count is published before the context state is checked. A concurrent close
+             * publishes the closing thread before it checks for active threads, so at least one of
+             * the two threads sees the other.
+             */
+            PolyglotContextImpl prev = (PolyglotContextImpl) singleContextState.contextThreadLocal.setReturnParent(this);
+            seenInfo.enter(engine);
+            if (!isClosingOrCancelling()) {
+                return prev;
+            }
+            seenInfo.leave(engine);
+            singleContextState.contextThreadLocal.set(prev);
+        }
+        return enterThreadChangedLocked();
+    }
+
+    private boolean isClosingOrCancelling() {
+        return closed || closingThread != null || cancelling || invalid || engine.closed;
+    }
+
+    private PolyglotContextImpl enterThreadChangedLocked() {
         Thread current = Thread.currentThread();
         PolyglotContextImpl prev;
         boolean needsInitialization = false;
@@ -490,6 +547,7 @@ final class PolyglotContextImpl extends AbstractContextImpl implements com.oracl
 
             if (needsInitialization) {
                 initializeNewThread(current);
+                seenThreadInfo.set(threadInfo);
             }
 
             // never cache last thread on close or when closingThread
@@ -546,6 +604,38 @@ final class PolyglotContextImpl extends AbstractContextImpl implements com.oracl
 
     @TruffleBoundary
     PolyglotThreadInfo leaveThreadChanged() {
+        PolyglotThreadInfo seenInfo = seenThreadInfo.get();
+        if (seenInfo != null && !singleThreaded.isValid() && !isClosingOrCancelling()) {
+            /*
+             * Lock-free path, see enterThreadChanged. The entered count is published before the
+             * context state is checked again, so a close or cancel that started in the meantime
+             * either sees this thread as inactive or is seen here.
+             */
+            boolean lastActive = seenInfo.isLastActive();
+            seenInfo.leave(engine);
+            if (isClosingOrCancelling()) {
+                leftWhileClosingOrCancelling(lastActive);
+            }
+            return seenInfo;
+        }
+        return leaveThreadChangedLocked();
+    }
+
+    /**
+     * Completes a lock-free leave that raced with a close or cancel, like the locked leave would
+     * have: the thread info is no longer cached, the last active thread of a cancelled context is
+     * marked as closed, and the closing thread is woken up.
+     */
+    private synchronized void leftWhileClosingOrCancelling(boolean lastActive) {
+        setCachedThreadInfo(PolyglotThreadInfo.NULL);
+        if (cancelling && lastActive) {
+            notifyThreadClosed();
+        } else {
+            notifyAll();
+        }
+    }
+
+    private PolyglotThreadInfo leaveThreadChangedLocked() {
         PolyglotThreadInfo info;
         synchronized (this) {
             Thread current = Thread.currentThread();
@@ -1032,13 +1122,19 @@ final class PolyglotContextImpl extends AbstractContextImpl implements com.oracl
                     }
                 }
 
+                /*
+                 * The closing thread is published before checking for active threads, such that
+                 * threads entering without the context lock either see the close or are seen as
+                 * active.
+                 */
+                closingThread = Thread.currentThread();
                 if (hasActiveOtherThread(waitForPolyglotThreads)) {
                     /*
                      * We are not done executing, cannot close yet.
                      */
+                    closingThread = null;
                     return false;
                 }
-                closingThread = Thread.currentThread();
                 if (!threadInfo.explicitContextStack.isEmpty()) {
                     PolyglotContextImpl c = this;
                     while (!threadInfo.explicitContextStack.isEmpty()) {
@@ -65,4 +65,16 @@ final class PolyglotEngineOptions {
                     "This allows invalid sharing between contexts. " +
                     "For testing purposes only.")//
     static final OptionKey<Boolean> UseConservativeContextReferences = new OptionKey<>(false);
+
+    @Option(category = OptionCategory.EXPERT, stability = OptionStability.EXPERIMENTAL, help = "Maximum number of parsed sources cached per language. " +
+                    "The least recently used source is evicted first. Set to 0 for no limit (default: 0).")//
+    static final OptionKey<Integer> SourceCacheEntries = new OptionKey<>(0);
+
+    @Option(category = OptionCategory.EXPERT, stability = OptionStability.EXPERIMENTAL, help = "Maximum number of AST nodes of parsed sources cached per language. " +
+                    "The least recently used source is evicted first. Set to 0 for no limit (default: 0).")//
+    static final OptionKey<Long> SourceCacheNodes = new OptionKey<>(0L);
+
+    @Option(category = OptionCategory.EXPERT, stability = OptionStability.EXPERIMENTAL, help = "Caches parsed sources by their language, MIME type and contents only. " +
+                    "Sources that differ only in name or path share their parse result (default: false).")//
+    static final OptionKey<Boolean> SourceCacheContentKeys = new OptionKey<>(false);
 }
@@ -343,6 +343,14 @@ final class PolyglotLanguageContext implements PolyglotImpl.VMObject {
         return false;
     }
 
+    boolean reset() {
+        Env localEnv = this.env;
+        if (localEnv != null) {
+            return LANGUAGE.resetContext(localEnv);
+        }
+        return true;
+    }
+
     boolean dispose() {
         assert Thread.holdsLock(context);
         Env localEnv = this.env;
@@ -241,6 +241,11 @@ final class PolyglotManagement extends AbstractManagementImpl {
         return hasTag(impl, StandardTags.RootTag.class);
     }
 
+    @Override
+    public long[] getSourceCacheStatistics(Engine engineAPI) {
+        return getEngine(engineAPI).sourceCacheStatistics.toArray();
+    }
+
     private static boolean hasTag(Object impl, Class<? extends Tag> tag) {
         try {
             return ((Event) impl).getContext().hasTag(tag);
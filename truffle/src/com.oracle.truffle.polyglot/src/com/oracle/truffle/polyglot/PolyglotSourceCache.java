@@ -42,23 +42,53 @@ package com.oracle.truffle.polyglot;
 
 import static com.oracle.truffle.polyglot.EngineAccessor.LANGUAGE;
 
+import java.lang.ref.Reference;
 import java.lang.ref.ReferenceQueue;
 import java.lang.ref.WeakReference;
 import java.util.Arrays;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 import com.oracle.truffle.api.CallTarget;
+import com.oracle.truffle.api.RootCallTarget;
+import com.oracle.truffle.api.nodes.NodeUtil;
 import com.oracle.truffle.api.source.Source;
 
 final class PolyglotSourceCache {
 
-    private final ConcurrentHashMap<Object, CallTarget> sourceCache;
+    /*
+     * Used if no entry or node limit is set. Lookups do not lock.
+     */
+    private final ConcurrentHashMap<Object, CacheEntry> sourceCache;
+    /*
+     * Used if an entry or node limit is set. Entries in access order, the eldest entry is evicted
+     * first if the cache exceeds its entry or node budget. Guarded by this cache.
+     */
+    private final LinkedHashMap<Object, CacheEntry> boundedSourceCache;
     private final ReferenceQueue<Source> deadSources = new ReferenceQueue<>();
+    private final Statistics statistics;
+    private final int maxEntries;
+    private final long maxNodes;
+    private final boolean contentKeys;
+    private long nodeCount;
 
-    PolyglotSourceCache() {
-        this.sourceCache = new ConcurrentHashMap<>();
+    PolyglotSourceCache(PolyglotEngineImpl engine) {
+        this.statistics = engine.sourceCacheStatistics;
+        this.maxEntries = engine.engineOptionValues.get(PolyglotEngineOptions.SourceCacheEntries);
+        this.maxNodes = engine.engineOptionValues.get(PolyglotEngineOptions.SourceCacheNodes);
+        this.contentKeys = engine.engineOptionValues.get(PolyglotEngineOptions.SourceCacheContentKeys);
+        if (maxEntries > 0 || maxNodes > 0) {
+            this.sourceCache = null;
+            this.boundedSourceCache = new LinkedHashMap<>(16, 0.75f, true);
+        } else {
+            this.sourceCache = new ConcurrentHashMap<>();
+            this.boundedSourceCache = null;
+        }
     }
 
     CallTarget parseCached(PolyglotLanguageContext context, Source source, String[] argumentNames) {
@@ -66,25 +96,97 @@ final class PolyglotSourceCache {
 
         CallTarget target;
         if (source.isCached()) {
-            Object sourceId = EngineAccessor.SOURCE.getSourceIdentifier(source);
-            WeakSourceKey ref = new WeakSourceKey(sourceId, source, argumentNames, deadSources);
-            target = sourceCache.get(ref);
-            if (target == null) {
-                target = parseImpl(context, argumentNames, EngineAccessor.SOURCE.copySource(source));
-                CallTarget prev = sourceCache.putIfAbsent(ref, target);
-                if (prev != null) {
-                    /*
-                     * Parsed twice -> discard the one not in the cache.
-                     */
-                    target = prev;
-                }
+            Object key = createKey(source, argumentNames);
+            CacheEntry entry = lookup(key);
+            if (entry != null) {
+                statistics.hits.incrementAndGet();
+                return entry.target;
             }
+            statistics.misses.incrementAndGet();
+            target = parseImpl(context, argumentNames, EngineAccessor.SOURCE.copySource(source));
+            // nodes are only counted if there is a node budget
+            CacheEntry newEntry = new CacheEntry(target, maxNodes > 0 ? countNodes(target) : 0);
+            target = store(key, newEntry).target;
         } else {
             target = parseImpl(context, argumentNames, source);
         }
         return target;
     }
 
+    private CacheEntry lookup(Object key) {
+        if (boundedSourceCache == null) {
+            return sourceCache.get(key);
+        }
+        synchronized (this) {
+            return boundedSourceCache.get(key);
+        }
+    }
+
+    /*
+     * Returns the entry that ends up in the cache. If the source was parsed twice the one not in
+     * the cache is discarded.
+     */
+    private CacheEntry store(Object key, CacheEntry newEntry) {
+        if (boundedSourceCache == null) {
+            CacheEntry prev = sourceCache.putIfAbsent(key, newEntry);
+            if (prev != null) {
+                return prev;
+            }
+            added(newEntry);
+            return newEntry;
+        }
+        synchronized (this) {
+            CacheEntry prev = boundedSourceCache.get(key);
+            if (prev != null) {
+                return prev;
+            }
+            boundedSourceCache.put(key, newEntry);
+            nodeCount += newEntry.nodeCount;
+            added(newEntry);
+            evict();
+        }
+        return newEntry;
+    }
+
+    private Object createKey(Source source, String[] argumentNames) {
+        if (contentKeys) {
+            return new ContentSourceKey(source, argumentNames, deadSources);
+        } else {
+            Object sourceId = EngineAccessor.SOURCE.getSourceIdentifier(source);
+            return new WeakSourceKey(sourceId, source, argumentNames, deadSources);
+        }
+    }
+
+    private static int countNodes(CallTarget target) {
+        if (target instanceof RootCallTarget) {
+            return NodeUtil.countNodes(((RootCallTarget) target).getRootNode());
+        }
+        return 1;
+    }
+
+    private void evict() {
+        assert Thread.holdsLock(this);
+        Iterator<CacheEntry> eldest = boundedSourceCache.values().iterator();
+        // the most recently added entry is never evicted
+        while (boundedSourceCache.size() > 1 && ((maxEntries > 0 && boundedSourceCache.size() > maxEntries) || (maxNodes > 0 && nodeCount > maxNodes))) {
+            CacheEntry entry = eldest.next();
+            eldest.remove();
+            nodeCount -= entry.nodeCount;
+            removed(entry);
+            statistics.evictions.incrementAndGet();
+        }
+    }
+
+    private void added(CacheEntry entry) {
+        statistics.entries.incrementAndGet();
+        statistics.nodes.addAndGet(entry.nodeCount);
+    }
+
+    private void removed(CacheEntry entry) {
+        statistics.entries.decrementAndGet();
+        statistics.nodes.addAndGet(-entry.nodeCount);
+    }
+
     private static CallTarget parseImpl(PolyglotLanguageContext context, String[] argumentNames, Source source) {
         if (!EngineAccessor.SOURCE.isLegacySource(source)) {
             validateSource(context, source);
@@ -163,9 +265,108 @@ final class PolyglotSourceCache {
     }
 
     private void cleanupStaleEntries() {
-        WeakSourceKey sourceRef = null;
-        while ((sourceRef = (WeakSourceKey) deadSources.poll()) != null) {
-            sourceCache.remove(sourceRef);
+        Reference<? extends Source> sourceRef = null;
+        while ((sourceRef = deadSources.poll()) != null) {
+            CacheEntry entry;
+            if (boundedSourceCache == null) {
+                entry = sourceCache.remove(sourceRef);
+            } else {
+                synchronized (this) {
+                    entry = boundedSourceCache.remove(sourceRef);
+                    if (entry != null) {
+                        nodeCount -= entry.nodeCount;
+                    }
+                }
+            }
+            if (entry != null) {
+                removed(entry);
+            }
+        }
+    }
+
+    private static final class CacheEntry {
+
+        final CallTarget target;
+        final int nodeCount;
+
+        CacheEntry(CallTarget target, int nodeCount) {
+            this.target = target;
+            this.nodeCount = nodeCount;
+        }
+    }
+
+    /*
+     * Counters of all source caches of an engine.
+     */
+    static final class Statistics {
+
+        final AtomicLong hits = new AtomicLong();
+        final AtomicLong misses = new AtomicLong();
+        final AtomicLong evictions = new AtomicLong();
+        final AtomicLong entries = new AtomicLong();
+        final AtomicLong nodes = new AtomicLong();
+
+        long[] toArray() {
+            return new long[]{hits.get(), misses.get(), evictions.get(), entries.get(), nodes.get()};
+        }
+    }
+
+    /*
+     * Identifies a source by its language, MIME type and contents only. Sources with equal contents
+     * but a different name or path share one parse result, whose source sections refer to the
+     * source that was parsed first. Like WeakSourceKey the key does not keep the source or its
+     * contents alive, the entry is removed once the source that was parsed first is collected.
+     */
+    private static final class ContentSourceKey extends WeakReference<Source> {
+
+        private final String language;
+        private final String mimeType;
+        private final boolean internal;
+        private final boolean interactive;
+        private final String[] arguments;
+        private final int hashCode;
+
+        ContentSourceKey(Source source, String[] arguments, ReferenceQueue<? super Source> q) {
+            super(source, q);
+            this.language = source.getLanguage();
+            this.mimeType = source.getMimeType();
+            this.internal = source.isInternal();
+            this.interactive = source.isInteractive();
+            this.arguments = arguments != null && arguments.length == 0 ? null : arguments;
+            int contentHash = source.hasBytes() ? Arrays.hashCode(source.getBytes().toByteArray()) : source.getCharacters().toString().hashCode();
+            this.hashCode = Objects.hash(language, mimeType, contentHash, internal, interactive, Arrays.hashCode(this.arguments));
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (obj == this) {
+                return true;
+            } else if (obj instanceof ContentSourceKey) {
+                ContentSourceKey other = (ContentSourceKey) obj;
+                if (hashCode != other.hashCode || internal != other.internal || interactive != other.interactive || !Objects.equals(language, other.language) ||
+                                !Objects.equals(mimeType, other.mimeType) || !Arrays.equals(arguments, other.arguments)) {
+                    return false;
+                }
+                Source source = get();
+                Source otherSource = other.get();
+                // a collected source is only equal to its own key
+                return source != null && otherSource != null && contentEquals(source, otherSource);
+            } else {
+                return false;
+            }
+        }
+
+        private static boolean contentEquals(Source source, Source other) {
+            if (source.hasBytes()) {
+                return other.hasBytes() && Arrays.equals(source.getBytes().toByteArray(), other.getBytes().toByteArray());
+            } else {
+                return !other.hasBytes() && source.getCharacters().toString().equals(other.getCharacters().toString());
+            }
         }
     }
 
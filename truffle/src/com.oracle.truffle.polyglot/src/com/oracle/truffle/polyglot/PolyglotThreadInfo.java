@@ -46,6 +46,7 @@ import java.lang.ref.Reference;
 import java.lang.ref.WeakReference;
 import java.util.LinkedList;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
 
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 
@@ -55,7 +56,13 @@ final class PolyglotThreadInfo {
 
     private final Reference<Thread> thread;
 
-    private int enteredCount;
+    private static final AtomicIntegerFieldUpdater<PolyglotThreadInfo> ENTERED_COUNT_UPDATER = AtomicIntegerFieldUpdater.newUpdater(PolyglotThreadInfo.class, "enteredCount");
+
+    /*
+     * Only modified by the thread of this info, but read by other threads without holding the
+     * context lock, e.g. when the context is closed.
+     */
+    private volatile int enteredCount;
     final LinkedList<Object> explicitContextStack = new LinkedList<>();
     volatile boolean cancelled;
     private volatile long lastEntered;
@@ -83,7 +90,7 @@ final class PolyglotThreadInfo {
             lowerPriority();
             deprioritized = true;
         }
-        int count = ++enteredCount;
+        int count = ENTERED_COUNT_UPDATER.incrementAndGet(this);
         if (!engine.noThreadTimingNeeded.isValid() && count == 1) {
             lastEntered = getTime();
         }
@@ -147,7 +154,7 @@ final class PolyglotThreadInfo {
 
     void leave(PolyglotEngineImpl engine) {
         assert Thread.currentThread() == getThread();
-        int count = --enteredCount;
+        int count = ENTERED_COUNT_UPDATER.decrementAndGet(this);
         if (!engine.noThreadTimingNeeded.isValid() && count == 0) {
             long last = this.lastEntered;
             this.lastEntered = 0;
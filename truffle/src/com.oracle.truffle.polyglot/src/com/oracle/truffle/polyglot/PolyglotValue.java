@@ -106,10 +106,12 @@ import com.oracle.truffle.polyglot.PolyglotValueFactory.InteropCodeCacheFactory.
 import com.oracle.truffle.polyglot.PolyglotValueFactory.InteropCodeCacheFactory.IsTimeZoneNodeGen;
 import com.oracle.truffle.polyglot.PolyglotValueFactory.InteropCodeCacheFactory.NewInstanceNodeGen;
 import com.oracle.truffle.polyglot.PolyglotValueFactory.InteropCodeCacheFactory.PutMemberNodeGen;
+import com.oracle.truffle.polyglot.PolyglotValueFactory.InteropCodeCacheFactory.ReadArrayElementsNodeGen;
 import com.oracle.truffle.polyglot.PolyglotValueFactory.InteropCodeCacheFactory.RemoveArrayElementNodeGen;
 import com.oracle.truffle.polyglot.PolyglotValueFactory.InteropCodeCacheFactory.RemoveMemberNodeGen;
 import com.oracle.truffle.polyglot.PolyglotValueFactory.InteropCodeCacheFactory.SetArrayElementNodeGen;
 import com.oracle.truffle.polyglot.PolyglotValueFactory.InteropCodeCacheFactory.ThrowExceptionNodeGen;
+import com.oracle.truffle.polyglot.PolyglotValueFactory.InteropCodeCacheFactory.WriteArrayElementsNodeGen;
 
 abstract class PolyglotValue extends AbstractValueImpl {
 
@@ -178,6 +180,26 @@ abstract class PolyglotValue extends AbstractValueImpl {
         throw unsupported(context, receiver, "getArraySize()", "hasArrayElements()");
     }
 
+    @Override
+    public void readArrayElements(Object receiver, long index, Object destination, int offset, int length) {
+        throw readArrayElementsUnsupported(languageContext, receiver, destination);
+    }
+
+    @TruffleBoundary
+    static RuntimeException readArrayElementsUnsupported(PolyglotLanguageContext context, Object receiver, Object destination) {
+        throw unsupported(context, receiver, "readArrayElements(long, " + destination.getClass().getSimpleName() + ", int, int)", "hasArrayElements()");
+    }
+
+    @Override
+    public void writeArrayElements(Object receiver, long index, Object source, int offset, int length) {
+        throw writeArrayElementsUnsupported(languageContext, receiver, source);
+    }
+
+    @TruffleBoundary
+    static RuntimeException writeArrayElementsUnsupported(PolyglotLanguageContext context, Object receiver, Object source) {
+        throw unsupported(context, receiver, "writeArrayElements(long, " + source.getClass().getSimpleName() + ", int, int)", "hasArrayElements()");
+    }
+
     @Override
     public Value getMember(Object receiver, String key) {
         return getMemberUnsupported(languageContext, receiver, key);
@@ -764,6 +786,8 @@ abstract class PolyglotValue extends AbstractValueImpl {
         final CallTarget setArrayElement;
         final CallTarget removeArrayElement;
         final CallTarget getArraySize;
+        final CallTarget readArrayElements;
+        final CallTarget writeArrayElements;
         final CallTarget hasMembers;
         final CallTarget hasMember;
         final CallTarget getMember;
@@ -814,6 +838,8 @@ abstract class PolyglotValue extends AbstractValueImpl {
             this.setArrayElement = createTarget(SetArrayElementNodeGen.create(this));
             this.removeArrayElement = createTarget(RemoveArrayElementNodeGen.create(this));
             this.getArraySize = createTarget(GetArraySizeNodeGen.create(this));
+            this.readArrayElements = createTarget(ReadArrayElementsNodeGen.create(this));
+            this.writeArrayElements = createTarget(WriteArrayElementsNodeGen.create(this));
             this.hasMember = createTarget(HasMemberNodeGen.create(this));
             this.getMember = createTarget(GetMemberNodeGen.create(this));
             this.putMember = createTarget(PutMemberNodeGen.create(this));
@@ -1404,6 +1430,176 @@ abstract class PolyglotValue extends AbstractValueImpl {
 
         }
 
+        abstract static class ReadArrayElementsNode extends InteropNode {
+
+            protected ReadArrayElementsNode(InteropCodeCache interop) {
+                super(interop);
+            }
+
+            @Override
+            protected Class<?>[] getArgumentTypes() {
+                return new Class<?>[]{PolyglotLanguageContext.class, polyglot.receiverType, Long.class, null, Integer.class, Integer.class};
+            }
+
+            @Override
+            protected String getOperationName() {
+                return "readArrayElements";
+            }
+
+            @Specialization(limit = "CACHE_LIMIT")
+            static Object doCached(PolyglotLanguageContext context, Object receiver, Object[] args, //
+                            @CachedLibrary("receiver") InteropLibrary arrays,
+                            @CachedLibrary(limit = "CACHE_LIMIT") InteropLibrary elements,
+                            @Cached BranchProfile unsupported,
+                            @Cached BranchProfile invalidIndex,
+                            @Cached BranchProfile elementWise) {
+                long index = (long) args[ARGUMENT_OFFSET];
+                Object destination = args[ARGUMENT_OFFSET + 1];
+                int offset = (int) args[ARGUMENT_OFFSET + 2];
+                int length = (int) args[ARGUMENT_OFFSET + 3];
+                if (!arrays.hasArrayElements(receiver)) {
+                    unsupported.enter();
+                    throw readArrayElementsUnsupported(context, receiver, destination);
+                }
+                try {
+                    arrays.readArrayElements(receiver, index, destination, offset, length);
+                    return null;
+                } catch (UnsupportedMessageException e) {
+                    // no bulk support for this destination type
+                    elementWise.enter();
+                } catch (InvalidArrayIndexException e) {
+                    invalidIndex.enter();
+                    throw invalidArrayIndex(context, receiver, e.getInvalidIndex());
+                }
+                for (int i = 0; i < length; i++) {
+                    long elementIndex = index + i;
+                    Object element;
+                    try {
+                        element = arrays.readArrayElement(receiver, elementIndex);
+                    } catch (UnsupportedMessageException e) {
+                        unsupported.enter();
+                        throw readArrayElementsUnsupported(context, receiver, destination);
+                    } catch (InvalidArrayIndexException e) {
+                        invalidIndex.enter();
+                        throw invalidArrayIndex(context, receiver, elementIndex);
+                    }
+                    try {
+                        storeElement(elements, element, destination, offset + i);
+                    } catch (UnsupportedMessageException e) {
+                        unsupported.enter();
+                        throw invalidArrayElementType(context, element, destination, elementIndex);
+                    }
+                }
+                return null;
+            }
+
+            private static void storeElement(InteropLibrary elements, Object element, Object destination, int destinationIndex) throws UnsupportedMessageException {
+                if (destination instanceof byte[]) {
+                    ((byte[]) destination)[destinationIndex] = elements.asByte(element);
+                } else if (destination instanceof int[]) {
+                    ((int[]) destination)[destinationIndex] = elements.asInt(element);
+                } else if (destination instanceof long[]) {
+                    ((long[]) destination)[destinationIndex] = elements.asLong(element);
+                } else if (destination instanceof double[]) {
+                    ((double[]) destination)[destinationIndex] = elements.asDouble(element);
+                } else if (destination instanceof short[]) {
+                    ((short[]) destination)[destinationIndex] = elements.asShort(element);
+                } else if (destination instanceof float[]) {
+                    ((float[]) destination)[destinationIndex] = elements.asFloat(element);
+                } else {
+                    throw UnsupportedMessageException.create();
+                }
+            }
+
+            @TruffleBoundary
+            private static RuntimeException invalidArrayElementType(PolyglotLanguageContext context, Object element, Object destination, long index) {
+                Class<?> componentType = destination.getClass().getComponentType();
+                String typeName = componentType.getSimpleName();
+                String fitsIn = "fitsIn" + Character.toUpperCase(typeName.charAt(0)) + typeName.substring(1) + "()";
+                throw cannotConvert(context, element, componentType, "readArrayElements(long, " + destination.getClass().getSimpleName() + ", int, int)",
+                                "getArrayElement(" + index + ")." + fitsIn, "Invalid or lossy primitive coercion.");
+            }
+        }
+
+        abstract static class WriteArrayElementsNode extends InteropNode {
+
+            protected WriteArrayElementsNode(InteropCodeCache interop) {
+                super(interop);
+            }
+
+            @Override
+            protected Class<?>[] getArgumentTypes() {
+                return new Class<?>[]{PolyglotLanguageContext.class, polyglot.receiverType, Long.class, null, Integer.class, Integer.class};
+            }
+
+            @Override
+            protected String getOperationName() {
+                return "writeArrayElements";
+            }
+
+            @Specialization(limit = "CACHE_LIMIT")
+            static Object doCached(PolyglotLanguageContext context, Object receiver, Object[] args, //
+                            @CachedLibrary("receiver") InteropLibrary arrays,
+                            @Cached BranchProfile unsupported,
+                            @Cached BranchProfile invalidIndex,
+                            @Cached BranchProfile invalidValue,
+                            @Cached BranchProfile elementWise) {
+                long index = (long) args[ARGUMENT_OFFSET];
+                Object source = args[ARGUMENT_OFFSET + 1];
+                int offset = (int) args[ARGUMENT_OFFSET + 2];
+                int length = (int) args[ARGUMENT_OFFSET + 3];
+                if (!arrays.hasArrayElements(receiver)) {
+                    unsupported.enter();
+                    throw writeArrayElementsUnsupported(context, receiver, source);
+                }
+                try {
+                    arrays.writeArrayElements(receiver, index, source, offset, length);
+                    return null;
+                } catch (UnsupportedMessageException e) {
+                    // no bulk support for this source type
+                    elementWise.enter();
+                } catch (InvalidArrayIndexException e) {
+                    invalidIndex.enter();
+                    throw invalidArrayIndex(context, receiver, e.getInvalidIndex());
+                }
+                for (int i = 0; i < length; i++) {
+                    long elementIndex = index + i;
+                    Object value = loadElement(source, offset + i);
+                    try {
+                        arrays.writeArrayElement(receiver, elementIndex, value);
+                    } catch (UnsupportedMessageException e) {
+                        unsupported.enter();
+                        throw writeArrayElementsUnsupported(context, receiver, source);
+                    } catch (UnsupportedTypeException e) {
+                        invalidValue.enter();
+                        throw invalidArrayValue(context, receiver, elementIndex, value);
+                    } catch (InvalidArrayIndexException e) {
+                        invalidIndex.enter();
+                        throw invalidArrayIndex(context, receiver, elementIndex);
+                    }
+                }
+                return null;
+            }
+
+            private static Object loadElement(Object source, int sourceIndex) {
+                if (source instanceof byte[]) {
+                    return ((byte[]) source)[sourceIndex];
+                } else if (source instanceof int[]) {
+                    return ((int[]) source)[sourceIndex];
+                } else if (source instanceof long[]) {
+                    return ((long[]) source)[sourceIndex];
+                } else if (source instanceof double[]) {
+                    return ((double[]) source)[sourceIndex];
+                } else if (source instanceof short[]) {
+                    return ((short[]) source)[sourceIndex];
+                } else if (source instanceof float[]) {
+                    return ((float[]) source)[sourceIndex];
+                } else {
+                    throw new AssertionError(source.getClass().getTypeName());
+                }
+            }
+        }
+
         abstract static class GetMemberNode extends InteropNode {
 
             protected GetMemberNode(InteropCodeCache interop) {
@@ -2321,6 +2517,16 @@ abstract class PolyglotValue extends AbstractValueImpl {
             return (long) CALL_PROFILED.call(cache.getArraySize, languageContext, receiver);
         }
 
+        @Override
+        public void readArrayElements(Object receiver, long index, Object destination, int offset, int length) {
+            CALL_PROFILED.call(cache.readArrayElements, languageContext, receiver, index, destination, offset, length);
+        }
+
+        @Override
+        public void writeArrayElements(Object receiver, long index, Object source, int offset, int length) {
+            CALL_PROFILED.call(cache.writeArrayElements, languageContext, receiver, index, source, offset, length);
+        }
+
         @Override
         public boolean hasMembers(Object receiver) {
             return (boolean) cache.hasMembers.call(languageContext, receiver);
@@ -0,0 +1,144 @@
+/*
+ * Copyright (c) 2020, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * The Universal Permissive License (UPL), Version 1.0
+ *
+ * Subject to the condition set forth below, permission is hereby granted to any
+ * person obtaining a copy of this software, associated documentation and/or
+ * data (collectively the "Software"), free of charge and under any and all
+ * copyright rights in the Software, and any and all patent rights owned or
+ * freely licensable by each licensor hereunder covering either (i) the
+ * unmodified Software as contributed to or provided by such licensor, or (ii)
+ * the Larger Works (as defined below), to deal in both
+ *
+ * (a) the Software, and
+ *
+ * (b) any piece of software and/or hardware listed in the lrgrwrks.txt file if
+ * one is included with the Software each a "Larger Work" to which the Software
+ * is contributed by such licensors),
+ *
+ * without restriction, including without limitation the rights to copy, create
+ * derivative works of, display, perform, and distribute the Software and make,
+ * use, sell, offer for sale, import, export, have made, and have sold the
+ * Software and the Larger Work(s), and to sublicense the foregoing rights on
+ * either these or other terms.
+ *
+ * This license is subject to the following condition:
+ *
+ * The above copyright notice and either this complete permission notice or at a
+ * minimum a reference to the UPL must be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.oracle.truffle.sl.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.graalvm.polyglot.Context;
+import org.graalvm.polyglot.ContextPool;
+import org.graalvm.polyglot.Engine;
+import org.graalvm.polyglot.PolyglotException;
+import org.graalvm.polyglot.Source;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class SLContextPoolTest {
+
+    private static final Source DEFINE_FOO = Source.create("sl", "function foo() { return 42; }");
+    private static final Source CALL_FOO = Source.create("sl", "function main() { return foo(); }");
+
+    private Engine engine;
+    private ContextPool pool;
+
+    @Before
+    public void createPool() {
+        engine = Engine.create();
+        pool = engine.createContextPool(Context.newBuilder("sl"), 1);
+        pool.prewarm(1, (context) -> context.initialize("sl"));
+    }
+
+    @After
+    public void closePool() {
+        pool.close();
+        engine.close();
+    }
+
+    @Test
+    public void testResetRemovesGuestFunctions() {
+        Context first = pool.acquire();
+        first.eval(DEFINE_FOO);
+        first.eval("sl", "function nanoTime() { return 1; }");
+        assertEquals(42, first.getBindings("sl").getMember("foo").execute().asInt());
+        pool.release(first);
+
+        Context second = pool.acquire();
+        assertSame(first, second);
+        assertFalse(second.getBindings("sl").hasMember("foo"));
+        assertTrue(second.eval("sl", "function main() { return nanoTime() != 1; }").asBoolean());
+
+        // the cached parse result registers its functions again
+        second.eval(DEFINE_FOO);
+        assertEquals(42, second.getBindings("sl").getMember("foo").execute().asInt());
+        pool.release(second);
+    }
+
+    @Test
+    public void testResetUndefinesCachedFunctions() {
+        Context first = pool.acquire();
+        first.eval(DEFINE_FOO);
+        assertEquals(42, first.eval(CALL_FOO).asInt());
+        pool.release(first);
+
+        // the cached parse result still refers to foo, which the reset undefined
+        Context second = pool.acquire();
+        assertSame(first, second);
+        try {
+            second.eval(CALL_FOO);
+            fail();
+        } catch (PolyglotException e) {
+            assertTrue(e.isGuestException());
+            assertTrue(e.getMessage(), e.getMessage().contains("Undefined function: foo"));
+        }
+        second.eval(DEFINE_FOO);
+        assertEquals(42, second.eval(CALL_FOO).asInt());
+        pool.release(second);
+    }
+
+    @Test
+    public void testFullPoolClosesContext() {
+        Context first = pool.acquire();
+        Context second = pool.acquire();
+        assertNotSame(first, second);
+        pool.release(first);
+        pool.release(second);
+        try {
+            second.eval(DEFINE_FOO);
+            fail();
+        } catch (IllegalStateException e) {
+        }
+        assertSame(first, pool.acquire());
+    }
+
+    @Test
+    public void testReleaseForeignContext() {
+        try (Context context = Context.newBuilder("sl").engine(engine).build()) {
+            pool.release(context);
+            fail();
+        } catch (IllegalArgumentException e) {
+        }
+    }
+}
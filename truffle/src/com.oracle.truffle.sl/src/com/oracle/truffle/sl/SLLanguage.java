@@ -208,6 +208,12 @@ public final class SLLanguage extends TruffleLanguage<SLContext> {
         return new SLContext(this, env, new ArrayList<>(EXTERNAL_BUILTINS));
     }
 
+    @Override
+    protected boolean resetContext(SLContext context) {
+        context.reset();
+        return true;
+    }
+
     @Override
     protected CallTarget parse(ParsingRequest request) throws Exception {
         Source source = request.getSource();
@@ -42,8 +42,7 @@ package com.oracle.truffle.sl.nodes;
 
 import java.util.Map;
 
-import com.oracle.truffle.api.CompilerDirectives;
-import com.oracle.truffle.api.CompilerDirectives.CompilationFinal;
+import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.RootCallTarget;
 import com.oracle.truffle.api.frame.VirtualFrame;
 import com.oracle.truffle.api.nodes.DirectCallNode;
@@ -56,7 +55,7 @@ import com.oracle.truffle.sl.runtime.SLNull;
  * This class performs two additional tasks:
  *
  * <ul>
- * <li>Lazily registration of functions on first execution. This fulfills the semantics of
+ * <li>Lazily registration of functions on execution. This fulfills the semantics of
  * "evaluating" source code in SL.</li>
  * <li>Conversion of arguments to types understood by SL. The SL source code can be evaluated from a
  * different language, i.e., the caller can be a node from a different language that uses types not
@@ -66,7 +65,6 @@ import com.oracle.truffle.sl.runtime.SLNull;
 public final class SLEvalRootNode extends RootNode {
 
     private final Map<String, RootCallTarget> functions;
-    @CompilationFinal private boolean registered;
 
     @Child private DirectCallNode mainCallNode;
 
@@ -98,13 +96,12 @@ public final class SLEvalRootNode extends RootNode {
 
     @Override
     public Object execute(VirtualFrame frame) {
-        /* Lazy registrations of functions on first execution. */
-        if (!registered) {
-            /* Function registration is a slow-path operation that must not be compiled. */
-            CompilerDirectives.transferToInterpreterAndInvalidate();
-            lookupContextReference(SLLanguage.class).get().getFunctionRegistry().register(functions);
-            registered = true;
-        }
+        /*
+         * Lazy registrations of functions on execution. The parsed source is shared between
+         * contexts, and contexts may be reset, so the registration is repeated for every
+         * execution. Functions that are already registered are skipped.
+         */
+        registerFunctions(lookupContextReference(SLLanguage.class).get());
 
         if (mainCallNode == null) {
             /* The source code did not have a "main" function, so nothing to execute. */
@@ -118,4 +115,10 @@ public final class SLEvalRootNode extends RootNode {
             return mainCallNode.call(arguments);
         }
     }
+
+    /* Function registration is a slow-path operation that must not be compiled. */
+    @TruffleBoundary
+    private void registerFunctions(SLContext context) {
+        context.getFunctionRegistry().register(functions);
+    }
 }
@@ -44,11 +44,14 @@ import java.io.BufferedReader;
 import java.io.InputStreamReader;
 import java.io.PrintWriter;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import com.oracle.truffle.api.CallTarget;
 import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
+import com.oracle.truffle.api.RootCallTarget;
 import com.oracle.truffle.api.Scope;
 import com.oracle.truffle.api.Truffle;
 import com.oracle.truffle.api.TruffleLanguage;
@@ -101,6 +104,7 @@ public final class SLContext {
     private final BufferedReader input;
     private final PrintWriter output;
     private final SLFunctionRegistry functionRegistry;
+    private final Map<String, RootCallTarget> builtins = new LinkedHashMap<>();
     private final Shape emptyShape;
     private final SLLanguage language;
     private final AllocationReporter allocationReporter;
@@ -155,6 +159,14 @@ public final class SLContext {
         return topScopes;
     }
 
+    /**
+     * Undefines all functions that were defined by guest code, such that the context can be reused
+     * as if it was new. The builtin functions are kept.
+     */
+    public void reset() {
+        functionRegistry.reset(builtins);
+    }
+
     /**
      * Adds all builtin functions to the {@link SLFunctionRegistry}. This method lists all
      * {@link SLBuiltinNode builtin implementation classes}.
@@ -204,7 +216,9 @@ public final class SLContext {
         SLRootNode rootNode = new SLRootNode(language, new FrameDescriptor(), builtinBodyNode, BUILTIN_SOURCE.createUnavailableSection(), name);
 
         /* Register the builtin function in our function registry. */
-        getFunctionRegistry().register(name, Truffle.getRuntime().createCallTarget(rootNode));
+        RootCallTarget callTarget = Truffle.getRuntime().createCallTarget(rootNode);
+        builtins.put(name, callTarget);
+        getFunctionRegistry().register(name, callTarget);
     }
 
     public static NodeInfo lookupNodeInfo(Class<?> clazz) {
@@ -90,6 +90,9 @@ public final class SLFunction implements TruffleObject {
     /** The current implementation of this function. */
     private RootCallTarget callTarget;
 
+    /** The implementation of this function while it is not defined. */
+    private final RootCallTarget undefinedCallTarget;
+
     /**
      * Manages the assumption that the {@link #callTarget} is stable. We use the utility class
      * {@link CyclicAssumption}, which automatically creates a new {@link Assumption} when the old
@@ -99,7 +102,8 @@ public final class SLFunction implements TruffleObject {
 
     protected SLFunction(SLLanguage language, String name) {
         this.name = name;
-        this.callTarget = Truffle.getRuntime().createCallTarget(new SLUndefinedFunctionRootNode(language, name));
+        this.undefinedCallTarget = Truffle.getRuntime().createCallTarget(new SLUndefinedFunctionRootNode(language, name));
+        this.callTarget = undefinedCallTarget;
         this.callTargetStable = new CyclicAssumption(name);
     }
 
@@ -117,6 +121,16 @@ public final class SLFunction implements TruffleObject {
         callTargetStable.invalidate();
     }
 
+    /**
+     * Discards the implementation of this function, such that calling it fails as if it was never
+     * defined.
+     */
+    protected void undefine() {
+        if (callTarget != undefinedCallTarget) {
+            setCallTarget(undefinedCallTarget);
+        }
+    }
+
     public RootCallTarget getCallTarget() {
         return callTarget;
     }
@@ -43,6 +43,8 @@ package com.oracle.truffle.sl.runtime;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 
@@ -60,6 +62,13 @@ public final class SLFunctionRegistry {
     private final SLLanguage language;
     private final FunctionsObject functionsObject = new FunctionsObject();
 
+    /**
+     * Functions that were removed by {@link #reset}. They are reused when a function of the same
+     * name is looked up again, because AST nodes that were created for an earlier use of the
+     * context cache the function objects.
+     */
+    private final Map<String, SLFunction> undefinedFunctions = new HashMap<>();
+
     public SLFunctionRegistry(SLLanguage language) {
         this.language = language;
     }
@@ -71,7 +80,10 @@ public final class SLFunctionRegistry {
     public SLFunction lookup(String name, boolean createIfNotPresent) {
         SLFunction result = functionsObject.functions.get(name);
         if (result == null && createIfNotPresent) {
-            result = new SLFunction(language, name);
+            result = undefinedFunctions.remove(name);
+            if (result == null) {
+                result = new SLFunction(language, name);
+            }
             functionsObject.functions.put(name, result);
         }
         return result;
@@ -90,8 +102,30 @@ public final class SLFunctionRegistry {
 
     public void register(Map<String, RootCallTarget> newFunctions) {
         for (Map.Entry<String, RootCallTarget> entry : newFunctions.entrySet()) {
-            register(entry.getKey(), entry.getValue());
+            SLFunction function = lookup(entry.getKey(), true);
+            if (function.getCallTarget() != entry.getValue()) {
+                function.setCallTarget(entry.getValue());
+            }
+        }
+    }
+
+    /**
+     * Removes all functions except the given ones, and restores the implementation of the given
+     * functions in case they were redefined. The removed functions are undefined, but their
+     * function objects are kept, so that cached references to them fail like calls to a function
+     * that was never defined.
+     */
+    public void reset(Map<String, RootCallTarget> retainedFunctions) {
+        Iterator<SLFunction> functions = functionsObject.functions.values().iterator();
+        while (functions.hasNext()) {
+            SLFunction function = functions.next();
+            if (!retainedFunctions.containsKey(function.getName())) {
+                function.undefine();
+                undefinedFunctions.put(function.getName(), function);
+                functions.remove();
+            }
         }
+        register(retainedFunctions);
     }
 
     public void register(Source newFunctions) {
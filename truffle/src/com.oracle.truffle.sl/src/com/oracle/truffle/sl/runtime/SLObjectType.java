@@ -40,11 +40,8 @@
  */
 package com.oracle.truffle.sl.runtime;
 
-import com.oracle.truffle.api.CompilerAsserts;
-import com.oracle.truffle.api.CompilerDirectives;
 import com.oracle.truffle.api.CompilerDirectives.TruffleBoundary;
 import com.oracle.truffle.api.dsl.Cached;
-import com.oracle.truffle.api.dsl.GenerateUncached;
 import com.oracle.truffle.api.dsl.Specialization;
 import com.oracle.truffle.api.interop.InteropLibrary;
 import com.oracle.truffle.api.interop.InvalidArrayIndexException;
@@ -54,17 +51,17 @@ import com.oracle.truffle.api.library.CachedLibrary;
 import com.oracle.truffle.api.library.ExportLibrary;
 import com.oracle.truffle.api.library.ExportMessage;
 import com.oracle.truffle.api.object.DynamicObject;
-import com.oracle.truffle.api.object.FinalLocationException;
-import com.oracle.truffle.api.object.IncompatibleLocationException;
-import com.oracle.truffle.api.object.Location;
+import com.oracle.truffle.api.object.DynamicObjectLibrary;
 import com.oracle.truffle.api.object.ObjectType;
-import com.oracle.truffle.api.object.Property;
 import com.oracle.truffle.api.object.Shape;
 
+/**
+ * Interop messages of SL objects. Property access is delegated to {@link DynamicObjectLibrary},
+ * which maintains the polymorphic inline cache over shapes and property names.
+ */
 @ExportLibrary(value = InteropLibrary.class, receiverType = DynamicObject.class)
 public final class SLObjectType extends ObjectType {
 
-    protected static final int CACHE_LIMIT = 3;
     public static final ObjectType SINGLETON = new SLObjectType();
 
     private SLObjectType() {
@@ -82,10 +79,9 @@ public final class SLObjectType extends ObjectType {
     }
 
     @ExportMessage
-    static boolean removeMember(DynamicObject receiver, String member) throws UnknownIdentifierException {
-        if (receiver.containsKey(member)) {
-            return receiver.delete(member);
-        } else {
+    static void removeMember(DynamicObject receiver, String member,
+                    @CachedLibrary("receiver") DynamicObjectLibrary objectLibrary) throws UnknownIdentifierException {
+        if (!objectLibrary.removeKey(receiver, member)) {
             throw UnknownIdentifierException.create(member);
         }
     }
@@ -111,23 +107,9 @@ public final class SLObjectType extends ObjectType {
     @ExportMessage(name = "isMemberReadable")
     @ExportMessage(name = "isMemberModifiable")
     @ExportMessage(name = "isMemberRemovable")
-    @SuppressWarnings("unused")
-    static class ExistsMember {
-
-        @Specialization(guards = {"receiver.getShape() == cachedShape", "cachedMember.equals(member)"})
-        static boolean doCached(DynamicObject receiver, String member,
-                        @Cached("receiver.getShape()") Shape cachedShape,
-                        @Cached("member") String cachedMember,
-                        @Cached("doGeneric(receiver, member)") boolean cachedResult) {
-            assert cachedResult == doGeneric(receiver, member);
-            return cachedResult;
-        }
-
-        @Specialization(replaces = "doCached")
-        @TruffleBoundary
-        static boolean doGeneric(DynamicObject receiver, String member) {
-            return receiver.getShape().getProperty(member) != null;
-        }
+    static boolean existsMember(DynamicObject receiver, String member,
+                    @CachedLibrary("receiver") DynamicObjectLibrary objectLibrary) {
+        return objectLibrary.containsKey(receiver, member);
     }
 
     @ExportMessage
@@ -137,10 +119,6 @@ public final class SLObjectType extends ObjectType {
         return !receivers.isMemberExisting(receiver, member);
     }
 
-    static boolean shapeCheck(Shape shape, DynamicObject receiver) {
-        return shape != null && shape.check(receiver);
-    }
-
     @ExportLibrary(InteropLibrary.class)
     static final class Keys implements TruffleObject {
 
@@ -175,195 +153,20 @@ public final class SLObjectType extends ObjectType {
         }
     }
 
-    @GenerateUncached
     @ExportMessage
-    abstract static class ReadMember {
-
-        /**
-         * Polymorphic inline cache for a limited number of distinct property names and shapes.
-         */
-        @Specialization(limit = "CACHE_LIMIT", //
-                        guards = {
-                                        "receiver.getShape() == cachedShape",
-                                        "cachedName.equals(name)"
-                        }, //
-                        assumptions = "cachedShape.getValidAssumption()")
-        static Object readCached(DynamicObject receiver, @SuppressWarnings("unused") String name,
-                        @SuppressWarnings("unused") @Cached("name") String cachedName,
-                        @Cached("receiver.getShape()") Shape cachedShape,
-                        @Cached("lookupLocation(cachedShape, name)") Location location) {
-            return location.get(receiver, cachedShape);
-        }
-
-        static Location lookupLocation(Shape shape, String name) throws UnknownIdentifierException {
-            /* Initialization of cached values always happens in a slow path. */
-            CompilerAsserts.neverPartOfCompilation();
-
-            Property property = shape.getProperty(name);
-            if (property == null) {
-                /* Property does not exist. */
-                throw UnknownIdentifierException.create(name);
-            }
-
-            return property.getLocation();
-        }
-
-        /**
-         * The generic case is used if the number of shapes accessed overflows the limit of the
-         * polymorphic inline cache.
-         */
-        @TruffleBoundary
-        @Specialization(replaces = {"readCached"}, guards = "receiver.getShape().isValid()")
-        static Object readUncached(DynamicObject receiver, String name) throws UnknownIdentifierException {
-            Object result = receiver.get(name);
-            if (result == null) {
-                /* Property does not exist. */
-                throw UnknownIdentifierException.create(name);
-            }
-            return result;
-        }
-
-        @Specialization(guards = "!receiver.getShape().isValid()")
-        static Object updateShape(DynamicObject receiver, String name) throws UnknownIdentifierException {
-            CompilerDirectives.transferToInterpreter();
-            receiver.updateShape();
-            return readUncached(receiver, name);
-        }
+    static Object readMember(DynamicObject receiver, String name,
+                    @CachedLibrary("receiver") DynamicObjectLibrary objectLibrary) throws UnknownIdentifierException {
+        Object result = objectLibrary.getOrDefault(receiver, name, null);
+        if (result == null) {
+            /* Property does not exist. */
+            throw UnknownIdentifierException.create(name);
+        }
+        return result;
     }
 
-    @GenerateUncached
     @ExportMessage
-    abstract static class WriteMember {
-
-        /**
-         * Polymorphic inline cache for writing a property that already exists (no shape change is
-         * necessary).
-         */
-        @Specialization(limit = "CACHE_LIMIT", //
-                        guards = {
-                                        "cachedName.equals(name)",
-                                        "shapeCheck(shape, receiver)",
-                                        "location != null",
-                                        "canSet(location, value)"
-                        }, //
-                        assumptions = {
-                                        "shape.getValidAssumption()"
-                        })
-        static void writeExistingPropertyCached(DynamicObject receiver, @SuppressWarnings("unused") String name, Object value,
-                        @SuppressWarnings("unused") @Cached("name") String cachedName,
-                        @Cached("receiver.getShape()") Shape shape,
-                        @Cached("lookupLocation(shape, name, value)") Location location) {
-            try {
-                location.set(receiver, value, shape);
-
-            } catch (IncompatibleLocationException | FinalLocationException ex) {
-                /* Our guards ensure that the value can be stored, so this cannot happen. */
-                throw new IllegalStateException(ex);
-            }
-        }
-
-        /**
-         * Polymorphic inline cache for writing a property that does not exist yet (shape change is
-         * necessary).
-         */
-        @Specialization(limit = "CACHE_LIMIT", //
-                        guards = {
-                                        "cachedName.equals(name)",
-                                        "receiver.getShape() == oldShape",
-                                        "oldLocation == null",
-                                        "canStore(newLocation, value)"
-                        }, //
-                        assumptions = {
-                                        "oldShape.getValidAssumption()",
-                                        "newShape.getValidAssumption()"
-                        })
-        @SuppressWarnings("unused")
-        static void writeNewPropertyCached(DynamicObject receiver, String name, Object value,
-                        @Cached("name") String cachedName,
-                        @Cached("receiver.getShape()") Shape oldShape,
-                        @Cached("lookupLocation(oldShape, name, value)") Location oldLocation,
-                        @Cached("defineProperty(oldShape, name, value)") Shape newShape,
-                        @Cached("lookupLocation(newShape, name)") Location newLocation) {
-            try {
-                newLocation.set(receiver, value, oldShape, newShape);
-
-            } catch (IncompatibleLocationException ex) {
-                /* Our guards ensure that the value can be stored, so this cannot happen. */
-                throw new IllegalStateException(ex);
-            }
-        }
-
-        /** Try to find the given property in the shape. */
-        static Location lookupLocation(Shape shape, String name) {
-            CompilerAsserts.neverPartOfCompilation();
-
-            Property property = shape.getProperty(name);
-            if (property == null) {
-                /* Property does not exist yet, so a shape change is necessary. */
-                return null;
-            }
-
-            return property.getLocation();
-        }
-
-        /**
-         * Try to find the given property in the shape. Also returns null when the value cannot be
-         * store into the location.
-         */
-        static Location lookupLocation(Shape shape, String name, Object value) {
-            Location location = lookupLocation(shape, name);
-            if (location == null || !location.canSet(value)) {
-                /* Existing property has an incompatible type, so a shape change is necessary. */
-                return null;
-            }
-
-            return location;
-        }
-
-        static Shape defineProperty(Shape oldShape, String name, Object value) {
-            return oldShape.defineProperty(name, value, 0);
-        }
-
-        /**
-         * There is a subtle difference between {@link Location#canSet} and
-         * {@link Location#canStore}. We need {@link Location#canSet} for the guard of
-         * {@link #writeExistingPropertyCached} because there we call {@link Location#set}. We use
-         * the more relaxed {@link Location#canStore} for the guard of
-         * {@link SLWritePropertyCacheNode#writeNewPropertyCached} because there we perform a shape
-         * transition, i.e., we are not actually setting the value of the new location - we only
-         * transition to this location as part of the shape change.
-         */
-        static boolean canSet(Location location, Object value) {
-            return location.canSet(value);
-        }
-
-        /** See {@link #canSet} for the difference between the two methods. */
-        static boolean canStore(Location location, Object value) {
-            return location.canStore(value);
-        }
-
-        /**
-         * The generic case is used if the number of shapes accessed overflows the limit of the
-         * polymorphic inline cache.
-         */
-        @TruffleBoundary
-        @Specialization(replaces = {"writeExistingPropertyCached", "writeNewPropertyCached"}, guards = {"receiver.getShape().isValid()"})
-        static void writeUncached(DynamicObject receiver, String name, Object value) {
-            receiver.define(name, value);
-        }
-
-        @TruffleBoundary
-        @Specialization(guards = {"!receiver.getShape().isValid()"})
-        static void updateShape(DynamicObject receiver, String name, Object value) {
-            /*
-             * Slow path that we do not handle in compiled code. But no need to invalidate compiled
-             * code.
-             */
-            CompilerDirectives.transferToInterpreter();
-            receiver.updateShape();
-            writeUncached(receiver, name, value);
-        }
-
+    static void writeMember(DynamicObject receiver, String name, Object value,
+                    @CachedLibrary("receiver") DynamicObjectLibrary objectLibrary) {
+        objectLibrary.put(receiver, name, value);
     }
-
 }